@@ -32,7 +32,11 @@ CREATE TABLE `auction` (
   `sellerID` int NOT NULL,
   `buyerID` int DEFAULT NULL,
   PRIMARY KEY (`auctionID`),
-  UNIQUE KEY `auctionID_UNIQUE` (`auctionID`)
+  UNIQUE KEY `auctionID_UNIQUE` (`auctionID`),
+  KEY `auctionStartTime_IDX` (`auctionStartTime`),
+  KEY `auctionEndTime_IDX` (`auctionEndTime`),
+  KEY `auctionCurrentHighestBid_IDX` (`auctionCurrentHighestBid`),
+  KEY `auctionStatus_IDX` (`auctionStatus`)
 ) ENGINE=InnoDB AUTO_INCREMENT=35 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -29,7 +29,8 @@ CREATE TABLE `bid` (
   `auctionID` int NOT NULL,
   `buyerID` int NOT NULL,
   PRIMARY KEY (`bidID`),
-  UNIQUE KEY `bidID_UNIQUE` (`bidID`)
+  UNIQUE KEY `bidID_UNIQUE` (`bidID`),
+  KEY `auctionID_IDX` (`auctionID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=59 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -30,7 +30,8 @@ CREATE TABLE `payment` (
   `buyerID` int NOT NULL,
   `sellerID` int NOT NULL,
   PRIMARY KEY (`paymentID`),
-  UNIQUE KEY `paymentID_UNIQUE` (`paymentID`)
+  UNIQUE KEY `paymentID_UNIQUE` (`paymentID`),
+  UNIQUE KEY `auctionID_UNIQUE` (`auctionID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=17 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
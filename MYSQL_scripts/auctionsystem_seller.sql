@@ -25,6 +25,7 @@ DROP TABLE IF EXISTS `seller`;
 CREATE TABLE `seller` (
   `sellerID` int NOT NULL,
   `earnings` decimal(10,2) DEFAULT '0.00',
+  `pendingEarnings` decimal(10,2) DEFAULT '0.00',
   PRIMARY KEY (`sellerID`),
   UNIQUE KEY `sellerID_UNIQUE` (`sellerID`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,22 @@
+-- Upgrades a database created from the earlier MYSQL_scripts/ to the current schema.
+-- Run it once, then import the scripts of the tables it does not have yet (see readme.md).
+--
+-- The payment table gets a unique key on auctionID, so an auction can only be settled once.
+-- The ALTER fails if an auction already has several payments; list them first with
+--   SELECT auctionID, COUNT(*) FROM payment GROUP BY auctionID HAVING COUNT(*) > 1;
+-- and delete the extra rows before running this script.
+
+ALTER TABLE `auction`
+  ADD KEY `auctionStartTime_IDX` (`auctionStartTime`),
+  ADD KEY `auctionEndTime_IDX` (`auctionEndTime`),
+  ADD KEY `auctionCurrentHighestBid_IDX` (`auctionCurrentHighestBid`),
+  ADD KEY `auctionStatus_IDX` (`auctionStatus`);
+
+ALTER TABLE `bid`
+  ADD KEY `auctionID_IDX` (`auctionID`);
+
+ALTER TABLE `payment`
+  ADD UNIQUE KEY `auctionID_UNIQUE` (`auctionID`);
+
+ALTER TABLE `seller`
+  ADD COLUMN `pendingEarnings` decimal(10,2) DEFAULT '0.00' AFTER `earnings`;
@@ -0,0 +1,230 @@
+package com.DAO;
+
+import com.Entities.Auction;
+import com.Entities.Bid;
+import com.Entities.Payment;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) for the archive tier: auction_archive, bid_archive and payment_archive.
+ *
+ * <p>The archive tables have the columns of auction, bid and payment plus the time the row was
+ * archived. ArchiveService moves finished auctions into them in batches, using
+ * {@link #findArchivableAuctionIDs}, {@link #copyToArchive} and {@link #deleteFromHotTables} in one
+ * transaction per batch. The read methods are used by the hot-table DAOs when a row is not found
+ * there, so callers see both tiers without knowing where a row lives.</p>
+ */
+public class ArchiveDAO {
+
+    /**
+     * Selects and locks a batch of auctions that can be archived: FINISHED or CLOSED, ended before
+     * the cutoff, and with no payment that is still outstanding.
+     *
+     * @param con the connection of the surrounding transaction (auto-commit disabled)
+     * @param cutoff auctions that ended before this time are eligible
+     * @param limit the maximum number of auctions in the batch
+     * @return the auctionIDs of the batch, in ascending order
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Integer> findArchivableAuctionIDs(Connection con, LocalDateTime cutoff, int limit) throws SQLException {
+        List<Integer> auctionIDs = new ArrayList<>();
+        String sql = "SELECT a.auctionID FROM auction a WHERE a.auctionStatus IN ('FINISHED', 'CLOSED') "
+                + "AND a.auctionEndTime < ? "
+                + "AND NOT EXISTS (SELECT 1 FROM payment p WHERE p.auctionID = a.auctionID AND p.paymentStatus <> 'COMPLETED') "
+                + "ORDER BY a.auctionID LIMIT ? FOR UPDATE";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setTimestamp(1, Timestamp.valueOf(cutoff));
+            pstat.setInt(2, limit);
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    auctionIDs.add(rs.getInt("auctionID"));
+                }
+            }
+        }
+        return auctionIDs;
+    }
+
+    /**
+     * Copies auctions with their bids and payments into the archive tables.
+     *
+     * @param con the connection of the surrounding transaction (auto-commit disabled)
+     * @param auctionIDs the auctions to copy
+     * @throws SQLException if a database access error occurs during the inserts
+     */
+    public static void copyToArchive(Connection con, List<Integer> auctionIDs) throws SQLException {
+        String in = inClause(auctionIDs.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String[] statements = {
+            "INSERT INTO auction_archive (auctionID, auctionStartTime, auctionEndTime, auctionCurrentHighestBid, "
+                + "auctionStatus, itemID, sellerID, buyerID, archivedAt) "
+                + "SELECT auctionID, auctionStartTime, auctionEndTime, auctionCurrentHighestBid, auctionStatus, itemID, "
+                + "sellerID, buyerID, ? FROM auction WHERE auctionID" + in,
+            "INSERT INTO bid_archive (bidID, bidAmount, bidTime, auctionID, buyerID, archivedAt) "
+                + "SELECT bidID, bidAmount, bidTime, auctionID, buyerID, ? FROM bid WHERE auctionID" + in,
+            "INSERT INTO payment_archive (paymentID, paymentAmount, paymentStatus, auctionID, buyerID, sellerID, archivedAt) "
+                + "SELECT paymentID, paymentAmount, paymentStatus, auctionID, buyerID, sellerID, ? FROM payment WHERE auctionID" + in
+        };
+
+        for (String sql : statements) {
+            try (PreparedStatement pstat = con.prepareStatement(sql)) {
+                pstat.setTimestamp(1, now);
+                bind(pstat, 2, auctionIDs);
+                pstat.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Deletes archived auctions, their bids, payments and auto-bids from the hot tables.
+     *
+     * @param con the connection of the surrounding transaction (auto-commit disabled)
+     * @param auctionIDs the auctions to delete
+     * @throws SQLException if a database access error occurs during the deletes
+     */
+    public static void deleteFromHotTables(Connection con, List<Integer> auctionIDs) throws SQLException {
+        String in = inClause(auctionIDs.size());
+        // Children first, the auction rows last.
+        String[] statements = {
+            "DELETE FROM bid WHERE auctionID" + in,
+            "DELETE FROM payment WHERE auctionID" + in,
+            "DELETE FROM proxy_bid WHERE auctionID" + in,
+            "DELETE FROM bid_request WHERE auctionID" + in,
+            "DELETE FROM auction WHERE auctionID" + in
+        };
+
+        for (String sql : statements) {
+            try (PreparedStatement pstat = con.prepareStatement(sql)) {
+                bind(pstat, 1, auctionIDs);
+                pstat.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Retrieves an archived auction by its ID.
+     *
+     * @param con the connection to read with
+     * @param auctionID the unique identifier of the auction
+     * @return the Auction, or null if it is not archived
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Auction getArchivedAuctionByID(Connection con, int auctionID) throws SQLException {
+        String sql = "SELECT * FROM auction_archive WHERE auctionID = ?";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setInt(1, auctionID);
+            try (ResultSet rs = pstat.executeQuery()) {
+                return rs.next() ? readAuction(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Retrieves all archived auctions. Only used when a caller explicitly asks for both tiers.
+     *
+     * @param con the connection to read with
+     * @return a List of the archived auctions
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Auction> getArchivedAuctions(Connection con) throws SQLException {
+        List<Auction> auctions = new ArrayList<>();
+
+        try (PreparedStatement pstat = con.prepareStatement("SELECT * FROM auction_archive");
+             ResultSet rs = pstat.executeQuery()) {
+            while (rs.next()) {
+                auctions.add(readAuction(rs));
+            }
+        }
+        return auctions;
+    }
+
+    /**
+     * Retrieves the archived bids of an auction.
+     *
+     * @param con the connection to read with
+     * @param auctionID the ID of the auction
+     * @return a List of the auction's archived bids, empty if it is not archived
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Bid> getArchivedBidsByAuctionID(Connection con, int auctionID) throws SQLException {
+        List<Bid> bids = new ArrayList<>();
+        String sql = "SELECT * FROM bid_archive WHERE auctionID = ?";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setInt(1, auctionID);
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    Bid bid = new Bid();
+                    bid.setBidID(rs.getInt("bidID"));
+                    bid.setBidAmount(rs.getDouble("bidAmount"));
+                    bid.setBidTime(rs.getTimestamp("bidTime").toLocalDateTime());
+                    bid.setAuctionID(rs.getInt("auctionID"));
+                    bid.setBuyerID(rs.getInt("buyerID"));
+                    bids.add(bid);
+                }
+            }
+        }
+        return bids;
+    }
+
+    /**
+     * Retrieves an archived payment by its ID.
+     *
+     * @param con the connection to read with
+     * @param paymentID the unique identifier of the payment
+     * @return the Payment, or null if it is not archived
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Payment getArchivedPaymentByID(Connection con, int paymentID) throws SQLException {
+        String sql = "SELECT * FROM payment_archive WHERE paymentID = ?";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setInt(1, paymentID);
+            try (ResultSet rs = pstat.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Payment payment = new Payment();
+                payment.setPaymentID(rs.getInt("paymentID"));
+                payment.setPaymentAmount(rs.getDouble("paymentAmount"));
+                payment.setPaymentStatus(rs.getString("paymentStatus"));
+                payment.setAuctionID(rs.getInt("auctionID"));
+                payment.setBuyerID(rs.getInt("buyerID"));
+                payment.setSellerID(rs.getInt("sellerID"));
+                return payment;
+            }
+        }
+    }
+
+    private static Auction readAuction(ResultSet rs) throws SQLException {
+        Auction auction = new Auction();
+        auction.setAuctionID(rs.getInt("auctionID"));
+        auction.setAuctionStartTime(rs.getTimestamp("auctionStartTime").toLocalDateTime());
+        auction.setAuctionEndTime(rs.getTimestamp("auctionEndTime").toLocalDateTime());
+        auction.setAuctionCurrentHighestBid(rs.getDouble("auctionCurrentHighestBid"));
+        auction.setAuctionStatus(rs.getString("auctionStatus"));
+        auction.setItemID(rs.getInt("itemID"));
+        auction.setSellerID(rs.getInt("sellerID"));
+        auction.setBuyerID(rs.getInt("buyerID"));
+        return auction;
+    }
+
+    private static String inClause(int count) {
+        StringBuilder sb = new StringBuilder(" IN (");
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.append(")").toString();
+    }
+
+    private static void bind(PreparedStatement pstat, int firstIndex, List<Integer> auctionIDs) throws SQLException {
+        int index = firstIndex;
+        for (int auctionID : auctionIDs) {
+            pstat.setInt(index++, auctionID);
+        }
+    }
+}
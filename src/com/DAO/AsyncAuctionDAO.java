@@ -0,0 +1,28 @@
+package com.DAO;
+
+import com.Entities.Auction;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over the read methods of AuctionDAO, run on the AsyncDAO worker pool.
+ */
+public class AsyncAuctionDAO {
+
+    /**
+     * @param auctionID the unique identifier of the auction
+     * @return a future of the Auction, or of null if not found
+     * @see AuctionDAO#getAuctionByID(int)
+     */
+    public static CompletableFuture<Auction> getAuctionByID(int auctionID) {
+        return AsyncDAO.supply(() -> AuctionDAO.getAuctionByID(auctionID));
+    }
+
+    /**
+     * @return a future of all auctions with status STARTED
+     * @see AuctionDAO#getAllStartedAuctions()
+     */
+    public static CompletableFuture<List<Auction>> getAllStartedAuctions() {
+        return AsyncDAO.supply(AuctionDAO::getAllStartedAuctions);
+    }
+}
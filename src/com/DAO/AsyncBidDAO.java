@@ -0,0 +1,20 @@
+package com.DAO;
+
+import com.Entities.Bid;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over the read methods of BidDAO, run on the AsyncDAO worker pool.
+ */
+public class AsyncBidDAO {
+
+    /**
+     * @param auctionID the ID of the auction
+     * @return a future of the auction's bids
+     * @see BidDAO#getAllBidsByAuctionID(int)
+     */
+    public static CompletableFuture<List<Bid>> getAllBidsByAuctionID(int auctionID) {
+        return AsyncDAO.supply(() -> BidDAO.getAllBidsByAuctionID(auctionID));
+    }
+}
@@ -0,0 +1,125 @@
+package com.DAO;
+
+import com.Database.DBConnector;
+import com.Database.DatabaseConfig;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs DAO calls on a small, bounded pool of worker threads and returns CompletableFutures.
+ *
+ * <p>The DAO classes are blocking and, apart from the methods taking a Connection, use
+ * DBConnector.getConnection(). Each worker binds its own connection (see
+ * DBConnector.bindThreadConnection), so independent queries submitted together run in parallel
+ * and never interleave with the shared connection used on the Swing thread.</p>
+ *
+ * <p>Every future times out after DEFAULT_TIMEOUT_MILLIS unless the caller chooses another limit with
+ * {@link #supply(SqlSupplier, long)}. A future that is cancelled or timed out before its worker
+ * picks it up never runs its query; a query that has already started finishes on its worker and its
+ * result is discarded. When the queue is full the future fails at once with a
+ * RejectedExecutionException instead of blocking the caller.</p>
+ */
+public class AsyncDAO {
+
+    // Overridable with -Dauction.async.timeoutMillis=...; the pool size and queue length are
+    // pool.threads and pool.queueSize in database.properties.
+    public static final long DEFAULT_TIMEOUT_MILLIS = Long.getLong("auction.async.timeoutMillis", 10_000);
+
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+    private static final ThreadPoolExecutor executor = createExecutor();
+
+    private static ThreadPoolExecutor createExecutor() {
+        int threads = 4;
+        int queueSize = 256;
+        try {
+            threads = DatabaseConfig.get().getPoolThreads();
+            queueSize = DatabaseConfig.get().getPoolQueueSize();
+        } catch (IllegalStateException e) {
+            // Keep the defaults; every query reports the configuration error when it connects.
+        }
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(() -> {
+                        DBConnector.bindThreadConnection();
+                        try {
+                            r.run();
+                        } finally {
+                            DBConnector.releaseThreadConnection();
+                        }
+                    }, "dao-async-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Idle workers exit and close their connections.
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * A DAO call that may throw SQLException.
+     */
+    @FunctionalInterface
+    public interface SqlSupplier<T> {
+        T get() throws SQLException;
+    }
+
+    /**
+     * Runs a DAO call on the worker pool with the default timeout.
+     *
+     * @param call the blocking call
+     * @return a future completed with the call's result, or exceptionally with its SQLException,
+     *         a TimeoutException or a RejectedExecutionException
+     */
+    public static <T> CompletableFuture<T> supply(SqlSupplier<T> call) {
+        return supply(call, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Runs a DAO call on the worker pool.
+     *
+     * @param call the blocking call
+     * @param timeoutMillis how long to wait before the future fails with a TimeoutException
+     * @return a future completed with the call's result, or exceptionally with its SQLException,
+     *         a TimeoutException or a RejectedExecutionException
+     */
+    public static <T> CompletableFuture<T> supply(SqlSupplier<T> call, long timeoutMillis) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return; // cancelled or timed out while queued
+                }
+                try {
+                    future.complete(call.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        return future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Unwraps the exception a future failed with, for error messages.
+     *
+     * @param e the exception from join(), get() or a completion stage
+     * @return the underlying cause
+     */
+    public static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException)
+                && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
@@ -0,0 +1,19 @@
+package com.DAO;
+
+import com.Entities.Item;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over the read methods of ItemDAO, run on the AsyncDAO worker pool.
+ */
+public class AsyncItemDAO {
+
+    /**
+     * @param itemID the unique identifier of the item
+     * @return a future of the Item, or of null if not found
+     * @see ItemDAO#getItemByID(int)
+     */
+    public static CompletableFuture<Item> getItemByID(int itemID) {
+        return AsyncDAO.supply(() -> ItemDAO.getItemByID(itemID));
+    }
+}
@@ -0,0 +1,19 @@
+package com.DAO;
+
+import com.Entities.Payment;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over the read methods of PaymentDAO, run on the AsyncDAO worker pool.
+ */
+public class AsyncPaymentDAO {
+
+    /**
+     * @param auctionID the ID of the auction
+     * @return a future of the auction's Payment, or of null if it has none
+     * @see PaymentDAO#getPaymentByAuctionID(int)
+     */
+    public static CompletableFuture<Payment> getPaymentByAuctionID(int auctionID) {
+        return AsyncDAO.supply(() -> PaymentDAO.getPaymentByAuctionID(auctionID));
+    }
+}
@@ -1,21 +1,49 @@
 package com.DAO;
 
 import com.Database.DBConnector;
+import com.Database.ReadConsistency;
+import com.Database.ReplicaRouter;
+import com.Database.ShardRouter;
 import com.Entities.Auction;
+import com.Services.AuctionIndex;
+import com.Services.CatalogueService;
+import com.Services.OutboxService;
+import com.Services.SearchService;
+import com.Services.SketchService;
+import com.Services.StatisticsService;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Data Access Object (DAO) for performing CRUD operations on Auction records.
+ *
+ * <p>With shards configured (see ShardRouter), a single auction is read and written on its own
+ * shard, new auctions get a key naming a random bucket, and the listings query every shard and
+ * merge the results.</p>
  */
 public class AuctionDAO {
 
+    // Columns the admin views may sort on; anything else is rejected to keep ORDER BY injection-free.
+    public static final List<String> SORTABLE_COLUMNS = List.of(
+            "auctionID", "auctionStartTime", "auctionEndTime", "auctionCurrentHighestBid", "auctionStatus");
+    // Placeholders per IN list when auctions are read by their IDs
+    private static final int IDS_PER_QUERY = 1000;
+
     /**
      * Creates a new auction record in the database.
      *
      * <p>This method inserts a new auction record with details such as the start time,
-     * end time, current highest bid, status, item ID, seller ID, and buyer ID.</p>
+     * end time, current highest bid, status, item ID, seller ID, and buyer ID. The generated
+     * auctionID is set in the Auction object. The insert and its outbox event are committed together,
+     * on the shard of the new auction's bucket.</p>
      *
      * @param auction the Auction object containing auction details
      * @throws SQLException if a database access error occurs during insertion
@@ -23,11 +51,20 @@ public class AuctionDAO {
     public static void createAuction(Auction auction) throws SQLException {
         Connection con = null;
         PreparedStatement pstat = null;
-        String sql = "INSERT INTO auction (auctionStartTime, auctionEndTime, auctionCurrentHighestBid, auctionStatus, itemID, sellerID, buyerID) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        ResultSet generatedKeys = null;
+        boolean sharded = ShardRouter.isSharded();
+        String sql = insertSql(sharded);
 
         try {
-            con = DBConnector.getConnection();
-            pstat = con.prepareStatement(sql);
+            int shard = 0;
+            if (sharded) {
+                int bucket = ShardRouter.newBucket();
+                auction.setAuctionID(ShardRouter.nextKey("auction", "auctionID", bucket));
+                shard = ShardRouter.shardOfBucket(bucket);
+            }
+            con = DBConnector.getShardConnection(shard);
+            con.setAutoCommit(false);
+            pstat = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
 
             pstat.setTimestamp(1, Timestamp.valueOf(auction.getAuctionStartTime()));
             pstat.setTimestamp(2, Timestamp.valueOf(auction.getAuctionEndTime()));
@@ -36,15 +73,35 @@ public class AuctionDAO {
             pstat.setInt(5, auction.getItemID());
             pstat.setInt(6, auction.getSellerID());
             pstat.setInt(7, auction.getBuyerID());
+            if (sharded) {
+                pstat.setInt(8, auction.getAuctionID());
+            }
 
             int i = pstat.executeUpdate();
             System.out.println(i + " Auction successfully added to the table");
+            if (i > 0) {
+                generatedKeys = pstat.getGeneratedKeys();
+                if (!sharded && generatedKeys.next()) {
+                    auction.setAuctionID(generatedKeys.getInt(1));
+                }
+                OutboxDAO.appendEvents(con, List.of(OutboxService.auctionEvent(OutboxService.AUCTION_CREATED, auction)));
+            }
+            con.commit();
+            ReplicaRouter.recordWrite();
+            if (i > 0) {
+                SearchService.onAuctionSaved(auction);
+                AuctionIndex.onAuctionSaved(auction);
+                StatisticsService.onAuctionSaved(auction);
+            }
         } catch (Exception e) {
             System.err.println("Error creating auction: " + e.getMessage());
             e.printStackTrace();
+            rollback(con);
         } finally {
             try {
+                if (generatedKeys != null) generatedKeys.close();
                 if (pstat != null) pstat.close();
+                if (con != null) con.setAutoCommit(true);
                 //if (con != null) con.close();
             } catch (SQLException e) {
                 System.err.println("Error closing resources: " + e.getMessage());
@@ -52,11 +109,85 @@ public class AuctionDAO {
         }
     }
 
+    /**
+     * Inserts many auction records as one JDBC batch.
+     *
+     * <p>With rewriteBatchedStatements enabled on the connection URL the driver sends the batch as
+     * multi-row INSERT statements. The caller owns the transaction and commits. With shards configured
+     * the auctions must already have their keys and all belong to the connection's shard (see
+     * {@link #assignShards(List)}).</p>
+     *
+     * @param con the connection of the surrounding transaction
+     * @param auctions the Auction objects to insert
+     * @throws SQLException if a database access error occurs during insertion
+     */
+    public static void createAuctions(Connection con, List<Auction> auctions) throws SQLException {
+        PreparedStatement pstat = null;
+        ResultSet generatedKeys = null;
+        boolean sharded = ShardRouter.isSharded();
+        String sql = insertSql(sharded);
+
+        try {
+            pstat = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (Auction auction : auctions) {
+                pstat.setTimestamp(1, Timestamp.valueOf(auction.getAuctionStartTime()));
+                pstat.setTimestamp(2, Timestamp.valueOf(auction.getAuctionEndTime()));
+                pstat.setDouble(3, auction.getAuctionCurrentHighestBid());
+                pstat.setString(4, auction.getAuctionStatus());
+                pstat.setInt(5, auction.getItemID());
+                pstat.setInt(6, auction.getSellerID());
+                pstat.setInt(7, auction.getBuyerID());
+                if (sharded) {
+                    pstat.setInt(8, auction.getAuctionID());
+                }
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+
+            generatedKeys = pstat.getGeneratedKeys();
+            int index = 0;
+            while (!sharded && generatedKeys.next() && index < auctions.size()) {
+                auctions.get(index++).setAuctionID(generatedKeys.getInt(1));
+            }
+        } finally {
+            if (generatedKeys != null) generatedKeys.close();
+            if (pstat != null) pstat.close();
+        }
+    }
+
+    /**
+     * Gives new auctions their keys and groups them by shard, for {@link #createAuctions(Connection, List)}.
+     * Without shards the auctions keep ID 0 for AUTO_INCREMENT and all go to shard 0.
+     *
+     * @param auctions the new Auction objects
+     * @return a Map from shard to its auctions, in shard order
+     * @throws SQLException if the keys cannot be allocated
+     */
+    public static Map<Integer, List<Auction>> assignShards(List<Auction> auctions) throws SQLException {
+        Map<Integer, List<Auction>> byShard = new TreeMap<>();
+        if (!ShardRouter.isSharded()) {
+            byShard.put(0, auctions);
+            return byShard;
+        }
+        for (Auction auction : auctions) {
+            int bucket = ShardRouter.newBucket();
+            auction.setAuctionID(ShardRouter.nextKey("auction", "auctionID", bucket));
+            byShard.computeIfAbsent(ShardRouter.shardOfBucket(bucket), k -> new ArrayList<>()).add(auction);
+        }
+        return byShard;
+    }
+
+    // While sharded the key is allocated by ShardRouter and inserted; otherwise AUTO_INCREMENT assigns it.
+    private static String insertSql(boolean withKey) {
+        return "INSERT INTO auction (auctionStartTime, auctionEndTime, auctionCurrentHighestBid, auctionStatus, itemID, sellerID, buyerID"
+                + (withKey ? ", auctionID) VALUES (?, ?, ?, ?, ?, ?, ?, ?)" : ") VALUES (?, ?, ?, ?, ?, ?, ?)");
+    }
+
     /**
      * Updates an existing auction record in the database.
      *
      * <p>This method updates an auction record based on the Auction object's auctionID
-     * with the new details provided.</p>
+     * with the new details provided. The update and its outbox event are committed together.</p>
      *
      * @param auction the Auction object containing updated auction details
      * @throws SQLException if a database access error occurs during the update
@@ -67,7 +198,8 @@ public class AuctionDAO {
         String sql = "UPDATE auction SET auctionStartTime = ?, auctionEndTime = ?, auctionCurrentHighestBid = ?, auctionStatus = ?, itemID = ?, sellerID = ?, buyerID = ? WHERE auctionID = ?";
 
         try {
-            con = DBConnector.getConnection();
+            con = DBConnector.getShardConnection(ShardRouter.shardOf(auction.getAuctionID()));
+            con.setAutoCommit(false);
             pstat = con.prepareStatement(sql);
 
             pstat.setTimestamp(1, Timestamp.valueOf(auction.getAuctionStartTime()));
@@ -81,12 +213,24 @@ public class AuctionDAO {
 
             int i = pstat.executeUpdate();
             System.out.println(i + " Auction successfully updated in the table.");
+            if (i > 0) {
+                OutboxDAO.appendEvents(con, List.of(OutboxService.auctionEvent(OutboxService.AUCTION_UPDATED, auction)));
+            }
+            con.commit();
+            ReplicaRouter.recordWrite();
+            if (i > 0) {
+                SearchService.onAuctionSaved(auction);
+                AuctionIndex.onAuctionSaved(auction);
+                StatisticsService.onAuctionSaved(auction);
+            }
         } catch (Exception e) {
             System.err.println("Error updating auction: " + e.getMessage());
             e.printStackTrace();
+            rollback(con);
         } finally {
             try {
                 if (pstat != null) pstat.close();
+                if (con != null) con.setAutoCommit(true);
                 //if (con != null) con.close();
             } catch (SQLException e) {
                 System.err.println("Error closing resources: " + e.getMessage());
@@ -97,7 +241,8 @@ public class AuctionDAO {
     /**
      * Retrieves an auction record by its ID.
      *
-     * <p>This method executes a SQL query to fetch an auction record using the specified auctionID.</p>
+     * <p>This method executes a SQL query to fetch an auction record using the specified auctionID.
+     * If the auction is no longer in the auction table, it is looked up in the archive.</p>
      *
      * @param auctionID the unique identifier of the auction
      * @return an Auction object populated with auction details, or null if not found
@@ -111,7 +256,7 @@ public class AuctionDAO {
         String sql = "SELECT * FROM auction WHERE auctionID = ?";
 
         try {
-            con = DBConnector.getConnection();
+            con = DBConnector.getShardReadConnection(ShardRouter.shardOf(auctionID), ReadConsistency.READ_YOUR_WRITES);
             pstat = con.prepareStatement(sql);
             pstat.setInt(1, auctionID);
 
@@ -127,6 +272,9 @@ public class AuctionDAO {
                 auction.setSellerID(rs.getInt("sellerID"));
                 auction.setBuyerID(rs.getInt("buyerID"));
             }
+            if (auction == null) {
+                auction = ArchiveDAO.getArchivedAuctionByID(con, auctionID);
+            }
         } catch (SQLException e) {
             System.err.println("Error retrieving auction: " + e.getMessage());
             e.printStackTrace();
@@ -142,9 +290,76 @@ public class AuctionDAO {
         return auction;
     }
 
+    /**
+     * Retrieves an auction record by its ID and locks the row until the surrounding transaction ends.
+     *
+     * <p>Used by the bid path so that concurrent bidders on the same auction are resolved one at a time.</p>
+     *
+     * @param con the connection of the surrounding transaction (auto-commit disabled)
+     * @param auctionID the unique identifier of the auction
+     * @return an Auction object populated with auction details, or null if not found
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Auction getAuctionByIDForUpdate(Connection con, int auctionID) throws SQLException {
+        Auction auction = null;
+        PreparedStatement pstat = null;
+        ResultSet rs = null;
+        String sql = "SELECT * FROM auction WHERE auctionID = ? FOR UPDATE";
+
+        try {
+            pstat = con.prepareStatement(sql);
+            pstat.setInt(1, auctionID);
+
+            rs = pstat.executeQuery();
+            if (rs.next()) {
+                auction = new Auction();
+                auction.setAuctionID(rs.getInt("auctionID"));
+                auction.setAuctionStartTime(rs.getTimestamp("auctionStartTime").toLocalDateTime());
+                auction.setAuctionEndTime(rs.getTimestamp("auctionEndTime").toLocalDateTime());
+                auction.setAuctionCurrentHighestBid(rs.getDouble("auctionCurrentHighestBid"));
+                auction.setAuctionStatus(rs.getString("auctionStatus"));
+                auction.setItemID(rs.getInt("itemID"));
+                auction.setSellerID(rs.getInt("sellerID"));
+                auction.setBuyerID(rs.getInt("buyerID"));
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstat != null) pstat.close();
+        }
+        return auction;
+    }
+
+    /**
+     * Updates only the current highest bid and leading buyer of an auction.
+     *
+     * @param con the connection of the surrounding transaction
+     * @param auctionID the unique identifier of the auction
+     * @param highestBid the new visible highest bid
+     * @param buyerID the ID of the buyer now leading the auction
+     * @throws SQLException if a database access error occurs during the update
+     */
+    public static void updateAuctionHighestBid(Connection con, int auctionID, double highestBid, int buyerID) throws SQLException {
+        PreparedStatement pstat = null;
+        String sql = "UPDATE auction SET auctionCurrentHighestBid = ?, buyerID = ? WHERE auctionID = ?";
+
+        try {
+            pstat = con.prepareStatement(sql);
+            pstat.setDouble(1, highestBid);
+            pstat.setInt(2, buyerID);
+            pstat.setInt(3, auctionID);
+            pstat.executeUpdate();
+        } finally {
+            if (pstat != null) pstat.close();
+        }
+    }
+
     /**
      * Deletes an auction record from the database by its ID.
      *
+     * <p>The deletion and its outbox event are committed together. The auction's catalogue
+     * memberships, which live on shard 0, are deleted in the same transaction when the auction is
+     * on shard 0 and right after the commit otherwise.</p>
+     *
      * @param auctionID the unique identifier of the auction to be deleted
      * @throws SQLException if a database access error occurs during deletion
      */
@@ -154,18 +369,40 @@ public class AuctionDAO {
         String sql = "DELETE FROM auction WHERE auctionID = ?";
 
         try {
-            con = DBConnector.getConnection();
+            int shard = ShardRouter.shardOf(auctionID);
+            con = DBConnector.getShardConnection(shard);
+            con.setAutoCommit(false);
             pstat = con.prepareStatement(sql);
             pstat.setInt(1, auctionID);
 
             int i = pstat.executeUpdate();
             System.out.println(i + " Auction successfully deleted from the table.");
+            if (i > 0) {
+                OutboxDAO.appendEvents(con, List.of(OutboxService.auctionDeleted(auctionID)));
+                if (shard == 0) {
+                    CatalogueDAO.removeAuctionsFromAllCatalogues(con, List.of(auctionID));
+                }
+            }
+            con.commit();
+            ReplicaRouter.recordWrite();
+            if (i > 0) {
+                AuctionIndex.onAuctionRemoved(auctionID);
+                StatisticsService.onAuctionRemoved(auctionID);
+                SketchService.onAuctionRemoved(auctionID);
+                SearchService.onAuctionsRemoved(List.of(auctionID));
+                if (shard != 0) {
+                    CatalogueDAO.removeAuctionsFromAllCatalogues(DBConnector.getConnection(), List.of(auctionID));
+                }
+                CatalogueService.onAuctionsRemoved(List.of(auctionID));
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting auction: " + e.getMessage());
             e.printStackTrace();
+            rollback(con);
         } finally {
             try {
                 if (pstat != null) pstat.close();
+                if (con != null) con.setAutoCommit(true);
                 //if (con != null) con.close();
             } catch (SQLException e) {
                 System.err.println("Error closing resources: " + e.getMessage());
@@ -182,17 +419,36 @@ public class AuctionDAO {
      * @throws SQLException if a database access error occurs during the query
      */
     public static List<Auction> getAllAuctions() throws SQLException {
-        Connection con = null;
+        List<Auction> auctions = new ArrayList<>();
+        String sql = "SELECT * FROM auction";
+
+        try {
+            auctions = queryAllShards(sql, ReadConsistency.REPLICA);
+        } catch (Exception e) {
+            System.err.println("Error retrieving all auctions: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return auctions;
+    }
+
+    /**
+     * Retrieves all auction records using the given connection.
+     *
+     * <p>Used by background jobs that read on their own connection instead of the shared one.</p>
+     *
+     * @param con the connection to read with
+     * @return a List of Auction objects containing details of all auctions
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Auction> getAllAuctions(Connection con) throws SQLException {
         PreparedStatement pstat = null;
         ResultSet rs = null;
         List<Auction> auctions = new ArrayList<>();
         String sql = "SELECT * FROM auction";
 
         try {
-            con = DBConnector.getConnection();
             pstat = con.prepareStatement(sql);
             rs = pstat.executeQuery();
-
             while (rs.next()) {
                 Auction auction = new Auction();
                 auction.setAuctionID(rs.getInt("auctionID"));
@@ -205,21 +461,131 @@ public class AuctionDAO {
                 auction.setBuyerID(rs.getInt("buyerID"));
                 auctions.add(auction);
             }
-        } catch (Exception e) {
-            System.err.println("Error retrieving all auctions: " + e.getMessage());
-            e.printStackTrace();
         } finally {
-            try {
-                if (rs != null) rs.close();
-                if (pstat != null) pstat.close();
-                //if (con != null) con.close();
-            } catch (SQLException e) {
-                System.err.println("Error closing resources: " + e.getMessage());
+            if (rs != null) rs.close();
+            if (pstat != null) pstat.close();
+        }
+        return auctions;
+    }
+
+    /**
+     * Retrieves one page of auctions using keyset pagination.
+     *
+     * <p>Rows are ordered by the given column with auctionID as a tie-breaker. Instead of an OFFSET,
+     * the next page starts strictly after the last row of the previous page, so every page is an
+     * index range scan of at most {@code limit} rows no matter how deep the user has scrolled.</p>
+     *
+     * <p>Meant for a thread with its own connection (an AsyncDAO worker, as PagedTableModel uses),
+     * not the shared one of the Swing thread.</p>
+     *
+     * @param sortColumn one of {@link #SORTABLE_COLUMNS}
+     * @param ascending true for ascending order, false for descending
+     * @param after the last auction of the previous page, or null for the first page
+     * @param limit the maximum number of auctions to return
+     * @return a List of at most limit Auction objects
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Auction> getAuctionsPage(String sortColumn, boolean ascending, Auction after, int limit) throws SQLException {
+        if (!SORTABLE_COLUMNS.contains(sortColumn)) {
+            throw new IllegalArgumentException("Cannot sort auctions by " + sortColumn);
+        }
+        String direction = ascending ? "ASC" : "DESC";
+        String comparison = ascending ? ">" : "<";
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM auction");
+        if (after != null) {
+            if (sortColumn.equals("auctionID")) {
+                sql.append(" WHERE auctionID ").append(comparison).append(" ?");
+            } else {
+                sql.append(" WHERE (").append(sortColumn).append(' ').append(comparison).append(" ? OR (")
+                        .append(sortColumn).append(" = ? AND auctionID ").append(comparison).append(" ?))");
+            }
+        }
+        sql.append(" ORDER BY ");
+        if (!sortColumn.equals("auctionID")) {
+            sql.append(sortColumn).append(' ').append(direction).append(", ");
+        }
+        sql.append("auctionID ").append(direction).append(" LIMIT ?");
+
+        List<Auction> auctions;
+        try {
+            // Every shard returns its own first page; the first limit rows of their merge are the page.
+            auctions = ShardRouter.scatter(shard -> {
+                try (PreparedStatement pstat = DBConnector.getShardReadConnection(shard, ReadConsistency.REPLICA)
+                        .prepareStatement(sql.toString())) {
+                    int index = 1;
+                    if (after != null) {
+                        if (!sortColumn.equals("auctionID")) {
+                            setSortValue(pstat, index++, sortColumn, after);
+                            setSortValue(pstat, index++, sortColumn, after);
+                        }
+                        pstat.setInt(index++, after.getAuctionID());
+                    }
+                    pstat.setInt(index, limit);
+                    return readAuctions(pstat);
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error retrieving auction page: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
+        if (ShardRouter.isSharded()) {
+            auctions.sort(pageOrder(sortColumn, ascending));
+            if (auctions.size() > limit) {
+                auctions = new ArrayList<>(auctions.subList(0, limit));
             }
         }
         return auctions;
     }
 
+    /**
+     * The order of {@link #getAuctionsPage}: the sort column, then auctionID.
+     */
+    private static Comparator<Auction> pageOrder(String sortColumn, boolean ascending) {
+        Comparator<Auction> order;
+        switch (sortColumn) {
+            case "auctionStartTime":
+                order = Comparator.comparing(Auction::getAuctionStartTime);
+                break;
+            case "auctionEndTime":
+                order = Comparator.comparing(Auction::getAuctionEndTime);
+                break;
+            case "auctionCurrentHighestBid":
+                order = Comparator.comparingDouble(Auction::getAuctionCurrentHighestBid);
+                break;
+            case "auctionStatus":
+                order = Comparator.comparing(Auction::getAuctionStatus, String.CASE_INSENSITIVE_ORDER);
+                break;
+            default:
+                order = (a, b) -> 0;
+        }
+        order = order.thenComparingInt(Auction::getAuctionID);
+        return ascending ? order : order.reversed();
+    }
+
+    /**
+     * Binds the value of the sort column of the given auction as a keyset parameter.
+     */
+    private static void setSortValue(PreparedStatement pstat, int index, String sortColumn, Auction auction) throws SQLException {
+        switch (sortColumn) {
+            case "auctionStartTime":
+                pstat.setTimestamp(index, Timestamp.valueOf(auction.getAuctionStartTime()));
+                break;
+            case "auctionEndTime":
+                pstat.setTimestamp(index, Timestamp.valueOf(auction.getAuctionEndTime()));
+                break;
+            case "auctionCurrentHighestBid":
+                pstat.setDouble(index, auction.getAuctionCurrentHighestBid());
+                break;
+            case "auctionStatus":
+                pstat.setString(index, auction.getAuctionStatus());
+                break;
+            default:
+                pstat.setInt(index, auction.getAuctionID());
+        }
+    }
+
     /**
      * Retrieves all auctions with status "STARTED" from the database.
      *
@@ -229,39 +595,66 @@ public class AuctionDAO {
      * @throws SQLException if a database access error occurs during the query
      */
     public static List<Auction> getAllStartedAuctions() throws SQLException {
-        Connection con = null;
-        PreparedStatement pstat = null;
-        ResultSet rs = null;
         List<Auction> auctions = new ArrayList<>();
         String sql = "SELECT * FROM auction WHERE auctionStatus = 'STARTED'";
 
         try {
-            con = DBConnector.getConnection();
-            pstat = con.prepareStatement(sql);
-            rs = pstat.executeQuery();
-
-            while (rs.next()) {
-                Auction auction = new Auction();
-                auction.setAuctionID(rs.getInt("auctionID"));
-                auction.setAuctionStartTime(rs.getTimestamp("auctionStartTime").toLocalDateTime());
-                auction.setAuctionEndTime(rs.getTimestamp("auctionEndTime").toLocalDateTime());
-                auction.setAuctionCurrentHighestBid(rs.getDouble("auctionCurrentHighestBid"));
-                auction.setAuctionStatus(rs.getString("auctionStatus"));
-                auction.setItemID(rs.getInt("itemID"));
-                auction.setSellerID(rs.getInt("sellerID"));
-                auction.setBuyerID(rs.getInt("buyerID"));
-                auctions.add(auction);
-            }
+            auctions = queryAllShards(sql, ReadConsistency.READ_YOUR_WRITES);
         } catch (Exception e) {
             System.err.println("Error retrieving all auctions: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            try {
-                if (rs != null) rs.close();
-                if (pstat != null) pstat.close();
-                //if (con != null) con.close();
-            } catch (SQLException e) {
-                System.err.println("Error closing resources: " + e.getMessage());
+        }
+        return auctions;
+    }
+
+    /**
+     * Retrieves all auctions with status "STARTED" using the given connection.
+     *
+     * <p>Used by background jobs that read on their own connection instead of the shared one.</p>
+     *
+     * @param con the connection to read with
+     * @return a List of Auction objects representing all started auctions
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Auction> getAllStartedAuctions(Connection con) throws SQLException {
+        try (PreparedStatement pstat = con.prepareStatement("SELECT * FROM auction WHERE auctionStatus = 'STARTED'")) {
+            return readAuctions(pstat);
+        }
+    }
+
+    /**
+     * Retrieves the started auctions among the given IDs, with one IN query per shard and batch of
+     * IDS_PER_QUERY, in the order of the IDs. Used to load the rows of a filter answered by AuctionIndex.
+     *
+     * @param auctionIDs the IDs of the auctions
+     * @return the auctions that exist and are still STARTED
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Auction> getStartedAuctionsByIDs(List<Integer> auctionIDs) throws SQLException {
+        Map<Integer, Auction> found = new HashMap<>();
+        for (Map.Entry<Integer, List<Integer>> shard : ShardRouter.groupByShard(auctionIDs).entrySet()) {
+            List<Integer> ids = shard.getValue();
+            for (int from = 0; from < ids.size(); from += IDS_PER_QUERY) {
+                List<Integer> batch = ids.subList(from, Math.min(from + IDS_PER_QUERY, ids.size()));
+                String sql = "SELECT * FROM auction WHERE auctionStatus = 'STARTED' AND auctionID IN ("
+                        + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")";
+                try (PreparedStatement pstat = DBConnector.getShardReadConnection(shard.getKey(), ReadConsistency.READ_YOUR_WRITES)
+                        .prepareStatement(sql)) {
+                    int index = 1;
+                    for (int auctionID : batch) {
+                        pstat.setInt(index++, auctionID);
+                    }
+                    for (Auction auction : readAuctions(pstat)) {
+                        found.put(auction.getAuctionID(), auction);
+                    }
+                }
+            }
+        }
+        List<Auction> auctions = new ArrayList<>(found.size());
+        for (int auctionID : auctionIDs) {
+            Auction auction = found.get(auctionID);
+            if (auction != null) {
+                auctions.add(auction);
             }
         }
         return auctions;
@@ -276,17 +669,128 @@ public class AuctionDAO {
      * @throws SQLException if a database access error occurs during the query
      */
     public static List<Auction> getAllFinishedAuctions() throws SQLException {
-        Connection con = null;
-        PreparedStatement pstat = null;
-        ResultSet rs = null;
         List<Auction> auctions = new ArrayList<>();
         String sql = "SELECT * FROM auction WHERE auctionStatus != 'STARTED'";
 
         try {
-            con = DBConnector.getConnection();
-            pstat = con.prepareStatement(sql);
-            rs = pstat.executeQuery();
+            auctions = queryAllShards(sql, ReadConsistency.REPLICA);
+        } catch (Exception e) {
+            System.err.println("Error retrieving all auctions: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return auctions;
+    }
+
+    /**
+     * Retrieves all finished auctions, optionally including the archived ones.
+     *
+     * <p>The archive is only read when asked for, so the default listing stays limited to the hot table.</p>
+     *
+     * @param includeArchived whether to add the auctions from auction_archive
+     * @return a List of Auction objects representing the finished auctions
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Auction> getAllFinishedAuctions(boolean includeArchived) throws SQLException {
+        List<Auction> auctions = getAllFinishedAuctions();
+        if (includeArchived) {
+            auctions.addAll(ShardRouter.scatter(shard ->
+                    ArchiveDAO.getArchivedAuctions(DBConnector.getShardReadConnection(shard, ReadConsistency.REPLICA))));
+        }
+        return auctions;
+    }
+
+    /**
+     * Retrieves and locks running auctions whose end time has passed.
+     *
+     * <p>Rows locked by another transaction (a bid in progress, or another client settling the same
+     * auction) are skipped rather than waited for; they are picked up by a later call.</p>
+     *
+     * @param con the connection of the surrounding transaction (auto-commit disabled)
+     * @param auctionIDs the auctions to consider, or null for any auction
+     * @param now the current time
+     * @param limit the maximum number of auctions to return
+     * @return the expired auctions, oldest end time first
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Auction> getExpiredAuctionsForUpdate(Connection con, Collection<Integer> auctionIDs,
+                                                            LocalDateTime now, int limit) throws SQLException {
+        List<Auction> auctions = new ArrayList<>();
+        if (auctionIDs != null && auctionIDs.isEmpty()) {
+            return auctions;
+        }
+        StringBuilder sql = new StringBuilder("SELECT * FROM auction WHERE auctionStatus = 'STARTED' AND auctionEndTime <= ?");
+        if (auctionIDs != null) {
+            sql.append(" AND auctionID IN (");
+            for (int i = 0; i < auctionIDs.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+        }
+        sql.append(" ORDER BY auctionEndTime LIMIT ? FOR UPDATE SKIP LOCKED");
+
+        try (PreparedStatement pstat = con.prepareStatement(sql.toString())) {
+            int index = 1;
+            pstat.setTimestamp(index++, Timestamp.valueOf(now));
+            if (auctionIDs != null) {
+                for (int auctionID : auctionIDs) {
+                    pstat.setInt(index++, auctionID);
+                }
+            }
+            pstat.setInt(index, limit);
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    Auction auction = new Auction();
+                    auction.setAuctionID(rs.getInt("auctionID"));
+                    auction.setAuctionStartTime(rs.getTimestamp("auctionStartTime").toLocalDateTime());
+                    auction.setAuctionEndTime(rs.getTimestamp("auctionEndTime").toLocalDateTime());
+                    auction.setAuctionCurrentHighestBid(rs.getDouble("auctionCurrentHighestBid"));
+                    auction.setAuctionStatus(rs.getString("auctionStatus"));
+                    auction.setItemID(rs.getInt("itemID"));
+                    auction.setSellerID(rs.getInt("sellerID"));
+                    auction.setBuyerID(rs.getInt("buyerID"));
+                    auctions.add(auction);
+                }
+            }
+        }
+        return auctions;
+    }
 
+    /**
+     * Marks running auctions as FINISHED with one batch. Auctions that are no longer STARTED are left unchanged.
+     *
+     * @param con the connection of the surrounding transaction
+     * @param auctionIDs the auctions to finish
+     * @throws SQLException if a database access error occurs during the update
+     */
+    public static void finishAuctions(Connection con, List<Integer> auctionIDs) throws SQLException {
+        String sql = "UPDATE auction SET auctionStatus = 'FINISHED' WHERE auctionID = ? AND auctionStatus = 'STARTED'";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            for (int auctionID : auctionIDs) {
+                pstat.setInt(1, auctionID);
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+        }
+    }
+
+    /**
+     * Runs a listing query on every shard (see ShardRouter) and returns the auctions of all of them.
+     */
+    private static List<Auction> queryAllShards(String sql, ReadConsistency consistency) throws SQLException {
+        return ShardRouter.scatter(shard -> {
+            try (PreparedStatement pstat = DBConnector.getShardReadConnection(shard, consistency).prepareStatement(sql)) {
+                return readAuctions(pstat);
+            }
+        });
+    }
+
+    /**
+     * Executes a query whose rows are auction rows and maps them to Auction objects.
+     */
+    private static List<Auction> readAuctions(PreparedStatement pstat) throws SQLException {
+        List<Auction> auctions = new ArrayList<>();
+        try (ResultSet rs = pstat.executeQuery()) {
             while (rs.next()) {
                 Auction auction = new Auction();
                 auction.setAuctionID(rs.getInt("auctionID"));
@@ -299,18 +803,18 @@ public class AuctionDAO {
                 auction.setBuyerID(rs.getInt("buyerID"));
                 auctions.add(auction);
             }
-        } catch (Exception e) {
-            System.err.println("Error retrieving all auctions: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            try {
-                if (rs != null) rs.close();
-                if (pstat != null) pstat.close();
-                //if (con != null) con.close();
-            } catch (SQLException e) {
-                System.err.println("Error closing resources: " + e.getMessage());
-            }
         }
         return auctions;
     }
+
+    /**
+     * Rolls back a failed write on the shared connection so its outbox event is discarded with it.
+     */
+    private static void rollback(Connection con) {
+        try {
+            if (con != null && !con.getAutoCommit()) con.rollback();
+        } catch (SQLException e) {
+            System.err.println("Error rolling back: " + e.getMessage());
+        }
+    }
 }
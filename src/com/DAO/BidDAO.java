@@ -1,13 +1,21 @@
 package com.DAO;
 
 import com.Database.DBConnector;
+import com.Database.ReadConsistency;
+import com.Database.ShardRouter;
 import com.Entities.Bid;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object (DAO) for performing CRUD operations on Bid records.
+ *
+ * <p>Bids live on the shard of their auction (see ShardRouter); while sharded, a new bid's key
+ * carries the auction's bucket.</p>
  */
 public class BidDAO {
 
@@ -23,16 +31,21 @@ public class BidDAO {
     public static void createBid(Bid bid) throws SQLException {
         Connection con = null;
         PreparedStatement pstat = null;
-        String sql = "INSERT INTO bid (bidAmount, bidTime, auctionID, buyerID) VALUES (?, ?, ?, ?)";
+        boolean sharded = ShardRouter.isSharded();
+        String sql = insertSql(sharded);
         
         try {
-            con = DBConnector.getConnection();
+            con = DBConnector.getShardConnection(ShardRouter.shardOf(bid.getAuctionID()));
             pstat = con.prepareStatement(sql);
             
             pstat.setDouble(1, bid.getBidAmount());
             pstat.setTimestamp(2, Timestamp.valueOf(bid.getBidTime()));
             pstat.setInt(3, bid.getAuctionID());
             pstat.setInt(4, bid.getBuyerID());
+            if (sharded) {
+                bid.setBidID(ShardRouter.nextKey("bid", "bidID", ShardRouter.bucketOf(bid.getAuctionID())));
+                pstat.setInt(5, bid.getBidID());
+            }
             
             int i = pstat.executeUpdate();
             System.out.println(i + " Bid successfully added to the table");
@@ -49,6 +62,51 @@ public class BidDAO {
         }
     }
     
+    /**
+     * Creates a new bid record using the connection of a surrounding transaction.
+     *
+     * <p>Unlike {@link #createBid(Bid)}, errors are not swallowed so the caller can roll back.
+     * The generated bidID is set on the Bid object. The connection must be the auction's shard.</p>
+     *
+     * @param con the connection of the surrounding transaction
+     * @param bid the Bid object containing bid details
+     * @throws SQLException if a database access error occurs during insertion
+     */
+    public static void createBid(Connection con, Bid bid) throws SQLException {
+        PreparedStatement pstat = null;
+        ResultSet generatedKeys = null;
+        boolean sharded = ShardRouter.isSharded();
+        String sql = insertSql(sharded);
+
+        try {
+            pstat = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+
+            pstat.setDouble(1, bid.getBidAmount());
+            pstat.setTimestamp(2, Timestamp.valueOf(bid.getBidTime()));
+            pstat.setInt(3, bid.getAuctionID());
+            pstat.setInt(4, bid.getBuyerID());
+            if (sharded) {
+                bid.setBidID(ShardRouter.nextKey("bid", "bidID", ShardRouter.bucketOf(bid.getAuctionID())));
+                pstat.setInt(5, bid.getBidID());
+            }
+
+            pstat.executeUpdate();
+            generatedKeys = pstat.getGeneratedKeys();
+            if (!sharded && generatedKeys.next()) {
+                bid.setBidID(generatedKeys.getInt(1));
+            }
+        } finally {
+            if (generatedKeys != null) generatedKeys.close();
+            if (pstat != null) pstat.close();
+        }
+    }
+
+    // While sharded the key is allocated by ShardRouter and inserted; otherwise AUTO_INCREMENT assigns it.
+    private static String insertSql(boolean withKey) {
+        return withKey ? "INSERT INTO bid (bidAmount, bidTime, auctionID, buyerID, bidID) VALUES (?, ?, ?, ?, ?)"
+                : "INSERT INTO bid (bidAmount, bidTime, auctionID, buyerID) VALUES (?, ?, ?, ?)";
+    }
+
     /**
      * Updates an existing bid record in the database.
      *
@@ -64,7 +122,7 @@ public class BidDAO {
         String sql = "UPDATE bid SET bidAmount = ?, bidTime = ?, auctionID = ?, buyerID = ? WHERE bidID = ?";
         
         try {
-            con = DBConnector.getConnection();
+            con = DBConnector.getShardConnection(ShardRouter.shardOf(bid.getAuctionID()));
             pstat = con.prepareStatement(sql);
             
             pstat.setDouble(1, bid.getBidAmount());
@@ -92,7 +150,8 @@ public class BidDAO {
      * Retrieves a bid record by its ID.
      *
      * <p>This method executes a SQL query to fetch a bid record using the provided bidID,
-     * and returns the corresponding Bid object if found.</p>
+     * and returns the corresponding Bid object if found. A bid created before sharding is not on
+     * the shard its ID names, so when sharded and not found there, every shard is asked.</p>
      *
      * @param bidID the unique identifier of the bid
      * @return the Bid object if found; null otherwise
@@ -106,7 +165,7 @@ public class BidDAO {
         String sql = "SELECT * FROM bid WHERE bidID = ?";
         
         try {
-            con = DBConnector.getConnection();
+            con = DBConnector.getShardReadConnection(ShardRouter.shardOf(bidID), ReadConsistency.READ_YOUR_WRITES);
             pstat = con.prepareStatement(sql);
             pstat.setInt(1, bidID);
             rs = pstat.executeQuery();
@@ -119,6 +178,16 @@ public class BidDAO {
                 bid.setAuctionID(rs.getInt("auctionID"));
                 bid.setBuyerID(rs.getInt("buyerID"));
             }
+            if (bid == null && ShardRouter.isSharded()) {
+                List<Bid> found = ShardRouter.scatter(shard -> {
+                    try (PreparedStatement query = DBConnector.getShardReadConnection(shard, ReadConsistency.READ_YOUR_WRITES)
+                            .prepareStatement(sql)) {
+                        query.setInt(1, bidID);
+                        return readBids(query);
+                    }
+                });
+                bid = found.isEmpty() ? null : found.get(0);
+            }
         } catch (Exception e) {
             System.err.println("Error retrieving bid: " + e.getMessage());
             e.printStackTrace();
@@ -141,29 +210,27 @@ public class BidDAO {
      * @throws SQLException if a database access error occurs during deletion
      */
     public static void deleteBid(int bidID) throws SQLException {
-        Connection con = null;
-        PreparedStatement pstat = null;
         String sql = "DELETE FROM bid WHERE bidID = ?";
         
         try {
-            con = DBConnector.getConnection();
-            pstat = con.prepareStatement(sql);
-            pstat.setInt(1, bidID);
-            int i = pstat.executeUpdate();
+            // Asks every shard, since a bid created before sharding is not on the shard its ID names.
+            int i = 0;
+            for (int deleted : ShardRouter.scatter(shard -> {
+                try (PreparedStatement pstat = DBConnector.getShardConnection(shard).prepareStatement(sql)) {
+                    pstat.setInt(1, bidID);
+                    return List.of(pstat.executeUpdate());
+                }
+            })) {
+                i += deleted;
+            }
             System.out.println(i + " Bid successfully deleted from the table.");
         } catch (Exception e) {
             System.err.println("Error deleting bid: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            try {
-                if (pstat != null) pstat.close();
-                // if (con != null) con.close();
-            } catch (SQLException e) {
-                System.err.println("Error closing resources: " + e.getMessage());
-            }
         }
     }
     
+
     /**
      * Retrieves all bid records from the database.
      *
@@ -174,41 +241,24 @@ public class BidDAO {
      * @throws SQLException if a database access error occurs during the query
      */
     public List<Bid> findAll() throws SQLException {
-        Connection con = null;
-        PreparedStatement pstat = null;
-        ResultSet rs = null;
         List<Bid> bids = new ArrayList<>();
         String sql = "SELECT * FROM bid";
         
         try {
-            con = DBConnector.getConnection();
-            pstat = con.prepareStatement(sql);
-            rs = pstat.executeQuery();
-            
-            while (rs.next()) {
-                Bid bid = new Bid();
-                bid.setBidID(rs.getInt("bidID"));
-                bid.setBidAmount(rs.getDouble("bidAmount"));
-                bid.setBidTime(rs.getTimestamp("bidTime").toLocalDateTime());
-                bid.setAuctionID(rs.getInt("auctionID"));
-                bid.setBuyerID(rs.getInt("buyerID"));
-                bids.add(bid);
-            }
+            bids = ShardRouter.scatter(shard -> {
+                try (PreparedStatement pstat = DBConnector.getShardReadConnection(shard, ReadConsistency.REPLICA)
+                        .prepareStatement(sql)) {
+                    return readBids(pstat);
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error retrieving bids: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            try {
-                if (rs != null) rs.close();
-                if (pstat != null) pstat.close();
-                // if (con != null) con.close();
-            } catch (SQLException e) {
-                System.err.println("Error closing resources: " + e.getMessage());
-            }
         }
         return bids;
     }
     
+
     /**
      * Retrieves all bid records associated with a specific auction.
      *
@@ -227,7 +277,7 @@ public class BidDAO {
         String sql = "SELECT * FROM bid WHERE auctionID = ?";
         
         try {
-            con = DBConnector.getConnection();
+            con = DBConnector.getShardReadConnection(ShardRouter.shardOf(auctionID), ReadConsistency.READ_YOUR_WRITES);
             pstat = con.prepareStatement(sql);
             pstat.setInt(1, auctionID);
             rs = pstat.executeQuery();
@@ -241,6 +291,9 @@ public class BidDAO {
                 bid.setBuyerID(rs.getInt("buyerID"));
                 bids.add(bid);
             }
+            if (bids.isEmpty()) {
+                bids.addAll(ArchiveDAO.getArchivedBidsByAuctionID(con, auctionID));
+            }
         } catch (SQLException e) {
             System.err.println("Error retrieving bids for auction: " + e.getMessage());
             e.printStackTrace();
@@ -255,4 +308,100 @@ public class BidDAO {
         }
         return bids;
     }
+
+    /**
+     * Retrieves the bids of an auction with a higher ID than the given one, in ID order.
+     *
+     * <p>Lets a screen that already shows an auction's bids read only the new ones. Bids of one auction
+     * are written while its row is locked, so they are numbered in commit order, except that with several
+     * shards each client takes keys from its own block and a bid can get a lower key than one committed
+     * before it. Compare {@link #countBidsByAuctionID(int)} with the bids read to notice that.</p>
+     *
+     * @param auctionID the ID of the auction
+     * @param afterBidID the highest bidID already read, or 0 for all bids
+     * @return a List of Bid objects, lowest bidID first
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Bid> getBidsByAuctionIDAfter(int auctionID, int afterBidID) throws SQLException {
+        Connection con = DBConnector.getShardReadConnection(ShardRouter.shardOf(auctionID), ReadConsistency.READ_YOUR_WRITES);
+        try (PreparedStatement pstat = con.prepareStatement(
+                "SELECT * FROM bid WHERE auctionID = ? AND bidID > ? ORDER BY bidID")) {
+            pstat.setInt(1, auctionID);
+            pstat.setInt(2, afterBidID);
+            return readBids(pstat);
+        }
+    }
+
+    /**
+     * Counts the bids of an auction.
+     *
+     * @param auctionID the ID of the auction
+     * @return the number of bids in the bid table (archived bids are not counted)
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static int countBidsByAuctionID(int auctionID) throws SQLException {
+        Connection con = DBConnector.getShardReadConnection(ShardRouter.shardOf(auctionID), ReadConsistency.READ_YOUR_WRITES);
+        try (PreparedStatement pstat = con.prepareStatement("SELECT COUNT(*) FROM bid WHERE auctionID = ?")) {
+            pstat.setInt(1, auctionID);
+            try (ResultSet rs = pstat.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Sums the recent bids of every auction, each weighted by its age.
+     *
+     * <p>A bid placed at {@code now} counts 1, one placed a half-life earlier counts 0.5, and so on;
+     * bids older than {@code since} are left out. Used to rank search suggestions by recent bidding activity.</p>
+     *
+     * @param con the connection to read with
+     * @param now the time the weights are computed for
+     * @param since the oldest bid time to include
+     * @param halfLifeSeconds the age at which a bid counts half
+     * @return a Map from auctionID to its weighted number of recent bids
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Map<Integer, Double> getRecentBidActivityByAuction(Connection con, LocalDateTime now, LocalDateTime since,
+                                                                     long halfLifeSeconds) throws SQLException {
+        PreparedStatement pstat = null;
+        ResultSet rs = null;
+        Map<Integer, Double> activity = new HashMap<>();
+        String sql = "SELECT auctionID, SUM(POWER(0.5, TIMESTAMPDIFF(SECOND, bidTime, ?) / ?)) AS activity "
+                + "FROM bid WHERE bidTime >= ? GROUP BY auctionID";
+
+        try {
+            pstat = con.prepareStatement(sql);
+            pstat.setTimestamp(1, Timestamp.valueOf(now));
+            pstat.setDouble(2, halfLifeSeconds);
+            pstat.setTimestamp(3, Timestamp.valueOf(since));
+            rs = pstat.executeQuery();
+            while (rs.next()) {
+                activity.put(rs.getInt("auctionID"), rs.getDouble("activity"));
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstat != null) pstat.close();
+        }
+        return activity;
+    }
+
+    /**
+     * Executes a query whose rows are bid rows and maps them to Bid objects.
+     */
+    private static List<Bid> readBids(PreparedStatement pstat) throws SQLException {
+        List<Bid> bids = new ArrayList<>();
+        try (ResultSet rs = pstat.executeQuery()) {
+            while (rs.next()) {
+                Bid bid = new Bid();
+                bid.setBidID(rs.getInt("bidID"));
+                bid.setBidAmount(rs.getDouble("bidAmount"));
+                bid.setBidTime(rs.getTimestamp("bidTime").toLocalDateTime());
+                bid.setAuctionID(rs.getInt("auctionID"));
+                bid.setBuyerID(rs.getInt("buyerID"));
+                bids.add(bid);
+            }
+        }
+        return bids;
+    }
 }
@@ -0,0 +1,97 @@
+package com.DAO;
+
+import com.Entities.BidRequest;
+import java.sql.*;
+import java.time.LocalDateTime;
+
+/**
+ * Data Access Object (DAO) for BidRequest records.
+ *
+ * <p>The bid_request table is the persistent half of the bid idempotency index: one row per
+ * client-generated request key, holding the outcome that was returned the first time.
+ * Rows are written in the same transaction as the bids they produced, and deleted once they are
+ * older than any retry could be (see SettlementService).</p>
+ */
+public class BidRequestDAO {
+
+    /**
+     * Records the outcome of a bid request.
+     *
+     * @param con the connection of the surrounding transaction
+     * @param bidRequest the BidRequest object containing the key and the result
+     * @throws SQLException if a database access error occurs, including a duplicate key
+     */
+    public static void createBidRequest(Connection con, BidRequest bidRequest) throws SQLException {
+        PreparedStatement pstat = null;
+        String sql = "INSERT INTO bid_request (requestKey, auctionID, buyerID, resultStatus, highestBid, leadingBuyerID, createdTime) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try {
+            pstat = con.prepareStatement(sql);
+            pstat.setString(1, bidRequest.getRequestKey());
+            pstat.setInt(2, bidRequest.getAuctionID());
+            pstat.setInt(3, bidRequest.getBuyerID());
+            pstat.setString(4, bidRequest.getResultStatus());
+            pstat.setDouble(5, bidRequest.getHighestBid());
+            pstat.setInt(6, bidRequest.getLeadingBuyerID());
+            pstat.setTimestamp(7, Timestamp.valueOf(bidRequest.getCreatedTime()));
+            pstat.executeUpdate();
+        } finally {
+            if (pstat != null) pstat.close();
+        }
+    }
+
+    /**
+     * Retrieves a bid request by its idempotency key.
+     *
+     * @param con the connection to query on
+     * @param requestKey the client-generated key
+     * @return the BidRequest object if found; null otherwise
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static BidRequest getBidRequestByKey(Connection con, String requestKey) throws SQLException {
+        BidRequest bidRequest = null;
+        PreparedStatement pstat = null;
+        ResultSet rs = null;
+        String sql = "SELECT * FROM bid_request WHERE requestKey = ?";
+
+        try {
+            pstat = con.prepareStatement(sql);
+            pstat.setString(1, requestKey);
+            rs = pstat.executeQuery();
+
+            if (rs.next()) {
+                bidRequest = new BidRequest();
+                bidRequest.setRequestKey(rs.getString("requestKey"));
+                bidRequest.setAuctionID(rs.getInt("auctionID"));
+                bidRequest.setBuyerID(rs.getInt("buyerID"));
+                bidRequest.setResultStatus(rs.getString("resultStatus"));
+                bidRequest.setHighestBid(rs.getDouble("highestBid"));
+                bidRequest.setLeadingBuyerID(rs.getInt("leadingBuyerID"));
+                bidRequest.setCreatedTime(rs.getTimestamp("createdTime").toLocalDateTime());
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstat != null) pstat.close();
+        }
+        return bidRequest;
+    }
+
+    /**
+     * Deletes up to limit bid requests recorded before the given time, using the createdTime index.
+     *
+     * @param con the connection to delete on
+     * @param olderThan rows created before this time are deleted
+     * @param limit the maximum number of rows to delete
+     * @return the number of rows deleted
+     * @throws SQLException if a database access error occurs during the delete
+     */
+    public static int deleteOlderThan(Connection con, LocalDateTime olderThan, int limit) throws SQLException {
+        String sql = "DELETE FROM bid_request WHERE createdTime < ? LIMIT ?";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setTimestamp(1, Timestamp.valueOf(olderThan));
+            pstat.setInt(2, limit);
+            return pstat.executeUpdate();
+        }
+    }
+}
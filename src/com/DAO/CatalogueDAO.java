@@ -1,127 +1,271 @@
 package com.DAO;
 
 import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Entities.Auction;
 import com.Entities.Catalogue;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+// Catalogues are stored in `catalogue`; which auctions belong to which catalogue is stored
+// one row per membership in `catalogue_auction` (primary key catalogueID, auctionID).
+// Both stay on shard 0 when shards are configured (see ShardRouter); the auctions are read from their own shards.
 public class CatalogueDAO {
-    // Create a new catalogue
+    // Create a new catalogue together with its auctions; sets the generated catalogueID
     public static void createCatalogue(Catalogue catalogue) throws SQLException {
-        int i = 0;
+        String sql = "INSERT INTO catalogue (catalogueTitle) VALUES (?)";
+        Connection con = DBConnector.getConnection();
+        boolean autoCommit = con.getAutoCommit();
 
-        String sql = "INSERT INTO catalogue (catalogueTitle, auctionsList) VALUES (?, ?)";
-
-        try (Connection con = DBConnector.getConnection();
-             PreparedStatement pstat = con.prepareStatement(sql)) {
-
-            pstat.setString(1, catalogue.getCatalogueTitle());
-            Array sqlArray = con.createArrayOf("VARCHAR", catalogue.getAuctionsList().toArray());
-            pstat.setArray(2, sqlArray);
-
-            i = pstat.executeUpdate();
-            System.out.println(i + " Catalogue successfully added to the table");
-        } catch (Exception e) {
-            System.err.println("Error creating catalogue: " + e.getMessage());
-            e.printStackTrace();
+        try {
+            con.setAutoCommit(false);
+            try (PreparedStatement pstat = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstat.setString(1, catalogue.getCatalogueTitle());
+                pstat.executeUpdate();
+                try (ResultSet generatedKeys = pstat.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        catalogue.setCatalogueID(generatedKeys.getInt(1));
+                    }
+                }
+            }
+            addAuctions(con, catalogue.getCatalogueID(), catalogue.getAuctionsList());
+            con.commit();
+            System.out.println("Catalogue successfully added to the table");
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
         }
     }
 
-    // Update an existing catalogue
+    // Update an existing catalogue: its title and, in the same transaction, its full list of auctions.
+    // Fails without writing any membership if the catalogue does not exist (any more).
     public static void updateCatalogue(Catalogue catalogue) throws SQLException {
-        int i = 0;
-
-        String sql = "UPDATE catalogue SET catalogueTitle = ?, auctionsList = ? WHERE catalogueID = ?";
-
-        try (Connection con = DBConnector.getConnection();
-             PreparedStatement pstat = con.prepareStatement(sql)) {
-
-            pstat.setString(1, catalogue.getCatalogueTitle());
-            Array sqlArray = con.createArrayOf("VARCHAR", catalogue.getAuctionsList().toArray());
-            pstat.setArray(2, sqlArray);
-            pstat.setInt(3, catalogue.getCatalogueID());
+        String sql = "UPDATE catalogue SET catalogueTitle = ? WHERE catalogueID = ?";
+        Connection con = DBConnector.getConnection();
+        boolean autoCommit = con.getAutoCommit();
 
-            i = pstat.executeUpdate();
-            System.out.println(i + " Catalogue successfully updated in the table.");
-        } catch (Exception e) {
-            System.err.println("Error updating catalogue: " + e.getMessage());
-            e.printStackTrace();
+        try {
+            con.setAutoCommit(false);
+            try (PreparedStatement pstat = con.prepareStatement(sql)) {
+                pstat.setString(1, catalogue.getCatalogueTitle());
+                pstat.setInt(2, catalogue.getCatalogueID());
+                if (pstat.executeUpdate() == 0) {
+                    throw new SQLException("Catalogue " + catalogue.getCatalogueID() + " does not exist.");
+                }
+            }
+            try (PreparedStatement pstat = con.prepareStatement("DELETE FROM catalogue_auction WHERE catalogueID = ?")) {
+                pstat.setInt(1, catalogue.getCatalogueID());
+                pstat.executeUpdate();
+            }
+            addAuctions(con, catalogue.getCatalogueID(), catalogue.getAuctionsList());
+            con.commit();
+            System.out.println("Catalogue successfully updated in the table.");
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
         }
     }
 
-    // Retrieve a catalogue by its ID
+    // Retrieve a catalogue by its ID, with its auction IDs
     public static Catalogue getCatalogueByID(int catalogueID) throws SQLException {
-        Catalogue catalogue = null;
-
-        String sql = "SELECT * FROM catalogue WHERE catalogueID = ?";
-
-        try (Connection con = DBConnector.getConnection();
-             PreparedStatement pstat = con.prepareStatement(sql)) {
+        String sql = "SELECT c.catalogueID, c.catalogueTitle, ca.auctionID FROM catalogue c "
+                + "LEFT JOIN catalogue_auction ca ON ca.catalogueID = c.catalogueID "
+                + "WHERE c.catalogueID = ? ORDER BY ca.auctionID";
+        Connection con = DBConnector.getConnection();
 
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
             pstat.setInt(1, catalogueID);
-            ResultSet rs = pstat.executeQuery();
-
-            if (rs.next()) {
-                catalogue = new Catalogue();
-                catalogue.setCatalogueID(rs.getInt("catalogueID"));
-                catalogue.setCatalogueTitle(rs.getString("catalogueTitle"));
-                Array sqlArray = rs.getArray("auctionsList");
-                String[] auctionsList = (String[]) sqlArray.getArray();
-                catalogue.setAuctionsList(List.of(auctionsList));
+            try (ResultSet rs = pstat.executeQuery()) {
+                List<Catalogue> catalogues = readCatalogues(rs);
+                return catalogues.isEmpty() ? null : catalogues.get(0);
             }
-        } catch (Exception e) {
-            System.err.println("Error retrieving catalogue: " + e.getMessage());
-            e.printStackTrace();
         }
-
-        return catalogue;
     }
 
-    // Retrieve all catalogues
+    // Retrieve all catalogues, with their auction IDs
     public static List<Catalogue> getAllCatalogues() throws SQLException {
-        List<Catalogue> catalogues = new ArrayList<>();
-
-        String sql = "SELECT * FROM catalogue";
+        String sql = "SELECT c.catalogueID, c.catalogueTitle, ca.auctionID FROM catalogue c "
+                + "LEFT JOIN catalogue_auction ca ON ca.catalogueID = c.catalogueID "
+                + "ORDER BY c.catalogueID, ca.auctionID";
+        Connection con = DBConnector.getConnection();
 
-        try (Connection con = DBConnector.getConnection();
-             PreparedStatement pstat = con.prepareStatement(sql);
+        try (PreparedStatement pstat = con.prepareStatement(sql);
              ResultSet rs = pstat.executeQuery()) {
+            return readCatalogues(rs);
+        }
+    }
+
+    // Delete a catalogue by its ID, together with its memberships
+    public static void deleteCatalogue(int catalogueID) throws SQLException {
+        Connection con = DBConnector.getConnection();
+        boolean autoCommit = con.getAutoCommit();
 
-            while (rs.next()) {
-                Catalogue catalogue = new Catalogue();
-                catalogue.setCatalogueID(rs.getInt("catalogueID"));
-                catalogue.setCatalogueTitle(rs.getString("catalogueTitle"));
-                Array sqlArray = rs.getArray("auctionsList");
-                String[] auctionsList = (String[]) sqlArray.getArray();
-                catalogue.setAuctionsList(List.of(auctionsList));
-                catalogues.add(catalogue);
+        try {
+            con.setAutoCommit(false);
+            try (PreparedStatement pstat = con.prepareStatement("DELETE FROM catalogue_auction WHERE catalogueID = ?")) {
+                pstat.setInt(1, catalogueID);
+                pstat.executeUpdate();
             }
-        } catch (Exception e) {
-            System.err.println("Error retrieving all catalogues: " + e.getMessage());
-            e.printStackTrace();
+            int i;
+            try (PreparedStatement pstat = con.prepareStatement("DELETE FROM catalogue WHERE catalogueID = ?")) {
+                pstat.setInt(1, catalogueID);
+                i = pstat.executeUpdate();
+            }
+            con.commit();
+            System.out.println(i + " Catalogue successfully deleted from the table.");
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
         }
+    }
 
-        return catalogues;
+    // Add auctions to a catalogue in one batch; auctions already in it are ignored
+    public static void addAuctionsToCatalogue(int catalogueID, Collection<Integer> auctionIDs) throws SQLException {
+        addAuctions(DBConnector.getConnection(), catalogueID, auctionIDs);
     }
 
-    // Delete a catalogue by its ID
-    public static void deleteCatalogue(int catalogueID) throws SQLException {
-        int i = 0;
+    // Remove auctions from a catalogue in one batch
+    public static void removeAuctionsFromCatalogue(int catalogueID, Collection<Integer> auctionIDs) throws SQLException {
+        if (auctionIDs.isEmpty()) {
+            return;
+        }
+        String sql = "DELETE FROM catalogue_auction WHERE catalogueID = ? AND auctionID = ?";
+        try (PreparedStatement pstat = DBConnector.getConnection().prepareStatement(sql)) {
+            for (int auctionID : auctionIDs) {
+                pstat.setInt(1, catalogueID);
+                pstat.setInt(2, auctionID);
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+        }
+    }
+
+    // Remove auctions from every catalogue, e.g. when they are archived or deleted.
+    // Takes the connection so the caller can make it part of its own transaction on shard 0.
+    public static void removeAuctionsFromAllCatalogues(Connection con, Collection<Integer> auctionIDs) throws SQLException {
+        if (auctionIDs.isEmpty()) {
+            return;
+        }
+        String sql = "DELETE FROM catalogue_auction WHERE auctionID IN ("
+                + String.join(", ", Collections.nCopies(auctionIDs.size(), "?")) + ")";
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            int index = 1;
+            for (int auctionID : auctionIDs) {
+                pstat.setInt(index++, auctionID);
+            }
+            pstat.executeUpdate();
+        }
+    }
 
-        String sql = "DELETE FROM catalogue WHERE catalogueID = ?";
+    // Retrieve the auctions of a catalogue, ending soonest first. One range scan of the
+    // catalogue_auction primary key joined to auction by its primary key.
+    public static List<Auction> getAuctionsInCatalogue(int catalogueID) throws SQLException {
+        if (ShardRouter.isSharded()) {
+            return getShardedAuctionsInCatalogue(catalogueID);
+        }
+        String sql = "SELECT a.* FROM catalogue_auction ca JOIN auction a ON a.auctionID = ca.auctionID "
+                + "WHERE ca.catalogueID = ? ORDER BY a.auctionEndTime, a.auctionID";
+        List<Auction> auctions = new ArrayList<>();
 
-        try (Connection con = DBConnector.getConnection();
-             PreparedStatement pstat = con.prepareStatement(sql)) {
+        try (PreparedStatement pstat = DBConnector.getConnection().prepareStatement(sql)) {
+            pstat.setInt(1, catalogueID);
+            try (ResultSet rs = pstat.executeQuery()) {
+                readAuctions(rs, auctions);
+            }
+        }
+        return auctions;
+    }
 
+    // Sharded: the memberships from shard 0, then one IN query on every shard holding some of the auctions
+    private static List<Auction> getShardedAuctionsInCatalogue(int catalogueID) throws SQLException {
+        List<Integer> auctionIDs = new ArrayList<>();
+        try (PreparedStatement pstat = DBConnector.getConnection().prepareStatement(
+                "SELECT auctionID FROM catalogue_auction WHERE catalogueID = ?")) {
             pstat.setInt(1, catalogueID);
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    auctionIDs.add(rs.getInt("auctionID"));
+                }
+            }
+        }
 
-            i = pstat.executeUpdate();
-            System.out.println(i + " Catalogue successfully deleted from the table.");
-        } catch (Exception e) {
-            System.err.println("Error deleting catalogue: " + e.getMessage());
-            e.printStackTrace();
+        List<Auction> auctions = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> shard : ShardRouter.groupByShard(auctionIDs).entrySet()) {
+            String sql = "SELECT * FROM auction WHERE auctionID IN ("
+                    + String.join(", ", Collections.nCopies(shard.getValue().size(), "?")) + ")";
+            try (PreparedStatement pstat = DBConnector.getShardConnection(shard.getKey()).prepareStatement(sql)) {
+                int index = 1;
+                for (int auctionID : shard.getValue()) {
+                    pstat.setInt(index++, auctionID);
+                }
+                try (ResultSet rs = pstat.executeQuery()) {
+                    readAuctions(rs, auctions);
+                }
+            }
+        }
+        auctions.sort(Comparator.comparing(Auction::getAuctionEndTime).thenComparingInt(Auction::getAuctionID));
+        return auctions;
+    }
+
+    private static void readAuctions(ResultSet rs, List<Auction> auctions) throws SQLException {
+        while (rs.next()) {
+            Auction auction = new Auction();
+            auction.setAuctionID(rs.getInt("auctionID"));
+            auction.setAuctionStartTime(rs.getTimestamp("auctionStartTime").toLocalDateTime());
+            auction.setAuctionEndTime(rs.getTimestamp("auctionEndTime").toLocalDateTime());
+            auction.setAuctionCurrentHighestBid(rs.getDouble("auctionCurrentHighestBid"));
+            auction.setAuctionStatus(rs.getString("auctionStatus"));
+            auction.setItemID(rs.getInt("itemID"));
+            auction.setSellerID(rs.getInt("sellerID"));
+            auction.setBuyerID(rs.getInt("buyerID"));
+            auctions.add(auction);
+        }
+    }
+
+    // Insert memberships with one batch (a multi-row INSERT with rewriteBatchedStatements)
+    private static void addAuctions(Connection con, int catalogueID, Collection<Integer> auctionIDs) throws SQLException {
+        if (auctionIDs == null || auctionIDs.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT IGNORE INTO catalogue_auction (catalogueID, auctionID) VALUES (?, ?)";
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            for (int auctionID : auctionIDs) {
+                pstat.setInt(1, catalogueID);
+                pstat.setInt(2, auctionID);
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+        }
+    }
+
+    // Build catalogues from rows of (catalogueID, catalogueTitle, auctionID) ordered by catalogueID
+    private static List<Catalogue> readCatalogues(ResultSet rs) throws SQLException {
+        Map<Integer, Catalogue> catalogues = new LinkedHashMap<>();
+        while (rs.next()) {
+            int catalogueID = rs.getInt("catalogueID");
+            Catalogue catalogue = catalogues.get(catalogueID);
+            if (catalogue == null) {
+                catalogue = new Catalogue(catalogueID, rs.getString("catalogueTitle"));
+                catalogues.put(catalogueID, catalogue);
+            }
+            int auctionID = rs.getInt("auctionID");
+            if (!rs.wasNull()) {
+                catalogue.getAuctionsList().add(auctionID);
+            }
         }
+        return new ArrayList<>(catalogues.values());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.DAO;
+
+import java.io.IOException;
+import java.sql.*;
+
+/**
+ * Data Access Object (DAO) for streaming whole tables to an export.
+ *
+ * <p>Unlike the getAll* methods, rows are never collected into a List: each query runs on a
+ * forward-only, read-only statement and every row is handed to a {@link RowHandler} as soon as it
+ * arrives. On MySQL the fetch size is Integer.MIN_VALUE, which makes Connector/J stream the result
+ * one row at a time; other drivers (the embedded H2 database) reject that value and keep their own
+ * fetch size. While a result is streaming no other statement can run on the same connection, so
+ * callers should use a dedicated connection (DBConnector.openConnection()).</p>
+ */
+public class ExportDAO {
+
+    /**
+     * Receives the rows of a streamed query.
+     */
+    public interface RowHandler {
+        /**
+         * Called once before the first row, also when the result is empty.
+         */
+        void onStart(ResultSetMetaData meta) throws SQLException, IOException;
+
+        /**
+         * Called for every row; the ResultSet is positioned on the row and must not be advanced.
+         */
+        void onRow(ResultSet rs) throws SQLException, IOException;
+    }
+
+    /**
+     * Streams every auction, in auctionID order.
+     *
+     * @param con the connection to read with
+     * @param handler receives the columns and then each row
+     * @return the number of rows streamed
+     * @throws SQLException if a database access error occurs during the query
+     * @throws IOException if the handler fails to write a row
+     */
+    public static long streamAuctions(Connection con, RowHandler handler) throws SQLException, IOException {
+        String sql = "SELECT auctionID, auctionStartTime, auctionEndTime, auctionCurrentHighestBid, auctionStatus, "
+                + "itemID, sellerID, buyerID FROM auction ORDER BY auctionID";
+        return stream(con, sql, handler);
+    }
+
+    /**
+     * Streams every bid, in bidID order.
+     *
+     * @param con the connection to read with
+     * @param handler receives the columns and then each row
+     * @return the number of rows streamed
+     * @throws SQLException if a database access error occurs during the query
+     * @throws IOException if the handler fails to write a row
+     */
+    public static long streamBids(Connection con, RowHandler handler) throws SQLException, IOException {
+        String sql = "SELECT bidID, bidAmount, bidTime, auctionID, buyerID FROM bid ORDER BY bidID";
+        return stream(con, sql, handler);
+    }
+
+    /**
+     * Streams every payment, in paymentID order.
+     *
+     * @param con the connection to read with
+     * @param handler receives the columns and then each row
+     * @return the number of rows streamed
+     * @throws SQLException if a database access error occurs during the query
+     * @throws IOException if the handler fails to write a row
+     */
+    public static long streamPayments(Connection con, RowHandler handler) throws SQLException, IOException {
+        String sql = "SELECT paymentID, paymentAmount, paymentStatus, auctionID, buyerID, sellerID FROM payment "
+                + "ORDER BY paymentID";
+        return stream(con, sql, handler);
+    }
+
+    /**
+     * Reads the optimizer's estimate of a table's row count, which is cheap unlike COUNT(*).
+     * Only MySQL has the estimate; other databases (the embedded H2 one, which is small) are counted.
+     *
+     * @param con the connection to read with
+     * @param tableName the name of the table, one of the exported tables
+     * @return the estimated number of rows, or 0 if unknown
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static long estimateRowCount(Connection con, String tableName) throws SQLException {
+        if (!isMySQL(con)) {
+            try (Statement stat = con.createStatement();
+                 ResultSet rs = stat.executeQuery("SELECT COUNT(*) FROM " + tableName)) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+        String sql = "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setString(1, tableName);
+            try (ResultSet rs = pstat.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static long stream(Connection con, String sql, RowHandler handler) throws SQLException, IOException {
+        long rows = 0;
+
+        try (PreparedStatement pstat = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            if (isMySQL(con)) {
+                pstat.setFetchSize(Integer.MIN_VALUE); // stream row by row instead of buffering the whole result
+            }
+            try (ResultSet rs = pstat.executeQuery()) {
+                handler.onStart(rs.getMetaData());
+                while (rs.next()) {
+                    handler.onRow(rs);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static boolean isMySQL(Connection con) throws SQLException {
+        return con.getMetaData().getURL().startsWith("jdbc:mysql:");
+    }
+}
@@ -1,7 +1,10 @@
 package com.DAO;
 
 import com.Database.DBConnector;
+import com.Database.ReadConsistency;
+import com.Database.ReplicaRouter;
 import com.Entities.Item;
+import com.Services.SearchService;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -48,6 +51,7 @@ public class ItemDAO {
                     itemID = generatedKeys.getInt(1);
                     item.setItemID(itemID);
                     System.out.println("Generated Item ID: " + itemID);
+                    SearchService.onItemSaved(item);
                 }
             }
         } catch (Exception e) {
@@ -65,6 +69,77 @@ public class ItemDAO {
         return itemID;
     }
 
+    /**
+     * Inserts many item records as one JDBC batch.
+     *
+     * <p>With rewriteBatchedStatements enabled on the connection URL the driver sends the batch as
+     * multi-row INSERT statements. The generated itemIDs are set on the Item objects in order.
+     * The caller owns the transaction and commits.</p>
+     *
+     * @param con the connection of the surrounding transaction
+     * @param items the Item objects to insert
+     * @throws SQLException if a database access error occurs during insertion
+     */
+    public static void createItems(Connection con, List<Item> items) throws SQLException {
+        PreparedStatement pstat = null;
+        ResultSet generatedKeys = null;
+        String sql = "INSERT INTO item (itemName, itemDescription, itemStartingPrice, itemImage) VALUES (?, ?, ?, ?)";
+
+        try {
+            pstat = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (Item item : items) {
+                pstat.setString(1, item.getItemName());
+                pstat.setString(2, item.getItemDescription());
+                pstat.setDouble(3, item.getItemStartingPrice());
+                pstat.setBytes(4, item.getItemImage());
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+
+            generatedKeys = pstat.getGeneratedKeys();
+            int index = 0;
+            while (generatedKeys.next() && index < items.size()) {
+                items.get(index++).setItemID(generatedKeys.getInt(1));
+            }
+        } finally {
+            if (generatedKeys != null) generatedKeys.close();
+            if (pstat != null) pstat.close();
+        }
+    }
+
+    /**
+     * Retrieves the ID, name and description of every item, without the image.
+     *
+     * <p>Used to build the search index; leaving out the image keeps the result small.</p>
+     *
+     * @param con the connection to read with
+     * @return a List of Item objects whose itemImage is null
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Item> getAllItemTexts(Connection con) throws SQLException {
+        PreparedStatement pstat = null;
+        ResultSet rs = null;
+        List<Item> items = new ArrayList<>();
+        String sql = "SELECT itemID, itemName, itemDescription, itemStartingPrice FROM item";
+
+        try {
+            pstat = con.prepareStatement(sql);
+            rs = pstat.executeQuery();
+            while (rs.next()) {
+                Item item = new Item();
+                item.setItemID(rs.getInt("itemID"));
+                item.setItemName(rs.getString("itemName"));
+                item.setItemDescription(rs.getString("itemDescription"));
+                item.setItemStartingPrice(rs.getDouble("itemStartingPrice"));
+                items.add(item);
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstat != null) pstat.close();
+        }
+        return items;
+    }
+
     /**
      * Updates an existing item record in the database.
      *
@@ -89,7 +164,11 @@ public class ItemDAO {
             pstat.setInt(5, item.getItemID());
 
             int i = pstat.executeUpdate();
+            ReplicaRouter.recordWrite();
             System.out.println(i + " Item successfully updated in the table.");
+            if (i > 0) {
+                SearchService.onItemSaved(item);
+            }
         } catch (Exception e) {
             System.err.println("Error updating item: " + e.getMessage());
             e.printStackTrace();
@@ -121,7 +200,7 @@ public class ItemDAO {
         String sql = "SELECT * FROM item WHERE itemID = ?";
 
         try {
-            con = DBConnector.getConnection();
+            con = DBConnector.getReadConnection(ReadConsistency.READ_YOUR_WRITES);
             pstat = con.prepareStatement(sql);
             pstat.setInt(1, itemID);
 
@@ -167,6 +246,9 @@ public class ItemDAO {
 
             int i = pstat.executeUpdate();
             System.out.println(i + " Item successfully deleted from the table.");
+            if (i > 0) {
+                SearchService.onItemDeleted(itemID);
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting item: " + e.getMessage());
             e.printStackTrace();
@@ -197,7 +279,7 @@ public class ItemDAO {
         String sql = "SELECT * FROM item";
 
         try {
-            con = DBConnector.getConnection();
+            con = DBConnector.getReadConnection(ReadConsistency.REPLICA);
             pstat = con.prepareStatement(sql);
             rs = pstat.executeQuery();
 
@@ -0,0 +1,132 @@
+package com.DAO;
+
+import com.Entities.LedgerEntry;
+import com.Entities.Payment;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object (DAO) for the append-only ledger_entry table.
+ *
+ * <p>Entries are only ever inserted. The unique key on (reference, lineNo) makes posting the
+ * same transaction twice fail, so a retried or repeated posting cannot count money twice.</p>
+ */
+public class LedgerDAO {
+
+    /**
+     * Inserts ledger entries with one batch.
+     *
+     * @param con the connection of the surrounding transaction
+     * @param entries the entries to insert
+     * @throws SQLException if a database access error occurs, including an entry that was already posted
+     */
+    public static void insertEntries(Connection con, List<LedgerEntry> entries) throws SQLException {
+        String sql = "INSERT INTO ledger_entry (reference, lineNo, account, ownerID, amount, paymentID, createdAt) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            for (LedgerEntry entry : entries) {
+                pstat.setString(1, entry.getReference());
+                pstat.setInt(2, entry.getLineNo());
+                pstat.setString(3, entry.getAccount());
+                pstat.setInt(4, entry.getOwnerID());
+                pstat.setDouble(5, entry.getAmount());
+                pstat.setInt(6, entry.getPaymentID());
+                pstat.setTimestamp(7, Timestamp.valueOf(entry.getCreatedAt()));
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+        }
+    }
+
+    /**
+     * Retrieves the ledger entries of one seller, newest first, for auditing.
+     *
+     * @param con the connection to read with
+     * @param sellerID the ID of the seller
+     * @return the entries on the seller's accounts
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<LedgerEntry> getEntriesBySeller(Connection con, int sellerID) throws SQLException {
+        List<LedgerEntry> entries = new ArrayList<>();
+        String sql = "SELECT * FROM ledger_entry WHERE account IN ('SELLER_PENDING', 'SELLER_EARNINGS') AND ownerID = ? "
+                + "ORDER BY entryID DESC";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setInt(1, sellerID);
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    LedgerEntry entry = new LedgerEntry(rs.getString("reference"), rs.getInt("lineNo"),
+                            rs.getString("account"), rs.getInt("ownerID"), rs.getDouble("amount"),
+                            rs.getInt("paymentID"), rs.getTimestamp("createdAt").toLocalDateTime());
+                    entry.setEntryID(rs.getLong("entryID"));
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Sums the seller accounts of the whole ledger.
+     *
+     * @param con the connection to read with
+     * @return a Map from sellerID to {earnings, pending earnings}, both as positive balances
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Map<Integer, double[]> getSellerBalances(Connection con) throws SQLException {
+        Map<Integer, double[]> balances = new HashMap<>();
+        String sql = "SELECT ownerID, "
+                + "-SUM(CASE WHEN account = 'SELLER_EARNINGS' THEN amount ELSE 0 END) AS earnings, "
+                + "-SUM(CASE WHEN account = 'SELLER_PENDING' THEN amount ELSE 0 END) AS pending "
+                + "FROM ledger_entry WHERE account IN ('SELLER_PENDING', 'SELLER_EARNINGS') GROUP BY ownerID";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql);
+             ResultSet rs = pstat.executeQuery()) {
+            while (rs.next()) {
+                balances.put(rs.getInt("ownerID"), new double[]{rs.getDouble("earnings"), rs.getDouble("pending")});
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * Retrieves payments whose posting with the given prefix is missing from the ledger.
+     * Archived payments are included, so reconciling never drops earnings that were archived.
+     *
+     * @param con the connection to read with
+     * @param referencePrefix "SALE" or "PAYMENT"
+     * @param completedOnly whether to consider only COMPLETED payments
+     * @return the payments without that posting
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Payment> getUnpostedPayments(Connection con, String referencePrefix, boolean completedOnly)
+            throws SQLException {
+        List<Payment> payments = new ArrayList<>();
+        String sql = "SELECT p.* FROM (SELECT paymentID, paymentAmount, paymentStatus, auctionID, buyerID, sellerID FROM payment "
+                + "UNION ALL SELECT paymentID, paymentAmount, paymentStatus, auctionID, buyerID, sellerID FROM payment_archive) p "
+                + "WHERE NOT EXISTS (SELECT 1 FROM ledger_entry l "
+                + "WHERE l.reference = CONCAT(?, ':', p.paymentID) AND l.lineNo = 1)"
+                + (completedOnly ? " AND p.paymentStatus = 'COMPLETED'" : "");
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setString(1, referencePrefix);
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    Payment payment = new Payment();
+                    payment.setPaymentID(rs.getInt("paymentID"));
+                    payment.setPaymentAmount(rs.getDouble("paymentAmount"));
+                    payment.setPaymentStatus(rs.getString("paymentStatus"));
+                    payment.setAuctionID(rs.getInt("auctionID"));
+                    payment.setBuyerID(rs.getInt("buyerID"));
+                    payment.setSellerID(rs.getInt("sellerID"));
+                    payments.add(payment);
+                }
+            }
+        }
+        return payments;
+    }
+}
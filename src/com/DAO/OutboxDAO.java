@@ -0,0 +1,189 @@
+package com.DAO;
+
+import com.Entities.OutboxEvent;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) for the outbox table and the positions of its consumers.
+ *
+ * <p>Events are appended with the connection of the transaction that makes the change they
+ * describe, so an event exists if and only if its change was committed. The relay in
+ * OutboxService reads them back in eventID order.</p>
+ */
+public class OutboxDAO {
+
+    /**
+     * Appends events to the outbox with one batch.
+     *
+     * @param con the connection of the transaction making the change
+     * @param events the events to append; their generated eventIDs are set
+     * @throws SQLException if a database access error occurs during insertion
+     */
+    public static void appendEvents(Connection con, List<OutboxEvent> events) throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO outbox (eventType, aggregateType, aggregateID, payload, createdAt) VALUES (?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (OutboxEvent event : events) {
+                pstat.setString(1, event.getEventType());
+                pstat.setString(2, event.getAggregateType());
+                pstat.setInt(3, event.getAggregateID());
+                pstat.setString(4, event.getPayload());
+                pstat.setTimestamp(5, Timestamp.valueOf(event.getCreatedAt()));
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+            try (ResultSet keys = pstat.getGeneratedKeys()) {
+                for (int i = 0; i < events.size() && keys.next(); i++) {
+                    events.get(i).setEventID(keys.getLong(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the events that follow a position, oldest first.
+     *
+     * @param con the connection to read with
+     * @param afterEventID the last eventID already handled
+     * @param limit the maximum number of events
+     * @return the events with a greater eventID, in eventID order
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<OutboxEvent> getEventsAfter(Connection con, long afterEventID, int limit) throws SQLException {
+        List<OutboxEvent> events = new ArrayList<>();
+        String sql = "SELECT * FROM outbox WHERE eventID > ? ORDER BY eventID LIMIT ?";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setLong(1, afterEventID);
+            pstat.setInt(2, limit);
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    events.add(readEvent(rs));
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Retrieves the events with the given IDs that exist, e.g. ones the relay skipped because they
+     * were committed late.
+     *
+     * @param con the connection to read with
+     * @param eventIDs the IDs to look for
+     * @return the events found, in eventID order
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<OutboxEvent> getEventsByIDs(Connection con, Collection<Long> eventIDs) throws SQLException {
+        List<OutboxEvent> events = new ArrayList<>();
+        if (eventIDs.isEmpty()) {
+            return events;
+        }
+        String sql = "SELECT * FROM outbox WHERE eventID IN ("
+                + String.join(", ", Collections.nCopies(eventIDs.size(), "?")) + ") ORDER BY eventID";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            int index = 1;
+            for (long eventID : eventIDs) {
+                pstat.setLong(index++, eventID);
+            }
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    events.add(readEvent(rs));
+                }
+            }
+        }
+        return events;
+    }
+
+    private static OutboxEvent readEvent(ResultSet rs) throws SQLException {
+        OutboxEvent event = new OutboxEvent(rs.getString("eventType"), rs.getString("aggregateType"),
+                rs.getInt("aggregateID"), rs.getString("payload"),
+                rs.getTimestamp("createdAt").toLocalDateTime());
+        event.setEventID(rs.getLong("eventID"));
+        return event;
+    }
+
+    /**
+     * Retrieves the highest eventID written so far.
+     *
+     * @param con the connection to read with
+     * @return the highest eventID, or 0 if the outbox is empty
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static long getLastEventID(Connection con) throws SQLException {
+        try (PreparedStatement pstat = con.prepareStatement("SELECT COALESCE(MAX(eventID), 0) FROM outbox");
+             ResultSet rs = pstat.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Retrieves the position of a consumer.
+     *
+     * @param con the connection to read with
+     * @param consumerName the name of the consumer
+     * @return the last eventID the consumer has handled, or -1 if it has never run
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static long getConsumerPosition(Connection con, String consumerName) throws SQLException {
+        String sql = "SELECT lastEventID FROM outbox_consumer WHERE consumerName = ?";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setString(1, consumerName);
+            try (ResultSet rs = pstat.executeQuery()) {
+                return rs.next() ? rs.getLong("lastEventID") : -1;
+            }
+        }
+    }
+
+    /**
+     * Stores the position of a consumer.
+     *
+     * @param con the connection to write with
+     * @param consumerName the name of the consumer
+     * @param lastEventID the last eventID the consumer has handled
+     * @throws SQLException if a database access error occurs during the update
+     */
+    public static void saveConsumerPosition(Connection con, String consumerName, long lastEventID) throws SQLException {
+        String sql = "INSERT INTO outbox_consumer (consumerName, lastEventID, updatedAt) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE lastEventID = VALUES(lastEventID), updatedAt = VALUES(updatedAt)";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setString(1, consumerName);
+            pstat.setLong(2, lastEventID);
+            pstat.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            pstat.executeUpdate();
+        }
+    }
+
+    /**
+     * Deletes old events that every consumer has handled, oldest first.
+     * Without any consumer, events are only kept until the cutoff.
+     *
+     * @param con the connection to write with
+     * @param olderThan only events created before this time are deleted
+     * @param limit the maximum number of events to delete
+     * @return the number of events deleted
+     * @throws SQLException if a database access error occurs during the deletion
+     */
+    public static int deleteHandledEvents(Connection con, LocalDateTime olderThan, int limit) throws SQLException {
+        String sql = "DELETE FROM outbox WHERE createdAt < ? "
+                + "AND eventID <= COALESCE((SELECT MIN(lastEventID) FROM outbox_consumer), ?) ORDER BY eventID LIMIT ?";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setTimestamp(1, Timestamp.valueOf(olderThan));
+            pstat.setLong(2, Long.MAX_VALUE);
+            pstat.setInt(3, limit);
+            return pstat.executeUpdate();
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.DAO;
 
 import com.Database.DBConnector;
+import com.Database.ReadConsistency;
+import com.Database.ReplicaRouter;
+import com.Database.ShardRouter;
 import com.Entities.Payment;
+import com.Services.OutboxService;
+import com.Services.StatisticsService;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Data Access Object (DAO) for performing CRUD operations on Payment records.
+ *
+ * <p>Payments live on the shard of their auction (see ShardRouter); while sharded, a new payment's
+ * key carries the auction's bucket.</p>
  */
 public class PaymentDAO {
 
@@ -15,36 +25,67 @@ public class PaymentDAO {
      * Creates a new payment record in the database.
      *
      * <p>This method inserts a new record into the payment table with details such as paymentAmount,
-     * paymentStatus, auctionID, buyerID, and sellerID.</p>
+     * paymentStatus, auctionID, buyerID, and sellerID. The generated paymentID is set on the payment,
+     * and the insert and its outbox event are committed together.</p>
      *
      * @param payment the Payment object containing payment details
      * @throws SQLException if a database access error occurs during insertion
      */
     public static void createPayment(Payment payment) throws SQLException {
         int i = 0;
-        String sql = "INSERT INTO payment (paymentAmount, paymentStatus, auctionID, buyerID, sellerID) VALUES (?, ?, ?, ?, ?)";
+        boolean sharded = ShardRouter.isSharded();
+        String sql = insertSql(sharded);
+        Connection con = null;
+        PreparedStatement pstat = null;
         try {
-            Connection con = DBConnector.getConnection();
-            PreparedStatement pstat = con.prepareStatement(sql);
+            con = DBConnector.getShardConnection(ShardRouter.shardOf(payment.getAuctionID()));
+            con.setAutoCommit(false);
+            pstat = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
 
             pstat.setDouble(1, payment.getPaymentAmount());
             pstat.setString(2, payment.getPaymentStatus());
             pstat.setInt(3, payment.getAuctionID());
             pstat.setInt(4, payment.getBuyerID());
             pstat.setInt(5, payment.getSellerID());
+            if (sharded) {
+                payment.setPaymentID(ShardRouter.nextKey("payment", "paymentID", ShardRouter.bucketOf(payment.getAuctionID())));
+                pstat.setInt(6, payment.getPaymentID());
+            }
 
             i = pstat.executeUpdate();
             System.out.println(i + " Payment successfully added to the table");
+            if (i > 0) {
+                try (ResultSet keys = pstat.getGeneratedKeys()) {
+                    if (!sharded && keys.next()) {
+                        payment.setPaymentID(keys.getInt(1));
+                    }
+                }
+                OutboxDAO.appendEvents(con, List.of(OutboxService.paymentEvent(OutboxService.PAYMENT_CREATED, payment)));
+            }
+            con.commit();
+            ReplicaRouter.recordWrite();
+            if (i > 0) {
+                StatisticsService.onPaymentSaved(payment);
+            }
         } catch (Exception e) {
             System.err.println("Error creating payment: " + e.getMessage());
             e.printStackTrace();
+            rollback(con);
+        } finally {
+            try {
+                if (pstat != null) pstat.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing resources: " + e.getMessage());
+            }
+            resetAutoCommit(con);
         }
     }
 
     /**
      * Updates an existing payment record in the database.
      *
-     * <p>This method updates the payment table with new details for the specified paymentID.</p>
+     * <p>This method updates the payment table with new details for the specified paymentID.
+     * The update and its outbox event are committed together. It does not post to the ledger; completing a payment goes through LedgerService.completePayment.</p>
      *
      * @param payment the Payment object containing updated payment details
      * @throws SQLException if a database access error occurs during the update
@@ -52,9 +93,12 @@ public class PaymentDAO {
     public static void updatePayment(Payment payment) throws SQLException {
         int i = 0;
         String sql = "UPDATE payment SET paymentAmount = ?, paymentStatus = ?, auctionID = ?, buyerID = ?, sellerID = ? WHERE paymentID = ?";
+        Connection con = null;
+        PreparedStatement pstat = null;
         try {
-            Connection con = DBConnector.getConnection();
-            PreparedStatement pstat = con.prepareStatement(sql);
+            con = DBConnector.getShardConnection(ShardRouter.shardOf(payment.getAuctionID()));
+            con.setAutoCommit(false);
+            pstat = con.prepareStatement(sql);
 
             pstat.setDouble(1, payment.getPaymentAmount());
             pstat.setString(2, payment.getPaymentStatus());
@@ -65,9 +109,25 @@ public class PaymentDAO {
 
             i = pstat.executeUpdate();
             System.out.println(i + " Payment successfully updated in the table.");
+            if (i > 0) {
+                OutboxDAO.appendEvents(con, List.of(OutboxService.paymentEvent(OutboxService.PAYMENT_UPDATED, payment)));
+            }
+            con.commit();
+            ReplicaRouter.recordWrite();
+            if (i > 0) {
+                StatisticsService.onPaymentSaved(payment);
+            }
         } catch (Exception e) {
             System.err.println("Error updating payment: " + e.getMessage());
             e.printStackTrace();
+            rollback(con);
+        } finally {
+            try {
+                if (pstat != null) pstat.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing resources: " + e.getMessage());
+            }
+            resetAutoCommit(con);
         }
     }
 
@@ -75,7 +135,9 @@ public class PaymentDAO {
      * Retrieves a payment record by its ID.
      *
      * <p>This method executes a SQL query to fetch a payment record using the provided paymentID,
-     * and returns a Payment object populated with the corresponding details if found.</p>
+     * and returns a Payment object populated with the corresponding details if found. A payment created
+     * before sharding is not on the shard its ID names, so when sharded and not found there, every
+     * shard is asked.</p>
      *
      * @param paymentID the unique identifier of the payment
      * @return the Payment object if found; null otherwise
@@ -84,12 +146,14 @@ public class PaymentDAO {
     public static Payment getPaymentByID(int paymentID) throws SQLException {
         Payment payment = null;
         String sql = "SELECT * FROM payment WHERE paymentID = ?";
+        PreparedStatement pstat = null;
+        ResultSet rs = null;
         try {
-            Connection con = DBConnector.getConnection();
-            PreparedStatement pstat = con.prepareStatement(sql);
+            Connection con = DBConnector.getShardReadConnection(ShardRouter.shardOf(paymentID), ReadConsistency.READ_YOUR_WRITES);
+            pstat = con.prepareStatement(sql);
             pstat.setInt(1, paymentID);
 
-            ResultSet rs = pstat.executeQuery();
+            rs = pstat.executeQuery();
             if (rs.next()) {
                 payment = new Payment();
                 payment.setPaymentID(rs.getInt("paymentID"));
@@ -99,9 +163,32 @@ public class PaymentDAO {
                 payment.setBuyerID(rs.getInt("buyerID"));
                 payment.setSellerID(rs.getInt("sellerID"));
             }
+            if (payment == null) {
+                payment = ArchiveDAO.getArchivedPaymentByID(con, paymentID);
+            }
+            if (payment == null && ShardRouter.isSharded()) {
+                List<Payment> found = ShardRouter.scatter(shard -> {
+                    Connection shardCon = DBConnector.getShardReadConnection(shard, ReadConsistency.READ_YOUR_WRITES);
+                    List<Payment> rows;
+                    try (PreparedStatement query = shardCon.prepareStatement(sql)) {
+                        query.setInt(1, paymentID);
+                        rows = readPayments(query);
+                    }
+                    Payment archived = rows.isEmpty() ? ArchiveDAO.getArchivedPaymentByID(shardCon, paymentID) : null;
+                    return archived != null ? List.of(archived) : rows;
+                });
+                payment = found.isEmpty() ? null : found.get(0);
+            }
         } catch (Exception e) {
             System.err.println("Error retrieving payment: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (pstat != null) pstat.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing resources: " + e.getMessage());
+            }
         }
         return payment;
     }
@@ -115,23 +202,22 @@ public class PaymentDAO {
      * @throws SQLException if a database access error occurs during deletion
      */
     public static void deletePayment(int paymentID) throws SQLException {
-        int i = 0;
         String sql = "DELETE FROM payment WHERE paymentID = ?";
-        Connection con = null;
-        PreparedStatement pstat = null;
         try {
-            con = DBConnector.getConnection();
-            pstat = con.prepareStatement(sql);
-            pstat.setInt(1, paymentID);
-
-            i = pstat.executeUpdate();
+            // Asks every shard, since a payment created before sharding is not on the shard its ID names.
+            int i = 0;
+            for (int deleted : ShardRouter.scatter(shard -> {
+                try (PreparedStatement pstat = DBConnector.getShardConnection(shard).prepareStatement(sql)) {
+                    pstat.setInt(1, paymentID);
+                    return List.of(pstat.executeUpdate());
+                }
+            })) {
+                i += deleted;
+            }
             System.out.println(i + " Payment successfully deleted from the table.");
         } catch (Exception e) {
             System.err.println("Error deleting payment: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            if (pstat != null) pstat.close();
-            if (con != null) con.close();
         }
     }
 
@@ -148,11 +234,73 @@ public class PaymentDAO {
         List<Payment> payments = new ArrayList<>();
         String sql = "SELECT * FROM payment";
         try {
-            Connection con = DBConnector.getConnection();
-            PreparedStatement pstat = con.prepareStatement(sql);
+            payments = ShardRouter.scatter(shard -> {
+                try (PreparedStatement pstat = DBConnector.getShardReadConnection(shard, ReadConsistency.READ_YOUR_WRITES)
+                        .prepareStatement(sql)) {
+                    return readPayments(pstat);
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Error retrieving all payments: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return payments;
+    }
 
-            ResultSet rs = pstat.executeQuery();
-            while (rs.next()) {
+    /**
+     * Creates several payment records with one batch.
+     *
+     * <p>The payment table has a unique key on auctionID, so a second payment for the same auction
+     * fails the batch instead of being stored. The generated paymentIDs are set on the payments.
+     * The connection must be the shard of all their auctions.</p>
+     *
+     * @param con the connection of the surrounding transaction
+     * @param payments the payments to insert
+     * @throws SQLException if a database access error occurs, including a duplicate auctionID
+     */
+    public static void createPayments(Connection con, List<Payment> payments) throws SQLException {
+        boolean sharded = ShardRouter.isSharded();
+        String sql = insertSql(sharded);
+
+        try (PreparedStatement pstat = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Payment payment : payments) {
+                pstat.setDouble(1, payment.getPaymentAmount());
+                pstat.setString(2, payment.getPaymentStatus());
+                pstat.setInt(3, payment.getAuctionID());
+                pstat.setInt(4, payment.getBuyerID());
+                pstat.setInt(5, payment.getSellerID());
+                if (sharded) {
+                    payment.setPaymentID(ShardRouter.nextKey("payment", "paymentID", ShardRouter.bucketOf(payment.getAuctionID())));
+                    pstat.setInt(6, payment.getPaymentID());
+                }
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+            try (ResultSet keys = pstat.getGeneratedKeys()) {
+                for (int i = 0; !sharded && i < payments.size() && keys.next(); i++) {
+                    payments.get(i).setPaymentID(keys.getInt(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves a payment and locks its row until the surrounding transaction ends.
+     *
+     * @param con the connection of the surrounding transaction
+     * @param paymentID the ID of the payment
+     * @return the Payment, or null if there is none
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Payment getPaymentForUpdate(Connection con, int paymentID) throws SQLException {
+        String sql = "SELECT * FROM payment WHERE paymentID = ? FOR UPDATE";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setInt(1, paymentID);
+            try (ResultSet rs = pstat.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
                 Payment payment = new Payment();
                 payment.setPaymentID(rs.getInt("paymentID"));
                 payment.setPaymentAmount(rs.getDouble("paymentAmount"));
@@ -160,13 +308,131 @@ public class PaymentDAO {
                 payment.setAuctionID(rs.getInt("auctionID"));
                 payment.setBuyerID(rs.getInt("buyerID"));
                 payment.setSellerID(rs.getInt("sellerID"));
+                return payment;
+            }
+        }
+    }
 
+    /**
+     * Marks a payment COMPLETED if it is still PENDING.
+     *
+     * @param con the connection of the surrounding transaction
+     * @param paymentID the ID of the payment
+     * @return true if this call completed the payment, false if it was not pending
+     * @throws SQLException if a database access error occurs during the update
+     */
+    public static boolean completePayment(Connection con, int paymentID) throws SQLException {
+        String sql = "UPDATE payment SET paymentStatus = 'COMPLETED' WHERE paymentID = ? AND paymentStatus = 'PENDING'";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setInt(1, paymentID);
+            return pstat.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Retrieves which of the given auctions already have a payment.
+     *
+     * @param con the connection to read with
+     * @param auctionIDs the IDs of the auctions
+     * @return the auctionIDs that have a payment row
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Set<Integer> getAuctionIDsWithPayment(Connection con, List<Integer> auctionIDs) throws SQLException {
+        Set<Integer> paid = new HashSet<>();
+        if (auctionIDs.isEmpty()) {
+            return paid;
+        }
+        StringBuilder sql = new StringBuilder("SELECT auctionID FROM payment WHERE auctionID IN (");
+        for (int i = 0; i < auctionIDs.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        try (PreparedStatement pstat = con.prepareStatement(sql.toString())) {
+            for (int i = 0; i < auctionIDs.size(); i++) {
+                pstat.setInt(i + 1, auctionIDs.get(i));
+            }
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    paid.add(rs.getInt("auctionID"));
+                }
+            }
+        }
+        return paid;
+    }
+
+    /**
+     * Retrieves the payment of an auction.
+     *
+     * @param auctionID the ID of the auction
+     * @return the Payment, or null if the auction has none
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Payment getPaymentByAuctionID(int auctionID) throws SQLException {
+        Payment payment = null;
+        String sql = "SELECT * FROM payment WHERE auctionID = ?";
+        Connection con = DBConnector.getShardReadConnection(ShardRouter.shardOf(auctionID), ReadConsistency.READ_YOUR_WRITES);
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            pstat.setInt(1, auctionID);
+            try (ResultSet rs = pstat.executeQuery()) {
+                if (rs.next()) {
+                    payment = new Payment();
+                    payment.setPaymentID(rs.getInt("paymentID"));
+                    payment.setPaymentAmount(rs.getDouble("paymentAmount"));
+                    payment.setPaymentStatus(rs.getString("paymentStatus"));
+                    payment.setAuctionID(rs.getInt("auctionID"));
+                    payment.setBuyerID(rs.getInt("buyerID"));
+                    payment.setSellerID(rs.getInt("sellerID"));
+                }
+            }
+        }
+        return payment;
+    }
+
+    // While sharded the key is allocated by ShardRouter and inserted; otherwise AUTO_INCREMENT assigns it.
+    private static String insertSql(boolean withKey) {
+        return withKey ? "INSERT INTO payment (paymentAmount, paymentStatus, auctionID, buyerID, sellerID, paymentID) VALUES (?, ?, ?, ?, ?, ?)"
+                : "INSERT INTO payment (paymentAmount, paymentStatus, auctionID, buyerID, sellerID) VALUES (?, ?, ?, ?, ?)";
+    }
+
+    /**
+     * Executes a query whose rows are payment rows and maps them to Payment objects.
+     */
+    private static List<Payment> readPayments(PreparedStatement pstat) throws SQLException {
+        List<Payment> payments = new ArrayList<>();
+        try (ResultSet rs = pstat.executeQuery()) {
+            while (rs.next()) {
+                Payment payment = new Payment();
+                payment.setPaymentID(rs.getInt("paymentID"));
+                payment.setPaymentAmount(rs.getDouble("paymentAmount"));
+                payment.setPaymentStatus(rs.getString("paymentStatus"));
+                payment.setAuctionID(rs.getInt("auctionID"));
+                payment.setBuyerID(rs.getInt("buyerID"));
+                payment.setSellerID(rs.getInt("sellerID"));
                 payments.add(payment);
             }
-        } catch (Exception e) {
-            System.err.println("Error retrieving all payments: " + e.getMessage());
-            e.printStackTrace();
         }
         return payments;
     }
+
+    /**
+     * Rolls back a failed write on the shared connection so its outbox event is discarded with it.
+     */
+    private static void rollback(Connection con) {
+        try {
+            if (con != null && !con.getAutoCommit()) con.rollback();
+        } catch (SQLException e) {
+            System.err.println("Error rolling back: " + e.getMessage());
+        }
+    }
+
+    private static void resetAutoCommit(Connection con) {
+        try {
+            if (con != null) con.setAutoCommit(true);
+        } catch (SQLException e) {
+            System.err.println("Error resetting auto-commit: " + e.getMessage());
+        }
+    }
 }
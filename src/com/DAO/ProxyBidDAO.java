@@ -0,0 +1,130 @@
+package com.DAO;
+
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Entities.ProxyBid;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) for ProxyBid records.
+ *
+ * <p>A proxy bid stores the maximum a buyer is willing to pay for an auction. The rows are only
+ * read and written by BidService while it holds the auction row lock, so the transactional
+ * methods take the caller's Connection and let any SQLException propagate for rollback.</p>
+ */
+public class ProxyBidDAO {
+
+    /**
+     * Registers or raises a buyer's proxy bid for an auction.
+     *
+     * <p>If the buyer already has a proxy on the auction, the stored maximum is raised to the new value
+     * but never lowered, and the original createdTime is kept so the buyer does not lose tie precedence.</p>
+     *
+     * @param con the connection of the surrounding transaction
+     * @param proxyBid the ProxyBid object containing the auction, buyer and maximum amount
+     * @throws SQLException if a database access error occurs during the upsert
+     */
+    public static void saveProxyBid(Connection con, ProxyBid proxyBid) throws SQLException {
+        PreparedStatement pstat = null;
+        String sql = "INSERT INTO proxy_bid (auctionID, buyerID, maxAmount, createdTime) VALUES (?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE maxAmount = GREATEST(maxAmount, VALUES(maxAmount))";
+
+        try {
+            pstat = con.prepareStatement(sql);
+            pstat.setInt(1, proxyBid.getAuctionID());
+            pstat.setInt(2, proxyBid.getBuyerID());
+            pstat.setDouble(3, proxyBid.getMaxAmount());
+            pstat.setTimestamp(4, Timestamp.valueOf(proxyBid.getCreatedTime()));
+
+            int i = pstat.executeUpdate();
+            System.out.println(i + " Proxy bid successfully saved to the table");
+        } finally {
+            if (pstat != null) pstat.close();
+        }
+    }
+
+    /**
+     * Retrieves all proxy bids registered on an auction.
+     *
+     * <p>The list is ordered by maxAmount descending and then by createdTime ascending,
+     * which is the precedence order used when resolving competing proxies.</p>
+     *
+     * @param con the connection of the surrounding transaction
+     * @param auctionID the ID of the auction
+     * @return a List of ProxyBid objects for the given auctionID
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<ProxyBid> getProxyBidsByAuctionID(Connection con, int auctionID) throws SQLException {
+        PreparedStatement pstat = null;
+        ResultSet rs = null;
+        List<ProxyBid> proxyBids = new ArrayList<>();
+        String sql = "SELECT * FROM proxy_bid WHERE auctionID = ? ORDER BY maxAmount DESC, createdTime ASC, proxyBidID ASC";
+
+        try {
+            pstat = con.prepareStatement(sql);
+            pstat.setInt(1, auctionID);
+            rs = pstat.executeQuery();
+
+            while (rs.next()) {
+                ProxyBid proxyBid = new ProxyBid();
+                proxyBid.setProxyBidID(rs.getInt("proxyBidID"));
+                proxyBid.setAuctionID(rs.getInt("auctionID"));
+                proxyBid.setBuyerID(rs.getInt("buyerID"));
+                proxyBid.setMaxAmount(rs.getDouble("maxAmount"));
+                proxyBid.setCreatedTime(rs.getTimestamp("createdTime").toLocalDateTime());
+                proxyBids.add(proxyBid);
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstat != null) pstat.close();
+        }
+        return proxyBids;
+    }
+
+    /**
+     * Retrieves a buyer's proxy bid on an auction.
+     *
+     * @param auctionID the ID of the auction
+     * @param buyerID the ID of the buyer
+     * @return the ProxyBid object if found; null otherwise
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static ProxyBid getProxyBid(int auctionID, int buyerID) throws SQLException {
+        ProxyBid proxyBid = null;
+        Connection con = null;
+        PreparedStatement pstat = null;
+        ResultSet rs = null;
+        String sql = "SELECT * FROM proxy_bid WHERE auctionID = ? AND buyerID = ?";
+
+        try {
+            con = DBConnector.getShardConnection(ShardRouter.shardOf(auctionID));
+            pstat = con.prepareStatement(sql);
+            pstat.setInt(1, auctionID);
+            pstat.setInt(2, buyerID);
+            rs = pstat.executeQuery();
+
+            if (rs.next()) {
+                proxyBid = new ProxyBid();
+                proxyBid.setProxyBidID(rs.getInt("proxyBidID"));
+                proxyBid.setAuctionID(rs.getInt("auctionID"));
+                proxyBid.setBuyerID(rs.getInt("buyerID"));
+                proxyBid.setMaxAmount(rs.getDouble("maxAmount"));
+                proxyBid.setCreatedTime(rs.getTimestamp("createdTime").toLocalDateTime());
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving proxy bid: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (pstat != null) pstat.close();
+                // if (con != null) con.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing resources: " + e.getMessage());
+            }
+        }
+        return proxyBid;
+    }
+}
@@ -1,8 +1,12 @@
 package com.DAO;
 
 import com.Database.DBConnector;
+import com.Database.ShardRouter;
 import com.Entities.Seller;
 import java.sql.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object (DAO) for performing CRUD operations on Seller records.
@@ -192,4 +196,112 @@ public class SellerDAO {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds amounts to the earnings and pending earnings of several sellers with one batch.
+     * A seller without a row gets one, starting from the amounts. Called by LedgerService in the
+     * transaction that posts the matching ledger entries, so the balances never run ahead of the ledger.
+     *
+     * @param con the connection of the surrounding transaction
+     * @param deltas a Map from sellerID to {earnings change, pending earnings change}
+     * @throws SQLException if a database access error occurs during the update
+     */
+    public static void adjustBalances(Connection con, Map<Integer, double[]> deltas) throws SQLException {
+        String sql = "INSERT INTO seller (sellerID, earnings, pendingEarnings) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE earnings = earnings + VALUES(earnings), "
+                + "pendingEarnings = pendingEarnings + VALUES(pendingEarnings)";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            for (Map.Entry<Integer, double[]> e : deltas.entrySet()) {
+                pstat.setInt(1, e.getKey());
+                pstat.setDouble(2, e.getValue()[0]);
+                pstat.setDouble(3, e.getValue()[1]);
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+        }
+    }
+
+    /**
+     * Overwrites the cached balances of sellers whose rows differ from the given values.
+     * Used by the ledger reconciliation.
+     *
+     * @param con the connection of the surrounding transaction
+     * @param balances a Map from sellerID to {earnings, pending earnings}
+     * @return the number of seller rows that were corrected
+     * @throws SQLException if a database access error occurs during the update
+     */
+    public static int setBalances(Connection con, Map<Integer, double[]> balances) throws SQLException {
+        String sql = "INSERT INTO seller (sellerID, earnings, pendingEarnings) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE earnings = VALUES(earnings), pendingEarnings = VALUES(pendingEarnings)";
+
+        int corrected = 0;
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            for (Map.Entry<Integer, double[]> e : balances.entrySet()) {
+                pstat.setInt(1, e.getKey());
+                pstat.setDouble(2, e.getValue()[0]);
+                pstat.setDouble(3, e.getValue()[1]);
+                pstat.addBatch();
+            }
+            for (int count : pstat.executeBatch()) {
+                // MySQL reports 0 for an unchanged row, 1 for an insert and 2 for an update.
+                if (count != 0) {
+                    corrected++;
+                }
+            }
+        }
+        return corrected;
+    }
+
+    /**
+     * Retrieves the cached balances of every seller row.
+     *
+     * @param con the connection to read with
+     * @param forUpdate whether to lock the seller rows, and the gaps between them, until the transaction ends
+     * @return a Map from sellerID to {earnings, pending earnings}
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Map<Integer, double[]> getAllBalances(Connection con, boolean forUpdate) throws SQLException {
+        Map<Integer, double[]> balances = new HashMap<>();
+        String sql = "SELECT sellerID, earnings, pendingEarnings FROM seller" + (forUpdate ? " FOR UPDATE" : "");
+
+        try (PreparedStatement pstat = con.prepareStatement(sql);
+             ResultSet rs = pstat.executeQuery()) {
+            while (rs.next()) {
+                balances.put(rs.getInt("sellerID"),
+                        new double[]{rs.getDouble("earnings"), rs.getDouble("pendingEarnings")});
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * Retrieves the cached balances of one seller with a single primary-key lookup.
+     * With shards configured, every shard holds the balances of the sales settled on it, and
+     * they are added up.
+     *
+     * @param sellerID the ID of the seller
+     * @return {earnings, pending earnings}, both 0 if the seller has no row
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static double[] getBalance(int sellerID) throws SQLException {
+        String sql = "SELECT earnings, pendingEarnings FROM seller WHERE sellerID = ?";
+
+        double[] balance = new double[]{0, 0};
+        for (double[] shardBalance : ShardRouter.scatter(shard -> {
+            try (PreparedStatement pstat = DBConnector.getShardConnection(shard).prepareStatement(sql)) {
+                pstat.setInt(1, sellerID);
+                try (ResultSet rs = pstat.executeQuery()) {
+                    if (rs.next()) {
+                        return List.of(new double[]{rs.getDouble("earnings"), rs.getDouble("pendingEarnings")});
+                    }
+                }
+            }
+            return List.<double[]>of();
+        })) {
+            balance[0] += shardBalance[0];
+            balance[1] += shardBalance[1];
+        }
+        return balance;
+    }
+}
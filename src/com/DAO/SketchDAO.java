@@ -0,0 +1,168 @@
+package com.DAO;
+
+import com.Entities.AuctionSketch;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Data Access Object (DAO) for the auction_sketch table, which stores the serialized
+ * HyperLogLog sketches of each auction's distinct bidders and watchers.
+ *
+ * <p>All methods take the Connection to use. SketchService passes connections it opens for the
+ * call (DBConnector.openShardConnection), never the shared one, so it can read and write the
+ * sketches from any thread and in its own transactions.</p>
+ */
+public class SketchDAO {
+
+    /**
+     * Retrieves the stored sketches of several auctions.
+     *
+     * @param con the connection to read with
+     * @param auctionIDs the IDs of the auctions
+     * @param forUpdate whether to lock the rows until the transaction ends
+     * @return a Map from auctionID to its sketches; auctions without a row are absent
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Map<Integer, AuctionSketch> getSketches(Connection con, Collection<Integer> auctionIDs, boolean forUpdate)
+            throws SQLException {
+        Map<Integer, AuctionSketch> sketches = new HashMap<>();
+        if (auctionIDs.isEmpty()) {
+            return sketches;
+        }
+        String sql = "SELECT auctionID, bidderSketch, watcherSketch FROM auction_sketch WHERE auctionID IN ("
+                + placeholders(auctionIDs.size()) + ")" + (forUpdate ? " FOR UPDATE" : "");
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            int index = 1;
+            for (int auctionID : auctionIDs) {
+                pstat.setInt(index++, auctionID);
+            }
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    AuctionSketch sketch = new AuctionSketch(rs.getInt("auctionID"),
+                            rs.getBytes("bidderSketch"), rs.getBytes("watcherSketch"));
+                    sketches.put(sketch.getAuctionID(), sketch);
+                }
+            }
+        }
+        return sketches;
+    }
+
+    /**
+     * Inserts or replaces the sketches of several auctions with one batch.
+     *
+     * @param con the connection to write with
+     * @param sketches the sketches to store
+     * @throws SQLException if a database access error occurs during the update
+     */
+    public static void saveSketches(Connection con, List<AuctionSketch> sketches) throws SQLException {
+        String sql = "INSERT INTO auction_sketch (auctionID, bidderSketch, watcherSketch, updatedAt) VALUES (?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE bidderSketch = VALUES(bidderSketch), watcherSketch = VALUES(watcherSketch), "
+                + "updatedAt = VALUES(updatedAt)";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (AuctionSketch sketch : sketches) {
+                pstat.setInt(1, sketch.getAuctionID());
+                pstat.setBytes(2, sketch.getBidderSketch());
+                pstat.setBytes(3, sketch.getWatcherSketch());
+                pstat.setTimestamp(4, now);
+                pstat.addBatch();
+            }
+            pstat.executeBatch();
+        }
+    }
+
+    /**
+     * Retrieves the distinct buyers who bid on each of several auctions.
+     * Used once per auction, to build a sketch for auctions that predate the sketch table.
+     *
+     * @param con the connection to read with
+     * @param auctionIDs the IDs of the auctions
+     * @return a Map from auctionID to its distinct buyerIDs; auctions without bids are absent
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Map<Integer, List<Integer>> getBidderIDs(Connection con, Collection<Integer> auctionIDs) throws SQLException {
+        Map<Integer, List<Integer>> bidders = new HashMap<>();
+        if (auctionIDs.isEmpty()) {
+            return bidders;
+        }
+        String sql = "SELECT DISTINCT auctionID, buyerID FROM bid WHERE auctionID IN (" + placeholders(auctionIDs.size()) + ")";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            int index = 1;
+            for (int auctionID : auctionIDs) {
+                pstat.setInt(index++, auctionID);
+            }
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    bidders.computeIfAbsent(rs.getInt("auctionID"), k -> new ArrayList<>()).add(rs.getInt("buyerID"));
+                }
+            }
+        }
+        return bidders;
+    }
+
+    /**
+     * Retrieves the IDs of auctions that have bids but no stored sketch yet.
+     *
+     * @param con the connection to read with
+     * @return the auctionIDs to backfill
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Integer> getAuctionIDsWithoutSketch(Connection con) throws SQLException {
+        List<Integer> auctionIDs = new ArrayList<>();
+        String sql = "SELECT DISTINCT b.auctionID FROM bid b LEFT JOIN auction_sketch s ON s.auctionID = b.auctionID "
+                + "WHERE s.auctionID IS NULL";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql);
+             ResultSet rs = pstat.executeQuery()) {
+            while (rs.next()) {
+                auctionIDs.add(rs.getInt("auctionID"));
+            }
+        }
+        return auctionIDs;
+    }
+
+    /**
+     * Passes every stored bidder sketch, or those of one seller's auctions (archived ones included), to a consumer.
+     *
+     * @param con the connection to read with
+     * @param sellerID the seller whose auctions to read, or null for all auctions
+     * @param consumer receives each serialized bidder sketch
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static void forEachBidderSketch(Connection con, Integer sellerID, Consumer<byte[]> consumer) throws SQLException {
+        String sql = sellerID == null
+                ? "SELECT bidderSketch FROM auction_sketch"
+                : "SELECT s.bidderSketch FROM auction_sketch s WHERE s.auctionID IN ("
+                    + "SELECT auctionID FROM auction WHERE sellerID = ? "
+                    + "UNION ALL SELECT auctionID FROM auction_archive WHERE sellerID = ?)";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql)) {
+            if (sellerID != null) {
+                pstat.setInt(1, sellerID);
+                pstat.setInt(2, sellerID);
+            }
+            try (ResultSet rs = pstat.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getBytes(1));
+                }
+            }
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+}
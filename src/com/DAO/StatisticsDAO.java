@@ -0,0 +1,98 @@
+package com.DAO;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object (DAO) for the aggregate queries behind the admin statistics.
+ *
+ * <p>These queries scan whole tables and are only run by the periodic reconciliation of
+ * StatisticsService, on its own connection, never when the dashboard is displayed.</p>
+ */
+public class StatisticsDAO {
+
+    /**
+     * Retrieves the IDs of all auctions that are currently running.
+     *
+     * @param con the connection to read with
+     * @return the auctionIDs with status STARTED
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static List<Integer> getLiveAuctionIDs(Connection con) throws SQLException {
+        List<Integer> auctionIDs = new ArrayList<>();
+        String sql = "SELECT auctionID FROM auction WHERE auctionStatus = 'STARTED'";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql);
+             ResultSet rs = pstat.executeQuery()) {
+            while (rs.next()) {
+                auctionIDs.add(rs.getInt("auctionID"));
+            }
+        }
+        return auctionIDs;
+    }
+
+    /**
+     * Sums the final prices of sold auctions per seller.
+     *
+     * <p>An auction counts as sold once it is FINISHED or CLOSED with a winning buyer.
+     * Archived auctions are included.</p>
+     *
+     * @param con the connection to read with
+     * @return a Map from sellerID to {number of sales, total final price}
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Map<Integer, double[]> getSalesBySeller(Connection con) throws SQLException {
+        Map<Integer, double[]> sales = new HashMap<>();
+        String sold = "auctionStatus IN ('FINISHED', 'CLOSED') AND buyerID IS NOT NULL AND buyerID <> 0";
+        String sql = "SELECT sellerID, COUNT(*) AS sales, SUM(auctionCurrentHighestBid) AS total FROM ("
+                + "SELECT sellerID, auctionCurrentHighestBid FROM auction WHERE " + sold
+                + " UNION ALL SELECT sellerID, auctionCurrentHighestBid FROM auction_archive WHERE " + sold
+                + ") sales GROUP BY sellerID";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql);
+             ResultSet rs = pstat.executeQuery()) {
+            while (rs.next()) {
+                sales.put(rs.getInt("sellerID"), new double[]{rs.getLong("sales"), rs.getDouble("total")});
+            }
+        }
+        return sales;
+    }
+
+    /**
+     * Retrieves the amounts of payments that are still pending, keyed by auction.
+     *
+     * @param con the connection to read with
+     * @return a Map from auctionID to the pending payment amount
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static Map<Integer, Double> getPendingPayments(Connection con) throws SQLException {
+        Map<Integer, Double> payments = new HashMap<>();
+        String sql = "SELECT auctionID, paymentAmount FROM payment WHERE paymentStatus = 'PENDING'";
+
+        try (PreparedStatement pstat = con.prepareStatement(sql);
+             ResultSet rs = pstat.executeQuery()) {
+            while (rs.next()) {
+                payments.merge(rs.getInt("auctionID"), rs.getDouble("paymentAmount"), Double::sum);
+            }
+        }
+        return payments;
+    }
+
+    /**
+     * Counts all bids ever placed, archived ones included.
+     *
+     * @param con the connection to read with
+     * @return the number of rows in the bid and bid_archive tables
+     * @throws SQLException if a database access error occurs during the query
+     */
+    public static long countBids(Connection con) throws SQLException {
+        try (PreparedStatement pstat = con.prepareStatement(
+                "SELECT (SELECT COUNT(*) FROM bid) + (SELECT COUNT(*) FROM bid_archive)");
+             ResultSet rs = pstat.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -134,6 +134,69 @@ public class UserDAO {
         return userList;
     }
 
+    /**
+     * Retrieves one page of users whose name or email starts with the given prefix.
+     *
+     * <p>Pages are keyed by UserID: the next page starts after the last user of the previous page,
+     * so each call reads at most {@code limit} rows. The password column is not selected; the
+     * returned User objects have an empty password.</p>
+     *
+     * <p>Meant for a thread with its own connection (an AsyncDAO worker, as PagedTableModel uses),
+     * not the shared one of the Swing thread.</p>
+     *
+     * @param prefix the name/email prefix to match; null or empty matches all users
+     * @param after the last user of the previous page, or null for the first page
+     * @param limit the maximum number of users to return
+     * @return a List of at most limit User objects ordered by UserID
+     * @throws SQLException if a database access error occurs during retrieval
+     */
+    public static List<User> searchUsersPage(String prefix, User after, int limit) throws SQLException {
+        List<User> userList = new ArrayList<>();
+        boolean filtered = prefix != null && !prefix.isEmpty();
+        String sql = "SELECT UserID, userName, userEmail FROM user WHERE UserID > ?"
+                + (filtered ? " AND (userName LIKE ? OR userEmail LIKE ?)" : "")
+                + " ORDER BY UserID LIMIT ?";
+        Connection con = null;
+        PreparedStatement pstat = null;
+        ResultSet rs = null;
+
+        try {
+            con = DBConnector.getConnection();
+            pstat = con.prepareStatement(sql);
+            int index = 1;
+            pstat.setInt(index++, after == null ? 0 : after.getUserId());
+            if (filtered) {
+                // Escape LIKE wildcards so the prefix is matched literally.
+                String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+                pstat.setString(index++, pattern);
+                pstat.setString(index++, pattern);
+            }
+            pstat.setInt(index, limit);
+            rs = pstat.executeQuery();
+
+            while (rs.next()) {
+                User user = new User();
+                user.setId(rs.getInt("UserID"));
+                user.setName(rs.getString("userName"));
+                user.setEmail(rs.getString("userEmail"));
+                userList.add(user);
+            }
+        } catch (SQLException sqlException) {
+            System.err.println("Error searching users: " + sqlException.getMessage());
+            sqlException.printStackTrace();
+            throw sqlException;
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (pstat != null) pstat.close();
+                // The connection is the calling worker's own and stays open for its next page.
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return userList;
+    }
+
     /**
      * Deletes a user record from the database by its ID.
      *
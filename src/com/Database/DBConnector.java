@@ -3,17 +3,24 @@ package com.Database;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Arrays;
 
 
 public class DBConnector {
 
-    // DB connection values match to MYSQL DB
-    private static final String USER = "root";
-    private static final String PASSWORD= "TeaAndHoney12!";
-    private static final String URL= "jdbc:mysql://localhost:3306/auctionsystem";
+    // The URL, credentials and driver settings come from database.properties and the environment (see DatabaseConfig).
+    // rewriteBatchedStatements turns JDBC batches into multi-row INSERTs (used by bulk import).
+    // useServerPrepStmts makes MySQL parse each prepared statement once; StatementCache keeps them open per
+    // connection, and cachePrepStmts lets the driver reuse the ones StatementCache does not hold.
     // private static final String DRIVER_CONNECTION = "com.mysql.cj.jdbc.Driver";
     
     private static Connection con;
+    // Shared connections to the read replicas (see ReplicaRouter) and the other shards (see ShardRouter), by slot:
+    // replica i is slot i + 1 and shard k (k >= 1) slot replicas + k. Slot 0 is the primary, held in con.
+    private static Connection[] slotCons = new Connection[1];
+    // Threads that called bindThreadConnection() get their own connections from getConnection(), getReadConnection()
+    // and getShardConnection() instead of the shared ones, with the same slots (index 0 is the primary).
+    private static final ThreadLocal<Connection[]> threadConnection = new ThreadLocal<>();
 
 
     // Create a connection to DB
@@ -26,24 +33,170 @@ public class DBConnector {
 
         // }
 
-        con = DriverManager.getConnection(URL, USER, PASSWORD); // Establishes connects to DB 
+        con = connect(); // Establishes connects to DB 
 
     }
 
     public static Connection getConnection() throws SQLException {
+        Connection[] own = threadConnection.get();
+        if (own != null) {
+            if (own[0] == null || own[0].isClosed()) {
+                own[0] = connect();
+            }
+            return own[0];
+        }
         if (con == null || con.isClosed()) {
-            con = DriverManager.getConnection(URL, USER, PASSWORD); // Establishes connects to DB 
+            con = connect(); // Establishes connects to DB 
         }
         return con;
         
     }
 
+    // Connection for a read tagged with how current it must be. ReplicaRouter picks a read replica when one
+    // qualifies; otherwise, or if the replica cannot be reached, this is the same connection as getConnection().
+    public static Connection getReadConnection(ReadConsistency consistency) throws SQLException {
+        ReplicaRouter.start();
+        int replica = ReplicaRouter.choose(consistency);
+        if (replica < 0) {
+            return getConnection();
+        }
+        try {
+            return getReplicaConnection(replica);
+        } catch (SQLException e) {
+            ReplicaRouter.markUnavailable(replica, e);
+            return getConnection();
+        }
+    }
+
+    private static Connection getReplicaConnection(int replica) throws SQLException {
+        return getSlotConnection(replica + 1, () -> openReplicaConnection(replica));
+    }
+
+    // Connection to one shard (see ShardRouter): shard 0 is the primary and the same connection as getConnection().
+    public static Connection getShardConnection(int shard) throws SQLException {
+        if (shard == 0) {
+            return getConnection();
+        }
+        return getSlotConnection(getConfig().getReplicaUrls().size() + shard, () -> openShardConnection(shard));
+    }
+
+    // Connection for a read on one shard. The read replicas copy the primary only, so only shard 0 reads may use them.
+    public static Connection getShardReadConnection(int shard, ReadConsistency consistency) throws SQLException {
+        if (shard == 0) {
+            return getReadConnection(consistency);
+        }
+        return getShardConnection(shard);
+    }
+
+    private static Connection getSlotConnection(int slot, Opener opener) throws SQLException {
+        Connection[] own = threadConnection.get();
+        if (own != null) {
+            if (own.length <= slot) {
+                own = Arrays.copyOf(own, slot + 1);
+                threadConnection.set(own);
+            }
+            if (own[slot] == null || own[slot].isClosed()) {
+                own[slot] = opener.open();
+            }
+            return own[slot];
+        }
+        synchronized (DBConnector.class) {
+            if (slotCons.length <= slot) {
+                slotCons = Arrays.copyOf(slotCons, slot + 1);
+            }
+            if (slotCons[slot] == null || slotCons[slot].isClosed()) {
+                slotCons[slot] = opener.open();
+            }
+            return slotCons[slot];
+        }
+    }
+
+    // Open a read-only connection to a read replica, with the primary's credentials and driver settings.
+    static Connection openReplicaConnection(int replica) throws SQLException {
+        DatabaseConfig config = getConfig();
+        if (config.isEmbedded()) {
+            EmbeddedDatabase.initialise(config);
+        }
+        Connection replicaCon = StatementCache.wrap(
+                DriverManager.getConnection(config.getReplicaUrls().get(replica), config.getDriverProperties()));
+        replicaCon.setReadOnly(true);
+        return replicaCon;
+    }
+
+    // Open a separate connection for long-running background work (bulk import, batch jobs).
+    // It is not shared with the GUI, so its transactions never mix with other screens; the caller must close it.
+    public static Connection openConnection() throws SQLException {
+        return connect();
+    }
+
+    // Open a separate connection to one shard, like openConnection() (which is shard 0); the caller must close it.
+    // The shards use the primary's credentials and driver settings; an embedded shard gets the schema on first use.
+    public static Connection openShardConnection(int shard) throws SQLException {
+        if (shard == 0) {
+            return connect();
+        }
+        DatabaseConfig config = getConfig();
+        String url = config.getShardUrls().get(shard);
+        if (url.startsWith("jdbc:h2:")) {
+            EmbeddedDatabase.initialise(config, url);
+        }
+        return StatementCache.wrap(DriverManager.getConnection(url, config.getDriverProperties()));
+    }
+
+    // Open a driver connection with the configured settings; an invalid configuration is reported as an SQLException.
+    // With an embedded (H2) URL the schema is created, and optionally seeded, before the first connection.
+    private static Connection connect() throws SQLException {
+        DatabaseConfig config = getConfig();
+        if (config.isEmbedded()) {
+            EmbeddedDatabase.initialise(config);
+        }
+        return StatementCache.wrap(DriverManager.getConnection(config.getUrl(), config.getDriverProperties()));
+    }
+
+    private static DatabaseConfig getConfig() throws SQLException {
+        try {
+            return DatabaseConfig.get();
+        } catch (IllegalStateException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    // Give the calling thread its own connection, opened on first use, so DAO calls from worker threads
+    // (see com.DAO.AsyncDAO) run in parallel instead of queueing on the shared connection.
+    public static void bindThreadConnection() {
+        if (threadConnection.get() == null) {
+            threadConnection.set(new Connection[1]);
+        }
+    }
+
+    // Close the calling thread's own connections, if any, and go back to the shared ones.
+    public static void releaseThreadConnection() {
+        Connection[] own = threadConnection.get();
+        threadConnection.remove();
+        if (own == null) {
+            return;
+        }
+        for (Connection ownCon : own) {
+            if (ownCon != null) {
+                try {
+                    ownCon.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private interface Opener {
+        Connection open() throws SQLException;
+    }
+
     public static void main(String[] args) {
         // Test databse connection using a try catch
         try {
             createConnection();
             if (con != null) {
-                System.out.println("Successfully connected to the DB");
+                System.out.println("Successfully connected to the DB (" + DatabaseConfig.get() + ")");
             }
         } catch (SQLException e) {
             System.err.println("Failed to coonect to DB");
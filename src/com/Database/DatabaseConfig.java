@@ -0,0 +1,381 @@
+package com.Database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Database settings, read once from a properties file and the environment.
+ *
+ * <p>The file is database.properties in the working directory (or on the classpath), or the path in
+ * -Dauction.db.config / AUCTION_DB_CONFIG. It holds named profiles: a key {@code <profile>.<key>}
+ * applies to that profile only and a plain {@code <key>} to all of them. The active profile is
+ * -Dauction.db.profile, else AUCTION_DB_PROFILE, else the file's {@code profile} key, else "dev".</p>
+ *
+ * <p>For every key the first value found wins: the system property {@code auction.db.<key>}, the
+ * environment variable {@code AUCTION_DB_<KEY>} (upper case, dots as underscores), the profile key,
+ * the plain key, then the built-in default. So a password can stay out of the file entirely.
+ * The settings are validated when loaded and every problem is reported at once.</p>
+ *
+ * <p>An H2 URL ({@code jdbc:h2:...}) selects the embedded mode: see {@link EmbeddedDatabase}, which
+ * creates the schema from {@code schemaDir} and seeds {@code seedAuctions} auctions
+ * generated from {@code seed}.</p>
+ *
+ * <p>{@code replicas} lists the URLs of read replicas, separated by commas; they use the same user,
+ * password and driver settings as the primary. See {@link ReplicaRouter} for how reads are routed.</p>
+ *
+ * <p>{@code shards} lists the URLs of further databases that, together with the one at {@code url}
+ * (shard 0), split the auctions between them; same credentials again. See {@link ShardRouter}.</p>
+ */
+public class DatabaseConfig {
+
+    private static final String DEFAULT_FILE = "database.properties";
+    private static DatabaseConfig current;
+
+    private final String profile;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int connectTimeoutMillis;
+    private final int socketTimeoutMillis;
+    private final int defaultFetchSize;
+    private final boolean rewriteBatchedStatements;
+    private final boolean useCompression;
+    private final boolean useServerPrepStmts;
+    private final boolean allowLoadLocalInfile;
+    private final int driverStatementCacheSize;
+    private final int statementCacheSize;
+    private final int poolThreads;
+    private final int poolQueueSize;
+    private final List<String> replicaUrls;
+    private final int replicaMaxLagMillis;
+    private final int replicaHeartbeatMillis;
+    private final List<String> shardUrls;
+    private final String schemaDir;
+    private final int seedAuctions;
+    private final int seed;
+
+    private DatabaseConfig(String profile, Properties file) {
+        this.profile = profile;
+        Source source = new Source(profile, file);
+        List<String> errors = new ArrayList<>();
+
+        url = source.get("url", "jdbc:mysql://localhost:3306/auctionsystem");
+        user = source.get("user", "root");
+        password = source.get("password", "");
+        connectTimeoutMillis = source.getInt("connectTimeoutMillis", 5_000, 0, 600_000, errors);
+        socketTimeoutMillis = source.getInt("socketTimeoutMillis", 0, 0, 3_600_000, errors);
+        defaultFetchSize = source.getInt("defaultFetchSize", 0, 0, 100_000, errors);
+        rewriteBatchedStatements = source.getBoolean("rewriteBatchedStatements", true, errors);
+        useCompression = source.getBoolean("useCompression", false, errors);
+        useServerPrepStmts = source.getBoolean("useServerPrepStmts", true, errors);
+        allowLoadLocalInfile = source.getBoolean("allowLoadLocalInfile", false, errors);
+        driverStatementCacheSize = source.getInt("driverStatementCacheSize", 250, 0, 10_000, errors);
+        statementCacheSize = source.getInt("statementCacheSize", 64, 0, 1_000, errors);
+        poolThreads = source.getInt("pool.threads", 4, 1, 256, errors);
+        poolQueueSize = source.getInt("pool.queueSize", 256, 1, 100_000, errors);
+        List<String> replicas = new ArrayList<>();
+        for (String replica : source.get("replicas", "").split(",")) {
+            if (!replica.isBlank()) {
+                replicas.add(replica.trim());
+            }
+        }
+        replicaUrls = Collections.unmodifiableList(replicas);
+        replicaMaxLagMillis = source.getInt("replica.maxLagMillis", 5_000, 0, 3_600_000, errors);
+        replicaHeartbeatMillis = source.getInt("replica.heartbeatMillis", 1_000, 100, 60_000, errors);
+        List<String> shards = new ArrayList<>();
+        shards.add(url);
+        for (String shard : source.get("shards", "").split(",")) {
+            if (!shard.isBlank()) {
+                shards.add(shard.trim());
+            }
+        }
+        shardUrls = Collections.unmodifiableList(shards);
+        schemaDir = source.get("schemaDir", "MYSQL_scripts");
+        seedAuctions = source.getInt("seedAuctions", 0, 0, 10_000_000, errors);
+        seed = source.getInt("seed", 42, Integer.MIN_VALUE, Integer.MAX_VALUE, errors);
+
+        if (!profile.equals("dev") && file.stringPropertyNames().stream().noneMatch(k -> k.startsWith(profile + "."))) {
+            errors.add("no settings for this profile in the configuration file");
+        }
+        if (!url.startsWith("jdbc:")) {
+            errors.add("url must start with jdbc: (got \"" + url + "\")");
+        }
+        for (String replica : replicaUrls) {
+            if (!replica.startsWith("jdbc:")) {
+                errors.add("replica url must start with jdbc: (got \"" + replica + "\")");
+            }
+        }
+        for (String shard : shardUrls.subList(1, shardUrls.size())) {
+            if (!shard.startsWith("jdbc:")) {
+                errors.add("shard url must start with jdbc: (got \"" + shard + "\")");
+            } else if (shardUrls.indexOf(shard) != shardUrls.lastIndexOf(shard)) {
+                errors.add("shard url is listed twice (\"" + shard + "\")");
+            }
+        }
+        if (shardUrls.size() > ShardRouter.BUCKETS) {
+            errors.add("at most " + ShardRouter.BUCKETS + " shards are supported (got " + shardUrls.size() + ")");
+        }
+        if (user.isEmpty()) {
+            errors.add("user is empty");
+        }
+        if (url.startsWith("jdbc:hsqldb:")) {
+            errors.add("only H2 is supported as an embedded database (got \"" + url + "\")");
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Invalid database configuration for profile \"" + profile + "\": "
+                    + String.join("; ", errors));
+        }
+    }
+
+    /**
+     * Returns the settings, loading and validating them on first use.
+     *
+     * @return the active configuration
+     * @throws IllegalStateException if the file cannot be read or a setting is invalid
+     */
+    public static synchronized DatabaseConfig get() {
+        if (current == null) {
+            current = load();
+        }
+        return current;
+    }
+
+    private static DatabaseConfig load() {
+        Properties file = new Properties();
+        String location = setting("auction.db.config", "AUCTION_DB_CONFIG");
+        Path path = Paths.get(location != null ? location : DEFAULT_FILE);
+        try {
+            if (Files.isRegularFile(path)) {
+                try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    file.load(reader);
+                }
+            } else if (location != null) {
+                throw new IllegalStateException("Database configuration file not found: " + path.toAbsolutePath());
+            } else {
+                try (InputStream in = DatabaseConfig.class.getResourceAsStream("/" + DEFAULT_FILE)) {
+                    if (in != null) {
+                        file.load(in);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read database configuration " + path + ": " + e.getMessage(), e);
+        }
+
+        String profile = setting("auction.db.profile", "AUCTION_DB_PROFILE");
+        if (profile == null) {
+            profile = file.getProperty("profile", "dev").trim();
+        }
+        return new DatabaseConfig(profile, file);
+    }
+
+    private static String setting(String property, String environment) {
+        String value = System.getProperty(property);
+        if (value == null || value.isEmpty()) {
+            value = System.getenv(environment);
+        }
+        return value == null || value.isEmpty() ? null : value.trim();
+    }
+
+    /**
+     * Builds the driver properties: credentials, timeouts and the tuning switches.
+     * The embedded database only gets the credentials, since H2 rejects unknown settings.
+     *
+     * @return the properties to pass to DriverManager.getConnection with {@link #getUrl()}
+     */
+    public Properties getDriverProperties() {
+        Properties props = new Properties();
+        props.setProperty("user", user);
+        props.setProperty("password", password);
+        if (isEmbedded()) {
+            return props;
+        }
+        props.setProperty("connectTimeout", String.valueOf(connectTimeoutMillis));
+        props.setProperty("socketTimeout", String.valueOf(socketTimeoutMillis));
+        props.setProperty("rewriteBatchedStatements", String.valueOf(rewriteBatchedStatements));
+        props.setProperty("useCompression", String.valueOf(useCompression));
+        props.setProperty("useServerPrepStmts", String.valueOf(useServerPrepStmts));
+        // Only needed by DatasetGenerator's LOAD DATA LOCAL INFILE loader; off by default since it lets the server read client files.
+        props.setProperty("allowLoadLocalInfile", String.valueOf(allowLoadLocalInfile));
+        props.setProperty("cachePrepStmts", String.valueOf(driverStatementCacheSize > 0));
+        props.setProperty("prepStmtCacheSize", String.valueOf(driverStatementCacheSize));
+        props.setProperty("prepStmtCacheSqlLimit", "2048");
+        if (defaultFetchSize > 0) {
+            // MySQL only honours a fetch size with cursor fetching; otherwise every row is read at once.
+            props.setProperty("useCursorFetch", "true");
+            props.setProperty("defaultFetchSize", String.valueOf(defaultFetchSize));
+        }
+        return props;
+    }
+
+    /**
+     * @return the profile, URL, user and tuning settings, without the password
+     */
+    @Override
+    public String toString() {
+        return "profile=" + profile + ", url=" + url + ", user=" + user
+                + ", connectTimeoutMillis=" + connectTimeoutMillis + ", socketTimeoutMillis=" + socketTimeoutMillis
+                + ", defaultFetchSize=" + defaultFetchSize + ", rewriteBatchedStatements=" + rewriteBatchedStatements
+                + ", useCompression=" + useCompression + ", useServerPrepStmts=" + useServerPrepStmts
+                + ", allowLoadLocalInfile=" + allowLoadLocalInfile
+                + ", driverStatementCacheSize=" + driverStatementCacheSize + ", statementCacheSize=" + statementCacheSize
+                + ", pool.threads=" + poolThreads + ", pool.queueSize=" + poolQueueSize
+                + (replicaUrls.isEmpty() ? "" : ", replicas=" + replicaUrls + ", replica.maxLagMillis="
+                        + replicaMaxLagMillis + ", replica.heartbeatMillis=" + replicaHeartbeatMillis)
+                + (shardUrls.size() == 1 ? "" : ", shards=" + shardUrls.subList(1, shardUrls.size()))
+                + (isEmbedded() ? ", schemaDir=" + schemaDir + ", seedAuctions=" + seedAuctions
+                        + ", seed=" + seed : "");
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * @return the URLs of the read replicas, empty if every read goes to the primary
+     */
+    public List<String> getReplicaUrls() {
+        return replicaUrls;
+    }
+
+    /**
+     * @return how far behind the primary a replica may be and still serve reads
+     */
+    public int getReplicaMaxLagMillis() {
+        return replicaMaxLagMillis;
+    }
+
+    /**
+     * @return the interval at which the replication heartbeat is written and the replicas are checked
+     */
+    public int getReplicaHeartbeatMillis() {
+        return replicaHeartbeatMillis;
+    }
+
+    /**
+     * @return the URLs of the shards: index 0 is {@link #getUrl()}, followed by the configured shards
+     */
+    public List<String> getShardUrls() {
+        return shardUrls;
+    }
+
+    /**
+     * @return true if the URL points to an embedded H2 database instead of a MySQL server
+     */
+    public boolean isEmbedded() {
+        return url.startsWith("jdbc:h2:");
+    }
+
+    /**
+     * @return the directory with the MySQL table scripts the embedded schema is created from
+     */
+    public String getSchemaDir() {
+        return schemaDir;
+    }
+
+    /**
+     * @return the number of auctions to generate into a new embedded database (0 leaves it empty)
+     */
+    public int getSeedAuctions() {
+        return seedAuctions;
+    }
+
+    /**
+     * @return the random seed of the generated dataset; the same seed gives the same rows
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the number of prepared statements StatementCache keeps per connection (0 turns it off)
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * @return the number of AsyncDAO worker threads, each with its own connection
+     */
+    public int getPoolThreads() {
+        return poolThreads;
+    }
+
+    /**
+     * @return the number of AsyncDAO calls that may wait for a worker
+     */
+    public int getPoolQueueSize() {
+        return poolQueueSize;
+    }
+
+    /**
+     * Looks a key up in the system properties, the environment and the file, in that order.
+     */
+    private static class Source {
+        private final String profile;
+        private final Properties file;
+
+        private Source(String profile, Properties file) {
+            this.profile = profile;
+            this.file = file;
+        }
+
+        private String get(String key, String defaultValue) {
+            String value = setting("auction.db." + key, "AUCTION_DB_" + key.replace('.', '_').toUpperCase(Locale.ROOT));
+            if (value == null) {
+                value = file.getProperty(profile + "." + key);
+            }
+            if (value == null) {
+                value = file.getProperty(key);
+            }
+            return value == null ? defaultValue : value.trim();
+        }
+
+        private int getInt(String key, int defaultValue, int min, int max, List<String> errors) {
+            String value = get(key, null);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                int parsed = Integer.parseInt(value);
+                if (parsed < min || parsed > max) {
+                    errors.add(key + " must be between " + min + " and " + max + " (got " + parsed + ")");
+                }
+                return parsed;
+            } catch (NumberFormatException e) {
+                errors.add(key + " is not a number (got \"" + value + "\")");
+                return defaultValue;
+            }
+        }
+
+        private boolean getBoolean(String key, boolean defaultValue, List<String> errors) {
+            String value = get(key, null);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                errors.add(key + " must be true or false (got \"" + value + "\")");
+                return defaultValue;
+            }
+            return Boolean.parseBoolean(value);
+        }
+    }
+}
@@ -0,0 +1,644 @@
+package com.Database;
+
+import com.Utilities.ChannelWriter;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+/**
+ * Generates a synthetic dataset of users, sellers, buyers, items, auctions, bids and payments.
+ *
+ * <p>All values come from one {@link Random} seeded by the caller, so the same seed and size always
+ * give the same rows (with times relative to the moment of generation). The data is shaped like a
+ * real marketplace rather than spread evenly:</p>
+ * <ul>
+ *   <li>bids are spread over auctions, bidders and sellers by Zipf distributions, so a few auctions
+ *       draw thousands of bids while most get a handful, and a few power users do most of the bidding;</li>
+ *   <li>auctions run for 1 to 10 days (mostly 7), end mostly in the evening, and about 60% of them
+ *       ended during the last 60 days; bids cluster towards the end of each auction;</li>
+ *   <li>starting prices are log-normal and each bid raises the price by 1% to 10%;</li>
+ *   <li>items share a pool of synthetic JPEG images from a few KB up to a few hundred KB,
+ *       small ones being the most common;</li>
+ *   <li>finished auctions with a winner have a payment, COMPLETED for most auctions that ended
+ *       more than three days ago and PENDING otherwise.</li>
+ * </ul>
+ *
+ * <p>IDs continue after the highest existing ID of each table. Rows go straight to the tables, with
+ * JDBC batches or with LOAD DATA LOCAL INFILE (see {@link Loader}), and are committed as they are
+ * written, so a failed run leaves the rows already committed. The DAO hooks (search index,
+ * statistics, outbox, ledger) are not involved: the in-memory services pick the data up when they
+ * next load or reconcile, and "Reconcile Ledger" posts the generated payments.</p>
+ *
+ * <p>Memory is proportional to the number of users and auctions (a few dozen bytes each), not to
+ * the number of bids.</p>
+ */
+public class DatasetGenerator {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int SELLER_EVERY = 5;              // every fifth user also sells
+    private static final String PASSWORD = "password";
+
+    // Zipf exponents: how strongly bids concentrate on the most popular auctions, bidders and sellers
+    private static final double AUCTION_SKEW = 0.7;
+    private static final double BIDDER_SKEW = 1.0;
+    private static final double SELLER_SKEW = 0.8;
+    private static final double IMAGE_SKEW = 1.0;
+
+    private static final double ENDED_SHARE = 0.6;
+    private static final int HISTORY_DAYS = 60;
+    private static final int[] DURATION_DAYS = {1, 3, 5, 7, 10};
+    private static final int[] DURATION_WEIGHTS = {10, 20, 15, 45, 10};
+    // Relative number of auctions ending in each hour of the day, peaking at 8 pm
+    private static final int[] END_HOUR_WEIGHTS = {
+            3, 2, 1, 1, 1, 1, 1, 2, 3, 4, 5, 6, 7, 7, 7, 8, 9, 11, 14, 17, 18, 15, 9, 5};
+    private static final int PAYMENT_DAYS = 3;
+    private static final double COMPLETED_SHARE = 0.9;
+
+    // Widths of the synthetic pictures (height is three quarters of the width)
+    private static final int[] IMAGE_WIDTHS = {48, 64, 96, 128, 160, 200, 256, 320, 400, 512, 640, 800, 1024};
+
+    private static final String[] ADJECTIVES = {
+            "Vintage", "Antique", "Rare", "Handmade", "Signed", "Limited", "Classic", "Retro", "Modern", "Restored",
+            "Original", "Boxed", "Mint", "Used", "Custom", "Large", "Small", "Silver", "Wooden", "Leather"};
+    private static final String[] NOUNS = {
+            "Camera", "Watch", "Guitar", "Lamp", "Chair", "Painting", "Vase", "Bicycle", "Record", "Book",
+            "Clock", "Radio", "Typewriter", "Jacket", "Ring", "Mirror", "Telescope", "Teapot", "Poster", "Desk"};
+    private static final String[] CONDITIONS = {"mint", "excellent", "very good", "good", "fair", "well used"};
+    private static final String FILLER = "Collected from a private estate and stored carefully since. "
+            + "Please see the photos for details and ask any questions before bidding. ";
+
+    /**
+     * How the rows are written.
+     *
+     * <p>BATCH uses JDBC batches and works with any database, including the embedded one. LOAD_DATA
+     * writes each table to a tab-separated file and loads it with LOAD DATA LOCAL INFILE, which is
+     * several times faster on MySQL; it needs allowLoadLocalInfile=true in database.properties and
+     * local_infile=ON on the server.</p>
+     */
+    public enum Loader {
+        BATCH,
+        LOAD_DATA
+    }
+
+    /**
+     * The number of rows to generate.
+     */
+    public static class Size {
+        private final int users;
+        private final int auctions;
+        private final long bids;
+
+        /**
+         * @param users the number of users, at least 2 (every fifth one also sells)
+         * @param auctions the number of auctions, each with its own item
+         * @param bids the total number of bids across all auctions
+         */
+        public Size(int users, int auctions, long bids) {
+            if (users < 2 || auctions < 0 || bids < 0 || bids > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid dataset size: users=" + users + ", auctions=" + auctions
+                        + ", bids=" + bids);
+            }
+            this.users = users;
+            this.auctions = auctions;
+            this.bids = auctions == 0 ? 0 : bids;
+        }
+
+        /**
+         * @param auctions the number of auctions
+         * @return a size with two users and ten bids per auction (at least ten users)
+         */
+        public static Size forAuctions(int auctions) {
+            return new Size(Math.max(10, auctions * 2), auctions, auctions * 10L);
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public int getAuctions() {
+            return auctions;
+        }
+
+        public long getBids() {
+            return bids;
+        }
+
+        @Override
+        public String toString() {
+            return users + " users, " + auctions + " auctions, " + bids + " bids";
+        }
+    }
+
+    /**
+     * Generates the dataset into the database of the connection.
+     *
+     * @param con the connection to write with; auto-commit is restored afterwards
+     * @param size the number of rows
+     * @param seed the random seed
+     * @param loader how to write the rows
+     * @throws SQLException if a statement fails, or LOAD_DATA is used with a database other than MySQL
+     * @throws IOException if a LOAD_DATA file cannot be written
+     */
+    public static void generate(Connection con, Size size, long seed, Loader loader) throws SQLException, IOException {
+        if (loader == Loader.LOAD_DATA && !con.getMetaData().getURL().startsWith("jdbc:mysql:")) {
+            throw new SQLException("LOAD DATA LOCAL INFILE is only supported with MySQL");
+        }
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        int firstUser = nextID(con, "user", "UserID");
+        int firstItem = nextID(con, "item", "itemID");
+        int firstAuction = nextID(con, "auction", "auctionID");
+        int firstBid = nextID(con, "bid", "bidID");
+        int firstPayment = nextID(con, "payment", "paymentID");
+
+        boolean autoCommit = con.getAutoCommit();
+        con.setAutoCommit(false);
+        List<RowSink> sinks = new ArrayList<>();
+        try {
+            RowSink users = open(sinks, con, loader, "user", "UserID", "userName", "userEmail", "userPassword");
+            RowSink buyers = open(sinks, con, loader, "buyer", "buyerID");
+            RowSink sellers = open(sinks, con, loader, "seller", "sellerID", "earnings", "pendingEarnings");
+            for (int i = 0; i < size.users; i++) {
+                int userID = firstUser + i;
+                users.add(userID, "user" + userID, "user" + userID + "@example.com", PASSWORD);
+                buyers.add(userID);
+                if (i % SELLER_EVERY == 0) {
+                    sellers.add(userID, BigDecimal.ZERO, BigDecimal.ZERO);
+                }
+            }
+            report(users.finish(), "user", start);
+            report(buyers.finish(), "buyer", start);
+            report(sellers.finish(), "seller", start);
+
+            generateAuctions(sinks, con, loader, size, random, firstUser, firstItem, firstAuction, firstBid,
+                    firstPayment, start);
+        } catch (SQLException | IOException | RuntimeException e) {
+            try {
+                con.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw e;
+        } finally {
+            for (RowSink sink : sinks) {
+                sink.close();
+            }
+            con.setAutoCommit(autoCommit);
+        }
+
+        System.out.println("Generated " + size + " in " + (System.currentTimeMillis() - start) + " ms (seed " + seed
+                + ", " + loader + ")");
+    }
+
+    private static void generateAuctions(List<RowSink> sinks, Connection con, Loader loader, Size size, Random random,
+                                         int firstUser, int firstItem, int firstAuction, int firstBid,
+                                         int firstPayment, long start) throws SQLException, IOException {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        byte[][] images = syntheticImages(random);
+
+        // Bids per auction: each bid draws an auction by popularity rank, the ranks shuffled over the auctions
+        int[] bidCounts = new int[size.auctions];
+        int[] popularity = shuffledRange(size.auctions, random);
+        Zipf auctionRank = new Zipf(size.auctions, AUCTION_SKEW);
+        for (long b = 0; b < size.bids; b++) {
+            bidCounts[popularity[auctionRank.next(random)]]++;
+        }
+
+        int[] bidders = shuffledRange(size.users, random);
+        Zipf bidderRank = new Zipf(size.users, BIDDER_SKEW);
+        int sellerCount = (size.users + SELLER_EVERY - 1) / SELLER_EVERY;
+        int[] sellerIndexes = shuffledRange(sellerCount, random);
+        Zipf sellerRank = new Zipf(sellerCount, SELLER_SKEW);
+        Zipf imageRank = new Zipf(images.length, IMAGE_SKEW);
+
+        RowSink items = open(sinks, con, loader, "item",
+                "itemID", "itemName", "itemDescription", "itemStartingPrice", "itemImage", "auctionID");
+        RowSink auctions = open(sinks, con, loader, "auction", "auctionID", "auctionStartTime", "auctionEndTime",
+                "auctionCurrentHighestBid", "auctionStatus", "itemID", "sellerID", "buyerID");
+        RowSink bids = open(sinks, con, loader, "bid", "bidID", "bidAmount", "bidTime", "auctionID", "buyerID");
+        RowSink payments = open(sinks, con, loader, "payment",
+                "paymentID", "paymentAmount", "paymentStatus", "auctionID", "buyerID", "sellerID");
+
+        int bidID = firstBid;
+        int paymentID = firstPayment;
+        double[] bidTimes = new double[16];
+        for (int i = 0; i < size.auctions; i++) {
+            int itemID = firstItem + i;
+            int auctionID = firstAuction + i;
+            int sellerID = firstUser + sellerIndexes[sellerRank.next(random)] * SELLER_EVERY;
+
+            // Ends on a day in the last HISTORY_DAYS, or within its duration from today, at an evening-weighted hour
+            int durationDays = DURATION_DAYS[pick(DURATION_WEIGHTS, random)];
+            int endDay = random.nextDouble() < ENDED_SHARE ? -1 - random.nextInt(HISTORY_DAYS) : random.nextInt(durationDays);
+            LocalDateTime endTime = now.toLocalDate().plusDays(endDay)
+                    .atTime(pick(END_HOUR_WEIGHTS, random), random.nextInt(60), random.nextInt(60));
+            LocalDateTime startTime = endTime.minusDays(durationDays);
+            if (startTime.isAfter(now)) {
+                // A one-day auction ending later today would not have started yet
+                startTime = startTime.minusDays(1);
+                endTime = endTime.minusDays(1);
+            }
+            boolean ended = !endTime.isAfter(now);
+
+            BigDecimal startingPrice = BigDecimal.valueOf(Math.min(50_000, Math.exp(3 + 1.2 * random.nextGaussian())))
+                    .max(BigDecimal.ONE).setScale(2, RoundingMode.HALF_UP);
+            String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            String noun = NOUNS[random.nextInt(NOUNS.length)];
+            StringBuilder description = new StringBuilder(adjective).append(' ').append(noun.toLowerCase())
+                    .append(" in ").append(CONDITIONS[random.nextInt(CONDITIONS.length)]).append(" condition. ");
+            for (int k = random.nextInt(6); k > 0; k--) {
+                description.append(FILLER);
+            }
+            items.add(itemID, adjective + " " + noun + " #" + itemID, description.toString().trim(), startingPrice,
+                    images[imageRank.next(random)], auctionID);
+
+            // Bids cluster towards the end: each falls at fraction u^(1/3) of the time the auction has been open
+            int bidCount = bidCounts[i];
+            if (bidTimes.length < bidCount) {
+                bidTimes = new double[Math.max(bidCount, bidTimes.length * 2)];
+            }
+            for (int b = 0; b < bidCount; b++) {
+                bidTimes[b] = Math.cbrt(random.nextDouble());
+            }
+            Arrays.sort(bidTimes, 0, bidCount);
+            long openSeconds = Duration.between(startTime, ended ? endTime : now).getSeconds();
+
+            BigDecimal price = startingPrice;
+            Integer leader = null;
+            for (int b = 0; b < bidCount; b++) {
+                int bidder = firstUser + bidders[bidderRank.next(random)];
+                if (bidder == sellerID) {
+                    bidder = firstUser + (bidder - firstUser + 1) % size.users;
+                }
+                BigDecimal raise = price.multiply(BigDecimal.valueOf(0.01 + 0.09 * random.nextDouble()));
+                price = price.add(raise.max(new BigDecimal("0.50"))).setScale(2, RoundingMode.HALF_UP);
+                leader = bidder;
+                bids.add(bidID++, price, startTime.plusSeconds((long) (bidTimes[b] * openSeconds)), auctionID, bidder);
+            }
+
+            // As in BidService, buyerID is the leading bidder while the auction runs and the winner once it ends
+            auctions.add(auctionID, startTime, endTime, price, ended ? "FINISHED" : "STARTED", itemID, sellerID, leader);
+
+            if (ended && leader != null) {
+                boolean completed = endTime.isBefore(now.minusDays(PAYMENT_DAYS)) && random.nextDouble() < COMPLETED_SHARE;
+                payments.add(paymentID++, price, completed ? "COMPLETED" : "PENDING", auctionID, leader, sellerID);
+            }
+        }
+
+        report(items.finish(), "item", start);
+        report(auctions.finish(), "auction", start);
+        report(bids.finish(), "bid", start);
+        report(payments.finish(), "payment", start);
+    }
+
+    /**
+     * Generates a dataset into the configured database. Options: --auctions N (default 1000),
+     * --users N (default two per auction), --bids N (default ten per auction), --seed N (default 42)
+     * and --load-data to bulk-load with LOAD DATA LOCAL INFILE instead of JDBC batches, e.g.
+     * {@code java -Dauction.db.profile=loadtest com.Database.DatasetGenerator --auctions 100000 --bids 1000000 --load-data}
+     */
+    public static void main(String[] args) {
+        Integer users = null;
+        int auctions = 1_000;
+        Long bids = null;
+        long seed = 42;
+        Loader loader = Loader.BATCH;
+        Size size = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--auctions":
+                        auctions = Integer.parseInt(args[++i]);
+                        break;
+                    case "--users":
+                        users = Integer.parseInt(args[++i]);
+                        break;
+                    case "--bids":
+                        bids = Long.parseLong(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--load-data":
+                        loader = Loader.LOAD_DATA;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            Size defaults = Size.forAuctions(auctions);
+            size = new Size(users != null ? users : defaults.users, auctions, bids != null ? bids : defaults.bids);
+        } catch (RuntimeException e) {
+            System.err.println("Usage: DatasetGenerator [--auctions N] [--users N] [--bids N] [--seed N] [--load-data]");
+            System.err.println(e.getMessage() != null ? e.getMessage() : e.toString());
+            System.exit(2);
+        }
+
+        try (Connection con = DBConnector.openConnection()) {
+            System.out.println("Generating " + size + " into " + DatabaseConfig.get());
+            generate(con, size, seed, loader);
+        } catch (SQLException | IOException e) {
+            System.err.println("Failed to generate the dataset");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // The ID after the highest one in the table, so generated rows never collide with existing ones.
+    private static int nextID(Connection con, String table, String column) throws SQLException {
+        try (Statement stat = con.createStatement();
+             ResultSet rs = stat.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void report(long rows, String table, long start) {
+        System.out.println("  " + table + ": " + rows + " rows (" + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+    private static RowSink open(List<RowSink> sinks, Connection con, Loader loader, String table, String... columns)
+            throws SQLException, IOException {
+        RowSink sink = loader == Loader.LOAD_DATA ? new FileSink(con, table, columns) : new BatchSink(con, table, columns);
+        sinks.add(sink);
+        return sink;
+    }
+
+    // An index drawn with probability proportional to its weight.
+    private static int pick(int[] weights, Random random) {
+        int total = 0;
+        for (int weight : weights) total += weight;
+        int r = random.nextInt(total);
+        int i = 0;
+        while (r >= weights[i]) {
+            r -= weights[i++];
+        }
+        return i;
+    }
+
+    private static int[] shuffledRange(int n, Random random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+
+    /**
+     * Draws JPEG pictures of increasing size: a gradient with a few shapes and some noise, so that
+     * the larger pictures do not compress to almost nothing.
+     */
+    private static byte[][] syntheticImages(Random random) throws IOException {
+        byte[][] images = new byte[IMAGE_WIDTHS.length][];
+        for (int i = 0; i < IMAGE_WIDTHS.length; i++) {
+            int width = IMAGE_WIDTHS[i];
+            int height = width * 3 / 4;
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0x1000000)),
+                    width, height, new Color(random.nextInt(0x1000000))));
+            g.fillRect(0, 0, width, height);
+            for (int shape = 0; shape < 6; shape++) {
+                g.setColor(new Color(random.nextInt(0x1000000)));
+                g.fillOval(random.nextInt(width), random.nextInt(height),
+                        1 + random.nextInt(width / 2), 1 + random.nextInt(height / 2));
+            }
+            g.dispose();
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int noise = random.nextInt(48) - 24;
+                    int rgb = image.getRGB(x, y);
+                    int red = Math.max(0, Math.min(255, ((rgb >> 16) & 0xFF) + noise));
+                    int green = Math.max(0, Math.min(255, ((rgb >> 8) & 0xFF) + noise));
+                    int blue = Math.max(0, Math.min(255, (rgb & 0xFF) + noise));
+                    image.setRGB(x, y, (red << 16) | (green << 8) | blue);
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            images[i] = out.toByteArray();
+        }
+        return images;
+    }
+
+    /**
+     * Draws ranks 0 to n-1 with probability proportional to 1 / (rank + 1)^exponent.
+     */
+    private static class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next(Random random) {
+            int i = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(i >= 0 ? i : -i - 1, cumulative.length - 1);
+        }
+    }
+
+    /**
+     * Receives the rows of one table. Values are Integer, BigDecimal, String, LocalDateTime, byte[] or null.
+     */
+    private interface RowSink {
+        void add(Object... values) throws SQLException, IOException;
+
+        /**
+         * Writes the remaining rows and commits.
+         *
+         * @return the number of rows written
+         */
+        long finish() throws SQLException, IOException;
+
+        void close();
+    }
+
+    /**
+     * Inserts rows with JDBC batches, committing after every batch.
+     */
+    private static class BatchSink implements RowSink {
+        private final Connection con;
+        private final PreparedStatement pstat;
+        private long rows;
+
+        BatchSink(Connection con, String table, String[] columns) throws SQLException {
+            this.con = con;
+            this.pstat = con.prepareStatement("INSERT INTO " + table + " (" + String.join(", ", columns)
+                    + ") VALUES (" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")");
+        }
+
+        @Override
+        public void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                pstat.setObject(i + 1, values[i]);
+            }
+            pstat.addBatch();
+            if (++rows % BATCH_SIZE == 0) {
+                pstat.executeBatch();
+                con.commit();
+            }
+        }
+
+        @Override
+        public long finish() throws SQLException {
+            pstat.executeBatch();
+            con.commit();
+            return rows;
+        }
+
+        @Override
+        public void close() {
+            try {
+                pstat.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes rows to a temporary tab-separated file and loads it with LOAD DATA LOCAL INFILE.
+     * Binary values are written as hex and decoded by the server.
+     */
+    private static class FileSink implements RowSink {
+        private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        private final Connection con;
+        private final String table;
+        private final String[] columns;
+        private final boolean[] binary;
+        private final Path file;
+        private final ChannelWriter out;
+        private final StringBuilder line = new StringBuilder(256);
+        private boolean written;
+        private long rows;
+
+        FileSink(Connection con, String table, String[] columns) throws IOException {
+            this.con = con;
+            this.table = table;
+            this.columns = columns;
+            this.binary = new boolean[columns.length];
+            this.file = Files.createTempFile("auction-" + table + "-", ".tsv");
+            this.out = new ChannelWriter(FileChannel.open(file, StandardOpenOption.WRITE), 1 << 16);
+        }
+
+        @Override
+        public void add(Object... values) throws IOException {
+            line.setLength(0);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) line.append('\t');
+                Object value = values[i];
+                if (value == null) {
+                    line.append("\\N");
+                } else if (value instanceof byte[]) {
+                    binary[i] = true;
+                    line.append(HexFormat.of().formatHex((byte[]) value));
+                } else if (value instanceof LocalDateTime) {
+                    line.append(DATE_TIME.format((LocalDateTime) value));
+                } else if (value instanceof BigDecimal) {
+                    line.append(((BigDecimal) value).toPlainString());
+                } else {
+                    appendEscaped(value.toString());
+                }
+            }
+            line.append('\n');
+            out.write(line);
+            rows++;
+        }
+
+        // The escapes of LOAD DATA's default format (FIELDS ESCAPED BY '\\')
+        private void appendEscaped(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\':
+                        line.append("\\\\");
+                        break;
+                    case '\t':
+                        line.append("\\t");
+                        break;
+                    case '\n':
+                        line.append("\\n");
+                        break;
+                    default:
+                        line.append(c);
+                }
+            }
+        }
+
+        @Override
+        public long finish() throws SQLException, IOException {
+            written = true;
+            out.close();
+            if (rows == 0) {
+                return 0;
+            }
+            List<String> targets = new ArrayList<>();
+            List<String> decoded = new ArrayList<>();
+            for (int i = 0; i < columns.length; i++) {
+                if (binary[i]) {
+                    targets.add("@" + columns[i]);
+                    decoded.add(columns[i] + " = UNHEX(@" + columns[i] + ")");
+                } else {
+                    targets.add(columns[i]);
+                }
+            }
+            String path = file.toAbsolutePath().toString().replace('\\', '/').replace("'", "\\'");
+            String sql = "LOAD DATA LOCAL INFILE '" + path + "' INTO TABLE " + table + " CHARACTER SET utf8mb4 ("
+                    + String.join(", ", targets) + ")" + (decoded.isEmpty() ? "" : " SET " + String.join(", ", decoded));
+            try (Statement stat = con.createStatement()) {
+                stat.execute(sql);
+            }
+            con.commit();
+            return rows;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (!written) {
+                    out.close();
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.Database;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sets up the embedded H2 database used for tests, benchmarks and demos instead of a MySQL server.
+ *
+ * <p>Select it with a URL such as the one of the "embedded" profile in database.properties; H2 must
+ * then be on the classpath (com.h2database:h2). Before the first connection is handed out, the tables
+ * of MYSQL_scripts/ are created if the database has none yet, and a synthetic dataset is generated
+ * into them when {@code seedAuctions} is set (see {@link DatasetGenerator}). An in-memory
+ * database therefore starts from the same schema and, for the same seed, the same rows on every run.</p>
+ *
+ * <p>The URL should enable H2's MySQL mode with lower-case, case-insensitive identifiers, since the
+ * DAOs write table names in mixed case. A few MySQL-only features behave differently: the row
+ * estimates of ExportDAO (information_schema.TABLES) and its row-by-row streaming are not available,
+ * and locking follows H2's rules rather than InnoDB's.</p>
+ *
+ * <p>Embedded shards (H2 URLs in {@code shards}) get the same schema but no dataset.</p>
+ */
+public class EmbeddedDatabase {
+
+    private static final String H2_DRIVER = "org.h2.Driver";
+    // Index lines inside a MySQL CREATE TABLE, e.g. "UNIQUE KEY `userEmail_UNIQUE` (`userEmail`),"
+    private static final Pattern INDEX = Pattern.compile("(UNIQUE )?KEY (\\w+) \\((.+)\\),?");
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE `(\\w+)` \\(");
+
+    private static final Set<String> initialised = new HashSet<>();
+
+    /**
+     * Creates the schema and seeds the dataset unless that was already done in this process
+     * or the database already has tables (e.g. a file database from an earlier run).
+     *
+     * @param config the active configuration, with an embedded URL
+     * @throws SQLException if H2 is missing, a script cannot be read or a statement fails
+     */
+    static void initialise(DatabaseConfig config) throws SQLException {
+        initialise(config, config.getUrl());
+    }
+
+    /**
+     * Creates the schema in the embedded database at the given URL, as {@link #initialise(DatabaseConfig)}.
+     * Only the database at the configured URL is seeded; embedded shards start empty.
+     *
+     * @param config the active configuration
+     * @param url an H2 URL, the configured URL or one of the shards
+     * @throws SQLException if H2 is missing, a script cannot be read or a statement fails
+     */
+    static synchronized void initialise(DatabaseConfig config, String url) throws SQLException {
+        if (initialised.contains(url)) {
+            return;
+        }
+        try {
+            Class.forName(H2_DRIVER);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("The embedded database needs the H2 driver (com.h2database:h2) on the classpath", e);
+        }
+
+        try (Connection con = DriverManager.getConnection(url, config.getDriverProperties())) {
+            if (!hasTables(con)) {
+                List<String> statements = translateSchema(Paths.get(config.getSchemaDir()));
+                try (Statement stat = con.createStatement()) {
+                    for (String sql : statements) {
+                        stat.execute(sql);
+                    }
+                }
+                System.out.println("Created embedded schema (" + statements.size() + " statements)");
+
+                if (url.equals(config.getUrl()) && config.getSeedAuctions() > 0) {
+                    DatasetGenerator.generate(con, DatasetGenerator.Size.forAuctions(config.getSeedAuctions()),
+                            config.getSeed(), DatasetGenerator.Loader.BATCH);
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Cannot generate the embedded dataset: " + e.getMessage(), e);
+        }
+        initialised.add(url);
+    }
+
+    private static boolean hasTables(Connection con) throws SQLException {
+        DatabaseMetaData meta = con.getMetaData();
+        try (ResultSet rs = meta.getTables(null, null, "%", new String[]{"TABLE"})) {
+            while (rs.next()) {
+                if (rs.getString("TABLE_NAME").equalsIgnoreCase("auction")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Turns the CREATE TABLE statements of the MySQL dump scripts into H2 statements.
+     *
+     * @param dir the directory holding the auctionsystem_*.sql scripts
+     * @return the CREATE TABLE and CREATE INDEX statements, in file name order
+     * @throws SQLException if the directory or a script cannot be read
+     */
+    static List<String> translateSchema(Path dir) throws SQLException {
+        List<Path> scripts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.sql")) {
+            for (Path file : files) {
+                scripts.add(file);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Cannot read schema scripts in " + dir.toAbsolutePath() + ": " + e.getMessage(), e);
+        }
+        scripts.sort(null);
+
+        List<String> statements = new ArrayList<>();
+        for (Path script : scripts) {
+            try {
+                translateTable(Files.readAllLines(script, StandardCharsets.UTF_8), statements);
+            } catch (IOException e) {
+                throw new SQLException("Cannot read schema script " + script + ": " + e.getMessage(), e);
+            }
+        }
+        if (statements.isEmpty()) {
+            throw new SQLException("No CREATE TABLE statements found in " + dir.toAbsolutePath());
+        }
+        return statements;
+    }
+
+    /**
+     * Translates the CREATE TABLE of one script. H2 keeps index names per schema rather than per
+     * table, so the KEY lines become separate CREATE INDEX statements prefixed with the table name;
+     * the table options after the closing parenthesis (engine, charset) are dropped.
+     */
+    private static void translateTable(List<String> lines, List<String> statements) {
+        String table = null;
+        List<String> definitions = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (table == null) {
+                Matcher create = CREATE_TABLE.matcher(trimmed);
+                if (create.matches()) {
+                    table = create.group(1);
+                }
+                continue;
+            }
+            if (trimmed.startsWith(")")) {
+                break;
+            }
+
+            String definition = trimmed.replace("`", "");
+            Matcher index = INDEX.matcher(definition);
+            if (index.matches()) {
+                indexes.add("CREATE " + (index.group(1) != null ? "UNIQUE " : "") + "INDEX " + table + "_" + index.group(2)
+                        + " ON " + table + " (" + index.group(3) + ")");
+            } else {
+                definitions.add(definition.endsWith(",") ? definition.substring(0, definition.length() - 1) : definition);
+            }
+        }
+
+        if (table != null) {
+            statements.add("CREATE TABLE " + table + " (\n  " + String.join(",\n  ", definitions) + "\n)");
+            statements.addAll(indexes);
+        }
+    }
+}
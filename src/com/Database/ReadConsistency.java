@@ -0,0 +1,25 @@
+package com.Database;
+
+/**
+ * How current a read must be, which decides whether it may be served by a read replica
+ * (see {@link DBConnector#getReadConnection(ReadConsistency)} and {@link ReplicaRouter}).
+ */
+public enum ReadConsistency {
+
+    /**
+     * Any replica within the configured lag will do: listings and details where a few seconds
+     * of staleness go unnoticed.
+     */
+    REPLICA,
+
+    /**
+     * A replica only once it has applied this application's latest write, so users always see
+     * their own bids, auctions and payments; otherwise the primary.
+     */
+    READ_YOUR_WRITES,
+
+    /**
+     * Always the primary, e.g. reads that decide a write.
+     */
+    PRIMARY
+}
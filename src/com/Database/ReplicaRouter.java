@@ -0,0 +1,316 @@
+package com.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReplicaRouter decides which database serves a read when read replicas are configured.
+ *
+ * <p>Replication lag is measured with a heartbeat: every replica.heartbeatMillis a background thread
+ * writes the next number of a sequence to this application's own replica_heartbeat row on the
+ * primary (keyed by a random client ID chosen at start-up) and reads the row back from every replica.
+ * Replication applies transactions in commit order, so a replica whose row holds beat n has applied
+ * everything committed on the primary before beat n was written. The monitor remembers when it wrote
+ * each recent beat, which gives the lag, and tells whether a replica already has this application's
+ * last write (beat n written after it). Only this process's monotonic clock is compared with itself,
+ * so clock differences between clients and servers do not matter. It needs no replication privileges
+ * and works the same with MySQL replicas or a stand-in, e.g. a replica URL pointing at the primary's
+ * own database. Rows of clients that stopped beating a day ago are deleted by the next client to start.</p>
+ *
+ * <p>{@link ReadConsistency#REPLICA} reads go to a replica that answered the last check and lags by
+ * at most replica.maxLagMillis; {@link ReadConsistency#READ_YOUR_WRITES} reads also need the replica
+ * to have applied the last write recorded with {@link #recordWrite()}. Replicas take turns; when none
+ * qualifies, or a replica connection fails, the read goes to the primary. Until the first check has
+ * finished every read goes to the primary.</p>
+ */
+public class ReplicaRouter {
+
+    private static final String WRITE_HEARTBEAT = "INSERT INTO replica_heartbeat (clientID, beatSequence, beatTime) "
+            + "VALUES (?, ?, CURRENT_TIMESTAMP) ON DUPLICATE KEY UPDATE beatSequence = VALUES(beatSequence), beatTime = CURRENT_TIMESTAMP";
+    private static final String READ_HEARTBEAT = "SELECT beatSequence FROM replica_heartbeat WHERE clientID = ?";
+    private static final String DELETE_OLD_HEARTBEATS = "DELETE FROM replica_heartbeat "
+            + "WHERE beatTime < TIMESTAMPADD(DAY, -1, CURRENT_TIMESTAMP)";
+    // A check result older than this many heartbeat intervals no longer counts (e.g. the monitor is stuck)
+    private static final int STALE_CHECKS = 3;
+    // Number of recent beats whose write time is remembered; a replica further behind counts as unusable
+    private static final int REMEMBERED_BEATS = 1024;
+
+    private static final int clientID = ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+    // System.nanoTime() when beat n was written, at n % REMEMBERED_BEATS; only the monitor thread writes it
+    private static final long[] beatNanos = new long[REMEMBERED_BEATS];
+    private static volatile long lastBeat;   // the last beat written, 0 before the first one
+    private static volatile Replica[] replicas = new Replica[0];
+    private static volatile boolean started;
+    private static volatile long lastWriteNanos = System.nanoTime();
+    private static long maxLagMillis;
+    private static long heartbeatMillis;
+    private static final AtomicInteger nextReplica = new AtomicInteger();
+    private static final AtomicLong replicaReads = new AtomicLong();
+    private static final AtomicLong primaryReads = new AtomicLong();
+
+    private static ScheduledExecutorService scheduler;
+    private static Connection heartbeatCon;
+
+    /**
+     * Starts the heartbeat if replicas are configured. Called by DBConnector before the first
+     * routed read; calling it again has no effect. An invalid configuration is left for
+     * DBConnector to report when it connects.
+     */
+    public static void start() {
+        if (!started) {
+            startMonitor();
+        }
+    }
+
+    private static synchronized void startMonitor() {
+        if (started) {
+            return;
+        }
+        started = true;
+        List<String> urls;
+        try {
+            DatabaseConfig config = DatabaseConfig.get();
+            urls = config.getReplicaUrls();
+            maxLagMillis = config.getReplicaMaxLagMillis();
+            heartbeatMillis = config.getReplicaHeartbeatMillis();
+        } catch (IllegalStateException e) {
+            return;
+        }
+        if (urls.isEmpty()) {
+            return;
+        }
+
+        Replica[] configured = new Replica[urls.size()];
+        for (int i = 0; i < configured.length; i++) {
+            configured[i] = new Replica(i, urls.get(i));
+        }
+        replicas = configured;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(ReplicaRouter::check, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records that this application has just committed a write, so READ_YOUR_WRITES reads stay on
+     * the primary until a replica has caught up with it. Called after commits that the user will
+     * want to see straight away (bids, auctions, payments).
+     */
+    public static void recordWrite() {
+        lastWriteNanos = System.nanoTime();
+    }
+
+    /**
+     * Picks the replica for a read.
+     *
+     * @param consistency how current the read must be
+     * @return the index of the replica in the configured list, or -1 for the primary
+     */
+    static int choose(ReadConsistency consistency) {
+        Replica[] current = replicas;
+        if (consistency == ReadConsistency.PRIMARY || current.length == 0) {
+            return -1;
+        }
+        long now = System.nanoTime();
+        int first = nextReplica.getAndIncrement();
+        for (int k = 0; k < current.length; k++) {
+            Replica replica = current[Math.floorMod(first + k, current.length)];
+            if (replica.canServe(consistency, now)) {
+                replicaReads.incrementAndGet();
+                return replica.index;
+            }
+        }
+        primaryReads.incrementAndGet();
+        return -1;
+    }
+
+    /**
+     * Takes a replica out of rotation after a failed connection until the next check succeeds.
+     *
+     * @param index the index of the replica
+     * @param error the failure
+     */
+    static void markUnavailable(int index, SQLException error) {
+        Replica[] current = replicas;
+        if (index < current.length && current[index].available) {
+            current[index].available = false;
+            System.err.println("Read replica " + current[index].url + " is unavailable: " + error.getMessage());
+        }
+        // choose() counted the read for the replica; it is served by the primary instead
+        replicaReads.decrementAndGet();
+        primaryReads.incrementAndGet();
+    }
+
+    // Writes the next beat on the primary, then reads this client's row back from every replica.
+    private static void check() {
+        try {
+            if (heartbeatCon == null || heartbeatCon.isClosed()) {
+                heartbeatCon = DBConnector.openConnection();
+                if (lastBeat == 0) {
+                    try (PreparedStatement pstat = heartbeatCon.prepareStatement(DELETE_OLD_HEARTBEATS)) {
+                        pstat.executeUpdate();
+                    }
+                }
+            }
+            long beat = lastBeat + 1;
+            // Taken before the write, so a beat counts as written after every write recorded before it
+            beatNanos[(int) (beat % REMEMBERED_BEATS)] = System.nanoTime();
+            try (PreparedStatement pstat = heartbeatCon.prepareStatement(WRITE_HEARTBEAT)) {
+                pstat.setInt(1, clientID);
+                pstat.setLong(2, beat);
+                pstat.executeUpdate();
+            }
+            lastBeat = beat;
+        } catch (SQLException e) {
+            System.err.println("Error writing replication heartbeat: " + e.getMessage());
+            heartbeatCon = close(heartbeatCon);
+        }
+        for (Replica replica : replicas) {
+            replica.check();
+        }
+    }
+
+    private static Connection close(Connection con) {
+        try {
+            if (con != null) con.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Returns the current state of the replicas.
+     *
+     * @return the status, with no replicas if none are configured
+     */
+    public static Status getStatus() {
+        Status status = new Status();
+        long now = System.nanoTime();
+        for (Replica replica : replicas) {
+            status.replicas++;
+            if (replica.canServe(ReadConsistency.REPLICA, now)) {
+                status.usable++;
+                status.maxLagMillis = Math.max(status.maxLagMillis, replica.lagMillis());
+            }
+        }
+        status.replicaReads = replicaReads.get();
+        status.primaryReads = primaryReads.get();
+        return status;
+    }
+
+    /**
+     * One read replica and the result of its last check. Only the monitor thread writes the check results.
+     */
+    private static class Replica {
+        private final int index;
+        private final String url;
+        private Connection con;
+        private volatile boolean available;
+        private volatile boolean applied;      // whether the replica has a beat that is still remembered
+        private volatile long appliedNanos;    // when the beat found on the replica was written
+        private volatile long checkedNanos;    // when it was read
+
+        private Replica(int index, String url) {
+            this.index = index;
+            this.url = url;
+        }
+
+        private void check() {
+            try {
+                if (con == null || con.isClosed()) {
+                    con = DBConnector.openReplicaConnection(index);
+                }
+                long beat = 0;
+                try (PreparedStatement pstat = con.prepareStatement(READ_HEARTBEAT)) {
+                    pstat.setInt(1, clientID);
+                    try (ResultSet rs = pstat.executeQuery()) {
+                        if (rs.next()) {
+                            beat = rs.getLong("beatSequence");
+                        }
+                    }
+                }
+                // A beat whose write did not report success, or too old to be remembered, does not count
+                boolean known = beat > 0 && beat <= lastBeat && lastBeat - beat < REMEMBERED_BEATS;
+                if (known) {
+                    appliedNanos = beatNanos[(int) (beat % REMEMBERED_BEATS)];
+                }
+                applied = known;
+                checkedNanos = System.nanoTime();
+                if (!available) {
+                    System.out.println("Read replica " + url + " is available");
+                }
+                available = true;
+            } catch (SQLException e) {
+                if (available) {
+                    System.err.println("Read replica " + url + " is unavailable: " + e.getMessage());
+                }
+                available = false;
+                con = close(con);
+            }
+        }
+
+        private long lagMillis() {
+            return Math.max(0, TimeUnit.NANOSECONDS.toMillis(checkedNanos - appliedNanos));
+        }
+
+        private boolean canServe(ReadConsistency consistency, long now) {
+            if (!available || !applied || now - checkedNanos > TimeUnit.MILLISECONDS.toNanos(STALE_CHECKS * heartbeatMillis)
+                    || lagMillis() > maxLagMillis) {
+                return false;
+            }
+            return consistency == ReadConsistency.REPLICA || appliedNanos - lastWriteNanos > 0;
+        }
+    }
+
+    /**
+     * A snapshot of the replicas and of how reads were routed since start-up.
+     */
+    public static class Status {
+        private int replicas;
+        private int usable;
+        private long maxLagMillis;
+        private long replicaReads;
+        private long primaryReads;
+
+        public int getReplicas() {
+            return replicas;
+        }
+
+        /**
+         * @return the number of replicas currently within the allowed lag
+         */
+        public int getUsable() {
+            return usable;
+        }
+
+        /**
+         * @return the highest lag among the usable replicas
+         */
+        public long getMaxLagMillis() {
+            return maxLagMillis;
+        }
+
+        public long getReplicaReads() {
+            return replicaReads;
+        }
+
+        /**
+         * @return the routed reads that went to the primary because no replica qualified
+         */
+        public long getPrimaryReads() {
+            return primaryReads;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ShardRebalancer moves rows to the shard that owns their bucket after shards were added to the
+ * configuration (see ShardRouter). Run it with the application stopped:
+ *
+ * <pre>java com.Database.ShardRebalancer [--dry-run]</pre>
+ *
+ * <p>Every shard is checked for the buckets it no longer owns. A bucket is moved in two steps: its
+ * rows are copied to the owner in one transaction, replacing any copy left by an interrupted run,
+ * then deleted from the old shard in a second one. A run that stops between the two therefore
+ * leaves the rows on both shards, and running it again finishes the move. The outbox events of the
+ * moved auctions stay behind; they were already written in order on the old shard.</p>
+ *
+ * <p>The seller balances of each shard cache its own ledger lines, so run LedgerService.reconcile()
+ * (the "Reconcile Ledger" button of the admin dashboard) after rebalancing. Data loaded with
+ * DatasetGenerator lands on shard 0 and is spread over the shards the same way.</p>
+ */
+public class ShardRebalancer {
+
+    private static final int BATCH_SIZE = 500;
+
+    // Tables moved with their auction, in copy order. They are deleted in reverse order, so the ledger lines,
+    // found through their payments, go first. Surrogate AUTO_INCREMENT keys are assigned again on the new shard.
+    private static final Moved[] TABLES = {
+        new Moved("auction", "auctionID", null),
+        new Moved("bid", "auctionID", null),
+        new Moved("payment", "auctionID", null),
+        new Moved("auction_archive", "auctionID", null),
+        new Moved("bid_archive", "auctionID", null),
+        new Moved("payment_archive", "auctionID", null),
+        new Moved("proxy_bid", "auctionID", "proxyBidID"),
+        new Moved("bid_request", "auctionID", null),
+        new Moved("auction_sketch", "auctionID", null),
+        new Moved("ledger_entry", null, "entryID")
+    };
+
+    /**
+     * Moves every bucket held by a shard that does not own it.
+     *
+     * @param dryRun only report which buckets would move
+     * @return the number of rows moved
+     * @throws SQLException if a bucket cannot be moved; earlier buckets stay moved
+     */
+    public static long rebalance(boolean dryRun) throws SQLException {
+        long moved = 0;
+        for (int source = 0; source < ShardRouter.getShardCount(); source++) {
+            try (Connection from = DBConnector.openShardConnection(source)) {
+                from.setAutoCommit(false);
+                for (int bucket : heldBuckets(from, source)) {
+                    int target = ShardRouter.shardOfBucket(bucket);
+                    System.out.println("Bucket " + bucket + ": shard " + source + " -> shard " + target);
+                    if (dryRun) {
+                        continue;
+                    }
+                    try (Connection to = DBConnector.openShardConnection(target)) {
+                        to.setAutoCommit(false);
+                        moved += move(from, to, bucket);
+                    }
+                }
+            }
+        }
+        return moved;
+    }
+
+    // The buckets with rows on this shard that belong to another one
+    private static List<Integer> heldBuckets(Connection con, int shard) throws SQLException {
+        List<Integer> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket < ShardRouter.BUCKETS; bucket++) {
+            if (ShardRouter.shardOfBucket(bucket) == shard) {
+                continue;
+            }
+            for (Moved table : TABLES) {
+                try (PreparedStatement pstat = con.prepareStatement(
+                        "SELECT 1 FROM " + table.name + " WHERE " + table.condition(bucket) + " LIMIT 1");
+                     ResultSet rs = pstat.executeQuery()) {
+                    if (rs.next()) {
+                        buckets.add(bucket);
+                        break;
+                    }
+                }
+            }
+        }
+        con.commit();
+        return buckets;
+    }
+
+    private static long move(Connection from, Connection to, int bucket) throws SQLException {
+        long rows = 0;
+        try {
+            for (Moved table : TABLES) {
+                rows += copy(from, to, table, bucket);
+            }
+            to.commit();
+            from.commit();
+        } catch (SQLException e) {
+            to.rollback();
+            from.rollback();
+            throw e;
+        }
+
+        try {
+            for (int i = TABLES.length - 1; i >= 0; i--) {
+                try (Statement stat = from.createStatement()) {
+                    stat.executeUpdate("DELETE FROM " + TABLES[i].name + " WHERE " + TABLES[i].condition(bucket));
+                }
+            }
+            from.commit();
+        } catch (SQLException e) {
+            from.rollback();
+            throw e;
+        }
+        return rows;
+    }
+
+    // Replaces the table's rows of the bucket on the target with the source's, one batch per BATCH_SIZE rows
+    private static long copy(Connection from, Connection to, Moved table, int bucket) throws SQLException {
+        try (Statement stat = to.createStatement()) {
+            stat.executeUpdate("DELETE FROM " + table.name + " WHERE " + table.condition(bucket));
+        }
+
+        long rows = 0;
+        try (PreparedStatement select = from.prepareStatement(
+                "SELECT * FROM " + table.name + " WHERE " + table.condition(bucket));
+             ResultSet rs = select.executeQuery()) {
+            ResultSetMetaData meta = rs.getMetaData();
+            List<Integer> columns = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                if (!meta.getColumnLabel(i).equalsIgnoreCase(table.skippedColumn)) {
+                    columns.add(i);
+                    names.add(meta.getColumnLabel(i));
+                }
+            }
+            String sql = "INSERT INTO " + table.name + " (" + String.join(", ", names) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(names.size(), "?")) + ")";
+
+            try (PreparedStatement insert = to.prepareStatement(sql)) {
+                while (rs.next()) {
+                    for (int i = 0; i < columns.size(); i++) {
+                        insert.setObject(i + 1, rs.getObject(columns.get(i)));
+                    }
+                    insert.addBatch();
+                    if (++rows % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * A table moved with its auctions, and the column giving the auction (null for the ledger).
+     */
+    private static class Moved {
+        private final String name;
+        private final String auctionColumn;
+        private final String skippedColumn;
+
+        private Moved(String name, String auctionColumn, String skippedColumn) {
+            this.name = name;
+            this.auctionColumn = auctionColumn;
+            this.skippedColumn = skippedColumn;
+        }
+
+        // The bucket is an int in [0, BUCKETS), so it is safe to write into the SQL.
+        private String condition(int bucket) {
+            if (auctionColumn != null) {
+                return "MOD(" + auctionColumn + ", " + ShardRouter.BUCKETS + ") = " + bucket;
+            }
+            String payments = "MOD(auctionID, " + ShardRouter.BUCKETS + ") = " + bucket;
+            return "paymentID IN (SELECT paymentID FROM payment WHERE " + payments
+                    + " UNION SELECT paymentID FROM payment_archive WHERE " + payments + ")";
+        }
+    }
+
+    public static void main(String[] args) {
+        boolean dryRun = args.length > 0 && args[0].equals("--dry-run");
+        if (args.length > 1 || (args.length == 1 && !dryRun)) {
+            System.err.println("Usage: ShardRebalancer [--dry-run]");
+            System.exit(2);
+        }
+        try {
+            System.out.println("Rebalancing " + ShardRouter.getShardCount() + " shards of " + DatabaseConfig.get());
+            long moved = rebalance(dryRun);
+            if (!dryRun) {
+                System.out.println("Moved " + moved + " rows. Run the ledger reconciliation to recompute the seller balances.");
+            }
+        } catch (SQLException | IllegalStateException e) {
+            System.err.println("Rebalancing failed: " + e.getMessage());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+}
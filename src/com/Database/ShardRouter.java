@@ -0,0 +1,361 @@
+package com.Database;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ShardRouter decides which database holds an auction when shards are configured.
+ *
+ * <p>The auctions are split into BUCKETS buckets: the bucket of an auction is its auctionID modulo
+ * BUCKETS. A consistent-hash ring assigns the buckets to the shards (shard 0 is the database at
+ * {@code url}, then the {@code shards} in the order listed): every shard has VIRTUAL_NODES hashed points
+ * on the ring, the buckets sit at evenly spaced positions, and a bucket belongs to the first shard
+ * point at or after its position. Adding a shard at the
+ * end of the list therefore moves only the buckets the new shard takes over, about 1/N of them, and
+ * never moves a bucket between two existing shards; {@link ShardRebalancer} moves their rows.</p>
+ *
+ * <p>An auction's bids, payment, proxy bids, bid requests, sketches, archived rows and the outbox
+ * events and ledger lines written with them live on the auction's shard, so every transaction stays
+ * on one database. Users, items, catalogues and reports stay on shard 0.</p>
+ *
+ * <p>While sharded, the keys of new auctions, bids and payments are not left to AUTO_INCREMENT but
+ * allocated here as {@code value * BUCKETS + bucket}: a new auction gets a random bucket, and its
+ * bids and payment get the auction's bucket. Any of these keys therefore names its shard, with
+ * {@link #shardOf(int)}. The values come from one sequence per table and bucket in the shard_sequence
+ * table of shard 0, handed out in blocks of KEY_BLOCK so most keys cost no round trip. Rows created
+ * before sharding keep their keys: auctions route by their ID like any other, and lookups of older
+ * bids and payments by their own ID fall back to asking every shard.</p>
+ *
+ * <p>Queries over all auctions run on every shard with {@link #scatter(ShardQuery)}, in parallel on
+ * worker threads with their own connections, and the callers merge the results. With a single shard
+ * (the default) no keys are allocated and everything runs on the caller's thread as before.</p>
+ */
+public class ShardRouter {
+
+    // Fixed for the life of the data: keys embed their bucket, so changing it would move every row
+    public static final int BUCKETS = 256;
+    private static final int VIRTUAL_NODES = 1000;
+    private static final int KEY_BLOCK = 100;
+
+    private static final String READ_SEQUENCE = "SELECT nextValue FROM shard_sequence WHERE sequenceName = ? FOR UPDATE";
+    private static final String CREATE_SEQUENCE = "INSERT INTO shard_sequence (sequenceName, nextValue) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE nextValue = nextValue";
+    private static final String UPDATE_SEQUENCE = "UPDATE shard_sequence SET nextValue = ? WHERE sequenceName = ?";
+
+    private static volatile int[] owners;
+    private static volatile int shardCount;
+    private static ExecutorService scatterPool;
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    // Key allocation, guarded by keyLock: {next value, end of block} per sequence name
+    private static final Object keyLock = new Object();
+    private static final Map<String, int[]> keyBlocks = new HashMap<>();
+    private static Connection sequenceCon;
+    // Computed outside keyLock, once per table
+    private static final Map<String, Integer> firstValues = new ConcurrentHashMap<>();
+
+    /**
+     * A query run once per shard by {@link #scatter(ShardQuery)}.
+     */
+    @FunctionalInterface
+    public interface ShardQuery<T> {
+        List<T> query(int shard) throws SQLException;
+    }
+
+    private static int[] owners() {
+        int[] current = owners;
+        if (current == null) {
+            int shards = 1;
+            try {
+                shards = DatabaseConfig.get().getShardUrls().size();
+            } catch (IllegalStateException e) {
+                // A single shard; the configuration error is reported when DBConnector connects.
+            }
+            current = assignBuckets(shards);
+            shardCount = shards;
+            owners = current;
+        }
+        return current;
+    }
+
+    /**
+     * Places the buckets on the consistent-hash ring of the given number of shards.
+     *
+     * @param shards the number of shards
+     * @return the shard of every bucket
+     */
+    static int[] assignBuckets(int shards) {
+        TreeMap<Long, Integer> ring = new TreeMap<>();
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(hash("shard-" + shard + "#" + node), shard);
+            }
+        }
+        int[] assigned = new int[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            Map.Entry<Long, Integer> point = ring.ceilingEntry((long) bucket << 56);
+            assigned[bucket] = (point != null ? point : ring.firstEntry()).getValue();
+        }
+        return assigned;
+    }
+
+    // The first 8 bytes of the MD5 digest: stable across JVMs and evenly spread, unlike String.hashCode()
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+
+    /**
+     * @return the number of shards, 1 if none are configured
+     */
+    public static int getShardCount() {
+        owners();
+        return shardCount;
+    }
+
+    /**
+     * @return true if more than one shard is configured
+     */
+    public static boolean isSharded() {
+        return getShardCount() > 1;
+    }
+
+    /**
+     * @param key an auctionID, or the bidID or paymentID of a row created while sharded
+     * @return the bucket embedded in the key
+     */
+    public static int bucketOf(int key) {
+        return Math.floorMod(key, BUCKETS);
+    }
+
+    /**
+     * @param key an auctionID, or the bidID or paymentID of a row created while sharded
+     * @return the shard that holds the key's bucket
+     */
+    public static int shardOf(int key) {
+        return owners()[bucketOf(key)];
+    }
+
+    /**
+     * @param bucket a bucket
+     * @return the shard that holds it
+     */
+    public static int shardOfBucket(int bucket) {
+        return owners()[bucket];
+    }
+
+    /**
+     * @return a random bucket for a new auction, which spreads new auctions over the shards by their share of buckets
+     */
+    public static int newBucket() {
+        return ThreadLocalRandom.current().nextInt(BUCKETS);
+    }
+
+    /**
+     * Groups keys by the shard that holds them.
+     *
+     * @param keys auctionIDs, or keys created while sharded
+     * @return a Map from shard to its keys, in shard order
+     */
+    public static Map<Integer, List<Integer>> groupByShard(Collection<Integer> keys) {
+        Map<Integer, List<Integer>> byShard = new TreeMap<>();
+        for (int key : keys) {
+            byShard.computeIfAbsent(shardOf(key), k -> new ArrayList<>()).add(key);
+        }
+        return byShard;
+    }
+
+    /**
+     * Allocates a new key in the given bucket.
+     *
+     * @param table auction, bid or payment
+     * @param keyColumn the table's primary key column
+     * @param bucket the bucket the key must carry: a new auction's, or the auction of the bid or payment
+     * @return a key that no row of the table or its archive has used, with {@code bucketOf(key) == bucket}
+     * @throws SQLException if shard_sequence cannot be read or updated, or the bucket has run out of keys
+     */
+    public static int nextKey(String table, String keyColumn, int bucket) throws SQLException {
+        String name = table + ":" + bucket;
+        synchronized (keyLock) {
+            int[] block = keyBlocks.get(name);
+            if (block != null && block[0] < block[1]) {
+                return take(block, table, bucket);
+            }
+        }
+        // The scatter over all shards runs without the lock, so other allocations go on meanwhile.
+        int first = firstValue(table, keyColumn);
+        synchronized (keyLock) {
+            int[] block = keyBlocks.get(name);
+            if (block == null || block[0] >= block[1]) {
+                block = allocateBlock(name, first);
+                keyBlocks.put(name, block);
+            }
+            return take(block, table, bucket);
+        }
+    }
+
+    private static int take(int[] block, String table, int bucket) throws SQLException {
+        int value = block[0]++;
+        if (value > (Integer.MAX_VALUE - bucket) / BUCKETS) {
+            throw new SQLException("No keys left for " + table + " in bucket " + bucket);
+        }
+        return value * BUCKETS + bucket;
+    }
+
+    // Takes the next KEY_BLOCK values of a sequence in a short transaction on shard 0; a new sequence starts at first.
+    private static int[] allocateBlock(String name, int first) throws SQLException {
+        try {
+            if (sequenceCon == null || sequenceCon.isClosed()) {
+                sequenceCon = DBConnector.openShardConnection(0);
+                sequenceCon.setAutoCommit(false);
+            }
+            int next = readSequence(name);
+            if (next < 0) {
+                try (PreparedStatement pstat = sequenceCon.prepareStatement(CREATE_SEQUENCE)) {
+                    pstat.setString(1, name);
+                    pstat.setInt(2, first);
+                    pstat.executeUpdate();
+                }
+                next = readSequence(name);
+            }
+            try (PreparedStatement pstat = sequenceCon.prepareStatement(UPDATE_SEQUENCE)) {
+                pstat.setInt(1, next + KEY_BLOCK);
+                pstat.setString(2, name);
+                pstat.executeUpdate();
+            }
+            sequenceCon.commit();
+            return new int[]{next, next + KEY_BLOCK};
+        } catch (SQLException e) {
+            try {
+                if (sequenceCon != null) sequenceCon.close();
+            } catch (SQLException closeError) {
+                System.err.println("Error closing connection: " + closeError.getMessage());
+            }
+            sequenceCon = null;
+            throw e;
+        }
+    }
+
+    private static int readSequence(String name) throws SQLException {
+        try (PreparedStatement pstat = sequenceCon.prepareStatement(READ_SEQUENCE)) {
+            pstat.setString(1, name);
+            try (ResultSet rs = pstat.executeQuery()) {
+                return rs.next() ? rs.getInt("nextValue") : -1;
+            }
+        }
+    }
+
+    // A new sequence starts above every key already in the table or its archive, on any shard,
+    // so it never repeats a key created before sharding. Two threads may compute it at once; both get the same value.
+    private static int firstValue(String table, String keyColumn) throws SQLException {
+        Integer first = firstValues.get(table);
+        if (first == null) {
+            String sql = "SELECT GREATEST(COALESCE((SELECT MAX(" + keyColumn + ") FROM " + table + "), 0), "
+                    + "COALESCE((SELECT MAX(" + keyColumn + ") FROM " + table + "_archive), 0))";
+            int max = 0;
+            for (long shardMax : scatter(shard -> {
+                try (PreparedStatement pstat = DBConnector.getShardConnection(shard).prepareStatement(sql);
+                     ResultSet rs = pstat.executeQuery()) {
+                    return List.of(rs.next() ? rs.getLong(1) : 0L);
+                }
+            })) {
+                max = (int) Math.max(max, shardMax);
+            }
+            first = max / BUCKETS + 1;
+            firstValues.put(table, first);
+        }
+        return first;
+    }
+
+    /**
+     * Runs a query on every shard and concatenates the results in shard order. With more than one
+     * shard the queries run in parallel, each on a worker thread with its own connections (see
+     * DBConnector.bindThreadConnection), so the query must get its connection inside, e.g. with
+     * DBConnector.getShardReadConnection(shard, ...).
+     *
+     * @param query the query to run per shard
+     * @return the results of all shards
+     * @throws SQLException the first shard's failure, after every query has finished
+     */
+    public static <T> List<T> scatter(ShardQuery<T> query) throws SQLException {
+        int shards = getShardCount();
+        if (shards == 1) {
+            return query.query(0);
+        }
+
+        List<Future<List<T>>> futures = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            futures.add(scatterPool(shards).submit(() -> query.query(target)));
+        }
+        List<T> results = new ArrayList<>();
+        SQLException failure = null;
+        for (Future<List<T>> future : futures) {
+            try {
+                results.addAll(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof SQLException ? (SQLException) e.getCause()
+                            : new SQLException("Shard query failed: " + e.getCause(), e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the shards", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    private static synchronized ExecutorService scatterPool(int shards) {
+        if (scatterPool == null) {
+            // Two workers per shard let two scatters overlap; idle workers exit and close their connections.
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(2 * shards, 2 * shards, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(() -> {
+                            DBConnector.bindThreadConnection();
+                            try {
+                                r.run();
+                            } finally {
+                                DBConnector.releaseThreadConnection();
+                            }
+                        }, "shard-scatter-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            scatterPool = pool;
+        }
+        return scatterPool;
+    }
+}
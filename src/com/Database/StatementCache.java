@@ -0,0 +1,275 @@
+package com.Database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps prepared statements open per connection, keyed by their SQL text, so the same query is
+ * prepared once per connection instead of on every DAO call.
+ *
+ * <p>{@link #wrap(Connection)} returns a connection whose prepareStatement(sql) and
+ * prepareStatement(sql, autoGeneratedKeys) hand out cached statements. Closing such a statement
+ * (as every DAO does with try-with-resources) clears its parameters and batch and returns it to the
+ * cache instead of closing it. A statement is only handed to one caller at a time; preparing the
+ * same SQL again while it is in use gets a separate, uncached statement. Each connection keeps at most
+ * statementCacheSize statements (see DatabaseConfig) and evicts the least recently used one beyond that. All other
+ * prepareStatement variants are passed through unchanged.</p>
+ *
+ * <p>With useServerPrepStmts enabled on the driver, a cached statement is also a server-side prepared
+ * statement, so MySQL parses it once per connection. Hit, miss and eviction counts across all
+ * connections are available from {@link #getStats()}.</p>
+ */
+public class StatementCache {
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Wraps a connection so its prepared statements are cached.
+     *
+     * @param con the driver connection
+     * @return the caching connection, or con itself if the cache is turned off
+     */
+    public static Connection wrap(Connection con) {
+        int maxStatements = DatabaseConfig.get().getStatementCacheSize();
+        if (maxStatements <= 0) {
+            return con;
+        }
+        return (Connection) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(con, maxStatements));
+    }
+
+    /**
+     * @return the statement cache counters since startup
+     */
+    public static Stats getStats() {
+        return new Stats(hits.get(), misses.get(), evictions.get());
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Intercepts the cached prepareStatement variants and close(); delegates everything else.
+     */
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection con;
+        private final int maxStatements;
+        // key -> statement, least recently used first; guarded by itself
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(32, 0.75f, true);
+
+        private ConnectionHandler(Connection con, int maxStatements) {
+            this.con = con;
+            this.maxStatements = maxStatements;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("prepareStatement") && args.length <= 2 && args[0] instanceof String
+                    && (args.length == 1 || args[1] instanceof Integer)) {
+                int keys = args.length == 1 ? Statement.NO_GENERATED_KEYS : (Integer) args[1];
+                return prepare((String) args[0], keys);
+            }
+            if (name.equals("close")) {
+                closeAll();
+            } else if (name.equals("unwrap") && args[0] == Connection.class) {
+                return con;
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else if (name.equals("toString")) {
+                return "StatementCache(" + con + ")";
+            }
+            return StatementCache.invoke(con, method, args);
+        }
+
+        private PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys + ":" + sql;
+            CachedStatement cached;
+            synchronized (statements) {
+                cached = statements.get(key);
+                if (cached != null) {
+                    if (cached.inUse) {
+                        misses.incrementAndGet();
+                        return con.prepareStatement(sql, autoGeneratedKeys); // already handed out, not cached
+                    }
+                    cached.inUse = true;
+                    hits.incrementAndGet();
+                    return cached.proxy;
+                }
+            }
+
+            misses.incrementAndGet();
+            cached = new CachedStatement(this, key, con.prepareStatement(sql, autoGeneratedKeys));
+            List<CachedStatement> evicted = new ArrayList<>();
+            synchronized (statements) {
+                statements.put(key, cached);
+                Iterator<CachedStatement> it = statements.values().iterator();
+                while (statements.size() > maxStatements && it.hasNext()) {
+                    CachedStatement eldest = it.next();
+                    if (eldest != cached) {
+                        it.remove();
+                        evicted.add(eldest);
+                    }
+                }
+            }
+            for (CachedStatement statement : evicted) {
+                evictions.incrementAndGet();
+                statement.evict();
+            }
+            return cached.proxy;
+        }
+
+        private void closeAll() {
+            List<CachedStatement> all;
+            synchronized (statements) {
+                all = new ArrayList<>(statements.values());
+                statements.clear();
+            }
+            for (CachedStatement statement : all) {
+                statement.evict();
+            }
+        }
+    }
+
+    /**
+     * A cached statement; close() hands it back to the cache, unless it was evicted while in use.
+     */
+    private static class CachedStatement implements InvocationHandler {
+        private final ConnectionHandler owner;
+        private final String key;
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        // Guarded by owner.statements.
+        private boolean inUse = true;
+        private boolean evicted;
+
+        private CachedStatement(ConnectionHandler owner, String key, PreparedStatement statement) {
+            this.owner = owner;
+            this.key = key;
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release();
+                    return null;
+                case "isClosed":
+                    synchronized (owner.statements) {
+                        return !inUse || statement.isClosed();
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return StatementCache.invoke(statement, method, args);
+            }
+        }
+
+        private void release() throws SQLException {
+            boolean close;
+            synchronized (owner.statements) {
+                if (!inUse) {
+                    return;
+                }
+                inUse = false;
+                close = evicted || statement.isClosed();
+                if (close) {
+                    owner.statements.remove(key, this);
+                }
+            }
+            if (close) {
+                statement.close();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+            } catch (SQLException e) {
+                synchronized (owner.statements) {
+                    owner.statements.remove(key, this);
+                }
+                statement.close();
+            }
+        }
+
+        private void evict() {
+            boolean close;
+            synchronized (owner.statements) {
+                evicted = true;
+                close = !inUse;
+            }
+            if (close) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    System.err.println("Error closing cached statement: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Statement cache counters.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        private Stats(long hits, long misses, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return the number of statements prepared on the driver
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * @return the share of prepareStatement calls served from the cache, between 0 and 1
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.Entities;
+
+public class AuctionSketch {
+    // Attributes
+    private int auctionID;
+    private byte[] bidderSketch;  // HyperLogLog of the buyers who bid
+    private byte[] watcherSketch; // HyperLogLog of the users who opened the auction
+
+    // Constructor
+    public AuctionSketch(int auctionID, byte[] bidderSketch, byte[] watcherSketch) {
+        this.auctionID = auctionID;
+        this.bidderSketch = bidderSketch;
+        this.watcherSketch = watcherSketch;
+    }
+
+    // Default constructor
+    public AuctionSketch() {
+        this.auctionID = 0;
+        this.bidderSketch = new byte[0];
+        this.watcherSketch = new byte[0];
+    }
+
+    // Getters and Setters
+    public int getAuctionID() {
+        return auctionID;
+    }
+
+    public void setAuctionID(int auctionID) {
+        this.auctionID = auctionID;
+    }
+
+    public byte[] getBidderSketch() {
+        return bidderSketch;
+    }
+
+    public void setBidderSketch(byte[] bidderSketch) {
+        this.bidderSketch = bidderSketch;
+    }
+
+    public byte[] getWatcherSketch() {
+        return watcherSketch;
+    }
+
+    public void setWatcherSketch(byte[] watcherSketch) {
+        this.watcherSketch = watcherSketch;
+    }
+}
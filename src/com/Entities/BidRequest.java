@@ -0,0 +1,79 @@
+package com.Entities;
+
+import java.time.LocalDateTime;
+
+public class BidRequest {
+    // Attributes
+    private String requestKey; // Client-generated idempotency key
+    private int auctionID;
+    private int buyerID;
+    private String resultStatus;
+    private double highestBid;
+    private int leadingBuyerID;
+    private LocalDateTime createdTime;
+
+    // Constructor
+    public BidRequest(String requestKey, int auctionID, int buyerID, String resultStatus, double highestBid, int leadingBuyerID, LocalDateTime createdTime) {
+        this.requestKey = requestKey;
+        this.auctionID = auctionID;
+        this.buyerID = buyerID;
+        this.resultStatus = resultStatus;
+        this.highestBid = highestBid;
+        this.leadingBuyerID = leadingBuyerID;
+        this.createdTime = createdTime;
+    }
+    // Default constructor
+    public BidRequest() {
+        this.requestKey = null;
+        this.auctionID = 0;
+        this.buyerID = 0;
+        this.resultStatus = null;
+        this.highestBid = 0.0;
+        this.leadingBuyerID = 0;
+        this.createdTime = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getRequestKey() {
+        return requestKey;
+    }
+    public void setRequestKey(String requestKey) {
+        this.requestKey = requestKey;
+    }
+    public int getAuctionID() {
+        return auctionID;
+    }
+    public void setAuctionID(int auctionID) {
+        this.auctionID = auctionID;
+    }
+    public int getBuyerID() {
+        return buyerID;
+    }
+    public void setBuyerID(int buyerID) {
+        this.buyerID = buyerID;
+    }
+    public String getResultStatus() {
+        return resultStatus;
+    }
+    public void setResultStatus(String resultStatus) {
+        this.resultStatus = resultStatus;
+    }
+    public double getHighestBid() {
+        return highestBid;
+    }
+    public void setHighestBid(double highestBid) {
+        this.highestBid = highestBid;
+    }
+    public int getLeadingBuyerID() {
+        return leadingBuyerID;
+    }
+    public void setLeadingBuyerID(int leadingBuyerID) {
+        this.leadingBuyerID = leadingBuyerID;
+    }
+    public LocalDateTime getCreatedTime() {
+        return createdTime;
+    }
+    public void setCreatedTime(LocalDateTime createdTime) {
+        this.createdTime = createdTime;
+    }
+}
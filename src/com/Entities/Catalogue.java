@@ -7,7 +7,7 @@ public class Catalogue {
     // Attributes
     private int catalogueID;
     private String catalogueTitle;
-    private List<String> auctionsList; // Changed to List<String> to store auction IDs
+    private List<Integer> auctionsList; // IDs of the auctions in the catalogue (catalogue_auction rows)
 
     // Constructor
     public Catalogue(int catalogueID, String catalogueTitle) {
@@ -40,11 +40,11 @@ public class Catalogue {
         this.catalogueTitle = catalogueTitle;
     }
 
-    public List<String> getAuctionsList() {
+    public List<Integer> getAuctionsList() {
         return auctionsList;
     }
 
-    public void setAuctionsList(List<String> auctionsList) {
+    public void setAuctionsList(List<Integer> auctionsList) {
         this.auctionsList = auctionsList;
     }
 }
@@ -0,0 +1,103 @@
+package com.Entities;
+
+import java.time.LocalDateTime;
+
+public class LedgerEntry {
+    // Attributes
+    private long entryID;
+    private String reference;  // the posting this line belongs to, e.g. "SALE:12"; all its lines sum to zero
+    private int lineNo;
+    private String account;    // SELLER_PENDING, SELLER_EARNINGS, BUYER or CASH
+    private int ownerID;       // the seller or buyer the account belongs to, 0 for CASH
+    private double amount;     // debit positive, credit negative
+    private int paymentID;
+    private LocalDateTime createdAt;
+
+    // Constructor
+    public LedgerEntry(String reference, int lineNo, String account, int ownerID, double amount, int paymentID,
+                       LocalDateTime createdAt) {
+        this.reference = reference;
+        this.lineNo = lineNo;
+        this.account = account;
+        this.ownerID = ownerID;
+        this.amount = amount;
+        this.paymentID = paymentID;
+        this.createdAt = createdAt;
+    }
+
+    // Default constructor
+    public LedgerEntry() {
+        this.reference = null;
+        this.lineNo = 0;
+        this.account = null;
+        this.ownerID = 0;
+        this.amount = 0.0;
+        this.paymentID = 0;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public long getEntryID() {
+        return entryID;
+    }
+
+    public void setEntryID(long entryID) {
+        this.entryID = entryID;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public int getLineNo() {
+        return lineNo;
+    }
+
+    public void setLineNo(int lineNo) {
+        this.lineNo = lineNo;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public int getOwnerID() {
+        return ownerID;
+    }
+
+    public void setOwnerID(int ownerID) {
+        this.ownerID = ownerID;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public int getPaymentID() {
+        return paymentID;
+    }
+
+    public void setPaymentID(int paymentID) {
+        this.paymentID = paymentID;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
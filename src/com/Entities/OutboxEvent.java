@@ -0,0 +1,80 @@
+package com.Entities;
+
+import java.time.LocalDateTime;
+
+public class OutboxEvent {
+    // Attributes
+    private long eventID;
+    private String eventType;      // e.g. BID_PLACED, AUCTION_FINISHED, PAYMENT_COMPLETED
+    private String aggregateType;  // AUCTION or PAYMENT
+    private int aggregateID;
+    private String payload;        // JSON object with the fields of the change
+    private LocalDateTime createdAt;
+
+    // Constructor
+    public OutboxEvent(String eventType, String aggregateType, int aggregateID, String payload, LocalDateTime createdAt) {
+        this.eventType = eventType;
+        this.aggregateType = aggregateType;
+        this.aggregateID = aggregateID;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    // Default constructor
+    public OutboxEvent() {
+        this.eventType = null;
+        this.aggregateType = null;
+        this.aggregateID = 0;
+        this.payload = "{}";
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public long getEventID() {
+        return eventID;
+    }
+
+    public void setEventID(long eventID) {
+        this.eventID = eventID;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public int getAggregateID() {
+        return aggregateID;
+    }
+
+    public void setAggregateID(int aggregateID) {
+        this.aggregateID = aggregateID;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
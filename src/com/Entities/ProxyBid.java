@@ -0,0 +1,61 @@
+package com.Entities;
+
+import java.time.LocalDateTime;
+
+public class ProxyBid {
+    // Attributes
+    private int proxyBidID;
+    private int auctionID;
+    private int buyerID;
+    private double maxAmount; // Highest amount the system may bid on the buyer's behalf
+    private LocalDateTime createdTime;
+
+    // Constructor
+    public ProxyBid(int proxyBidID, int auctionID, int buyerID, double maxAmount, LocalDateTime createdTime) {
+        this.proxyBidID = proxyBidID;
+        this.auctionID = auctionID;
+        this.buyerID = buyerID;
+        this.maxAmount = maxAmount;
+        this.createdTime = createdTime;
+    }
+    // Default constructor
+    public ProxyBid() {
+        this.proxyBidID = 0;
+        this.auctionID = 0;
+        this.buyerID = 0;
+        this.maxAmount = 0.0;
+        this.createdTime = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public int getProxyBidID() {
+        return proxyBidID;
+    }
+    public void setProxyBidID(int proxyBidID) {
+        this.proxyBidID = proxyBidID;
+    }
+    public int getAuctionID() {
+        return auctionID;
+    }
+    public void setAuctionID(int auctionID) {
+        this.auctionID = auctionID;
+    }
+    public int getBuyerID() {
+        return buyerID;
+    }
+    public void setBuyerID(int buyerID) {
+        this.buyerID = buyerID;
+    }
+    public double getMaxAmount() {
+        return maxAmount;
+    }
+    public void setMaxAmount(double maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+    public LocalDateTime getCreatedTime() {
+        return createdTime;
+    }
+    public void setCreatedTime(LocalDateTime createdTime) {
+        this.createdTime = createdTime;
+    }
+}
@@ -2,18 +2,27 @@ package com.GUI;
 
 import com.DAO.AdminDAO;
 import com.DAO.AuctionDAO;
-import com.DAO.ItemDAO;
 import com.DAO.ReportDAO;
 import com.DAO.UserDAO;
+import com.Database.ReplicaRouter;
+import com.Database.StatementCache;
 import com.Entities.Auction;
-import com.Entities.Item;
 import com.Entities.Report;
 import com.Entities.User;
+import com.Services.ArchiveService;
+import com.Services.BidActivityService;
+import com.Services.ExportService;
+import com.Services.LedgerService;
+import com.Services.SketchService;
+import com.Services.StatisticsService;
+import com.Utilities.RingTimeSeries;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -33,14 +42,40 @@ public class AdminDashboard extends JFrame {
 
     // Components for the User Management tab.
     private JTable userTable;
-    private DefaultTableModel userTableModel;
+    private PagedTableModel<User> userTableModel;
+    private JTextField txtUserSearch;
+    private Timer userSearchTimer;
     private JButton btnDeleteUser;
 
     // Components for the Auction Management tab.
     private JTable auctionTable;
-    private DefaultTableModel auctionTableModel;
-
-    private List<User> loadedUsers = new ArrayList<>();
+    private PagedTableModel<Auction> auctionTableModel;
+    private int auctionSortColumn = 0;
+    private boolean auctionSortAscending = false; // newest auctions first
+
+    // Components for the Statistics tab.
+    private JLabel lblLiveAuctions;
+    private JLabel lblBidsPerMinute;
+    private JLabel lblTotalBids;
+    private JLabel lblUniqueBidders;
+    private JLabel lblGmv;
+    private JLabel lblAverageFinalPrice;
+    private JLabel lblPendingPayments;
+    private JLabel lblStatementCache;
+    private JLabel lblReplicas;
+    private JLabel lblLastReconciled;
+    private DefaultTableModel topSellersTableModel;
+    private SparklinePanel secondsSparkline;
+    private SparklinePanel minutesSparkline;
+    private Timer statisticsTimer;
+
+    // Components for the Export tab.
+    private JComboBox<ExportService.Table> cmbExportTable;
+    private JComboBox<ExportService.Format> cmbExportFormat;
+    private JCheckBox chkExportGzip;
+    private JButton btnExport;
+    private JProgressBar exportProgressBar;
+    private JLabel lblExportStatus;
 
     /**
      * Constructs an AdminDashboard and initializes the UI.
@@ -62,6 +97,8 @@ public class AdminDashboard extends JFrame {
         tabbedPane.addTab("Reports", createReportsPanel());
         tabbedPane.addTab("User Management", createUserManagementPanel());
         tabbedPane.addTab("Auction", createAuctionManagementPanel());
+        tabbedPane.addTab("Statistics", createStatisticsPanel());
+        tabbedPane.addTab("Export", createExportPanel());
 
         add(tabbedPane, BorderLayout.CENTER);
         getContentPane().setBackground(new Color(245, 245, 245));
@@ -89,20 +126,48 @@ public class AdminDashboard extends JFrame {
     /**
      * Creates and returns the User Management panel.
      *
-     * @return the User Management tab JPanel containing the user table and delete button.
+     * <p>Users are paged from the database as the admin scrolls, filtered by a name/email prefix.</p>
+     *
+     * @return the User Management tab JPanel containing the search field, user table and delete button.
      */
     private JPanel createUserManagementPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(new Color(240, 255, 240));
 
-        userTableModel = new DefaultTableModel(new Object[]{"User ID", "Name", "Email"}, 0);
+        userTableModel = new PagedTableModel<User>(new String[]{"User ID", "Name", "Email"}, PagedTableModel.DEFAULT_PAGE_SIZE) {
+            @Override
+            protected Object getColumnValue(User user, int column) {
+                switch (column) {
+                    case 0: return user.getUserId();
+                    case 1: return user.getName();
+                    default: return user.getEmail();
+                }
+            }
+        };
         userTable = new JTable(userTableModel);
         userTable.setBackground(new Color(255, 239, 213));
         userTable.setFont(new Font("SansSerif", Font.PLAIN, 13));
 
+        // Search field: reload 300ms after the admin stops typing.
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchPanel.setBackground(new Color(240, 255, 240));
+        searchPanel.add(new JLabel("Search name/email:"));
+        txtUserSearch = new JTextField(25);
+        searchPanel.add(txtUserSearch);
+        userSearchTimer = new Timer(300, e -> loadUsers());
+        userSearchTimer.setRepeats(false);
+        txtUserSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { userSearchTimer.restart(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { userSearchTimer.restart(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { userSearchTimer.restart(); }
+        });
+        panel.add(searchPanel, BorderLayout.NORTH);
+
         // Load users from the database.
+        JScrollPane scrollPane = new JScrollPane(userTable);
+        userTableModel.attachTo(scrollPane);
         loadUsers();
-        panel.add(new JScrollPane(userTable), BorderLayout.CENTER);
+        panel.add(scrollPane, BorderLayout.CENTER);
 
         JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         btnPanel.setBackground(new Color(240, 255, 240));
@@ -125,19 +190,46 @@ public class AdminDashboard extends JFrame {
     /**
      * Creates and returns the Auction Management panel.
      *
+     * <p>The table pages through auctions with keyset pagination and loads more rows as the admin
+     * scrolls. Clicking a column header sorts by that column on the server.</p>
+     *
      * @return the Auction Management tab JPanel containing the auction table and refresh functionality.
      */
     private JPanel createAuctionManagementPanel() {
         JPanel panel = new JPanel(new BorderLayout());
 
-        auctionTableModel = new DefaultTableModel(
-            new Object[]{"Auction ID", "Start Time", "End Time", "Current Bid", "Status"}, 0);
+        auctionTableModel = new PagedTableModel<Auction>(
+                new String[]{"Auction ID", "Start Time", "End Time", "Current Bid", "Status"}, PagedTableModel.DEFAULT_PAGE_SIZE) {
+            @Override
+            protected Object getColumnValue(Auction auction, int column) {
+                switch (column) {
+                    case 0: return auction.getAuctionID();
+                    case 1: return auction.getAuctionStartTime().toString();
+                    case 2: return auction.getAuctionEndTime().toString();
+                    case 3: return auction.getAuctionCurrentHighestBid();
+                    default: return auction.getAuctionStatus();
+                }
+            }
+        };
         auctionTable = new JTable(auctionTableModel);
         auctionTable.setBackground(new Color(240, 248, 255));
         auctionTable.setFont(new Font("Arial", Font.PLAIN, 14));
 
-        loadAuctions(auctionTableModel);
-        panel.add(new JScrollPane(auctionTable), BorderLayout.CENTER);
+        // Server-side sorting: the header column index matches AuctionDAO.SORTABLE_COLUMNS.
+        auctionTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = auctionTable.columnAtPoint(e.getPoint());
+                if (column >= 0) {
+                    onSortAuctionsAction(auctionTable.convertColumnIndexToModel(column));
+                }
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(auctionTable);
+        auctionTableModel.attachTo(scrollPane);
+        loadAuctions();
+        panel.add(scrollPane, BorderLayout.CENTER);
 
         JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton btnRefresh = new JButton("Refresh Auctions");
@@ -147,11 +239,331 @@ public class AdminDashboard extends JFrame {
             }
         });
         btnPanel.add(btnRefresh);
+        JButton btnArchive = new JButton("Archive Old Auctions");
+        btnArchive.addActionListener(e -> onArchiveAuctionsAction(btnArchive));
+        btnPanel.add(btnArchive);
+        panel.add(btnPanel, BorderLayout.SOUTH);
+
+        ArchiveService.start();
+        return panel;
+    }
+
+    /**
+     * Event handler for archiving finished auctions now instead of waiting for the scheduled run.
+     */
+    private void onArchiveAuctionsAction(JButton btnArchive) {
+        btnArchive.setEnabled(false);
+        new SwingWorker<Integer, Integer>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return ArchiveService.archive(archived -> publish(archived));
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                btnArchive.setText("Archived " + chunks.get(chunks.size() - 1) + "...");
+            }
+
+            @Override
+            protected void done() {
+                btnArchive.setText("Archive Old Auctions");
+                btnArchive.setEnabled(true);
+                try {
+                    int archived = get();
+                    JOptionPane.showMessageDialog(AdminDashboard.this, "Archived " + archived + " auctions.",
+                            "Archive", JOptionPane.INFORMATION_MESSAGE);
+                    auctionTableModel.reset();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(AdminDashboard.this, "Error archiving auctions: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Creates and returns the Statistics panel.
+     *
+     * <p>The figures are read from StatisticsService's incremental counters once per second,
+     * so keeping the tab open never scans the bid, auction or payment tables.</p>
+     *
+     * @return the Statistics tab JPanel containing the figures and the top sellers table.
+     */
+    private JPanel createStatisticsPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(new Color(245, 245, 255));
+
+        JPanel figuresPanel = new JPanel(new GridLayout(0, 2, 10, 8));
+        figuresPanel.setBackground(new Color(245, 245, 255));
+        figuresPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        lblLiveAuctions = addStatisticRow(figuresPanel, "Live auctions:");
+        lblBidsPerMinute = addStatisticRow(figuresPanel, "Bids per minute:");
+        lblTotalBids = addStatisticRow(figuresPanel, "Total bids:");
+        lblUniqueBidders = addStatisticRow(figuresPanel, "Unique bidders (approx.):");
+        lblGmv = addStatisticRow(figuresPanel, "Gross merchandise value:");
+        lblAverageFinalPrice = addStatisticRow(figuresPanel, "Average final price:");
+        lblPendingPayments = addStatisticRow(figuresPanel, "Pending payments:");
+        lblStatementCache = addStatisticRow(figuresPanel, "Statement cache hit rate:");
+        lblReplicas = addStatisticRow(figuresPanel, "Read replicas:");
+        lblLastReconciled = addStatisticRow(figuresPanel, "Last reconciled:");
+        panel.add(figuresPanel, BorderLayout.NORTH);
+
+        topSellersTableModel = new DefaultTableModel(new Object[]{"Seller ID", "Sales", "Total"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable topSellersTable = new JTable(topSellersTableModel);
+        topSellersTable.setFont(new Font("Arial", Font.PLAIN, 14));
+        JScrollPane scrollPane = new JScrollPane(topSellersTable);
+        scrollPane.setBorder(BorderFactory.createTitledBorder("Top Sellers"));
+
+        // Bid activity charts, read from the in-memory time series.
+        JPanel chartsPanel = new JPanel(new GridLayout(1, 2, 10, 0));
+        chartsPanel.setBackground(new Color(245, 245, 255));
+        chartsPanel.setBorder(BorderFactory.createEmptyBorder(0, 15, 10, 15));
+        secondsSparkline = new SparklinePanel("Bids per second, last 2 minutes", 400, 90);
+        minutesSparkline = new SparklinePanel("Bids per minute, last 2 hours", 400, 90);
+        chartsPanel.add(secondsSparkline);
+        chartsPanel.add(minutesSparkline);
+
+        JPanel centerPanel = new JPanel(new BorderLayout());
+        centerPanel.add(chartsPanel, BorderLayout.NORTH);
+        centerPanel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(centerPanel, BorderLayout.CENTER);
+
+        JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton btnReconcile = new JButton("Recalculate Now");
+        btnReconcile.addActionListener(e -> onReconcileStatisticsAction(btnReconcile));
+        btnPanel.add(btnReconcile);
+        JButton btnLedger = new JButton("Reconcile Ledger");
+        btnLedger.addActionListener(e -> onReconcileLedgerAction(btnLedger));
+        btnPanel.add(btnLedger);
         panel.add(btnPanel, BorderLayout.SOUTH);
 
+        StatisticsService.start();
+        SketchService.start();
+        statisticsTimer = new Timer(1000, e -> refreshStatistics());
+        statisticsTimer.setInitialDelay(0);
+        statisticsTimer.start();
+        return panel;
+    }
+
+    /**
+     * Adds a caption and an empty value label to the statistics grid.
+     *
+     * @return the value label.
+     */
+    private JLabel addStatisticRow(JPanel figuresPanel, String caption) {
+        JLabel captionLabel = new JLabel(caption);
+        captionLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        JLabel valueLabel = new JLabel("-");
+        valueLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        figuresPanel.add(captionLabel);
+        figuresPanel.add(valueLabel);
+        return valueLabel;
+    }
+
+    /**
+     * Copies the current statistics into the Statistics tab.
+     */
+    private void refreshStatistics() {
+        secondsSparkline.setData(BidActivityService.getOverallActivity(RingTimeSeries.Resolution.SECOND, 120));
+        minutesSparkline.setData(BidActivityService.getOverallActivity(RingTimeSeries.Resolution.MINUTE, 120));
+
+        StatisticsService.Snapshot stats = StatisticsService.getSnapshot();
+        if (stats.getLastReconciled() == null) {
+            lblLastReconciled.setText("Calculating...");
+            return;
+        }
+        lblLiveAuctions.setText(String.valueOf(stats.getLiveAuctions()));
+        lblBidsPerMinute.setText(String.format("%.1f", stats.getBidsPerMinute()));
+        lblTotalBids.setText(String.valueOf(stats.getTotalBids()));
+        long uniqueBidders = SketchService.getPlatformUniqueBidders();
+        lblUniqueBidders.setText(uniqueBidders < 0 ? "Calculating..." : "~" + uniqueBidders);
+        lblGmv.setText(String.format("€%.2f (%d sold)", stats.getGrossMerchandiseValue(), stats.getSoldAuctions()));
+        lblAverageFinalPrice.setText(String.format("€%.2f", stats.getAverageFinalPrice()));
+        lblPendingPayments.setText(String.format("%d (€%.2f)", stats.getPendingPayments(), stats.getPendingPaymentTotal()));
+        StatementCache.Stats cache = StatementCache.getStats();
+        lblStatementCache.setText(String.format("%.1f%% (%d prepared, %d evicted)",
+                cache.getHitRate() * 100, cache.getMisses(), cache.getEvictions()));
+        ReplicaRouter.Status replicas = ReplicaRouter.getStatus();
+        long routedReads = replicas.getReplicaReads() + replicas.getPrimaryReads();
+        lblReplicas.setText(replicas.getReplicas() == 0 ? "None configured"
+                : String.format("%d of %d in use, lag %d ms, %.1f%% of reads", replicas.getUsable(), replicas.getReplicas(),
+                        replicas.getMaxLagMillis(), routedReads == 0 ? 0.0 : replicas.getReplicaReads() * 100.0 / routedReads));
+        lblLastReconciled.setText(stats.getLastReconciled().withNano(0).toString().replace('T', ' '));
+
+        topSellersTableModel.setRowCount(0);
+        for (StatisticsService.SellerSales seller : stats.getTopSellers()) {
+            topSellersTableModel.addRow(new Object[]{seller.getSellerID(), seller.getSales(), String.format("%.2f", seller.getTotal())});
+        }
+    }
+
+    /**
+     * Event handler for recalculating the statistics from the database in the background.
+     */
+    private void onReconcileStatisticsAction(JButton btnReconcile) {
+        btnReconcile.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                StatisticsService.reconcile();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                btnReconcile.setEnabled(true);
+                try {
+                    get();
+                    refreshStatistics();
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(AdminDashboard.this, "Error recalculating statistics: " + e.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Event handler for posting missing ledger entries and checking the sellers' cached balances against the ledger.
+     */
+    private void onReconcileLedgerAction(JButton btnLedger) {
+        btnLedger.setEnabled(false);
+        new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() throws Exception {
+                return LedgerService.reconcile();
+            }
+
+            @Override
+            protected void done() {
+                btnLedger.setEnabled(true);
+                try {
+                    int[] result = get();
+                    JOptionPane.showMessageDialog(AdminDashboard.this,
+                            "Postings added: " + result[0] + "\nSeller balances corrected: " + result[1],
+                            "Ledger", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(AdminDashboard.this, "Error reconciling ledger: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Creates and returns the Export panel.
+     *
+     * @return the Export tab JPanel with the table, format and compression choices.
+     */
+    private JPanel createExportPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(new Color(245, 245, 255));
+
+        JPanel optionsPanel = new JPanel(new GridLayout(0, 2, 10, 8));
+        optionsPanel.setBackground(new Color(245, 245, 255));
+        optionsPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        cmbExportTable = new JComboBox<>(ExportService.Table.values());
+        cmbExportFormat = new JComboBox<>(ExportService.Format.values());
+        chkExportGzip = new JCheckBox("Compress with gzip");
+        chkExportGzip.setBackground(new Color(245, 245, 255));
+        optionsPanel.add(new JLabel("Table:"));
+        optionsPanel.add(cmbExportTable);
+        optionsPanel.add(new JLabel("Format:"));
+        optionsPanel.add(cmbExportFormat);
+        optionsPanel.add(new JLabel(""));
+        optionsPanel.add(chkExportGzip);
+        panel.add(optionsPanel, BorderLayout.NORTH);
+
+        JPanel progressPanel = new JPanel(new BorderLayout(0, 8));
+        progressPanel.setBackground(new Color(245, 245, 255));
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(0, 15, 15, 15));
+        exportProgressBar = new JProgressBar(0, 100);
+        exportProgressBar.setStringPainted(true);
+        exportProgressBar.setString("");
+        lblExportStatus = new JLabel(" ");
+        progressPanel.add(exportProgressBar, BorderLayout.NORTH);
+        progressPanel.add(lblExportStatus, BorderLayout.CENTER);
+        panel.add(progressPanel, BorderLayout.CENTER);
+
+        JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btnExport = new JButton("Export...");
+        btnExport.addActionListener(e -> onExportAction());
+        btnPanel.add(btnExport);
+        panel.add(btnPanel, BorderLayout.SOUTH);
         return panel;
     }
 
+    /**
+     * Event handler for exporting a table.
+     * Asks for the target file, then streams the table to it in the background.
+     */
+    private void onExportAction() {
+        ExportService.Table table = (ExportService.Table) cmbExportTable.getSelectedItem();
+        ExportService.Format format = (ExportService.Format) cmbExportFormat.getSelectedItem();
+        boolean gzip = chkExportGzip.isSelected();
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export " + table.name().toLowerCase());
+        chooser.setSelectedFile(new File(table.name().toLowerCase() + "." + format.getExtension() + (gzip ? ".gz" : "")));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        if (file.exists() && JOptionPane.showConfirmDialog(this, file.getName() + " already exists. Replace it?",
+                "Confirm", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        btnExport.setEnabled(false);
+        exportProgressBar.setIndeterminate(true);
+        exportProgressBar.setString("");
+        lblExportStatus.setText("Exporting " + table.name().toLowerCase() + "...");
+
+        // Run the export off the event thread; progress arrives every few thousand rows.
+        new SwingWorker<Long, long[]>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return ExportService.export(table, format, file, gzip, (rows, total) -> publish(new long[]{rows, total}));
+            }
+
+            @Override
+            protected void process(List<long[]> chunks) {
+                long[] latest = chunks.get(chunks.size() - 1);
+                if (latest[1] > 0) {
+                    exportProgressBar.setIndeterminate(false);
+                    // The total is only an estimate, so stay below 100% until the export finishes.
+                    exportProgressBar.setValue((int) Math.min(99, latest[0] * 100 / latest[1]));
+                }
+                exportProgressBar.setString(latest[0] + " rows");
+            }
+
+            @Override
+            protected void done() {
+                btnExport.setEnabled(true);
+                exportProgressBar.setIndeterminate(false);
+                try {
+                    long rows = get();
+                    exportProgressBar.setValue(100);
+                    exportProgressBar.setString(rows + " rows");
+                    lblExportStatus.setText("Exported " + rows + " rows to " + file.getAbsolutePath());
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    exportProgressBar.setValue(0);
+                    exportProgressBar.setString("");
+                    lblExportStatus.setText(" ");
+                    JOptionPane.showMessageDialog(AdminDashboard.this, "Export failed: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     /**
      * Event handler for deleting the selected user.
      * Prompts confirmation, deletes the user from the database, and updates the UI accordingly.
@@ -162,8 +574,8 @@ public class AdminDashboard extends JFrame {
             JOptionPane.showMessageDialog(this, "Please select a user to delete.");
             return;
         }
-        // Get selected user from the list.
-        User selectedUser = loadedUsers.get(selectedRow);
+        // Get selected user from the table model.
+        User selectedUser = userTableModel.getRow(selectedRow);
         int userId = selectedUser.getUserId();
 
         // Confirmation Dialog.
@@ -183,10 +595,9 @@ public class AdminDashboard extends JFrame {
             // Delete user record.
             UserDAO.deleteUser(userId);
 
-            // Remove from table and list.
+            // Remove from table.
             userTableModel.removeRow(selectedRow);
-            loadedUsers.remove(selectedRow);
-            System.out.println("User removed from the table and loadedUsers list.");
+            System.out.println("User removed from the table.");
         } catch (Exception e) {
             System.out.println("Error deleting user: " + e.getMessage());
             JOptionPane.showMessageDialog(this, "Error deleting user: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
@@ -199,7 +610,23 @@ public class AdminDashboard extends JFrame {
      * Reloads auction data from the database into the auction table.
      */
     private void onRefreshAuctionsAction() {
-        loadAuctions(auctionTableModel);
+        auctionTableModel.reset();
+    }
+
+    /**
+     * Event handler for clicking an auction column header.
+     * Sorts by the clicked column, toggling the direction when it is already the sort column.
+     *
+     * @param column the model index of the clicked column.
+     */
+    private void onSortAuctionsAction(int column) {
+        if (column == auctionSortColumn) {
+            auctionSortAscending = !auctionSortAscending;
+        } else {
+            auctionSortColumn = column;
+            auctionSortAscending = true;
+        }
+        loadAuctions();
     }
 
     /**
@@ -224,47 +651,22 @@ public class AdminDashboard extends JFrame {
     }
 
     /**
-     * Retrieves users from the database and populates the user table.
+     * Points the user table at the current search prefix and loads the first page.
+     * The pages are read on AsyncDAO workers with their own connections (see PagedTableModel).
      */
     private void loadUsers() {
-        try {
-            loadedUsers = UserDAO.getAllUsers();
-            userTableModel.setRowCount(0);  // Clear any existing rows.
-            for (User user : loadedUsers) {
-                userTableModel.addRow(new Object[]{user.getUserId(), user.getName(), user.getEmail()});
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading users: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+        String prefix = txtUserSearch.getText().trim();
+        userTableModel.setPageLoader((after, pageSize) -> UserDAO.searchUsersPage(prefix, after, pageSize));
     }
 
     /**
-     * Loads auctions from the database and populates the specified table model.
-     *
-     * @param model the DefaultTableModel to be populated with auction data.
+     * Points the auction table at the current sort order and loads the first page,
+     * on AsyncDAO workers like the user table.
      */
-    private void loadAuctions(DefaultTableModel model) {
-        // Clear existing rows.
-        model.setRowCount(0);
-        try {
-            // Retrieve auctions.
-            List<Auction> auctions = AuctionDAO.getAllAuctions();
-            for (Auction auction : auctions) {
-                // Retrieve related item (if needed for further processing).
-                Item item = ItemDAO.getItemByID(auction.getItemID());
-                model.addRow(new Object[]{
-                    auction.getAuctionID(),
-                    auction.getAuctionStartTime().toString(),
-                    auction.getAuctionEndTime().toString(),
-                    auction.getAuctionCurrentHighestBid(),
-                    auction.getAuctionStatus()
-                });
-            }
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Error loading auctions: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
-        }
+    private void loadAuctions() {
+        String sortColumn = AuctionDAO.SORTABLE_COLUMNS.get(auctionSortColumn);
+        boolean ascending = auctionSortAscending;
+        auctionTableModel.setPageLoader((after, pageSize) -> AuctionDAO.getAuctionsPage(sortColumn, ascending, after, pageSize));
     }
 
     /**
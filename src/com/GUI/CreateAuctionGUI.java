@@ -4,6 +4,7 @@ import com.DAO.AuctionDAO;
 import com.DAO.ItemDAO;
 import com.Entities.Auction;
 import com.Entities.Item;
+import com.Services.BulkImportService;
 import com.Utilities.GUIUtils;
 import java.awt.*;
 import java.io.File;
@@ -12,6 +13,7 @@ import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.List;
 import javax.swing.*;
 
 /**
@@ -22,7 +24,7 @@ public class CreateAuctionGUI extends BaseGUI {
     // GUI components
     private JTextField txtItemName, txtStartPrice;
     private JTextArea txtItemDesc;
-    private JButton btnChooseImage, btnSubmitAuction;
+    private JButton btnChooseImage, btnSubmitAuction, btnBulkImport;
     private byte[] itemImage;
     private JSpinner spinnerEnd;
     private JLabel imageStatusLabel;
@@ -127,6 +129,11 @@ public class CreateAuctionGUI extends BaseGUI {
         btnSubmitAuction.addActionListener(e -> onSubmitAuction());
         
         buttonPanel.add(btnSubmitAuction);
+
+        btnBulkImport = GUIUtils.createStyledButton("Bulk Import (CSV)");
+        btnBulkImport.addActionListener(e -> onBulkImport());
+        buttonPanel.add(btnBulkImport);
+
         panel.add(buttonPanel, BorderLayout.SOUTH);
 
         return panel;
@@ -276,6 +283,66 @@ public class CreateAuctionGUI extends BaseGUI {
         }
     }
 
+    /**
+     * Event handler for the bulk import action.
+     * Asks for a CSV file and an image directory, then imports the listings in the background.
+     */
+    private void onBulkImport() {
+        JFileChooser csvChooser = new JFileChooser();
+        csvChooser.setDialogTitle("Choose CSV (itemName,itemDescription,startingPrice,endTime,imageFile)");
+        csvChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        if (csvChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        JFileChooser dirChooser = new JFileChooser(csvChooser.getSelectedFile().getParentFile());
+        dirChooser.setDialogTitle("Choose Image Directory");
+        dirChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (dirChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File csvFile = csvChooser.getSelectedFile();
+        File imageDir = dirChooser.getSelectedFile();
+        btnBulkImport.setEnabled(false);
+        btnSubmitAuction.setEnabled(false);
+        clearErrorMessage();
+
+        // Run the import off the event thread and report progress after each committed chunk.
+        new SwingWorker<BulkImportService.ImportSummary, String>() {
+            @Override
+            protected BulkImportService.ImportSummary doInBackground() throws Exception {
+                return BulkImportService.importListings(csvFile, imageDir, getUserID(),
+                        (imported, skipped) -> publish("Imported " + imported + " listings, skipped " + skipped));
+            }
+
+            @Override
+            protected void process(List<String> chunks) {
+                imageStatusLabel.setText(chunks.get(chunks.size() - 1));
+                imageStatusLabel.setForeground(new Color(0, 128, 0));
+            }
+
+            @Override
+            protected void done() {
+                btnBulkImport.setEnabled(true);
+                btnSubmitAuction.setEnabled(true);
+                try {
+                    BulkImportService.ImportSummary summary = get();
+                    StringBuilder message = new StringBuilder("Imported " + summary.getImported()
+                            + " listings. Skipped " + summary.getSkipped() + " rows.");
+                    for (String error : summary.getErrors().subList(0, Math.min(10, summary.getErrors().size()))) {
+                        message.append("\n").append(error);
+                    }
+                    JOptionPane.showMessageDialog(CreateAuctionGUI.this, message.toString(), "Bulk Import",
+                            JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    setErrorMessage("Bulk import failed: " + cause.getMessage());
+                    cause.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+
     /**
      * Retrieves a LocalDateTime from the specified JSpinner.
      *
@@ -4,6 +4,10 @@ import com.DAO.AuctionDAO;
 import com.DAO.ItemDAO;
 import com.Entities.Auction;
 import com.Entities.Item;
+import com.Services.AuctionIndex;
+import com.Services.SearchService;
+import com.Services.SettlementService;
+import com.Services.SketchService;
 import com.Utilities.GUIUtils;
 import java.awt.*;
 import java.text.SimpleDateFormat;
@@ -30,6 +34,15 @@ public class MainMenuGUI extends JFrame {
     private JLabel dateTimeLabel;
     private Timer refreshTimer = null;
     private Timer dateTimeTimer = null;
+    private Timer searchTimer = null;
+    private JTextField txtSearch;
+    private JComboBox<String> cmbEnding;
+    private JTextField txtMinBid;
+    private JTextField txtMaxBid;
+    private JPopupMenu suggestionPopup;
+    private JList<String> suggestionList;
+    private boolean suppressSuggestions;
+    private static final int MAX_SUGGESTIONS = 8;
     private final DefaultTableModel tableModel;
     private final Map<Integer, ImageIcon> imageCache = new ConcurrentHashMap<>();
     private Set<Integer> currentAuctionIds = new HashSet<>();
@@ -53,7 +66,7 @@ public class MainMenuGUI extends JFrame {
         setupMenuBar();
 
         // Create table model with non-editable cells.
-        String[] columnNames = {"Picture", "Item Name", "Starting Price", "Current Bid", "Start Time", "Finish Time", "Status", "Auction ID"};
+        String[] columnNames = {"Picture", "Item Name", "Starting Price", "Current Bid", "Start Time", "Finish Time", "Status", "Auction ID", "Bidders", "Watchers"};
         tableModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -68,7 +81,10 @@ public class MainMenuGUI extends JFrame {
         JTable auctionTable = setupAuctionTable();
         JScrollPane scrollPane = new JScrollPane(auctionTable);
         scrollPane.setBorder(new EmptyBorder(10, 10, 10, 10));
-        add(scrollPane, BorderLayout.CENTER);
+        JPanel centerPanel = new JPanel(new BorderLayout());
+        centerPanel.add(setupSearchBar(), BorderLayout.NORTH);
+        centerPanel.add(scrollPane, BorderLayout.CENTER);
+        add(centerPanel, BorderLayout.CENTER);
 
         // "No auctions" message label.
         noAuctionsLabel = new JLabel("No auctions available at the moment.", SwingConstants.CENTER);
@@ -152,6 +168,164 @@ public class MainMenuGUI extends JFrame {
         setJMenuBar(menuBar);
     }
 
+    /**
+     * Creates the search bar above the auction table. The table is filtered shortly after the user stops typing.
+     *
+     * @return the search bar panel.
+     */
+    private JPanel setupSearchBar() {
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchPanel.setBorder(new EmptyBorder(10, 10, 0, 10));
+        JLabel searchLabel = new JLabel("Search:");
+        searchLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        txtSearch = new JTextField(22);
+        txtSearch.setFont(new Font("Arial", Font.PLAIN, 14));
+        searchPanel.add(searchLabel);
+        searchPanel.add(txtSearch);
+
+        // Browsing filters answered by AuctionIndex.
+        cmbEnding = new JComboBox<>(new String[]{"Any end time", "Ending within 1 hour", "Ending within 24 hours"});
+        txtMinBid = new JTextField(5);
+        txtMaxBid = new JTextField(5);
+        searchPanel.add(cmbEnding);
+        searchPanel.add(new JLabel("Bid from"));
+        searchPanel.add(txtMinBid);
+        searchPanel.add(new JLabel("to"));
+        searchPanel.add(txtMaxBid);
+
+        searchTimer = new Timer(200, e -> {
+            boolean hasAuctions = populateAuctionTable();
+            noAuctionsLabel.setVisible(!hasAuctions);
+        });
+        searchTimer.setRepeats(false);
+        txtSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { onSearchTextChanged(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { onSearchTextChanged(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { onSearchTextChanged(); }
+        });
+        setupSuggestions();
+        cmbEnding.addActionListener(e -> searchTimer.restart());
+        javax.swing.event.DocumentListener filterListener = new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+        };
+        txtMinBid.getDocument().addDocumentListener(filterListener);
+        txtMaxBid.getDocument().addDocumentListener(filterListener);
+
+        // Build the search and browsing indexes in the background while the table loads.
+        SearchService.preload();
+        AuctionIndex.preload();
+        SketchService.start();
+        return searchPanel;
+    }
+
+    /**
+     * Creates the type-ahead popup below the search field.
+     * Up/Down move through the suggestions, Enter or a click picks one and Escape closes the list.
+     */
+    private void setupSuggestions() {
+        suggestionList = new JList<>();
+        suggestionList.setFont(new Font("Arial", Font.PLAIN, 14));
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionList.setFocusable(false);
+        suggestionList.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent e) {
+                acceptSuggestion();
+            }
+        });
+
+        suggestionPopup = new JPopupMenu();
+        suggestionPopup.setFocusable(false);
+        suggestionPopup.add(suggestionList);
+
+        InputMap inputMap = txtSearch.getInputMap(JComponent.WHEN_FOCUSED);
+        ActionMap actionMap = txtSearch.getActionMap();
+        inputMap.put(KeyStroke.getKeyStroke("DOWN"), "suggestionDown");
+        inputMap.put(KeyStroke.getKeyStroke("UP"), "suggestionUp");
+        inputMap.put(KeyStroke.getKeyStroke("ENTER"), "suggestionAccept");
+        inputMap.put(KeyStroke.getKeyStroke("ESCAPE"), "suggestionHide");
+        actionMap.put("suggestionDown", new AbstractAction() {
+            public void actionPerformed(java.awt.event.ActionEvent e) { moveSuggestionSelection(1); }
+        });
+        actionMap.put("suggestionUp", new AbstractAction() {
+            public void actionPerformed(java.awt.event.ActionEvent e) { moveSuggestionSelection(-1); }
+        });
+        actionMap.put("suggestionAccept", new AbstractAction() {
+            public void actionPerformed(java.awt.event.ActionEvent e) { acceptSuggestion(); }
+        });
+        actionMap.put("suggestionHide", new AbstractAction() {
+            public void actionPerformed(java.awt.event.ActionEvent e) { suggestionPopup.setVisible(false); }
+        });
+        txtSearch.addFocusListener(new java.awt.event.FocusAdapter() {
+            @Override
+            public void focusLost(java.awt.event.FocusEvent e) {
+                suggestionPopup.setVisible(false);
+            }
+        });
+    }
+
+    /**
+     * Refreshes the suggestions right away and the filtered table once typing pauses.
+     */
+    private void onSearchTextChanged() {
+        searchTimer.restart();
+        if (!suppressSuggestions) {
+            showSuggestions();
+        }
+    }
+
+    /**
+     * Shows the item names completing the search text. Suggestions come from memory, so this runs on every keystroke.
+     */
+    private void showSuggestions() {
+        String text = txtSearch.getText();
+        List<String> names = text.isBlank() ? List.of() : SearchService.suggestItemNames(text, MAX_SUGGESTIONS);
+        if (names.isEmpty()) {
+            suggestionPopup.setVisible(false);
+            return;
+        }
+        suggestionList.setListData(names.toArray(new String[0]));
+        suggestionList.setVisibleRowCount(names.size());
+        Dimension size = new Dimension(txtSearch.getWidth(), suggestionList.getPreferredSize().height + 4);
+        suggestionPopup.setPopupSize(size);
+        if (!suggestionPopup.isVisible() && txtSearch.isShowing()) {
+            suggestionPopup.show(txtSearch, 0, txtSearch.getHeight());
+        }
+    }
+
+    /**
+     * Moves the highlighted suggestion up or down.
+     *
+     * @param delta -1 to move up, 1 to move down.
+     */
+    private void moveSuggestionSelection(int delta) {
+        if (!suggestionPopup.isVisible()) {
+            showSuggestions();
+            return;
+        }
+        int size = suggestionList.getModel().getSize();
+        int index = Math.max(0, Math.min(size - 1, suggestionList.getSelectedIndex() + delta));
+        suggestionList.setSelectedIndex(index);
+    }
+
+    /**
+     * Copies the highlighted suggestion into the search field and searches for it immediately.
+     */
+    private void acceptSuggestion() {
+        String selected = suggestionList.getSelectedValue();
+        suggestionPopup.setVisible(false);
+        if (selected != null) {
+            suppressSuggestions = true;
+            txtSearch.setText(selected);
+            suppressSuggestions = false;
+        }
+        searchTimer.stop();
+        boolean hasAuctions = populateAuctionTable();
+        noAuctionsLabel.setVisible(!hasAuctions);
+    }
+
     /**
      * Configures and returns the auction JTable.
      *
@@ -235,10 +409,27 @@ public class MainMenuGUI extends JFrame {
         boolean hasAuctions = false;
 
         try {
-            List<Auction> auctions = AuctionDAO.getAllStartedAuctions();
+            String query = txtSearch.getText();
+            Double minBid = parseBid(txtMinBid.getText());
+            Double maxBid = parseBid(txtMaxBid.getText());
+            LocalDateTime endsBefore = null;
+            if (cmbEnding.getSelectedIndex() == 1) {
+                endsBefore = LocalDateTime.now().plusHours(1);
+            } else if (cmbEnding.getSelectedIndex() == 2) {
+                endsBefore = LocalDateTime.now().plusHours(24);
+            }
+            boolean indexFiltered = minBid != null || maxBid != null || endsBefore != null;
+            boolean filtered = !query.isBlank() || indexFiltered;
+
+            // The bid and end-time filters are answered by AuctionIndex, so only the matching rows are read.
+            List<Auction> auctions = indexFiltered
+                    ? AuctionDAO.getStartedAuctionsByIDs(AuctionIndex.find(minBid, maxBid, endsBefore, Integer.MAX_VALUE))
+                    : AuctionDAO.getAllStartedAuctions();
+
             hasAuctions = !auctions.isEmpty();
 
-            // First pass: update auctions and collect IDs.
+            // First pass: collect IDs and the auctions that should be finished.
+            List<Integer> expiredAuctionIds = new ArrayList<>();
             for (Auction auction : auctions) {
                 int auctionID = auction.getAuctionID();
                 newAuctionIds.add(auctionID);
@@ -248,10 +439,31 @@ public class MainMenuGUI extends JFrame {
                     auction.getAuctionEndTime().isEqual(LocalDateTime.now())) {
                     if (!auction.getAuctionStatus().equalsIgnoreCase("FINISHED")) {
                         auction.setAuctionStatus("FINISHED");
-                        AuctionDAO.updateAuction(auction);
+                        expiredAuctionIds.add(auctionID);
                     }
                 }
             }
+            // Close the expired auctions and create their payments in one transaction, off the Swing thread.
+            SettlementService.settleAuctionsAsync(expiredAuctionIds);
+
+            // Keep only auctions whose item matches the search box. Every match is needed here, not just the
+            // best DEFAULT_LIMIT of them, since the list shows all matching auctions.
+            if (!query.isBlank()) {
+                Set<Integer> matchingItems = new HashSet<>(SearchService.searchItems(query, Set.of("STARTED"), Integer.MAX_VALUE));
+                auctions.removeIf(auction -> !matchingItems.contains(auction.getItemID()));
+            }
+            if (filtered) {
+                newAuctionIds.clear();
+                auctions.forEach(auction -> newAuctionIds.add(auction.getAuctionID()));
+                hasAuctions = !auctions.isEmpty();
+                if (!query.isBlank() && !SearchService.isLoaded()) {
+                    noAuctionsLabel.setText("Search is still loading, try again in a moment.");
+                } else {
+                    noAuctionsLabel.setText("No auctions match your search.");
+                }
+            } else {
+                noAuctionsLabel.setText("No auctions available at the moment.");
+            }
 
             // Determine auctions to remove and add.
             Set<Integer> auctionsToRemove = new HashSet<>(currentAuctionIds);
@@ -269,6 +481,9 @@ public class MainMenuGUI extends JFrame {
                 }
             }
 
+            // Load the bidder/watcher sketches of every listed auction that is not cached yet, in one query.
+            SketchService.load(newAuctionIds);
+
             // Process auctions for adding/updating.
             for (Auction auction : auctions) {
                 int auctionID = auction.getAuctionID();
@@ -285,11 +500,14 @@ public class MainMenuGUI extends JFrame {
                 String startTime = auction.getAuctionStartTime().format(formatter);
                 String finishTime = auction.getAuctionEndTime().format(formatter);
                 String status = auction.getAuctionStatus();
+                String bidders = "~" + SketchService.getUniqueBidders(auctionID);
+                String watchers = "~" + SketchService.getWatchers(auctionID);
 
                 boolean rowFound = false;
                 for (int i = 0; i < tableModel.getRowCount(); i++) {
                     if ((int) tableModel.getValueAt(i, 7) == auctionID) {
-                        updateTableRow(i, imageIcon, itemName, startingPrice, currentBid, startTime, finishTime, status, auctionID);
+                        updateTableRow(i, imageIcon, itemName, startingPrice, currentBid, startTime, finishTime, status, auctionID,
+                                bidders, watchers);
                         rowFound = true;
                         break;
                     }
@@ -297,7 +515,7 @@ public class MainMenuGUI extends JFrame {
                 if (!rowFound) {
                     tableModel.addRow(new Object[]{
                         imageIcon, itemName, startingPrice, currentBid,
-                        startTime, finishTime, status, auctionID
+                        startTime, finishTime, status, auctionID, bidders, watchers
                     });
                 }
             }
@@ -311,6 +529,20 @@ public class MainMenuGUI extends JFrame {
         return hasAuctions;
     }
 
+    /**
+     * Parses a bid filter bound.
+     *
+     * @param text the text of a bid field.
+     * @return the amount, or null if the field is empty or not a number.
+     */
+    private Double parseBid(String text) {
+        try {
+            return text.isBlank() ? null : Double.valueOf(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * Updates the specified row in the auction table with new data.
      *
@@ -323,10 +555,13 @@ public class MainMenuGUI extends JFrame {
      * @param finishTime    the auction finish time.
      * @param status        the auction status.
      * @param auctionID     the auction identifier.
+     * @param bidders       the approximate number of unique bidders.
+     * @param watchers      the approximate number of watchers.
      */
     private void updateTableRow(int rowIndex, ImageIcon imageIcon, String itemName,
                                 String startingPrice, String currentBid, String startTime,
-                                String finishTime, String status, int auctionID) {
+                                String finishTime, String status, int auctionID,
+                                String bidders, String watchers) {
         tableModel.setValueAt(imageIcon, rowIndex, 0);
         tableModel.setValueAt(itemName, rowIndex, 1);
         tableModel.setValueAt(startingPrice, rowIndex, 2);
@@ -335,6 +570,8 @@ public class MainMenuGUI extends JFrame {
         tableModel.setValueAt(finishTime, rowIndex, 5);
         tableModel.setValueAt(status, rowIndex, 6);
         tableModel.setValueAt(auctionID, rowIndex, 7);
+        tableModel.setValueAt(bidders, rowIndex, 8);
+        tableModel.setValueAt(watchers, rowIndex, 9);
     }
 
     /**
@@ -408,6 +645,10 @@ public class MainMenuGUI extends JFrame {
             this.dateTimeTimer.stop();
             this.dateTimeTimer = null;
         }
+        if (this.searchTimer != null) {
+            this.searchTimer.stop();
+            this.searchTimer = null;
+        }
         imageCache.clear();
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.GUI;
 
 import com.DAO.PaymentDAO;
+import com.Services.LedgerService;
 import com.Entities.Payment;
 import com.Utilities.GUIUtils;
 import java.awt.*;
@@ -141,7 +142,7 @@ public class MakePaymentGUI extends BaseGUI {
 
     /**
      * Processes the payment selected by the user.
-     * Updates the payment status to "COMPLETED" and refreshes the table.
+     * Completes the payment through LedgerService and refreshes the table.
      */
     private void processPayment() {
         int selectedRow = paymentTable.getSelectedRow();
@@ -152,15 +153,15 @@ public class MakePaymentGUI extends BaseGUI {
 
         int paymentID = (int) tableModel.getValueAt(selectedRow, 0);
         try {
-            Payment payment = PaymentDAO.getPaymentByID(paymentID);
+            // Completes the payment and posts it to the seller's ledger in one transaction
+            Payment payment = LedgerService.completePayment(paymentID);
             if (payment != null) {
-                payment.setPaymentStatus("COMPLETED");
-                PaymentDAO.updatePayment(payment); // Update payment status in the database
                 JOptionPane.showMessageDialog(this, "Payment completed successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 loadPaymentData(payment.getBuyerID()); // Refresh the table
                 clearErrorMessage();
             } else {
-                setErrorMessage("Payment not found.");
+                setErrorMessage("Payment not found or already completed.");
+                loadPaymentData(getUserID());
             }
         } catch (Exception e) {
             setErrorMessage("Error processing payment: " + e.getMessage());
@@ -1,5 +1,9 @@
 package com.GUI;
 
+import com.DAO.AsyncAuctionDAO;
+import com.DAO.AsyncBidDAO;
+import com.DAO.AsyncDAO;
+import com.DAO.AsyncItemDAO;
 import com.DAO.AuctionDAO;
 import com.DAO.BidDAO;
 import com.DAO.PaymentDAO;
@@ -7,13 +11,23 @@ import com.Entities.Auction;
 import com.Entities.Bid;
 import com.Entities.Item;
 import com.Entities.Payment;
+import com.Services.BidActivityService;
+import com.Services.BidResult;
+import com.Services.BidService;
+import com.Services.SettlementService;
+import com.Services.SketchService;
 import com.Utilities.GUIUtils;
+import com.Utilities.RingTimeSeries;
 import java.awt.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 
 /**
@@ -23,14 +37,21 @@ import javax.swing.table.DefaultTableModel;
  * and processes payments once the auction ends.
  */
 public class MonitorAuctionGUI extends BaseGUI {
-    private JLabel lblImage, lblName, lblDescription, lblHighestBid, lblAuctionStatus;
+    private JLabel lblImage, lblName, lblDescription, lblHighestBid, lblAuctionStatus, lblAudience;
     private JTable bidHistoryTable;
-    private JTextField txtBidAmount;
-    private JButton btnPlaceBid;
+    private JTextField txtBidAmount, txtMaxBid;
+    private JButton btnPlaceBid, btnAutoBid;
     private Timer updateTimer;
     private Auction auction;
     private Item item;
     private JPanel bidPanel;
+    private SparklinePanel activitySparkline;
+    // The settlement started when the auction was seen ending, so the timer does not start another meanwhile.
+    private CompletableFuture<Integer> settlement;
+    // Highest bidID and number of bids in the bid history table; the timer reads only newer bids.
+    private int lastBidID, shownBids;
+    // Idempotency keys of the bid currently typed in each field; repeats of the same submission reuse them.
+    private String bidRequestKey, proxyRequestKey;
 
     /**
      * Constructs a MonitorAuctionGUI for the given auction and user.
@@ -41,13 +62,24 @@ public class MonitorAuctionGUI extends BaseGUI {
     public MonitorAuctionGUI(int auctionID, int userID) {
         super(userID, "Monitor Auction", false);
         
+        // Fetch the auction, then its item, while the bid history loads in parallel.
+        CompletableFuture<Auction> auctionFuture = AsyncAuctionDAO.getAuctionByID(auctionID);
+        CompletableFuture<Item> itemFuture = auctionFuture.thenCompose(a -> {
+            if (a == null) {
+                throw new IllegalStateException("Auction " + auctionID + " was not found.");
+            }
+            return AsyncItemDAO.getItemByID(a.getItemID());
+        });
+        CompletableFuture<List<Bid>> bidsFuture = AsyncBidDAO.getAllBidsByAuctionID(auctionID);
         try {
-            // Fetch auction and item details.
-            auction = AuctionDAO.getAuctionByID(auctionID);
-            item = com.DAO.ItemDAO.getItemByID(auction.getItemID());
+            CompletableFuture.allOf(itemFuture, bidsFuture).join();
+            auction = auctionFuture.join();
+            item = itemFuture.join();
+            SketchService.start();
+            SketchService.onAuctionViewed(auctionID, userID);
             
             // Set up the main panels.
-            setupAuctionDetails();
+            setupAuctionDetails(bidsFuture.join());
             
             // Start the update timer.
             startUpdateTimer();
@@ -55,20 +87,24 @@ public class MonitorAuctionGUI extends BaseGUI {
             // Center the frame.
             setLocationRelativeTo(null);
         } catch (Exception e) {
-            setErrorMessage("Error loading auction details: " + e.getMessage());
-            e.printStackTrace();
+            bidsFuture.cancel(false); // not needed once the auction failed to load
+            Throwable cause = AsyncDAO.unwrap(e);
+            setErrorMessage("Error loading auction details: " + cause.getMessage());
+            cause.printStackTrace();
         }
     }
     
     /**
      * Sets up all auction detail panels including item details, bid history, and the bid entry panel.
+     *
+     * @param bids the bid history, already loaded.
      */
-    private void setupAuctionDetails() {
+    private void setupAuctionDetails(List<Bid> bids) {
         // Auction Details Panel (Left Side).
         add(createDetailsPanel(), BorderLayout.WEST);
         
         // Bid History Panel (Center).
-        add(createBidHistoryPanel(), BorderLayout.CENTER);
+        add(createBidHistoryPanel(bids), BorderLayout.CENTER);
         
         // Bid Entry Panel (Bottom).
         bidPanel = createBidPanel();
@@ -162,20 +198,44 @@ public class MonitorAuctionGUI extends BaseGUI {
         gbc.gridy = 2;
         auctionDetailsPanel.add(lblEndTime, gbc);
 
+        // Unique bidders and watchers (approximate, read from the auction's sketches).
+        lblAudience = new JLabel(formatAudience());
+        lblAudience.setFont(new Font("Arial", Font.PLAIN, 14));
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        auctionDetailsPanel.add(lblAudience, gbc);
+
         gbc.gridx = 0;
         gbc.gridy = 1;
         gbc.gridwidth = 2;
         detailsPanel.add(auctionDetailsPanel, gbc);
 
+        // Section 3: Bid activity (bids per minute and price over the last hour).
+        activitySparkline = new SparklinePanel("Bids per minute, last hour", 300, 80);
+        activitySparkline.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        gbc.gridwidth = 2;
+        detailsPanel.add(activitySparkline, gbc);
+
         return detailsPanel;
     }
     
+    /**
+     * @return the approximate number of unique bidders and watchers of the auction.
+     */
+    private String formatAudience() {
+        return "Unique bidders: ~" + SketchService.getUniqueBidders(auction.getAuctionID())
+                + "   Watchers: ~" + SketchService.getWatchers(auction.getAuctionID());
+    }
+
     /**
      * Creates and returns the bid history panel with a table of past bids.
      *
+     * @param bids the bid history to show.
      * @return the JScrollPane wrapping the bid history table.
      */
-    private JScrollPane createBidHistoryPanel() {
+    private JScrollPane createBidHistoryPanel(List<Bid> bids) {
         String[] columnNames = {"Bid Amount", "User ID", "Bid Time"};
         DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0);
         bidHistoryTable = new JTable(tableModel);
@@ -183,7 +243,7 @@ public class MonitorAuctionGUI extends BaseGUI {
         bidHistoryTable.setRowHeight(30);
         JScrollPane scrollPane = new JScrollPane(bidHistoryTable);
         scrollPane.setBorder(new EmptyBorder(10, 10, 10, 10));
-        loadBidHistory();
+        showBidHistory(bids);
         return scrollPane;
     }
     
@@ -199,6 +259,7 @@ public class MonitorAuctionGUI extends BaseGUI {
 
         txtBidAmount = new JTextField(10);
         txtBidAmount.setFont(new Font("Arial", Font.PLAIN, 14));
+        onTextChanged(txtBidAmount, () -> bidRequestKey = null);
         panel.add(new JLabel("Your Bid:"));
         panel.add(txtBidAmount);
 
@@ -206,26 +267,48 @@ public class MonitorAuctionGUI extends BaseGUI {
         btnPlaceBid.addActionListener(e -> placeBid(getUserID()));
         panel.add(btnPlaceBid);
 
+        txtMaxBid = new JTextField(10);
+        txtMaxBid.setFont(new Font("Arial", Font.PLAIN, 14));
+        onTextChanged(txtMaxBid, () -> proxyRequestKey = null);
+        panel.add(new JLabel("Auto-Bid up to:"));
+        panel.add(txtMaxBid);
+
+        btnAutoBid = GUIUtils.createStyledButton("Set Auto-Bid");
+        btnAutoBid.addActionListener(e -> placeProxyBid(getUserID()));
+        panel.add(btnAutoBid);
+
         return panel;
     }
+
+    /**
+     * Runs the given action whenever the text of the field is edited.
+     *
+     * @param field  the text field to observe.
+     * @param action the action to run.
+     */
+    private void onTextChanged(JTextField field, Runnable action) {
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { action.run(); }
+            public void removeUpdate(DocumentEvent e) { action.run(); }
+            public void changedUpdate(DocumentEvent e) { action.run(); }
+        });
+    }
     
     /**
-     * Loads the bid history from the database into the bid history table.
+     * Adds the bids placed since the last refresh to the bid history table and the activity chart.
+     * If the auction has more bids than were read (a bid got a lower bidID than one already shown),
+     * the whole history is read again.
      */
     private void loadBidHistory() {
         try {
-            DefaultTableModel tableModel = (DefaultTableModel) bidHistoryTable.getModel();
-            tableModel.setRowCount(0); // Clear existing rows
-            
-            List<Bid> bids = BidDAO.getAllBidsByAuctionID(auction.getAuctionID());
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            
-            for (Bid bid : bids) {
-                tableModel.addRow(new Object[]{
-                    bid.getBidAmount(), 
-                    bid.getBuyerID(), 
-                    bid.getBidTime().format(formatter)
-                });
+            int auctionID = auction.getAuctionID();
+            List<Bid> newBids = BidDAO.getBidsByAuctionIDAfter(auctionID, lastBidID);
+            if (BidDAO.countBidsByAuctionID(auctionID) > shownBids + newBids.size()) {
+                List<Bid> bids = BidDAO.getAllBidsByAuctionID(auctionID);
+                BidActivityService.resetAuction(auctionID, bids);
+                showBidHistory(bids);
+            } else {
+                addBids(newBids); // also moves the activity chart on
             }
         } catch (Exception ex) {
             setErrorMessage("Error loading bid history: " + ex.getMessage());
@@ -233,6 +316,45 @@ public class MonitorAuctionGUI extends BaseGUI {
         }
     }
 
+    /**
+     * Fills the bid history table and the activity chart from bids already loaded.
+     *
+     * @param bids the bids of the auction.
+     */
+    private void showBidHistory(List<Bid> bids) {
+        DefaultTableModel tableModel = (DefaultTableModel) bidHistoryTable.getModel();
+        tableModel.setRowCount(0); // Clear existing rows
+        lastBidID = 0;
+        shownBids = 0;
+        addBids(bids);
+    }
+
+    /**
+     * Appends bids to the bid history table and passes them on to the activity chart.
+     *
+     * @param bids bids of the auction, lowest bidID first.
+     */
+    private void addBids(List<Bid> bids) {
+        DefaultTableModel tableModel = (DefaultTableModel) bidHistoryTable.getModel();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        for (Bid bid : bids) {
+            tableModel.addRow(new Object[]{
+                bid.getBidAmount(), 
+                bid.getBuyerID(), 
+                bid.getBidTime().format(formatter)
+            });
+            lastBidID = Math.max(lastBidID, bid.getBidID());
+        }
+        shownBids += bids.size();
+
+        // The activity chart reads the in-memory series, which skips bids it has already recorded.
+        BidActivityService.onBidsLoaded(auction.getAuctionID(), bids);
+        if (activitySparkline != null) {
+            activitySparkline.setData(BidActivityService.getAuctionActivity(
+                    auction.getAuctionID(), RingTimeSeries.Resolution.MINUTE, 60));
+        }
+    }
+
     /**
      * Starts a timer to periodically update auction details, bid history,
      * and to check whether the auction has ended.
@@ -246,6 +368,7 @@ public class MonitorAuctionGUI extends BaseGUI {
                 auction = AuctionDAO.getAuctionByID(auction.getAuctionID());
                 lblHighestBid.setText("Highest Bid: €" + auction.getAuctionCurrentHighestBid());
                 lblAuctionStatus.setText("Status: " + auction.getAuctionStatus());
+                lblAudience.setText(formatAudience());
                 
                 // Refresh bid history.
                 loadBidHistory();
@@ -256,9 +379,11 @@ public class MonitorAuctionGUI extends BaseGUI {
                     !auction.getAuctionStatus().equalsIgnoreCase("FINISHED") &&
                     !auction.getAuctionStatus().equalsIgnoreCase("CLOSED")) {
                     
-                    auction.setAuctionStatus("FINISHED");
-                    AuctionDAO.updateAuction(auction);
-                    lblAuctionStatus.setText("Status: " + auction.getAuctionStatus());
+                    // Close and settle in one transaction on a worker; the next tick reads the new status.
+                    // If another client is already settling it, it is still STARTED then and is tried again.
+                    if (settlement == null || settlement.isDone()) {
+                        settlement = SettlementService.settleAuctionsAsync(List.of(auction.getAuctionID()));
+                    }
                 }
                 
                 // If auction is closed/finished: notify user, process payment and remove bid panel.
@@ -282,35 +407,20 @@ public class MonitorAuctionGUI extends BaseGUI {
 
     /**
      * Attempts to place a bid for the given user.
+     * Repeated clicks with the same amount reuse the same request key, so they are not bid twice.
      *
      * @param userID the ID of the user placing the bid.
      */
     private void placeBid(int userID) {
         try {
             double bidAmount = Double.parseDouble(txtBidAmount.getText().trim());
-            if (bidAmount <= auction.getAuctionCurrentHighestBid()) {
-                setErrorMessage("Your bid must be higher than the current highest bid.");
-                return;
-            } else if (bidAmount < item.getItemStartingPrice()) {
-                setErrorMessage("Your bid must be higher than the starting price.");
-                return;
+            if (bidRequestKey == null) {
+                bidRequestKey = UUID.randomUUID().toString();
+            }
+            BidResult result = BidService.placeBid(auction.getAuctionID(), userID, bidAmount, bidRequestKey);
+            if (showBidResult(result)) {
+                txtBidAmount.setText("");
             }
-
-            // Create and save the bid.
-            Bid bid = new Bid();
-            bid.setBidAmount(bidAmount);
-            bid.setBidTime(LocalDateTime.now());
-            bid.setAuctionID(auction.getAuctionID());
-            bid.setBuyerID(userID);
-            BidDAO.createBid(bid);
-
-            // Update auction details and UI.
-            auction.setAuctionCurrentHighestBid(bidAmount);
-            auction.setBuyerID(userID);
-            AuctionDAO.updateAuction(auction);
-            JOptionPane.showMessageDialog(this, "Bid placed successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            txtBidAmount.setText("");
-            clearErrorMessage();
         } catch (NumberFormatException ex) {
             setErrorMessage("Please enter a valid bid amount.");
         } catch (Exception ex) {
@@ -320,7 +430,59 @@ public class MonitorAuctionGUI extends BaseGUI {
     }
 
     /**
-     * Processes payment for the highest bidder once the auction ends.
+     * Registers an auto-bid (maximum bid) for the given user.
+     * The system then bids on the user's behalf up to the maximum.
+     *
+     * @param userID the ID of the user registering the auto-bid.
+     */
+    private void placeProxyBid(int userID) {
+        try {
+            double maxAmount = Double.parseDouble(txtMaxBid.getText().trim());
+            if (proxyRequestKey == null) {
+                proxyRequestKey = UUID.randomUUID().toString();
+            }
+            BidResult result = BidService.placeProxyBid(auction.getAuctionID(), userID, maxAmount, proxyRequestKey);
+            if (showBidResult(result)) {
+                txtMaxBid.setText("");
+            }
+        } catch (NumberFormatException ex) {
+            setErrorMessage("Please enter a valid maximum amount.");
+        } catch (Exception ex) {
+            setErrorMessage("Error setting auto-bid: " + ex.getMessage());
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Updates the screen with the outcome of a bid request.
+     *
+     * @param result the BidResult returned by BidService.
+     * @return true if the bid was recorded.
+     */
+    private boolean showBidResult(BidResult result) {
+        if (!result.isRecorded()) {
+            setErrorMessage(result.getMessage());
+            return false;
+        }
+        auction.setAuctionCurrentHighestBid(result.getHighestBid());
+        auction.setBuyerID(result.getLeadingBuyerID());
+        lblHighestBid.setText("Highest Bid: €" + result.getHighestBid());
+        loadBidHistory();
+        clearErrorMessage();
+
+        if (result.isReplayed()) {
+            return true; // Duplicate submit of a bid that was already confirmed.
+        } else if (result.getStatus() == BidResult.Status.ACCEPTED) {
+            JOptionPane.showMessageDialog(this, result.getMessage(), "Success", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, result.getMessage(), "Outbid", JOptionPane.WARNING_MESSAGE);
+        }
+        return true;
+    }
+
+    /**
+     * Reports the payment for the highest bidder once the auction ends.
+     * The payment itself is created by SettlementService when the auction is closed.
      */
     private void processPayment() {
         try {
@@ -330,17 +492,14 @@ public class MonitorAuctionGUI extends BaseGUI {
                 return;
             }
 
-            // Create a payment record.
-            Payment payment = new Payment();
-            payment.setPaymentAmount(auction.getAuctionCurrentHighestBid());
-            payment.setPaymentStatus("PENDING");
-            payment.setAuctionID(auction.getAuctionID());
-            payment.setBuyerID(auction.getBuyerID());
-            payment.setSellerID(auction.getSellerID());
-            PaymentDAO.createPayment(payment);
-
-            JOptionPane.showMessageDialog(this, "Payment created for the highest bidder.", 
-                "Payment Processed", JOptionPane.INFORMATION_MESSAGE);
+            Payment payment = PaymentDAO.getPaymentByAuctionID(auction.getAuctionID());
+            if (payment == null) {
+                JOptionPane.showMessageDialog(this, "The payment for the highest bidder is being processed.", 
+                    "Payment Processed", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            JOptionPane.showMessageDialog(this, "Payment of €" + String.format("%.2f", payment.getPaymentAmount())
+                + " created for the highest bidder.", "Payment Processed", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
             setErrorMessage("Error processing payment: " + ex.getMessage());
             ex.printStackTrace();
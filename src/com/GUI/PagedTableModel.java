@@ -0,0 +1,184 @@
+package com.GUI;
+
+import com.DAO.AsyncDAO;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model that fetches its rows page by page as the user scrolls.
+ *
+ * <p>Only the pages the user has scrolled through are held in memory. Pages are loaded in the
+ * background with a {@link PageLoader}, which receives the last row already loaded so it can
+ * continue with keyset pagination. The loader runs on an AsyncDAO worker, which has its own
+ * connection, so its queries never interleave with a transaction on the Swing thread's shared one. Replacing the loader (e.g. when the sort order or a filter
+ * changes) discards the loaded rows and starts again from the first page.</p>
+ *
+ * @param <T> the entity type shown in each row
+ */
+public abstract class PagedTableModel<T> extends AbstractTableModel {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    // Start loading the next page when the viewport is this many pixels from the bottom.
+    private static final int PREFETCH_DISTANCE = 300;
+
+    /**
+     * Loads the page following the given row.
+     *
+     * @param <T> the entity type
+     */
+    public interface PageLoader<T> {
+        /**
+         * Called on an AsyncDAO worker thread, where DBConnector.getConnection() is the worker's own.
+         *
+         * @param after the last row already loaded, or null for the first page
+         * @param pageSize the maximum number of rows to return
+         * @return the next rows; fewer than pageSize means there are no more
+         * @throws SQLException if the page cannot be read
+         */
+        List<T> loadPage(T after, int pageSize) throws SQLException;
+    }
+
+    private final String[] columnNames;
+    private final int pageSize;
+    private final List<T> rows = new ArrayList<>();
+    private PageLoader<T> loader;
+    private boolean loading;
+    private boolean exhausted;
+    private int generation; // bumped on reset so late pages from an old loader are ignored
+
+    protected PagedTableModel(String[] columnNames, int pageSize) {
+        this.columnNames = columnNames;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns the value shown in the given column for a row entity.
+     *
+     * @param row the entity of the row
+     * @param column the column index
+     * @return the cell value
+     */
+    protected abstract Object getColumnValue(T row, int column);
+
+    /**
+     * Replaces the page loader and reloads from the first page.
+     *
+     * @param loader the new page loader
+     */
+    public void setPageLoader(PageLoader<T> loader) {
+        this.loader = loader;
+        reset();
+    }
+
+    /**
+     * Discards all loaded rows and loads the first page again.
+     */
+    public void reset() {
+        generation++;
+        rows.clear();
+        exhausted = false;
+        loading = false;
+        fireTableDataChanged();
+        loadNextPage();
+    }
+
+    /**
+     * Loads the next page in the background unless a load is running or all rows are loaded.
+     */
+    public void loadNextPage() {
+        if (loader == null || loading || exhausted) {
+            return;
+        }
+        loading = true;
+        final int requestGeneration = generation;
+        final PageLoader<T> pageLoader = loader;
+        final T after = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+
+        new SwingWorker<List<T>, Void>() {
+            @Override
+            protected List<T> doInBackground() throws Exception {
+                return AsyncDAO.supply(() -> pageLoader.loadPage(after, pageSize)).get();
+            }
+
+            @Override
+            protected void done() {
+                if (requestGeneration != generation) {
+                    return; // the model was reset while this page was loading
+                }
+                loading = false;
+                try {
+                    List<T> page = get();
+                    exhausted = page.size() < pageSize;
+                    if (!page.isEmpty()) {
+                        int first = rows.size();
+                        rows.addAll(page);
+                        fireTableRowsInserted(first, rows.size() - 1);
+                    }
+                } catch (Exception e) {
+                    exhausted = true;
+                    Throwable cause = AsyncDAO.unwrap(e);
+                    JOptionPane.showMessageDialog(null, "Error loading rows: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Loads further pages whenever the scroll pane gets close to its bottom.
+     *
+     * @param scrollPane the scroll pane wrapping the table using this model
+     */
+    public void attachTo(JScrollPane scrollPane) {
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        bar.addAdjustmentListener(e -> {
+            if (bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - PREFETCH_DISTANCE) {
+                loadNextPage();
+            }
+        });
+    }
+
+    /**
+     * @param rowIndex the row index in the model
+     * @return the entity shown in that row
+     */
+    public T getRow(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    /**
+     * Removes a row, e.g. after the entity was deleted.
+     *
+     * @param rowIndex the row index in the model
+     */
+    public void removeRow(int rowIndex) {
+        rows.remove(rowIndex);
+        fireTableRowsDeleted(rowIndex, rowIndex);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return getColumnValue(rows.get(rowIndex), columnIndex);
+    }
+}
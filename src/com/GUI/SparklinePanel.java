@@ -0,0 +1,101 @@
+package com.GUI;
+
+import com.Utilities.RingTimeSeries;
+import java.awt.*;
+import javax.swing.JComponent;
+
+/**
+ * Small chart of a bid activity series: bars for the number of bids per bucket and,
+ * when prices are present, a line for the price (carried forward across empty buckets).
+ */
+public class SparklinePanel extends JComponent {
+
+    private static final Color BAR_COLOR = new Color(70, 130, 180);
+    private static final Color PRICE_COLOR = new Color(220, 90, 40);
+
+    private final String title;
+    private RingTimeSeries.Buckets data;
+
+    public SparklinePanel(String title, int width, int height) {
+        this.title = title;
+        setPreferredSize(new Dimension(width, height));
+        setOpaque(true);
+        setBackground(Color.WHITE);
+    }
+
+    /**
+     * Replaces the data shown and repaints.
+     *
+     * @param data the buckets to draw, oldest first
+     */
+    public void setData(RingTimeSeries.Buckets data) {
+        this.data = data;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setColor(Color.DARK_GRAY);
+            g.setFont(new Font("Arial", Font.PLAIN, 11));
+            String caption = data == null ? title : title + " (" + data.getTotal() + " bids)";
+            g.drawString(caption, 4, 12);
+            if (data == null || data.size() == 0) {
+                return;
+            }
+
+            int top = 16;
+            int height = getHeight() - top - 2;
+            double step = (double) getWidth() / data.size();
+            int[] counts = data.getCounts();
+            double[] closes = data.getCloses();
+
+            int maxCount = 1;
+            for (int count : counts) maxCount = Math.max(maxCount, count);
+            g.setColor(BAR_COLOR);
+            for (int i = 0; i < counts.length; i++) {
+                int barHeight = (int) Math.round((double) counts[i] / maxCount * height);
+                g.fillRect((int) (i * step), top + height - barHeight, Math.max(1, (int) step - 1), barHeight);
+            }
+
+            double minPrice = Double.POSITIVE_INFINITY;
+            double maxPrice = Double.NEGATIVE_INFINITY;
+            for (double close : closes) {
+                if (!Double.isNaN(close)) {
+                    minPrice = Math.min(minPrice, close);
+                    maxPrice = Math.max(maxPrice, close);
+                }
+            }
+            if (minPrice == Double.POSITIVE_INFINITY) {
+                return; // no prices in this window
+            }
+            double range = Math.max(maxPrice - minPrice, 0.01);
+            g.setColor(PRICE_COLOR);
+            g.setStroke(new BasicStroke(1.5f));
+            int previousX = -1;
+            int previousY = -1;
+            double price = Double.NaN;
+            for (int i = 0; i < closes.length; i++) {
+                if (!Double.isNaN(closes[i])) {
+                    price = closes[i];
+                }
+                if (Double.isNaN(price)) {
+                    continue;
+                }
+                int x = (int) (i * step + step / 2);
+                int y = top + (int) Math.round((maxPrice - price) / range * (height - 2)) + 1;
+                if (previousX >= 0) {
+                    g.drawLine(previousX, previousY, x, y);
+                }
+                previousX = x;
+                previousY = y;
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.GUI;
 
 import com.DAO.UserDAO;
 import com.Entities.User;
+import com.Services.LedgerService;
+import com.Services.SketchService;
 import com.Utilities.GUIUtils;
 import java.awt.*;
 import javax.swing.*;
@@ -77,9 +79,70 @@ public class VisitProfileGUI extends BaseGUI {
         gbc.gridy = 1;
         profilePanel.add(createStyledValueLabel(user.getEmail()), gbc);
 
+        int row = 2;
+
+        // Earnings, read from the balances LedgerService keeps on the seller row.
+        try {
+            double[] balance = LedgerService.getSellerBalance(userID);
+            if (balance[0] != 0 || balance[1] != 0) {
+                gbc.gridx = 0;
+                gbc.gridy = row;
+                profilePanel.add(GUIUtils.createStyledLabel("Earnings:", true), gbc);
+
+                gbc.gridx = 1;
+                gbc.gridy = row++;
+                profilePanel.add(createStyledValueLabel(String.format("€%.2f (€%.2f pending)", balance[0], balance[1])), gbc);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        // Unique bidders across the user's auctions, merged from the per-auction sketches on every shard.
+        gbc.gridx = 0;
+        gbc.gridy = row;
+        JLabel biddersCaption = GUIUtils.createStyledLabel("Unique bidders:", true);
+        profilePanel.add(biddersCaption, gbc);
+
+        gbc.gridx = 1;
+        gbc.gridy = row;
+        JLabel biddersValue = createStyledValueLabel("Calculating...");
+        profilePanel.add(biddersValue, gbc);
+        loadUniqueBidders(userID, profilePanel, biddersCaption, biddersValue);
+
         return profilePanel;
     }
 
+    /**
+     * Estimates the seller's unique bidders in the background and shows the result,
+     * or removes the row if the user has no bidders.
+     */
+    private void loadUniqueBidders(int userID, JPanel profilePanel, JLabel caption, JLabel value) {
+        new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return SketchService.getSellerUniqueBidders(userID);
+            }
+
+            @Override
+            protected void done() {
+                long uniqueBidders = 0;
+                try {
+                    uniqueBidders = get();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                if (uniqueBidders > 0) {
+                    value.setText("~" + uniqueBidders + " across your auctions");
+                } else {
+                    profilePanel.remove(caption);
+                    profilePanel.remove(value);
+                    profilePanel.revalidate();
+                    profilePanel.repaint();
+                }
+            }
+        }.execute();
+    }
+
     /**
      * Creates a styled JLabel to display user profile values.
      *
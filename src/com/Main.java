@@ -4,9 +4,16 @@ package com;
 import javax.swing.SwingUtilities;
 
 import com.GUI.LoginPage;
+import com.Services.BidService;
+import com.Services.OutboxService;
+import com.Services.SettlementService;
 
 public class Main {
     public static void main(String[] args) {
+        // Background jobs run for the whole application, whichever screens are opened
+        OutboxService.start();
+        SettlementService.start();
+        BidService.start();
         SwingUtilities.invokeLater(new Runnable() {
             public void run() {
                 new LoginPage().setVisible(true);
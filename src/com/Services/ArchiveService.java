@@ -0,0 +1,128 @@
+package com.Services;
+
+import com.DAO.ArchiveDAO;
+import com.DAO.CatalogueDAO;
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArchiveService moves finished auctions, with their bids and settled payments, out of the hot
+ * auction, bid and payment tables into the archive tables.
+ *
+ * <p>An auction is archived once it is FINISHED or CLOSED, ended more than the retention window
+ * ago, and has no payment other than COMPLETED ones. Auctions are moved in batches of a bounded
+ * size, one short transaction per batch, so the job never holds many locks or a long undo log and
+ * can be interrupted at any point. Reads of a single auction, its bids or a payment fall back to the
+ * archive tables (see ArchiveDAO), so archived data stays reachable.</p>
+ *
+ * <p>The auctions' bid requests are deleted with them, and so are their catalogue memberships. The
+ * memberships live on shard 0: for auctions on shard 0 they go in the batch's transaction, for the
+ * other shards right after its commit.</p>
+ */
+public class ArchiveService {
+
+    // Overridable with -Dauction.archive.retentionDays=..., -Dauction.archive.batchSize=... and -Dauction.archive.intervalHours=...
+    private static final long RETENTION_DAYS = Long.getLong("auction.archive.retentionDays", 90);
+    private static final int BATCH_SIZE = Integer.getInteger("auction.archive.batchSize", 200);
+    private static final long INTERVAL_HOURS = Long.getLong("auction.archive.intervalHours", 24);
+    // Pause between batches so the job does not starve the bid path of row locks.
+    private static final long BATCH_PAUSE_MILLIS = 50;
+
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * Receives progress updates after every committed batch.
+     */
+    public interface ProgressListener {
+        void onProgress(int archived);
+    }
+
+    /**
+     * Starts the periodic archival; the first run starts after one interval.
+     * Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "auction-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archive(null);
+            } catch (SQLException e) {
+                System.err.println("Error archiving auctions: " + e.getMessage());
+            }
+        }, INTERVAL_HOURS, INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Archives every eligible auction, batch by batch, on a dedicated connection per shard.
+     *
+     * @param listener receives the running total after each batch; may be null
+     * @return the number of auctions archived
+     * @throws SQLException if a batch fails; it is rolled back and earlier batches stay archived
+     */
+    public static synchronized int archive(ProgressListener listener) throws SQLException {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(RETENTION_DAYS);
+        int archived = 0;
+
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            try (Connection con = DBConnector.openShardConnection(shard)) {
+                con.setAutoCommit(false);
+                while (true) {
+                    List<Integer> auctionIDs;
+                    try {
+                        auctionIDs = ArchiveDAO.findArchivableAuctionIDs(con, cutoff, BATCH_SIZE);
+                        if (auctionIDs.isEmpty()) {
+                            con.commit();
+                            break;
+                        }
+                        ArchiveDAO.copyToArchive(con, auctionIDs);
+                        ArchiveDAO.deleteFromHotTables(con, auctionIDs);
+                        if (shard == 0) {
+                            CatalogueDAO.removeAuctionsFromAllCatalogues(con, auctionIDs);
+                        }
+                        con.commit();
+                    } catch (SQLException e) {
+                        con.rollback();
+                        throw e;
+                    }
+
+                    for (int auctionID : auctionIDs) {
+                        AuctionIndex.onAuctionRemoved(auctionID);
+                        StatisticsService.onAuctionRemoved(auctionID);
+                    }
+                    SearchService.onAuctionsRemoved(auctionIDs);
+                    if (shard != 0) {
+                        try (Connection catalogues = DBConnector.openConnection()) {
+                            CatalogueDAO.removeAuctionsFromAllCatalogues(catalogues, auctionIDs);
+                        }
+                    }
+                    CatalogueService.onAuctionsRemoved(auctionIDs);
+                    archived += auctionIDs.size();
+                    if (listener != null) {
+                        listener.onProgress(archived);
+                    }
+                    try {
+                        Thread.sleep(BATCH_PAUSE_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return archived;
+                    }
+                }
+            }
+        }
+        return archived;
+    }
+}
@@ -0,0 +1,299 @@
+package com.Services;
+
+import com.DAO.AuctionDAO;
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Entities.Auction;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * AuctionIndex keeps the STARTED auctions in memory, sorted by end time and by current highest bid.
+ *
+ * <p>Both orders are skip lists, so "ending in the next hour", "current bid between X and Y" and
+ * "the K auctions ending soonest" are a logarithmic seek followed by a walk over the matching
+ * entries only. The index is loaded once on first use; AuctionDAO reports new and changed auctions
+ * (including closing ones) and BidService reports every new highest bid, so it stays current without
+ * querying the database. Readers never block; writers are serialized so both orders stay in step.</p>
+ *
+ * <p>The load reads only the STARTED auctions and builds the new orders without holding the writers'
+ * lock. Changes reported meanwhile are queued and replayed onto them before they replace the empty
+ * ones, so a write on the event dispatch thread never waits for the database.</p>
+ */
+public class AuctionIndex {
+
+    private static final String OPEN_STATUS = "STARTED";
+
+    private static final Comparator<Entry> BY_END_TIME =
+            Comparator.comparing((Entry e) -> e.endTime).thenComparingInt(e -> e.auctionID);
+    private static final Comparator<Entry> BY_BID =
+            Comparator.comparingDouble((Entry e) -> e.highestBid).thenComparingInt(e -> e.auctionID);
+
+    // Replaced once by the loaded index; changed under the class lock, read without it
+    private static volatile Orders current = new Orders();
+    private static volatile boolean loaded;
+    // Changes reported while a load is running, replayed onto the new orders; null when no load runs
+    private static List<Consumer<Orders>> pending;
+    // Held for the whole load so only one runs; never taken by the update hooks
+    private static final Object loadLock = new Object();
+
+    /**
+     * The indexed fields of one auction. Immutable; an update replaces the entry.
+     */
+    private static final class Entry {
+        private final int auctionID;
+        private final LocalDateTime endTime;
+        private final double highestBid;
+
+        private Entry(int auctionID, LocalDateTime endTime, double highestBid) {
+            this.auctionID = auctionID;
+            this.endTime = endTime;
+            this.highestBid = highestBid;
+        }
+    }
+
+    /**
+     * Finds open auctions ending between now and the given time, ending soonest first.
+     *
+     * @param until the latest end time to include
+     * @return the IDs of the matching auctions
+     * @throws SQLException if the index has to be loaded and the database cannot be read
+     */
+    public static List<Integer> getAuctionsEndingBefore(LocalDateTime until) throws SQLException {
+        return find(null, null, until, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the open auctions that end next.
+     *
+     * @param limit the maximum number of auctions
+     * @return the IDs of at most limit auctions, ending soonest first
+     * @throws SQLException if the index has to be loaded and the database cannot be read
+     */
+    public static List<Integer> getEndingSoonest(int limit) throws SQLException {
+        return find(null, null, null, limit);
+    }
+
+    /**
+     * Finds open auctions whose current highest bid is within a range, lowest bid first.
+     *
+     * @param minBid the lowest bid to include
+     * @param maxBid the highest bid to include
+     * @return the IDs of the matching auctions
+     * @throws SQLException if the index has to be loaded and the database cannot be read
+     */
+    public static List<Integer> getAuctionsWithBidBetween(double minBid, double maxBid) throws SQLException {
+        return find(minBid, maxBid, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds open auctions that have not ended yet, combining the optional filters.
+     *
+     * <p>With an end-time limit the end-time order is walked and bids are checked per entry;
+     * otherwise the bid order is walked (or the end-time order, if there is no bid filter either).</p>
+     *
+     * @param minBid the lowest current bid to include, or null
+     * @param maxBid the highest current bid to include, or null
+     * @param endsBefore the latest end time to include, or null
+     * @param limit the maximum number of results
+     * @return the IDs of matching auctions, ending soonest first unless only a bid range is given
+     * @throws SQLException if the index has to be loaded and the database cannot be read
+     */
+    public static List<Integer> find(Double minBid, Double maxBid, LocalDateTime endsBefore, int limit) throws SQLException {
+        ensureLoaded();
+        Orders orders = current;
+        LocalDateTime now = LocalDateTime.now();
+        double low = minBid != null ? minBid : Double.NEGATIVE_INFINITY;
+        double high = maxBid != null ? maxBid : Double.POSITIVE_INFINITY;
+        List<Integer> result = new ArrayList<>();
+        if (low > high || limit <= 0) {
+            return result;
+        }
+
+        if (endsBefore != null || (minBid == null && maxBid == null)) {
+            NavigableSet<Entry> range = endsBefore == null
+                    ? orders.byEndTime.tailSet(new Entry(Integer.MIN_VALUE, now, 0), true)
+                    : orders.byEndTime.subSet(new Entry(Integer.MIN_VALUE, now, 0), true,
+                                       new Entry(Integer.MAX_VALUE, endsBefore, 0), true);
+            for (Entry e : range) {
+                if (e.highestBid >= low && e.highestBid <= high) {
+                    result.add(e.auctionID);
+                    if (result.size() == limit) break;
+                }
+            }
+        } else {
+            NavigableSet<Entry> range = orders.byBid.subSet(new Entry(Integer.MIN_VALUE, now, low), true,
+                                                     new Entry(Integer.MAX_VALUE, now, high), true);
+            for (Entry e : range) {
+                if (e.endTime.isAfter(now)) {
+                    result.add(e.auctionID);
+                    if (result.size() == limit) break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the STARTED auctions in the background so the first filter does not wait for it.
+     */
+    public static void preload() {
+        if (loaded) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                ensureLoaded();
+            } catch (SQLException e) {
+                System.err.println("Error loading auction index: " + e.getMessage());
+            }
+        }, "auction-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads the index on the calling thread unless it is loaded already. Another thread's load in
+     * progress is waited for.
+     */
+    private static void ensureLoaded() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            synchronized (AuctionIndex.class) {
+                pending = new ArrayList<>();
+            }
+
+            Orders built = new Orders();
+            try {
+                for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+                    try (Connection con = DBConnector.openShardConnection(shard)) {
+                        for (Auction auction : AuctionDAO.getAllStartedAuctions(con)) {
+                            built.apply(auction);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                synchronized (AuctionIndex.class) {
+                    pending = null;
+                }
+                throw e;
+            }
+
+            synchronized (AuctionIndex.class) {
+                for (Consumer<Orders> change : pending) {
+                    change.accept(built);
+                }
+                pending = null;
+                current = built;
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Applies a reported change to the loaded index, or queues it while the index is being loaded.
+     * Before the first load starts there is nothing to update: the load reads the change from the database.
+     */
+    private static synchronized void change(Consumer<Orders> change) {
+        if (loaded) {
+            change.accept(current);
+        } else if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    /**
+     * Adds, moves or removes an auction after it was written. Called by AuctionDAO; an auction whose
+     * status is no longer STARTED (finished, cancelled) leaves the index.
+     *
+     * @param auction the saved auction
+     */
+    public static void onAuctionSaved(Auction auction) {
+        if (auction.getAuctionID() > 0) {
+            change(orders -> orders.apply(auction));
+        }
+    }
+
+    /**
+     * Indexes auctions written in one batch, e.g. by the bulk import after its commit.
+     *
+     * @param auctions the saved auctions
+     */
+    public static void onAuctionsSaved(List<Auction> auctions) {
+        for (Auction auction : auctions) {
+            onAuctionSaved(auction);
+        }
+    }
+
+    /**
+     * Moves an auction in the bid order after a new highest bid was committed. Called by BidService.
+     *
+     * @param auctionID the ID of the auction
+     * @param highestBid the new highest bid
+     */
+    public static void onHighestBidChanged(int auctionID, double highestBid) {
+        change(orders -> {
+            Entry old = orders.entries.get(auctionID);
+            if (old != null && old.highestBid != highestBid) {
+                orders.replace(old, new Entry(auctionID, old.endTime, highestBid));
+            }
+        });
+    }
+
+    /**
+     * Removes an auction, e.g. after it was deleted.
+     *
+     * @param auctionID the ID of the auction
+     */
+    public static void onAuctionRemoved(int auctionID) {
+        change(orders -> {
+            Entry old = orders.entries.get(auctionID);
+            if (old != null) {
+                orders.replace(old, null);
+            }
+        });
+    }
+
+    /**
+     * The indexed auctions in both orders. Only changed under the AuctionIndex class lock, or by the
+     * loader before it is published.
+     */
+    private static final class Orders {
+        private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+        private final NavigableSet<Entry> byEndTime = new ConcurrentSkipListSet<>(BY_END_TIME);
+        private final NavigableSet<Entry> byBid = new ConcurrentSkipListSet<>(BY_BID);
+
+        private void apply(Auction auction) {
+            Entry old = entries.get(auction.getAuctionID());
+            boolean open = OPEN_STATUS.equalsIgnoreCase(auction.getAuctionStatus()) && auction.getAuctionEndTime() != null;
+            replace(old, open ? new Entry(auction.getAuctionID(), auction.getAuctionEndTime(), auction.getAuctionCurrentHighestBid()) : null);
+        }
+
+        private void replace(Entry old, Entry next) {
+            if (old != null) {
+                byEndTime.remove(old);
+                byBid.remove(old);
+                entries.remove(old.auctionID);
+            }
+            if (next != null) {
+                entries.put(next.auctionID, next);
+                byEndTime.add(next);
+                byBid.add(next);
+            }
+        }
+    }
+}
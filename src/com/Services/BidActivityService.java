@@ -0,0 +1,113 @@
+package com.Services;
+
+import com.Entities.Bid;
+import com.Utilities.RingTimeSeries;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BidActivityService records bid activity over time for each auction and for the whole system.
+ *
+ * <p>Bids are rolled into {@link RingTimeSeries} buckets per second, minute and hour, and charts
+ * read these buckets. An auction's series is fed from the bid table, so it includes bids placed by
+ * other clients: the screen showing the auction passes on the bids it reads, newest bidID last, and
+ * bids at or below the highest bidID already recorded are skipped. The overall series counts the bids
+ * this client's BidService commits. Only the most recently viewed auctions are kept (see
+ * MAX_TRACKED_AUCTIONS).</p>
+ */
+public class BidActivityService {
+
+    // Upper bound on the number of auctions with a series in memory (about 6 KB each).
+    private static final int MAX_TRACKED_AUCTIONS = 5_000;
+
+    private static final RingTimeSeries overall = new RingTimeSeries();
+    // auctionID -> series, least recently used first
+    private static final Map<Integer, Tracked> auctions = Collections.synchronizedMap(
+            new LinkedHashMap<Integer, Tracked>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Tracked> eldest) {
+                    return size() > MAX_TRACKED_AUCTIONS;
+                }
+            });
+
+    /**
+     * An auction's series and the highest bidID recorded in it.
+     */
+    private static final class Tracked {
+        private final RingTimeSeries series = new RingTimeSeries();
+        private int lastBidID;
+
+        private synchronized void record(List<Bid> bids) {
+            List<Bid> ordered = new ArrayList<>(bids);
+            ordered.sort(Comparator.comparingInt(Bid::getBidID));
+            ZoneId zone = ZoneId.systemDefault();
+            for (Bid bid : ordered) {
+                if (bid.getBidID() > lastBidID) {
+                    series.record(bid.getBidTime().atZone(zone).toInstant().toEpochMilli(), 1, bid.getBidAmount());
+                    lastBidID = bid.getBidID();
+                }
+            }
+        }
+    }
+
+    /**
+     * Records bids committed by this client in the overall series. Called by BidService.
+     *
+     * @param count the number of bids written
+     */
+    public static void onBidsPlaced(int count) {
+        overall.record(System.currentTimeMillis(), count, Double.NaN);
+    }
+
+    /**
+     * Records bids read from the bid table in the auction's series, starting it if the auction is not tracked.
+     *
+     * @param auctionID the ID of the auction
+     * @param bids bids of the auction in bidID order, e.g. the ones read after the last bidID shown
+     */
+    public static void onBidsLoaded(int auctionID, List<Bid> bids) {
+        auctions.computeIfAbsent(auctionID, k -> new Tracked()).record(bids);
+    }
+
+    /**
+     * Rebuilds an auction's series from its full bid history, e.g. after bids turned up below the last bidID read.
+     *
+     * @param auctionID the ID of the auction
+     * @param bids all bids of the auction in bidID order
+     */
+    public static void resetAuction(int auctionID, List<Bid> bids) {
+        Tracked tracked = new Tracked();
+        tracked.record(bids);
+        auctions.put(auctionID, tracked);
+    }
+
+    /**
+     * Reads the recent bid activity of one auction.
+     *
+     * @param auctionID the ID of the auction
+     * @param resolution the bucket width
+     * @param buckets the number of buckets
+     * @return the buckets ending now, oldest first (all empty if the auction is not tracked)
+     */
+    public static RingTimeSeries.Buckets getAuctionActivity(int auctionID, RingTimeSeries.Resolution resolution, int buckets) {
+        Tracked tracked = auctions.get(auctionID);
+        RingTimeSeries series = tracked != null ? tracked.series : new RingTimeSeries();
+        return series.read(resolution, buckets, System.currentTimeMillis());
+    }
+
+    /**
+     * Reads the recent bid activity across all auctions. Prices are not tracked overall.
+     *
+     * @param resolution the bucket width
+     * @param buckets the number of buckets
+     * @return the buckets ending now, oldest first
+     */
+    public static RingTimeSeries.Buckets getOverallActivity(RingTimeSeries.Resolution resolution, int buckets) {
+        return overall.read(resolution, buckets, System.currentTimeMillis());
+    }
+}
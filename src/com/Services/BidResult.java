@@ -0,0 +1,83 @@
+package com.Services;
+
+/**
+ * The outcome of a bid request handled by BidService.
+ * It carries a status code together with the auction state after the request was resolved.
+ */
+public class BidResult {
+
+    /**
+     * Result codes returned to the bidding screens.
+     */
+    public enum Status {
+        ACCEPTED,       // the requesting buyer now leads the auction
+        OUTBID,         // the bid was recorded but a competing auto-bid is higher
+        TOO_LOW,        // the amount does not beat the current highest bid or the starting price
+        AUCTION_CLOSED, // the auction is not accepting bids any more
+        RATE_LIMITED    // the buyer or the auction is over its bid rate limit; nothing was written
+    }
+
+    private final Status status;
+    private final int auctionID;
+    private final double highestBid;
+    private final int leadingBuyerID;
+    private final String message;
+    private final boolean replayed;
+
+    public BidResult(Status status, int auctionID, double highestBid, int leadingBuyerID, String message) {
+        this(status, auctionID, highestBid, leadingBuyerID, message, false);
+    }
+
+    private BidResult(Status status, int auctionID, double highestBid, int leadingBuyerID, String message, boolean replayed) {
+        this.status = status;
+        this.auctionID = auctionID;
+        this.highestBid = highestBid;
+        this.leadingBuyerID = leadingBuyerID;
+        this.message = message;
+        this.replayed = replayed;
+    }
+
+    /**
+     * Returns a copy of this result marked as a replay, used when a request key is seen again.
+     *
+     * @return the replayed BidResult
+     */
+    public BidResult asReplay() {
+        return new BidResult(status, auctionID, highestBid, leadingBuyerID, message, true);
+    }
+
+    // Getters
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getAuctionID() {
+        return auctionID;
+    }
+
+    public double getHighestBid() {
+        return highestBid;
+    }
+
+    public int getLeadingBuyerID() {
+        return leadingBuyerID;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return true if this is the stored result of an earlier request with the same key
+     */
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    /**
+     * @return true if the request was recorded, whether or not the buyer ended up leading
+     */
+    public boolean isRecorded() {
+        return status == Status.ACCEPTED || status == Status.OUTBID;
+    }
+}
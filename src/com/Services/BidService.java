@@ -0,0 +1,440 @@
+package com.Services;
+
+import com.DAO.AuctionDAO;
+import com.DAO.BidDAO;
+import com.DAO.BidRequestDAO;
+import com.DAO.ItemDAO;
+import com.DAO.OutboxDAO;
+import com.DAO.ProxyBidDAO;
+import com.Database.DBConnector;
+import com.Database.ReplicaRouter;
+import com.Database.ShardRouter;
+import com.Entities.Auction;
+import com.Entities.Bid;
+import com.Entities.BidRequest;
+import com.Entities.Item;
+import com.Entities.OutboxEvent;
+import com.Entities.ProxyBid;
+import com.Utilities.TokenBucketLimiter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BidService handles manual and proxy (maximum) bids for an auction.
+ *
+ * <p>Every request locks the auction row, loads the registered proxy bids and resolves the
+ * whole bidding war in memory in one step. Only the resulting visible bids are written through
+ * BidDAO: the runner-up's final bid (if it became visible) and the leader's new price. A war
+ * between two auto-bidders therefore costs at most two bid rows instead of one per increment.</p>
+ *
+ * <p>Requests may carry a client-generated idempotency key. The outcome of a recorded request
+ * is stored in bid_request in the same transaction and kept in a bounded in-memory cache, so a
+ * double-click or a retry after a timeout returns the original result instead of bidding twice.
+ * A key reused for another auction or buyer is rejected. Once an hour a job started with the
+ * application ({@link #start()}) deletes the bid requests older than REQUEST_RETENTION_HOURS, long
+ * after any retry of them.</p>
+ *
+ * <p>New requests pass two token buckets, one per buyer and one per auction, before touching the
+ * database. Limits are read from system properties (see the BUYER_/AUCTION_ constants below) and
+ * rejected requests return {@link BidResult.Status#RATE_LIMITED}. A request the auction's bucket
+ * rejects gives the buyer's token back.</p>
+ */
+public class BidService {
+
+    // Upper bound on the number of request keys remembered in memory.
+    private static final int MAX_CACHED_REQUESTS = 10_000;
+    private static final int MAX_REQUEST_KEY_LENGTH = 64;
+
+    // Most recently used request keys and their results; older keys fall back to bid_request.
+    private static final Map<String, RecordedRequest> recentRequests = Collections.synchronizedMap(
+            new LinkedHashMap<String, RecordedRequest>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RecordedRequest> eldest) {
+                    return size() > MAX_CACHED_REQUESTS;
+                }
+            });
+
+    // Bid rate limits, overridable with -Dauction.bid.buyerRate=... etc.
+    private static final double BUYER_RATE_PER_SECOND = doubleProperty("auction.bid.buyerRate", 2.0);
+    private static final int BUYER_BURST = Integer.getInteger("auction.bid.buyerBurst", 5);
+    private static final double AUCTION_RATE_PER_SECOND = doubleProperty("auction.bid.auctionRate", 20.0);
+    private static final int AUCTION_BURST = Integer.getInteger("auction.bid.auctionBurst", 40);
+
+    private static final TokenBucketLimiter buyerLimiter = new TokenBucketLimiter(BUYER_RATE_PER_SECOND, BUYER_BURST);
+    private static final TokenBucketLimiter auctionLimiter = new TokenBucketLimiter(AUCTION_RATE_PER_SECOND, AUCTION_BURST);
+
+    // Overridable with -Dauction.bid.requestRetentionHours=...
+    private static final long REQUEST_RETENTION_HOURS = Long.getLong("auction.bid.requestRetentionHours", 48);
+    private static final long PURGE_INTERVAL_HOURS = 1;
+    private static final int PURGE_BATCH_SIZE = 10_000;
+
+    private static ScheduledExecutorService purgeScheduler;
+
+    /**
+     * Starts the hourly deletion of old bid requests. Called at application startup;
+     * calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (purgeScheduler != null) {
+            return;
+        }
+        purgeScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "bid-request-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purgeScheduler.scheduleAtFixedRate(() -> {
+            try {
+                purgeBidRequests();
+            } catch (SQLException e) {
+                System.err.println("Error deleting old bid requests: " + e.getMessage());
+            }
+        }, 0, PURGE_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Deletes the bid requests older than REQUEST_RETENTION_HOURS on every shard, in batches.
+     *
+     * @return the number of bid requests deleted
+     * @throws SQLException if a delete fails; earlier batches stay deleted
+     */
+    public static long purgeBidRequests() throws SQLException {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(REQUEST_RETENTION_HOURS);
+        long deleted = 0;
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            try (Connection con = DBConnector.openShardConnection(shard)) {
+                int count;
+                do {
+                    count = BidRequestDAO.deleteOlderThan(con, cutoff, PURGE_BATCH_SIZE);
+                    deleted += count;
+                } while (count == PURGE_BATCH_SIZE);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Places a manual bid for the exact amount entered by the buyer.
+     *
+     * @param auctionID the ID of the auction
+     * @param buyerID the ID of the buyer placing the bid
+     * @param bidAmount the amount of the bid
+     * @return the BidResult describing the auction after the bid was resolved
+     * @throws SQLException if a database access error occurs; the transaction is rolled back
+     */
+    public static BidResult placeBid(int auctionID, int buyerID, double bidAmount) throws SQLException {
+        return submitBid(auctionID, buyerID, bidAmount, false, null);
+    }
+
+    /**
+     * Places a manual bid identified by a client-generated idempotency key.
+     * Repeating the call with the same key returns the original result without bidding again.
+     *
+     * @param auctionID the ID of the auction
+     * @param buyerID the ID of the buyer placing the bid
+     * @param bidAmount the amount of the bid
+     * @param requestKey the idempotency key of this bid request, at most 64 characters
+     * @return the BidResult describing the auction after the bid was resolved
+     * @throws SQLException if a database access error occurs; the transaction is rolled back
+     */
+    public static BidResult placeBid(int auctionID, int buyerID, double bidAmount, String requestKey) throws SQLException {
+        return submitBid(auctionID, buyerID, bidAmount, false, requestKey);
+    }
+
+    /**
+     * Registers (or raises) a proxy bid. The system bids on the buyer's behalf,
+     * one increment above the competition, up to maxAmount.
+     *
+     * @param auctionID the ID of the auction
+     * @param buyerID the ID of the buyer registering the proxy
+     * @param maxAmount the highest amount the buyer is willing to pay
+     * @return the BidResult describing the auction after the proxy was resolved
+     * @throws SQLException if a database access error occurs; the transaction is rolled back
+     */
+    public static BidResult placeProxyBid(int auctionID, int buyerID, double maxAmount) throws SQLException {
+        return submitBid(auctionID, buyerID, maxAmount, true, null);
+    }
+
+    /**
+     * Registers (or raises) a proxy bid identified by a client-generated idempotency key.
+     *
+     * @param auctionID the ID of the auction
+     * @param buyerID the ID of the buyer registering the proxy
+     * @param maxAmount the highest amount the buyer is willing to pay
+     * @param requestKey the idempotency key of this bid request, at most 64 characters
+     * @return the BidResult describing the auction after the proxy was resolved
+     * @throws SQLException if a database access error occurs; the transaction is rolled back
+     */
+    public static BidResult placeProxyBid(int auctionID, int buyerID, double maxAmount, String requestKey) throws SQLException {
+        return submitBid(auctionID, buyerID, maxAmount, true, requestKey);
+    }
+
+    /**
+     * Returns the minimum step between two visible bids at the given price level.
+     *
+     * @param price the current price
+     * @return the bid increment
+     */
+    public static double getBidIncrement(double price) {
+        if (price < 100) {
+            return 1.00;
+        } else if (price < 1000) {
+            return 5.00;
+        }
+        return 10.00;
+    }
+
+    /**
+     * Runs a bid request inside one transaction holding the auction row lock, on the auction's shard.
+     */
+    private static BidResult submitBid(int auctionID, int buyerID, double amount, boolean proxy, String requestKey) throws SQLException {
+        if (requestKey != null) {
+            if (requestKey.isEmpty() || requestKey.length() > MAX_REQUEST_KEY_LENGTH) {
+                throw new IllegalArgumentException("Bid request key must be 1 to " + MAX_REQUEST_KEY_LENGTH + " characters.");
+            }
+            RecordedRequest cached = recentRequests.get(requestKey);
+            if (cached != null) {
+                checkSameRequest(requestKey, cached.auctionID, cached.buyerID, auctionID, buyerID);
+                return cached.result.asReplay();
+            }
+        }
+
+        boolean buyerAllowed = buyerLimiter.tryAcquire(buyerID);
+        if (!buyerAllowed || !auctionLimiter.tryAcquire(auctionID)) {
+            if (buyerAllowed) {
+                buyerLimiter.refund(buyerID); // rejected by the auction's limit, so it costs the buyer nothing
+            }
+            return new BidResult(BidResult.Status.RATE_LIMITED, auctionID, 0.0, 0,
+                    "You are bidding too quickly. Please wait a moment and try again.");
+        }
+
+        amount = roundToCents(amount);
+        Connection con = DBConnector.getShardConnection(ShardRouter.shardOf(auctionID));
+        boolean autoCommit = con.getAutoCommit();
+
+        try {
+            con.setAutoCommit(false);
+
+            Auction auction = AuctionDAO.getAuctionByIDForUpdate(con, auctionID);
+
+            // Checked under the row lock, so a concurrent retry waits for the first attempt to commit.
+            if (requestKey != null) {
+                BidRequest previous = BidRequestDAO.getBidRequestByKey(con, requestKey);
+                if (previous != null) {
+                    con.rollback();
+                    checkSameRequest(requestKey, previous.getAuctionID(), previous.getBuyerID(), auctionID, buyerID);
+                    BidResult original = toBidResult(previous);
+                    recentRequests.put(requestKey, new RecordedRequest(auctionID, buyerID, original));
+                    return original.asReplay();
+                }
+            }
+
+            if (auction == null || !auction.getAuctionStatus().equalsIgnoreCase("STARTED")
+                    || !LocalDateTime.now().isBefore(auction.getAuctionEndTime())) {
+                con.rollback();
+                return new BidResult(BidResult.Status.AUCTION_CLOSED, auctionID,
+                        auction == null ? 0.0 : auction.getAuctionCurrentHighestBid(),
+                        auction == null ? 0 : auction.getBuyerID(),
+                        "This auction is no longer accepting bids.");
+            }
+
+            double currentBid = auction.getAuctionCurrentHighestBid();
+            Item item = ItemDAO.getItemByID(auction.getItemID());
+            double startingPrice = item != null ? item.getItemStartingPrice() : 0.0;
+
+            if (amount <= currentBid) {
+                con.rollback();
+                return new BidResult(BidResult.Status.TOO_LOW, auctionID, currentBid, auction.getBuyerID(),
+                        "Your bid must be higher than the current highest bid.");
+            } else if (amount < startingPrice) {
+                con.rollback();
+                return new BidResult(BidResult.Status.TOO_LOW, auctionID, currentBid, auction.getBuyerID(),
+                        "Your bid must be higher than the starting price.");
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            if (proxy) {
+                ProxyBidDAO.saveProxyBid(con, new ProxyBid(0, auctionID, buyerID, amount, now));
+            }
+            List<ProxyBid> proxyBids = ProxyBidDAO.getProxyBidsByAuctionID(con, auctionID);
+
+            // Resolve the bidding war in memory.
+            List<Candidate> candidates = collectCandidates(auction, proxyBids, buyerID, amount, proxy);
+            Candidate winner = candidates.get(0);
+            Candidate runnerUp = candidates.size() > 1 ? candidates.get(1) : null;
+
+            double newPrice;
+            if (winner.exact) {
+                newPrice = winner.maxAmount;
+            } else if (runnerUp != null) {
+                newPrice = Math.min(winner.maxAmount, runnerUp.maxAmount + getBidIncrement(runnerUp.maxAmount));
+            } else {
+                newPrice = winner.buyerID == auction.getBuyerID() ? currentBid : startingPrice;
+            }
+            newPrice = roundToCents(Math.max(newPrice, Math.max(currentBid, startingPrice)));
+
+            // Persist only the visible outcome.
+            List<Integer> bidders = new ArrayList<>(2);
+            List<OutboxEvent> events = new ArrayList<>(2);
+            if (runnerUp != null && runnerUp.maxAmount > currentBid) {
+                Bid bid = new Bid(0, runnerUp.maxAmount, now, auctionID, runnerUp.buyerID);
+                BidDAO.createBid(con, bid);
+                events.add(OutboxService.bidPlaced(bid));
+                bidders.add(runnerUp.buyerID);
+            }
+            boolean leaderChanged = winner.buyerID != auction.getBuyerID();
+            if (leaderChanged || newPrice != currentBid) {
+                Bid bid = new Bid(0, newPrice, now, auctionID, winner.buyerID);
+                BidDAO.createBid(con, bid);
+                AuctionDAO.updateAuctionHighestBid(con, auctionID, newPrice, winner.buyerID);
+                events.add(OutboxService.bidPlaced(bid));
+                bidders.add(winner.buyerID);
+            }
+            OutboxDAO.appendEvents(con, events);
+            int bidsWritten = bidders.size();
+
+            BidResult result;
+            if (winner.buyerID == buyerID) {
+                result = new BidResult(BidResult.Status.ACCEPTED, auctionID, newPrice, winner.buyerID,
+                        proxy ? "Auto-bid registered. You are the highest bidder." : "Bid placed successfully!");
+            } else {
+                result = new BidResult(BidResult.Status.OUTBID, auctionID, newPrice, winner.buyerID,
+                        "Another bidder's auto-bid is higher. Current highest bid: €" + String.format("%.2f", newPrice));
+            }
+
+            if (requestKey != null) {
+                BidRequestDAO.createBidRequest(con, new BidRequest(requestKey, auctionID, buyerID,
+                        result.getStatus().name(), newPrice, winner.buyerID, now));
+            }
+            con.commit();
+            ReplicaRouter.recordWrite();
+
+            if (requestKey != null) {
+                recentRequests.put(requestKey, new RecordedRequest(auctionID, buyerID, result));
+            }
+            if (bidsWritten > 0) {
+                SearchService.onBidsPlaced(auctionID, bidsWritten);
+                AuctionIndex.onHighestBidChanged(auctionID, newPrice);
+                StatisticsService.onBidsPlaced(bidsWritten);
+                BidActivityService.onBidsPlaced(bidsWritten);
+                for (int bidder : bidders) {
+                    SketchService.onBidPlaced(auctionID, bidder);
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Builds the list of competing bidders, one entry per buyer, sorted by precedence:
+     * highest maximum first, ties going to the standing leader, then the earliest proxy,
+     * then the new manual bid.
+     */
+    private static List<Candidate> collectCandidates(Auction auction, List<ProxyBid> proxyBids,
+                                                     int buyerID, double amount, boolean proxy) {
+        Map<Integer, Candidate> byBuyer = new LinkedHashMap<>();
+        if (auction.getBuyerID() != 0) {
+            byBuyer.put(auction.getBuyerID(), new Candidate(auction.getBuyerID(), auction.getAuctionCurrentHighestBid(), true));
+        }
+        for (ProxyBid proxyBid : proxyBids) {
+            offer(byBuyer, new Candidate(proxyBid.getBuyerID(), proxyBid.getMaxAmount(), false));
+        }
+        if (!proxy) {
+            offer(byBuyer, new Candidate(buyerID, amount, true));
+        }
+
+        List<Candidate> candidates = new ArrayList<>(byBuyer.values());
+        candidates.sort((a, b) -> Double.compare(b.maxAmount, a.maxAmount)); // stable, keeps precedence on ties
+        return candidates;
+    }
+
+    /**
+     * Merges a candidate into the map, keeping the buyer's original precedence and highest maximum.
+     */
+    private static void offer(Map<Integer, Candidate> byBuyer, Candidate candidate) {
+        Candidate existing = byBuyer.get(candidate.buyerID);
+        if (existing == null) {
+            byBuyer.put(candidate.buyerID, candidate);
+        } else if (candidate.maxAmount > existing.maxAmount) {
+            existing.maxAmount = candidate.maxAmount;
+            existing.exact = candidate.exact;
+        }
+    }
+
+    /**
+     * Rejects a request key that was first used for another auction or buyer, so a client bug or a
+     * guessed key never returns someone else's result.
+     */
+    private static void checkSameRequest(String requestKey, int recordedAuctionID, int recordedBuyerID,
+                                         int auctionID, int buyerID) {
+        if (recordedAuctionID != auctionID || recordedBuyerID != buyerID) {
+            throw new IllegalArgumentException("Bid request key " + requestKey + " was already used for another bid.");
+        }
+    }
+
+    /**
+     * Rebuilds the result of an earlier request from its bid_request row.
+     */
+    private static BidResult toBidResult(BidRequest bidRequest) {
+        BidResult.Status status = BidResult.Status.valueOf(bidRequest.getResultStatus());
+        String message = status == BidResult.Status.ACCEPTED
+                ? "Your bid was already placed. You are the highest bidder."
+                : "Your bid was already placed. Current highest bid: €" + String.format("%.2f", bidRequest.getHighestBid());
+        return new BidResult(status, bidRequest.getAuctionID(), bidRequest.getHighestBid(),
+                bidRequest.getLeadingBuyerID(), message);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static double roundToCents(double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    /**
+     * A buyer competing in the in-memory resolution. Exact candidates (manual bids and the
+     * standing leader without a proxy) bid precisely their amount; proxies bid only what is needed.
+     */
+    private static class Candidate {
+        private final int buyerID;
+        private double maxAmount;
+        private boolean exact;
+
+        private Candidate(int buyerID, double maxAmount, boolean exact) {
+            this.buyerID = buyerID;
+            this.maxAmount = maxAmount;
+            this.exact = exact;
+        }
+    }
+
+    /**
+     * A request key with the auction and buyer it was used for, and its result.
+     */
+    private static class RecordedRequest {
+        private final int auctionID;
+        private final int buyerID;
+        private final BidResult result;
+
+        private RecordedRequest(int auctionID, int buyerID, BidResult result) {
+            this.auctionID = auctionID;
+            this.buyerID = buyerID;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.Services;
+
+import com.DAO.AuctionDAO;
+import com.DAO.ItemDAO;
+import com.DAO.OutboxDAO;
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Entities.Auction;
+import com.Entities.Item;
+import com.Entities.OutboxEvent;
+import com.Utilities.CsvReader;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+
+/**
+ * BulkImportService creates many auctions at once from a CSV file and a directory of images.
+ *
+ * <p>The CSV is parsed one record at a time. Each record is validated and its image is loaded and
+ * shrunk to a thumbnail on a worker pool while parsing continues. Every {@link #CHUNK_SIZE} rows the
+ * items and auctions are written with two JDBC batches (multi-row INSERTs) on a dedicated connection
+ * and committed, so memory stays bounded and a failure only loses the current chunk.</p>
+ *
+ * <p>With shards configured (see ShardRouter) the items and the auctions placed on shard 0 are
+ * committed first, then the auctions of each other shard on that shard's own connection. If a later
+ * shard fails, the items of its auctions stay behind without an auction.</p>
+ *
+ * <p>Expected columns, with a header row: itemName, itemDescription, startingPrice,
+ * endTime (yyyy-MM-dd HH:mm), imageFile (relative to the image directory).</p>
+ */
+public class BulkImportService {
+
+    public static final int CHUNK_SIZE = 500;
+    private static final int THUMBNAIL_MAX_SIZE = 400;
+    private static final long MAX_IMAGE_BYTES = 10_000_000; // same limit as CreateAuctionGUI
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final DateTimeFormatter END_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String[] COLUMNS = {"itemName", "itemDescription", "startingPrice", "endTime", "imageFile"};
+
+    /**
+     * Receives progress updates after every committed chunk.
+     */
+    public interface ProgressListener {
+        void onProgress(int imported, int skipped);
+    }
+
+    /**
+     * Imports listings for a seller.
+     *
+     * @param csvFile the CSV file describing the listings
+     * @param imageDir the directory containing the image files named in the CSV
+     * @param sellerID the ID of the seller the auctions are created for
+     * @param listener receives progress after each chunk; may be null
+     * @return an ImportSummary with the number of imported and skipped rows
+     * @throws IOException if the CSV cannot be read or has the wrong header
+     * @throws SQLException if a chunk cannot be written; earlier chunks stay committed
+     */
+    public static ImportSummary importListings(File csvFile, File imageDir, int sellerID, ProgressListener listener)
+            throws IOException, SQLException {
+        ImportSummary summary = new ImportSummary();
+        Connection[] shardCons = new Connection[ShardRouter.getShardCount()]; // opened on first use, but shard 0
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(csvFile.toPath(), StandardCharsets.UTF_8));
+             Connection con = DBConnector.openConnection()) {
+            con.setAutoCommit(false);
+            shardCons[0] = con;
+
+            List<String> header = csv.readRecord();
+            if (header == null || header.size() < COLUMNS.length
+                    || !header.get(0).trim().replace("\uFEFF", "").equalsIgnoreCase(COLUMNS[0])) {
+                throw new IOException("CSV header must be: " + String.join(",", COLUMNS));
+            }
+
+            List<Future<Listing>> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue; // empty line
+                }
+                final List<String> fields = record;
+                final int line = csv.getLineNumber();
+                chunk.add(pool.submit(() -> prepareListing(fields, line, imageDir)));
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    insertChunk(shardCons, chunk, sellerID, summary);
+                    chunk.clear();
+                    if (listener != null) listener.onProgress(summary.getImported(), summary.getSkipped());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(shardCons, chunk, sellerID, summary);
+                if (listener != null) listener.onProgress(summary.getImported(), summary.getSkipped());
+            }
+        } finally {
+            pool.shutdownNow();
+            for (int shard = 1; shard < shardCons.length; shard++) {
+                if (shardCons[shard] != null) shardCons[shard].close();
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Waits for the prepared listings of a chunk, writes them with two batches and commits,
+     * once per shard that gets auctions.
+     */
+    private static void insertChunk(Connection[] shardCons, List<Future<Listing>> chunk, int sellerID, ImportSummary summary)
+            throws SQLException {
+        Connection con = shardCons[0];
+        List<Item> items = new ArrayList<>(chunk.size());
+        List<LocalDateTime> endTimes = new ArrayList<>(chunk.size());
+
+        for (Future<Listing> future : chunk) {
+            try {
+                Listing listing = future.get();
+                items.add(listing.item);
+                endTimes.add(listing.endTime);
+            } catch (ExecutionException e) {
+                summary.addError(e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Import interrupted.", e);
+            }
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<Auction>> byShard;
+        try {
+            ItemDAO.createItems(con, items);
+
+            LocalDateTime start = LocalDateTime.now();
+            List<Auction> auctions = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                auctions.add(new Auction(0, start, endTimes.get(i), 0.0, "STARTED", items.get(i).getItemID(), sellerID, 0));
+            }
+            byShard = AuctionDAO.assignShards(auctions);
+            insertAuctions(con, byShard.getOrDefault(0, List.of()));
+
+            con.commit();
+            SearchService.onItemsSaved(items);
+        } catch (SQLException e) {
+            con.rollback();
+            throw new SQLException("Import stopped after " + summary.getImported() + " listings: " + e.getMessage(), e);
+        }
+        saved(byShard.getOrDefault(0, List.of()), summary);
+
+        for (Map.Entry<Integer, List<Auction>> shard : byShard.entrySet()) {
+            if (shard.getKey() == 0) {
+                continue;
+            }
+            if (shardCons[shard.getKey()] == null) {
+                shardCons[shard.getKey()] = DBConnector.openShardConnection(shard.getKey());
+                shardCons[shard.getKey()].setAutoCommit(false);
+            }
+            Connection shardCon = shardCons[shard.getKey()];
+            try {
+                insertAuctions(shardCon, shard.getValue());
+                shardCon.commit();
+            } catch (SQLException e) {
+                shardCon.rollback();
+                throw new SQLException("Import stopped after " + summary.getImported() + " listings: " + e.getMessage(), e);
+            }
+            saved(shard.getValue(), summary);
+        }
+    }
+
+    // Writes the auctions of one shard with their outbox events; the caller commits.
+    private static void insertAuctions(Connection con, List<Auction> auctions) throws SQLException {
+        if (auctions.isEmpty()) {
+            return;
+        }
+        AuctionDAO.createAuctions(con, auctions);
+        List<OutboxEvent> events = new ArrayList<>(auctions.size());
+        for (Auction auction : auctions) {
+            events.add(OutboxService.auctionEvent(OutboxService.AUCTION_CREATED, auction));
+        }
+        OutboxDAO.appendEvents(con, events);
+    }
+
+    private static void saved(List<Auction> auctions, ImportSummary summary) {
+        summary.imported += auctions.size();
+        SearchService.onAuctionsSaved(auctions);
+        AuctionIndex.onAuctionsSaved(auctions);
+        StatisticsService.onAuctionsSaved(auctions);
+    }
+
+    /**
+     * Validates one CSV record and builds its Item with a thumbnail image. Runs on the worker pool.
+     *
+     * @throws IllegalArgumentException with a line-numbered message if the record is invalid
+     */
+    private static Listing prepareListing(List<String> fields, int line, File imageDir) {
+        if (fields.size() < COLUMNS.length) {
+            throw new IllegalArgumentException("Line " + line + ": expected " + COLUMNS.length + " columns.");
+        }
+        String name = fields.get(0).trim();
+        String description = fields.get(1).trim();
+        if (name.isEmpty() || name.length() > 200) {
+            throw new IllegalArgumentException("Line " + line + ": item name must be 1 to 200 characters.");
+        }
+        if (description.isEmpty()) {
+            throw new IllegalArgumentException("Line " + line + ": item description cannot be empty.");
+        }
+
+        double startingPrice;
+        LocalDateTime endTime;
+        try {
+            startingPrice = Double.parseDouble(fields.get(2).trim());
+            endTime = LocalDateTime.parse(fields.get(3).trim(), END_TIME_FORMAT);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + line + ": invalid starting price or end time.");
+        }
+        if (startingPrice <= 0) {
+            throw new IllegalArgumentException("Line " + line + ": starting price must be greater than 0.");
+        }
+        if (!endTime.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Line " + line + ": end time must be in the future.");
+        }
+
+        File imageFile = new File(imageDir, fields.get(4).trim());
+        if (!imageFile.isFile() || imageFile.length() > MAX_IMAGE_BYTES) {
+            throw new IllegalArgumentException("Line " + line + ": image missing or larger than 10MB: " + imageFile.getName());
+        }
+        byte[] thumbnail;
+        try {
+            thumbnail = createThumbnail(imageFile);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Line " + line + ": cannot read image " + imageFile.getName() + ": " + e.getMessage());
+        }
+        if (thumbnail == null) {
+            throw new IllegalArgumentException("Line " + line + ": unsupported image format: " + imageFile.getName());
+        }
+
+        Item item = new Item();
+        item.setItemName(name);
+        item.setItemDescription(description);
+        item.setItemStartingPrice(startingPrice);
+        item.setItemImage(thumbnail);
+        return new Listing(item, endTime);
+    }
+
+    /**
+     * Scales an image down so neither side exceeds THUMBNAIL_MAX_SIZE. Small images are stored as they are.
+     *
+     * @return the encoded thumbnail, or null if the file is not a readable image
+     */
+    private static byte[] createThumbnail(File imageFile) throws IOException {
+        BufferedImage source = ImageIO.read(imageFile);
+        if (source == null) {
+            return null;
+        }
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) THUMBNAIL_MAX_SIZE / Math.max(width, height));
+        if (scale == 1.0) {
+            return Files.readAllBytes(imageFile.toPath());
+        }
+
+        int thumbWidth = Math.max(1, (int) Math.round(width * scale));
+        int thumbHeight = Math.max(1, (int) Math.round(height * scale));
+        BufferedImage thumbnail = new BufferedImage(thumbWidth, thumbHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, thumbWidth, thumbHeight, null);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, "jpg", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * A validated CSV row ready to be inserted.
+     */
+    private static class Listing {
+        private final Item item;
+        private final LocalDateTime endTime;
+
+        private Listing(Item item, LocalDateTime endTime) {
+            this.item = item;
+            this.endTime = endTime;
+        }
+    }
+
+    /**
+     * The outcome of an import: how many listings were created and why rows were skipped.
+     */
+    public static class ImportSummary {
+        private int imported;
+        private int skipped;
+        private final List<String> errors = new ArrayList<>();
+
+        private void addError(String error) {
+            skipped++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return the first skipped-row messages (at most 100)
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+}
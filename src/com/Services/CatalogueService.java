@@ -0,0 +1,272 @@
+package com.Services;
+
+import com.DAO.CatalogueDAO;
+import com.Entities.Auction;
+import com.Entities.Catalogue;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CatalogueService manages catalogues and keeps an in-memory index of catalogue membership.
+ *
+ * <p>All catalogues and their memberships are read once on first use. After that, membership
+ * questions ("which catalogues is this auction in?", "is it in this one?") are answered from
+ * memory in both directions, and batch additions only write the auctions that are not members yet.
+ * All changes go through this class, which updates the database first and then the index.</p>
+ */
+public class CatalogueService {
+
+    private static final int MAX_TITLE_LENGTH = 200;
+
+    // catalogueID -> title
+    private static final Map<Integer, String> titles = new ConcurrentHashMap<>();
+    // catalogueID -> auctionIDs
+    private static final Map<Integer, Set<Integer>> auctionsByCatalogue = new ConcurrentHashMap<>();
+    // auctionID -> catalogueIDs
+    private static final Map<Integer, Set<Integer>> cataloguesByAuction = new ConcurrentHashMap<>();
+    private static volatile boolean loaded;
+
+    /**
+     * Creates a catalogue with an initial set of auctions.
+     *
+     * @param title the catalogue title, unique and at most 200 characters
+     * @param auctionIDs the auctions to include; may be empty
+     * @return the created Catalogue with its generated ID
+     * @throws SQLException if a database access error occurs
+     */
+    public static Catalogue createCatalogue(String title, Collection<Integer> auctionIDs) throws SQLException {
+        validateTitle(title);
+        ensureLoaded();
+        Catalogue catalogue = new Catalogue(0, title.trim());
+        catalogue.getAuctionsList().addAll(new LinkedHashSet<>(auctionIDs));
+        CatalogueDAO.createCatalogue(catalogue);
+
+        synchronized (CatalogueService.class) {
+            titles.put(catalogue.getCatalogueID(), catalogue.getCatalogueTitle());
+            auctionsByCatalogue.put(catalogue.getCatalogueID(), ConcurrentHashMap.newKeySet());
+            index(catalogue.getCatalogueID(), catalogue.getAuctionsList());
+        }
+        return catalogue;
+    }
+
+    /**
+     * Renames a catalogue and replaces its list of auctions. The title is trimmed as on creation.
+     *
+     * @param catalogue the catalogue with its new title and auctions
+     * @throws SQLException if a database access error occurs or the catalogue was deleted meanwhile
+     */
+    public static void updateCatalogue(Catalogue catalogue) throws SQLException {
+        validateTitle(catalogue.getCatalogueTitle());
+        ensureLoaded();
+        requireCatalogue(catalogue.getCatalogueID());
+        catalogue.setCatalogueTitle(catalogue.getCatalogueTitle().trim());
+        CatalogueDAO.updateCatalogue(catalogue);
+
+        synchronized (CatalogueService.class) {
+            unindex(catalogue.getCatalogueID(), new ArrayList<>(getAuctionIDs(catalogue.getCatalogueID())));
+            titles.put(catalogue.getCatalogueID(), catalogue.getCatalogueTitle());
+            auctionsByCatalogue.putIfAbsent(catalogue.getCatalogueID(), ConcurrentHashMap.newKeySet());
+            index(catalogue.getCatalogueID(), catalogue.getAuctionsList());
+        }
+    }
+
+    /**
+     * Deletes a catalogue and its memberships. The auctions themselves are not touched.
+     *
+     * @param catalogueID the ID of the catalogue
+     * @throws SQLException if a database access error occurs
+     */
+    public static void deleteCatalogue(int catalogueID) throws SQLException {
+        ensureLoaded();
+        CatalogueDAO.deleteCatalogue(catalogueID);
+
+        synchronized (CatalogueService.class) {
+            unindex(catalogueID, new ArrayList<>(getAuctionIDs(catalogueID)));
+            auctionsByCatalogue.remove(catalogueID);
+            titles.remove(catalogueID);
+        }
+    }
+
+    /**
+     * Adds auctions to a catalogue with one batch. Auctions that are already members are skipped.
+     *
+     * @param catalogueID the ID of the catalogue
+     * @param auctionIDs the auctions to add
+     * @return the number of auctions actually added
+     * @throws SQLException if a database access error occurs
+     */
+    public static int addAuctions(int catalogueID, Collection<Integer> auctionIDs) throws SQLException {
+        ensureLoaded();
+        requireCatalogue(catalogueID);
+        Set<Integer> members = getAuctionIDs(catalogueID);
+        List<Integer> toAdd = new ArrayList<>();
+        for (int auctionID : new LinkedHashSet<>(auctionIDs)) {
+            if (!members.contains(auctionID)) toAdd.add(auctionID);
+        }
+        if (toAdd.isEmpty()) {
+            return 0;
+        }
+        CatalogueDAO.addAuctionsToCatalogue(catalogueID, toAdd);
+        synchronized (CatalogueService.class) {
+            index(catalogueID, toAdd);
+        }
+        return toAdd.size();
+    }
+
+    /**
+     * Removes auctions from a catalogue with one batch. Auctions that are not members are skipped.
+     *
+     * @param catalogueID the ID of the catalogue
+     * @param auctionIDs the auctions to remove
+     * @return the number of auctions actually removed
+     * @throws SQLException if a database access error occurs
+     */
+    public static int removeAuctions(int catalogueID, Collection<Integer> auctionIDs) throws SQLException {
+        ensureLoaded();
+        requireCatalogue(catalogueID);
+        Set<Integer> members = getAuctionIDs(catalogueID);
+        List<Integer> toRemove = new ArrayList<>();
+        for (int auctionID : new LinkedHashSet<>(auctionIDs)) {
+            if (members.contains(auctionID)) toRemove.add(auctionID);
+        }
+        if (toRemove.isEmpty()) {
+            return 0;
+        }
+        CatalogueDAO.removeAuctionsFromCatalogue(catalogueID, toRemove);
+        synchronized (CatalogueService.class) {
+            unindex(catalogueID, toRemove);
+        }
+        return toRemove.size();
+    }
+
+    /**
+     * Drops auctions from the membership index after their memberships were deleted together with
+     * the auctions. Called by ArchiveService and AuctionDAO.
+     *
+     * @param auctionIDs the removed auctions
+     */
+    public static synchronized void onAuctionsRemoved(Collection<Integer> auctionIDs) {
+        if (!loaded) {
+            return;
+        }
+        for (int auctionID : auctionIDs) {
+            Set<Integer> catalogues = cataloguesByAuction.get(auctionID);
+            if (catalogues == null) {
+                continue;
+            }
+            for (int catalogueID : new ArrayList<>(catalogues)) {
+                unindex(catalogueID, Collections.singletonList(auctionID));
+            }
+        }
+    }
+
+    /**
+     * Retrieves the auctions of a catalogue with a single indexed query, ending soonest first.
+     *
+     * @param catalogueID the ID of the catalogue
+     * @return the auctions in the catalogue
+     * @throws SQLException if a database access error occurs
+     */
+    public static List<Auction> browseCatalogue(int catalogueID) throws SQLException {
+        return CatalogueDAO.getAuctionsInCatalogue(catalogueID);
+    }
+
+    /**
+     * @return all catalogues with their auction IDs, read from memory
+     * @throws SQLException if the index has to be loaded and the database cannot be read
+     */
+    public static List<Catalogue> getCatalogues() throws SQLException {
+        ensureLoaded();
+        List<Catalogue> catalogues = new ArrayList<>();
+        for (Map.Entry<Integer, String> e : titles.entrySet()) {
+            Catalogue catalogue = new Catalogue(e.getKey(), e.getValue());
+            catalogue.getAuctionsList().addAll(getAuctionIDs(e.getKey()));
+            catalogues.add(catalogue);
+        }
+        catalogues.sort((a, b) -> Integer.compare(a.getCatalogueID(), b.getCatalogueID()));
+        return catalogues;
+    }
+
+    /**
+     * @param catalogueID the ID of a catalogue
+     * @return the IDs of its auctions (read-only view), empty if the catalogue is unknown
+     * @throws SQLException if the index has to be loaded and the database cannot be read
+     */
+    public static Set<Integer> getAuctionIDs(int catalogueID) throws SQLException {
+        ensureLoaded();
+        Set<Integer> members = auctionsByCatalogue.get(catalogueID);
+        return members == null ? Collections.emptySet() : Collections.unmodifiableSet(members);
+    }
+
+    /**
+     * @param auctionID the ID of an auction
+     * @return the IDs of the catalogues containing it (read-only view)
+     * @throws SQLException if the index has to be loaded and the database cannot be read
+     */
+    public static Set<Integer> getCatalogueIDs(int auctionID) throws SQLException {
+        ensureLoaded();
+        Set<Integer> catalogues = cataloguesByAuction.get(auctionID);
+        return catalogues == null ? Collections.emptySet() : Collections.unmodifiableSet(catalogues);
+    }
+
+    /**
+     * @param catalogueID the ID of a catalogue
+     * @param auctionID the ID of an auction
+     * @return true if the auction is in the catalogue
+     * @throws SQLException if the index has to be loaded and the database cannot be read
+     */
+    public static boolean isInCatalogue(int catalogueID, int auctionID) throws SQLException {
+        return getAuctionIDs(catalogueID).contains(auctionID);
+    }
+
+    private static synchronized void ensureLoaded() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        for (Catalogue catalogue : CatalogueDAO.getAllCatalogues()) {
+            titles.put(catalogue.getCatalogueID(), catalogue.getCatalogueTitle());
+            auctionsByCatalogue.put(catalogue.getCatalogueID(), ConcurrentHashMap.newKeySet());
+            index(catalogue.getCatalogueID(), catalogue.getAuctionsList());
+        }
+        loaded = true;
+    }
+
+    private static void index(int catalogueID, Collection<Integer> auctionIDs) {
+        Set<Integer> members = auctionsByCatalogue.computeIfAbsent(catalogueID, k -> ConcurrentHashMap.newKeySet());
+        for (int auctionID : auctionIDs) {
+            members.add(auctionID);
+            cataloguesByAuction.computeIfAbsent(auctionID, k -> ConcurrentHashMap.newKeySet()).add(catalogueID);
+        }
+    }
+
+    private static void unindex(int catalogueID, Collection<Integer> auctionIDs) {
+        Set<Integer> members = auctionsByCatalogue.get(catalogueID);
+        for (int auctionID : auctionIDs) {
+            if (members != null) members.remove(auctionID);
+            Set<Integer> catalogues = cataloguesByAuction.get(auctionID);
+            if (catalogues != null) {
+                catalogues.remove(catalogueID);
+                if (catalogues.isEmpty()) cataloguesByAuction.remove(auctionID);
+            }
+        }
+    }
+
+    private static void requireCatalogue(int catalogueID) {
+        if (!titles.containsKey(catalogueID)) {
+            throw new IllegalArgumentException("Catalogue " + catalogueID + " does not exist.");
+        }
+    }
+
+    private static void validateTitle(String title) {
+        if (title == null || title.trim().isEmpty() || title.trim().length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("Catalogue title must be 1 to " + MAX_TITLE_LENGTH + " characters.");
+        }
+    }
+}
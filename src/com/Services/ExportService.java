@@ -0,0 +1,291 @@
+package com.Services;
+
+import com.DAO.ExportDAO;
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Utilities.ChannelWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ExportService writes the auction, bid and payment tables to CSV or JSON files for administrators.
+ *
+ * <p>Rows are streamed from the database (see {@link ExportDAO}) and each one is formatted into a
+ * reused StringBuilder and encoded into a fixed buffer that is written to a FileChannel, optionally
+ * through gzip. Nothing grows with the size of the table, so exporting tens of millions of bids runs
+ * in constant memory. A partially written file is deleted if the export fails.</p>
+ *
+ * <p>With shards configured (see ShardRouter) the shards are streamed one after the other into the
+ * same file.</p>
+ */
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    /**
+     * The tables that can be exported.
+     */
+    public enum Table {
+        AUCTIONS("auction"),
+        BIDS("bid"),
+        PAYMENTS("payment");
+
+        private final String tableName;
+
+        Table(String tableName) {
+            this.tableName = tableName;
+        }
+    }
+
+    /**
+     * The output formats: CSV with a header row, or a JSON array with one object per row.
+     */
+    public enum Format {
+        CSV("csv"),
+        JSON("json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Receives progress updates every few thousand rows.
+     */
+    public interface ProgressListener {
+        /**
+         * @param rows the number of rows written so far
+         * @param estimatedTotal the estimated number of rows in the table, or 0 if unknown
+         */
+        void onProgress(long rows, long estimatedTotal);
+    }
+
+    /**
+     * Exports one table to a file, replacing the file if it exists.
+     *
+     * @param table the table to export
+     * @param format the output format
+     * @param file the file to write
+     * @param gzip whether to compress the output with gzip
+     * @param listener receives progress while rows are written; may be null
+     * @return the number of rows exported
+     * @throws SQLException if the table cannot be read
+     * @throws IOException if the file cannot be written
+     */
+    public static long export(Table table, Format format, File file, boolean gzip, ProgressListener listener)
+            throws SQLException, IOException {
+        boolean completed = false;
+        try (ChannelWriter out = new ChannelWriter(openChannel(file, gzip), BUFFER_SIZE)) {
+            long estimatedTotal = 0;
+            for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+                try (Connection con = DBConnector.openShardConnection(shard)) {
+                    estimatedTotal += ExportDAO.estimateRowCount(con, table.tableName);
+                }
+            }
+            RowWriter writer = new RowWriter(out, format, estimatedTotal, listener);
+
+            long rows = 0;
+            for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+                try (Connection con = DBConnector.openShardConnection(shard)) {
+                    switch (table) {
+                        case AUCTIONS:
+                            rows += ExportDAO.streamAuctions(con, writer);
+                            break;
+                        case BIDS:
+                            rows += ExportDAO.streamBids(con, writer);
+                            break;
+                        default:
+                            rows += ExportDAO.streamPayments(con, writer);
+                            break;
+                    }
+                }
+            }
+            writer.finish();
+            if (listener != null) {
+                listener.onProgress(rows, Math.max(rows, estimatedTotal));
+            }
+            completed = true;
+            return rows;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    private static WritableByteChannel openChannel(File file, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        if (!gzip) {
+            return channel;
+        }
+        // Closing the returned channel finishes the gzip stream and closes the file.
+        return Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+    }
+
+    /**
+     * Formats streamed rows and writes them out, one row at a time.
+     */
+    private static class RowWriter implements ExportDAO.RowHandler {
+        private final ChannelWriter out;
+        private final Format format;
+        private final long estimatedTotal;
+        private final ProgressListener listener;
+        private final StringBuilder line = new StringBuilder(256);
+        private String[] columns;
+        private boolean[] numeric;
+        private long rows;
+
+        RowWriter(ChannelWriter out, Format format, long estimatedTotal, ProgressListener listener) {
+            this.out = out;
+            this.format = format;
+            this.estimatedTotal = estimatedTotal;
+            this.listener = listener;
+        }
+
+        @Override
+        public void onStart(ResultSetMetaData meta) throws SQLException, IOException {
+            if (columns != null) {
+                return; // the next shard's rows continue the same file
+            }
+            int count = meta.getColumnCount();
+            columns = new String[count];
+            numeric = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                columns[i] = meta.getColumnLabel(i + 1);
+                numeric[i] = isNumeric(meta.getColumnType(i + 1));
+            }
+
+            line.setLength(0);
+            if (format == Format.CSV) {
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) line.append(',');
+                    appendCsv(columns[i]);
+                }
+                line.append("\r\n");
+            } else {
+                line.append('[');
+            }
+            out.write(line);
+        }
+
+        @Override
+        public void onRow(ResultSet rs) throws SQLException, IOException {
+            line.setLength(0);
+            if (format == Format.CSV) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) line.append(',');
+                    String value = rs.getString(i + 1);
+                    if (value != null) {
+                        appendCsv(value);
+                    }
+                }
+                line.append("\r\n");
+            } else {
+                line.append(rows == 0 ? "\n{" : ",\n{");
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) line.append(',');
+                    appendJsonString(columns[i]);
+                    line.append(':');
+                    String value = rs.getString(i + 1);
+                    if (value == null) {
+                        line.append("null");
+                    } else if (numeric[i]) {
+                        line.append(value);
+                    } else {
+                        appendJsonString(value);
+                    }
+                }
+                line.append('}');
+            }
+            out.write(line);
+
+            rows++;
+            if (listener != null && rows % PROGRESS_INTERVAL == 0) {
+                listener.onProgress(rows, estimatedTotal);
+            }
+        }
+
+        void finish() throws IOException {
+            if (format == Format.JSON) {
+                out.write(rows == 0 ? "]\n" : "\n]\n");
+            }
+        }
+
+        // Quotes a field only when it contains a separator, quote or line break (RFC 4180).
+        private void appendCsv(String value) {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') line.append('"');
+                line.append(c);
+            }
+            line.append('"');
+        }
+
+        private void appendJsonString(String value) {
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"': line.append("\\\""); break;
+                    case '\\': line.append("\\\\"); break;
+                    case '\n': line.append("\\n"); break;
+                    case '\r': line.append("\\r"); break;
+                    case '\t': line.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            line.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            line.append(c);
+                        }
+                }
+            }
+            line.append('"');
+        }
+
+        private static boolean isNumeric(int sqlType) {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                case Types.DECIMAL:
+                case Types.NUMERIC:
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.Services;
+
+import com.DAO.LedgerDAO;
+import com.DAO.OutboxDAO;
+import com.DAO.PaymentDAO;
+import com.DAO.SellerDAO;
+import com.Database.DBConnector;
+import com.Database.ReplicaRouter;
+import com.Database.ShardRouter;
+import com.Entities.LedgerEntry;
+import com.Entities.Payment;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LedgerService records the money of every sale in an append-only, double-entry ledger and keeps
+ * each seller's balances in step with it.
+ *
+ * <p>Two postings are made per payment, each a set of ledger lines that sum to zero
+ * (debits positive, credits negative):</p>
+ * <ul>
+ *   <li>SALE, when settlement creates the payment: the buyer owes the amount and the seller's
+ *       pending earnings grow by it.</li>
+ *   <li>PAYMENT, when the buyer completes the payment: the buyer's debt is paid in cash and the
+ *       amount moves from the seller's pending earnings to the seller's earnings.</li>
+ * </ul>
+ *
+ * <p>The seller row caches both balances. It is adjusted by the amounts just posted, in the same
+ * transaction as the ledger lines, so reading a seller's earnings is one primary-key lookup and never
+ * sums the ledger. {@link #reconcile()} recomputes the balances from the ledger in one pass and
+ * corrects any row that has drifted, which is also how the cache is audited.</p>
+ *
+ * <p>With shards configured (see ShardRouter) the ledger lines and the seller rows are written on
+ * the shard of the sale's auction, so each shard balances on its own and a seller's balances are
+ * the sum over the shards.</p>
+ */
+public class LedgerService {
+
+    public static final String BUYER = "BUYER";
+    public static final String CASH = "CASH";
+    public static final String SELLER_PENDING = "SELLER_PENDING";
+    public static final String SELLER_EARNINGS = "SELLER_EARNINGS";
+
+    /**
+     * Posts the SALE of each payment and adds the amounts to the sellers' pending earnings.
+     * Called by SettlementService in the transaction that creates the payments.
+     *
+     * @param con the connection of the surrounding transaction
+     * @param payments the new payments, with their generated paymentIDs
+     * @throws SQLException if a database access error occurs, including a sale that was already posted
+     */
+    public static void postSales(Connection con, List<Payment> payments) throws SQLException {
+        List<LedgerEntry> entries = new ArrayList<>();
+        Map<Integer, double[]> deltas = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Payment payment : payments) {
+            addSale(entries, payment, now);
+            deltas.computeIfAbsent(payment.getSellerID(), k -> new double[2])[1] += payment.getPaymentAmount();
+        }
+        if (!entries.isEmpty()) {
+            LedgerDAO.insertEntries(con, entries);
+            SellerDAO.adjustBalances(con, deltas);
+        }
+    }
+
+    /**
+     * Completes a pending payment: marks it COMPLETED, posts the PAYMENT and moves the amount from the
+     * seller's pending earnings to the seller's earnings, all in one transaction.
+     *
+     * @param paymentID the ID of the payment
+     * @return the completed Payment, or null if it does not exist or is no longer pending
+     * @throws SQLException if the transaction fails; nothing is changed
+     */
+    public static Payment completePayment(int paymentID) throws SQLException {
+        Payment payment;
+        try (Connection con = DBConnector.openShardConnection(shardOfPayment(paymentID))) {
+            con.setAutoCommit(false);
+            try {
+                payment = PaymentDAO.getPaymentForUpdate(con, paymentID);
+                if (payment == null || !PaymentDAO.completePayment(con, paymentID)) {
+                    con.rollback();
+                    return null;
+                }
+                payment.setPaymentStatus("COMPLETED");
+
+                List<LedgerEntry> entries = new ArrayList<>();
+                addPayment(entries, payment, LocalDateTime.now());
+                LedgerDAO.insertEntries(con, entries);
+                Map<Integer, double[]> deltas = new HashMap<>();
+                deltas.put(payment.getSellerID(), new double[]{payment.getPaymentAmount(), -payment.getPaymentAmount()});
+                SellerDAO.adjustBalances(con, deltas);
+                OutboxDAO.appendEvents(con, List.of(OutboxService.paymentEvent(OutboxService.PAYMENT_COMPLETED, payment)));
+                con.commit();
+                ReplicaRouter.recordWrite();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        }
+        StatisticsService.onPaymentSaved(payment);
+        return payment;
+    }
+
+    // A payment is on its auction's shard. Its key names that shard too, unless it was created before sharding.
+    private static int shardOfPayment(int paymentID) throws SQLException {
+        if (!ShardRouter.isSharded()) {
+            return 0;
+        }
+        Payment payment = PaymentDAO.getPaymentByID(paymentID);
+        return ShardRouter.shardOf(payment != null ? payment.getAuctionID() : paymentID);
+    }
+
+    /**
+     * Reads a seller's earnings and pending earnings from the cached balances.
+     *
+     * @param sellerID the ID of the seller
+     * @return {earnings, pending earnings}
+     * @throws SQLException if the lookup fails
+     */
+    public static double[] getSellerBalance(int sellerID) throws SQLException {
+        return SellerDAO.getBalance(sellerID);
+    }
+
+    /**
+     * Brings the ledger and the cached balances back in line, in one transaction per shard.
+     *
+     * <p>The seller rows are locked first, before anything else is read, so postings that change a
+     * balance wait for the reconciliation and the ledger read below includes every posting committed
+     * before it. Payments that predate the ledger or were written without it then get their missing
+     * SALE posting, and completed ones their PAYMENT posting. Finally every seller's balances are
+     * recomputed from the ledger with one grouped query and written back where they differ.</p>
+     *
+     * @return {postings added, seller rows corrected}
+     * @throws SQLException if the reconciliation fails; nothing is changed on the failing shard
+     */
+    public static int[] reconcile() throws SQLException {
+        int[] total = new int[2];
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            int[] result = reconcile(shard);
+            total[0] += result[0];
+            total[1] += result[1];
+        }
+        return total;
+    }
+
+    private static int[] reconcile(int shard) throws SQLException {
+        try (Connection con = DBConnector.openShardConnection(shard)) {
+            con.setAutoCommit(false);
+            try {
+                // Locks every seller row (and the gaps, so no row is added) before the first plain read,
+                // which fixes the snapshot the ledger is summed from.
+                Map<Integer, double[]> cached = SellerDAO.getAllBalances(con, true);
+
+                LocalDateTime now = LocalDateTime.now();
+                List<LedgerEntry> entries = new ArrayList<>();
+                int postings = 0;
+                for (Payment payment : LedgerDAO.getUnpostedPayments(con, "SALE", false)) {
+                    addSale(entries, payment, now);
+                    postings++;
+                }
+                for (Payment payment : LedgerDAO.getUnpostedPayments(con, "PAYMENT", true)) {
+                    addPayment(entries, payment, now);
+                    postings++;
+                }
+                if (!entries.isEmpty()) {
+                    LedgerDAO.insertEntries(con, entries);
+                }
+
+                Map<Integer, double[]> expected = LedgerDAO.getSellerBalances(con);
+                // Sellers with a balance but no ledger lines at all are reset to zero.
+                for (Integer sellerID : cached.keySet()) {
+                    expected.putIfAbsent(sellerID, new double[2]);
+                }
+                int corrected = SellerDAO.setBalances(con, expected);
+                con.commit();
+                return new int[]{postings, corrected};
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void addSale(List<LedgerEntry> entries, Payment payment, LocalDateTime now) {
+        String reference = "SALE:" + payment.getPaymentID();
+        double amount = payment.getPaymentAmount();
+        entries.add(new LedgerEntry(reference, 1, BUYER, payment.getBuyerID(), amount, payment.getPaymentID(), now));
+        entries.add(new LedgerEntry(reference, 2, SELLER_PENDING, payment.getSellerID(), -amount, payment.getPaymentID(), now));
+    }
+
+    private static void addPayment(List<LedgerEntry> entries, Payment payment, LocalDateTime now) {
+        String reference = "PAYMENT:" + payment.getPaymentID();
+        double amount = payment.getPaymentAmount();
+        entries.add(new LedgerEntry(reference, 1, SELLER_PENDING, payment.getSellerID(), amount, payment.getPaymentID(), now));
+        entries.add(new LedgerEntry(reference, 2, SELLER_EARNINGS, payment.getSellerID(), -amount, payment.getPaymentID(), now));
+        entries.add(new LedgerEntry(reference, 3, CASH, 0, amount, payment.getPaymentID(), now));
+        entries.add(new LedgerEntry(reference, 4, BUYER, payment.getBuyerID(), -amount, payment.getPaymentID(), now));
+    }
+}
@@ -0,0 +1,437 @@
+package com.Services;
+
+import com.DAO.OutboxDAO;
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Entities.Auction;
+import com.Entities.Bid;
+import com.Entities.OutboxEvent;
+import com.Entities.Payment;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * OutboxService builds the events of the transactional outbox and relays them to consumers.
+ *
+ * <p>Every change to auctions, bids and payments appends an event to the outbox table in the same
+ * transaction (see OutboxDAO), so the outbox is a complete, ordered feed of committed changes that
+ * consumers can follow without querying the auction, bid or payment tables.</p>
+ *
+ * <p>The relay is started with the application (see Main). It polls the outbox on its own long-lived
+ * connection per shard, only while some consumer is subscribed, and hands each consumer its next batch
+ * in eventID order. A durable consumer's position is stored after its handler returns, so delivery is
+ * at least once: a handler that throws gets the same batch again on the next poll. A live consumer
+ * (see {@link #subscribeLive}) keeps its position in memory only and starts after the newest event
+ * each time the application starts; it is meant for in-memory state such as the search index, which
+ * follows the changes made by other running applications this way. A transaction that has not
+ * committed yet leaves a gap in the eventIDs; the relay stops in front of a gap until it has seen the
+ * gap for GAP_WAIT_MILLIS, timed with its own clock, and then moves past it, assuming a rollback. The
+ * IDs it skipped are looked up again on every poll for LATE_EVENT_MINUTES, so an event committed late
+ * (e.g. by a long bulk import or settlement transaction) is still delivered, after the events that
+ * passed it. The skipped IDs are kept in memory only. Each durable consumer name should be
+ * subscribed by one running application only.</p>
+ *
+ * <p>Handled events are pruned once a minute on the same thread, whether or not anyone is
+ * subscribed, so the outbox does not grow on an application that has no consumer.</p>
+ *
+ * <p>With shards configured (see ShardRouter) every shard has its own outbox, written with the
+ * changes of its auctions, and the relay follows each one with its own stored position. Events are
+ * then in order per shard, which still keeps each auction's events in order (late events aside).</p>
+ */
+public class OutboxService {
+
+    public static final String AUCTION_CREATED = "AUCTION_CREATED";
+    public static final String AUCTION_UPDATED = "AUCTION_UPDATED";
+    public static final String AUCTION_FINISHED = "AUCTION_FINISHED";
+    public static final String AUCTION_DELETED = "AUCTION_DELETED";
+    public static final String BID_PLACED = "BID_PLACED";
+    public static final String PAYMENT_CREATED = "PAYMENT_CREATED";
+    public static final String PAYMENT_UPDATED = "PAYMENT_UPDATED";
+    public static final String PAYMENT_COMPLETED = "PAYMENT_COMPLETED";
+
+    // Overridable with -Dauction.outbox.pollMillis=..., -Dauction.outbox.batchSize=... and so on.
+    private static final long POLL_MILLIS = Long.getLong("auction.outbox.pollMillis", 500);
+    private static final int BATCH_SIZE = Integer.getInteger("auction.outbox.batchSize", 500);
+    private static final long GAP_WAIT_MILLIS = Long.getLong("auction.outbox.gapWaitMillis", 5_000);
+    private static final long LATE_EVENT_MINUTES = Long.getLong("auction.outbox.lateEventMinutes", 60);
+    // Skipped IDs looked up again per consumer and shard; the oldest are given up beyond this
+    private static final int MAX_LATE_EVENTS = 10_000;
+    private static final long RETENTION_HOURS = Long.getLong("auction.outbox.retentionHours", 24);
+    private static final long PRUNE_MINUTES = 1;
+    private static final int PRUNE_LIMIT = 10_000;
+
+    private static final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService scheduler;
+    // One connection per shard, used by the relay thread only and opened again after an error
+    private static Connection[] relayCons = new Connection[0];
+
+    /**
+     * Registers a durable consumer. A consumer that has never run starts after the newest event;
+     * otherwise it resumes after the last event it handled.
+     *
+     * @param consumerName a stable name identifying the consumer's position
+     * @param handler receives each batch of events, oldest first, on the relay thread
+     */
+    public static void subscribe(String consumerName, Consumer<List<OutboxEvent>> handler) {
+        subscriptions.put(consumerName, new Subscription(consumerName, true, handler));
+    }
+
+    /**
+     * Registers a live consumer, which starts after the newest event and whose position is not
+     * stored, so it neither resumes after a restart nor holds back the pruning of the outbox.
+     *
+     * @param consumerName a name identifying the consumer within this application
+     * @param handler receives each batch of events, oldest first, on the relay thread
+     */
+    public static void subscribeLive(String consumerName, Consumer<List<OutboxEvent>> handler) {
+        subscriptions.put(consumerName, new Subscription(consumerName, false, handler));
+    }
+
+    /**
+     * Removes a consumer. Its stored position is kept for the next time it subscribes.
+     *
+     * @param consumerName the name given to {@link #subscribe}
+     */
+    public static void unsubscribe(String consumerName) {
+        subscriptions.remove(consumerName);
+    }
+
+    /**
+     * Starts the relay, which polls the outbox every POLL_MILLIS, and the pruning of handled events
+     * once a minute. Called at application startup; calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                relay();
+            } catch (SQLException e) {
+                System.err.println("Error relaying outbox events: " + e.getMessage());
+            }
+        }, 0, POLL_MILLIS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                prune();
+            } catch (SQLException e) {
+                System.err.println("Error pruning the outbox: " + e.getMessage());
+            }
+        }, PRUNE_MINUTES, PRUNE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Delivers pending events to every consumer, one batch each per shard. Does nothing while no
+     * consumer is subscribed. A shard that fails does not hold up the others; the first failure is rethrown.
+     */
+    private static void relay() throws SQLException {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        SQLException failure = null;
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            try {
+                Connection con = relayConnection(shard);
+                for (Subscription subscription : subscriptions.values()) {
+                    deliver(con, shard, subscription);
+                }
+            } catch (SQLException e) {
+                closeRelayConnection(shard);
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Deletes the events every durable consumer has handled once they are older than the retention window
+    private static void prune() throws SQLException {
+        SQLException failure = null;
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(RETENTION_HOURS);
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            try {
+                OutboxDAO.deleteHandledEvents(relayConnection(shard), cutoff, PRUNE_LIMIT);
+            } catch (SQLException e) {
+                closeRelayConnection(shard);
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static Connection relayConnection(int shard) throws SQLException {
+        if (relayCons.length <= shard) {
+            relayCons = Arrays.copyOf(relayCons, shard + 1);
+        }
+        if (relayCons[shard] == null || relayCons[shard].isClosed()) {
+            relayCons[shard] = DBConnector.openShardConnection(shard);
+        }
+        return relayCons[shard];
+    }
+
+    private static void closeRelayConnection(int shard) {
+        try {
+            if (relayCons[shard] != null) relayCons[shard].close();
+        } catch (SQLException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+        relayCons[shard] = null;
+    }
+
+    private static void deliver(Connection con, int shard, Subscription subscription) throws SQLException {
+        Cursor cursor = subscription.cursor(shard);
+        if (cursor.position < 0) {
+            long position = subscription.durable ? OutboxDAO.getConsumerPosition(con, subscription.name) : -1;
+            if (position < 0) {
+                position = OutboxDAO.getLastEventID(con);
+                if (subscription.durable) {
+                    OutboxDAO.saveConsumerPosition(con, subscription.name, position);
+                }
+            }
+            cursor.position = position;
+        }
+        deliverLate(con, subscription, cursor);
+
+        List<OutboxEvent> events = OutboxDAO.getEventsAfter(con, cursor.position, BATCH_SIZE);
+        List<OutboxEvent> batch = new ArrayList<>(events.size());
+        List<Long> skipped = new ArrayList<>();
+        long expected = cursor.position + 1;
+        for (OutboxEvent event : events) {
+            if (event.getEventID() != expected) {
+                if (cursor.gapStart != expected) {
+                    cursor.gapStart = expected;
+                    cursor.gapSeenNanos = System.nanoTime();
+                }
+                if (System.nanoTime() - cursor.gapSeenNanos < TimeUnit.MILLISECONDS.toNanos(GAP_WAIT_MILLIS)) {
+                    break; // an earlier event may still be committed
+                }
+                for (long eventID = expected; eventID < event.getEventID(); eventID++) {
+                    skipped.add(eventID);
+                }
+            }
+            batch.add(event);
+            expected = event.getEventID() + 1;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            subscription.handler.accept(batch);
+        } catch (RuntimeException e) {
+            System.err.println("Outbox consumer " + subscription.name + " failed, retrying: " + e.getMessage());
+            return;
+        }
+        cursor.position = batch.get(batch.size() - 1).getEventID();
+        long now = System.nanoTime();
+        for (long eventID : skipped) {
+            cursor.late.put(eventID, now);
+        }
+        if (subscription.durable) {
+            OutboxDAO.saveConsumerPosition(con, subscription.name, cursor.position);
+        }
+    }
+
+    // Delivers the skipped events that have been committed since, and gives up on the ones skipped too long ago.
+    private static void deliverLate(Connection con, Subscription subscription, Cursor cursor) throws SQLException {
+        if (cursor.late.isEmpty()) {
+            return;
+        }
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(LATE_EVENT_MINUTES);
+        cursor.late.values().removeIf(skippedAt -> skippedAt - cutoff < 0);
+
+        List<Long> eventIDs = new ArrayList<>(cursor.late.keySet());
+        for (int from = 0; from < eventIDs.size(); from += BATCH_SIZE) {
+            List<OutboxEvent> found = OutboxDAO.getEventsByIDs(con, eventIDs.subList(from, Math.min(from + BATCH_SIZE, eventIDs.size())));
+            if (found.isEmpty()) {
+                continue;
+            }
+            try {
+                subscription.handler.accept(found);
+            } catch (RuntimeException e) {
+                System.err.println("Outbox consumer " + subscription.name + " failed, retrying: " + e.getMessage());
+                return;
+            }
+            for (OutboxEvent event : found) {
+                cursor.late.remove(event.getEventID());
+            }
+        }
+    }
+
+    /**
+     * Builds an event describing an auction.
+     *
+     * @param eventType one of the AUCTION_ event types
+     * @param auction the auction after the change
+     * @return the event, to be appended in the transaction making the change
+     */
+    public static OutboxEvent auctionEvent(String eventType, Auction auction) {
+        return new OutboxEvent(eventType, "AUCTION", auction.getAuctionID(), json(
+                "auctionID", auction.getAuctionID(),
+                "status", auction.getAuctionStatus(),
+                "highestBid", auction.getAuctionCurrentHighestBid(),
+                "buyerID", auction.getBuyerID(),
+                "sellerID", auction.getSellerID(),
+                "itemID", auction.getItemID()), LocalDateTime.now());
+    }
+
+    /**
+     * Builds the event of a deleted auction.
+     *
+     * @param auctionID the ID of the deleted auction
+     * @return the event, to be appended in the transaction deleting the auction
+     */
+    public static OutboxEvent auctionDeleted(int auctionID) {
+        return new OutboxEvent(AUCTION_DELETED, "AUCTION", auctionID, json("auctionID", auctionID), LocalDateTime.now());
+    }
+
+    /**
+     * Builds the event of a committed bid. Bids are events of their auction, so they stay in order with it.
+     *
+     * @param bid the bid, with its generated bidID
+     * @return the event, to be appended in the transaction placing the bid
+     */
+    public static OutboxEvent bidPlaced(Bid bid) {
+        return new OutboxEvent(BID_PLACED, "AUCTION", bid.getAuctionID(), json(
+                "bidID", bid.getBidID(),
+                "auctionID", bid.getAuctionID(),
+                "buyerID", bid.getBuyerID(),
+                "amount", bid.getBidAmount()), LocalDateTime.now());
+    }
+
+    /**
+     * Builds an event describing a payment.
+     *
+     * @param eventType one of the PAYMENT_ event types
+     * @param payment the payment after the change
+     * @return the event, to be appended in the transaction making the change
+     */
+    public static OutboxEvent paymentEvent(String eventType, Payment payment) {
+        return new OutboxEvent(eventType, "PAYMENT", payment.getPaymentID(), json(
+                "paymentID", payment.getPaymentID(),
+                "auctionID", payment.getAuctionID(),
+                "status", payment.getPaymentStatus(),
+                "amount", payment.getPaymentAmount(),
+                "buyerID", payment.getBuyerID(),
+                "sellerID", payment.getSellerID()), LocalDateTime.now());
+    }
+
+    /**
+     * Reads one field of an event's payload, as written by the event builders of this class.
+     *
+     * @param event the event
+     * @param name the field name, e.g. "status"
+     * @return the value as text, or null if the field is missing or null
+     */
+    public static String field(OutboxEvent event, String name) {
+        String payload = event.getPayload();
+        String key = "\"" + name + "\":";
+        int start = payload.indexOf(key);
+        if (start < 0) {
+            return null;
+        }
+        start += key.length();
+        if (payload.charAt(start) != '"') {
+            int end = start;
+            while (end < payload.length() && payload.charAt(end) != ',' && payload.charAt(end) != '}') end++;
+            String value = payload.substring(start, end);
+            return value.equals("null") ? null : value;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = start + 1; i < payload.length() && payload.charAt(i) != '"'; i++) {
+            char c = payload.charAt(i);
+            if (c == '\\' && i + 1 < payload.length()) {
+                c = payload.charAt(++i);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes alternating names and values as a flat JSON object.
+     */
+    private static String json(Object... fields) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < fields.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(fields[i]).append("\":");
+            Object value = fields[i + 1];
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof Double) {
+                sb.append(String.format(Locale.ROOT, "%.2f", (Double) value));
+            } else if (value instanceof Number) {
+                sb.append(value);
+            } else {
+                sb.append('"').append(value.toString().replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private static class Subscription {
+        private final String name;
+        private final boolean durable;
+        private final Consumer<List<OutboxEvent>> handler;
+        private Cursor[] cursors = new Cursor[0]; // per shard, positions loaded on the first poll
+
+        private Subscription(String name, boolean durable, Consumer<List<OutboxEvent>> handler) {
+            this.name = name;
+            this.durable = durable;
+            this.handler = handler;
+        }
+
+        private Cursor cursor(int shard) {
+            if (cursors.length <= shard) {
+                int known = cursors.length;
+                cursors = Arrays.copyOf(cursors, shard + 1);
+                for (int i = known; i < cursors.length; i++) {
+                    cursors[i] = new Cursor();
+                }
+            }
+            return cursors[shard];
+        }
+    }
+
+    /**
+     * A consumer's progress through one shard's outbox. Only used by the relay thread.
+     */
+    private static class Cursor {
+        private long position = -1;
+        // The first missing eventID the relay is waiting for, and since when (System.nanoTime())
+        private long gapStart = -1;
+        private long gapSeenNanos;
+        // Skipped eventIDs -> when they were skipped, oldest first
+        private final Map<Long, Long> late = new LinkedHashMap<Long, Long>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > MAX_LATE_EVENTS;
+            }
+        };
+    }
+}
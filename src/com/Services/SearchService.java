@@ -0,0 +1,426 @@
+package com.Services;
+
+import com.DAO.AuctionDAO;
+import com.DAO.BidDAO;
+import com.DAO.ItemDAO;
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Entities.Auction;
+import com.Entities.Item;
+import com.Entities.OutboxEvent;
+import com.Utilities.InvertedIndex;
+import com.Utilities.SuggestionTrie;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * SearchService answers full-text searches over item names and descriptions.
+ *
+ * <p>{@link #preload()} (or the first search) reads every item's text and every auction's status
+ * once, on a background thread with its own connections, into an {@link InvertedIndex}. After that
+ * ItemDAO and AuctionDAO report each insert, update and delete, so searches never query the database
+ * and never LIKE-scan the description column. Results can be restricted to items whose auction has a
+ * given status.</p>
+ *
+ * <p>The index is built without holding the lock the update hooks use, so DAO writes on the event
+ * dispatch thread never wait for the load. Changes reported while it is being built are queued and
+ * replayed onto it before it replaces the empty one; they only set the latest state of an item or
+ * auction, so replaying one the load already read does no harm.</p>
+ *
+ * <p>Auction changes made by other running applications reach the index through the outbox: once
+ * the load starts, the index follows the auction events as a live consumer (see OutboxService).
+ * Events of this application's own changes arrive there too and set the same state again.</p>
+ *
+ * <p>Type-ahead suggestions come from a {@link SuggestionTrie} holding the names of items whose
+ * auction is STARTED, ranked by recent bidding activity: every bid counts 1 when it is placed and
+ * half as much each half-life ({@code auction.search.activityHalfLifeMinutes}) later, so an auction
+ * that was busy last week does not outrank one that is busy now. Items enter and leave the trie as
+ * their auction opens and closes, and BidService bumps the rank after each committed bid.</p>
+ */
+public class SearchService {
+
+    public static final int DEFAULT_LIMIT = 200;
+
+    private static final String OPEN_STATUS = "STARTED";
+
+    private static final long HALF_LIFE_SECONDS = 60 * Long.getLong("auction.search.activityHalfLifeMinutes", 60);
+    // Bids older than this many half-lives count less than 1/256 and are not loaded
+    private static final int LOADED_HALF_LIVES = 8;
+    // Activity is stored relative to the index's epoch and rebased once it has grown this much
+    private static final double MAX_WEIGHT = 1 << 20;
+    // Suggestion scores are longs; keeps three decimals of the activity
+    private static final double SCORE_SCALE = 1000;
+
+    // Replaced once by the loaded index; guarded by the class lock for writes, read without it
+    private static volatile Index current = new Index();
+    private static volatile boolean loaded;
+    // Set while a loader thread is running, so a burst of searches starts only one
+    private static final AtomicBoolean loading = new AtomicBoolean();
+    // Changes reported while a load is running, replayed onto the new index; null when no load runs
+    private static List<Consumer<Index>> pending;
+
+    /**
+     * Searches item names and descriptions.
+     *
+     * <p>Never waits for the database: until the index has been loaded it starts loading it and
+     * returns no results (see {@link #isLoaded()}).</p>
+     *
+     * @param query the words to search for; the last word also matches as a prefix
+     * @param statuses auction statuses to include (e.g. "STARTED"), or null for all items
+     * @param limit the maximum number of results
+     * @return matching itemIDs, best match first
+     */
+    public static List<Integer> searchItems(String query, Set<String> statuses, int limit) {
+        if (!loaded) {
+            preload();
+            return new ArrayList<>();
+        }
+        Index index = current;
+        List<InvertedIndex.Hit> hits = index.text.search(query, statuses == null ? null : itemID -> {
+            String status = index.auctionStatuses.get(itemID);
+            return status != null && statuses.contains(status);
+        }, limit);
+
+        List<Integer> itemIDs = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit hit : hits) {
+            itemIDs.add(hit.getDocID());
+        }
+        return itemIDs;
+    }
+
+    /**
+     * @return true once the index has been loaded and searches return results
+     */
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Suggests names of items in open auctions that complete the typed text.
+     *
+     * <p>Never waits for the database: until the index has been loaded it starts loading it and
+     * returns no suggestions.</p>
+     *
+     * @param prefix the text typed so far; matches the start of the name or of any word in it
+     * @param limit the maximum number of suggestions
+     * @return distinct item names, most bid-on first
+     */
+    public static List<String> suggestItemNames(String prefix, int limit) {
+        if (!loaded) {
+            preload();
+            return new ArrayList<>();
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (SuggestionTrie.Suggestion suggestion : current.suggestions.suggest(prefix, limit * 2)) {
+            names.add(suggestion.getText());
+            if (names.size() == limit) break;
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Builds the index in the background unless it is loaded or already being loaded.
+     */
+    public static void preload() {
+        if (loaded || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        OutboxService.subscribeLive("search-index", SearchService::onOutboxEvents);
+        Thread loader = new Thread(() -> {
+            try {
+                load();
+            } finally {
+                loading.set(false);
+            }
+        }, "search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Builds a new index from the database without the class lock, then replays the queued changes
+     * onto it and swaps it in. A failed load can be started again by the next preload().
+     */
+    private static void load() {
+        synchronized (SearchService.class) {
+            if (loaded || pending != null) {
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+
+        Index built = new Index();
+        try {
+            try (Connection con = DBConnector.openConnection()) {
+                for (Item item : ItemDAO.getAllItemTexts(con)) {
+                    built.putItem(item);
+                }
+            }
+            // Auctions and their bids live on the auction's shard
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = now.minusSeconds(LOADED_HALF_LIVES * HALF_LIFE_SECONDS);
+            for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+                try (Connection con = DBConnector.openShardConnection(shard)) {
+                    List<Auction> auctions = AuctionDAO.getAllAuctions(con);
+                    Map<Integer, Double> recentBids = BidDAO.getRecentBidActivityByAuction(con, now, since, HALF_LIFE_SECONDS);
+                    for (Auction auction : auctions) {
+                        built.activity.put(auction.getItemID(), recentBids.getOrDefault(auction.getAuctionID(), 0.0));
+                        built.setStatus(auction);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            synchronized (SearchService.class) {
+                pending = null;
+            }
+            System.err.println("Error loading search index: " + e.getMessage());
+            return;
+        }
+
+        synchronized (SearchService.class) {
+            for (Consumer<Index> change : pending) {
+                change.accept(built);
+            }
+            pending = null;
+            current = built;
+            loaded = true;
+        }
+        System.out.println("Search index loaded.");
+    }
+
+    /**
+     * Applies a reported change to the loaded index, or queues it while the index is being loaded.
+     * Before the first load starts there is nothing to update: the load reads the change from the database.
+     */
+    private static synchronized void apply(Consumer<Index> change) {
+        if (loaded) {
+            change.accept(current);
+        } else if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    /**
+     * Indexes a new or changed item. Called by ItemDAO after a successful write.
+     *
+     * @param item the saved item
+     */
+    public static void onItemSaved(Item item) {
+        if (item.getItemID() > 0) {
+            apply(index -> index.putItem(item));
+        }
+    }
+
+    /**
+     * Indexes items written in one batch, e.g. by the bulk import after its commit.
+     *
+     * @param items the saved items
+     */
+    public static void onItemsSaved(List<Item> items) {
+        for (Item item : items) {
+            onItemSaved(item);
+        }
+    }
+
+    /**
+     * Removes a deleted item from the index. Called by ItemDAO.
+     *
+     * @param itemID the ID of the deleted item
+     */
+    public static void onItemDeleted(int itemID) {
+        apply(index -> index.removeItem(itemID));
+    }
+
+    /**
+     * Records the status of a new or changed auction. Called by AuctionDAO after a successful write.
+     *
+     * @param auction the saved auction
+     */
+    public static void onAuctionSaved(Auction auction) {
+        apply(index -> index.setStatus(auction));
+    }
+
+    /**
+     * Records the statuses of auctions written in one batch.
+     *
+     * @param auctions the saved auctions
+     */
+    public static void onAuctionsSaved(List<Auction> auctions) {
+        for (Auction auction : auctions) {
+            onAuctionSaved(auction);
+        }
+    }
+
+    /**
+     * Forgets auctions that left the auction table, archived or deleted ones. Called by ArchiveService and AuctionDAO.
+     *
+     * @param auctionIDs the IDs of the removed auctions
+     */
+    public static void onAuctionsRemoved(Collection<Integer> auctionIDs) {
+        List<Integer> removed = new ArrayList<>(auctionIDs);
+        apply(index -> index.removeAuctions(removed));
+    }
+
+    /**
+     * Applies the auction events relayed from the outbox. Bid events are left out: the rank only
+     * counts the bids of this application until the next load.
+     *
+     * @param events a batch of outbox events, oldest first
+     */
+    private static void onOutboxEvents(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            if (!"AUCTION".equals(event.getAggregateType()) || OutboxService.BID_PLACED.equals(event.getEventType())) {
+                continue;
+            }
+            if (OutboxService.AUCTION_DELETED.equals(event.getEventType())) {
+                onAuctionsRemoved(List.of(event.getAggregateID()));
+                continue;
+            }
+            String itemID = OutboxService.field(event, "itemID");
+            String status = OutboxService.field(event, "status");
+            if (itemID == null || status == null) {
+                continue;
+            }
+            Auction auction = new Auction();
+            auction.setAuctionID(event.getAggregateID());
+            auction.setItemID(Integer.parseInt(itemID));
+            auction.setAuctionStatus(status);
+            onAuctionSaved(auction);
+        }
+    }
+
+    /**
+     * Raises the suggestion rank of an auction's item after bids were committed. Called by BidService.
+     *
+     * @param auctionID the ID of the auction
+     * @param newBids the number of bids written
+     */
+    public static void onBidsPlaced(int auctionID, int newBids) {
+        long placedAt = System.nanoTime();
+        apply(index -> index.addBids(auctionID, newBids, placedAt));
+    }
+
+    /**
+     * The search index and the lookups that keep the suggestions in step with the auctions.
+     * Only changed under the SearchService class lock, or by the loader before it is published.
+     */
+    private static final class Index {
+        private final InvertedIndex text = new InvertedIndex();
+        private final SuggestionTrie suggestions = new SuggestionTrie();
+        // itemID -> upper-case status of the item's auction
+        private final Map<Integer, String> auctionStatuses = new ConcurrentHashMap<>();
+        // itemID -> item name, to add an item to the suggestions when its auction opens
+        private final Map<Integer, String> itemNames = new ConcurrentHashMap<>();
+        // auctionID -> itemID
+        private final Map<Integer, Integer> auctionItems = new ConcurrentHashMap<>();
+        // itemID -> recent bids on the item's auction, each weighted 2^(age of the epoch at the bid / half-life)
+        private final Map<Integer, Double> activity = new ConcurrentHashMap<>();
+        private long epochNanos = System.nanoTime();
+
+        private void putItem(Item item) {
+            text.put(item.getItemID(), item.getItemName(), item.getItemDescription());
+            itemNames.put(item.getItemID(), item.getItemName());
+            updateSuggestion(item.getItemID());
+        }
+
+        private void removeItem(int itemID) {
+            text.remove(itemID);
+            suggestions.remove(itemID);
+            auctionStatuses.remove(itemID);
+            itemNames.remove(itemID);
+            activity.remove(itemID);
+        }
+
+        /**
+         * Adds bids to the item's activity. Instead of decaying every item as time passes, new bids
+         * weigh more the later they are placed, which keeps the ranking the same.
+         */
+        private void addBids(int auctionID, int newBids, long placedAt) {
+            Integer itemID = auctionItems.get(auctionID);
+            if (itemID == null) {
+                return;
+            }
+            double weight = Math.pow(2, (placedAt - epochNanos) / (HALF_LIFE_SECONDS * 1e9));
+            if (weight > MAX_WEIGHT) {
+                rebase(placedAt, weight);
+                weight = 1;
+            }
+            activity.merge(itemID, newBids * weight, Double::sum);
+            if (suggestions.contains(itemID)) {
+                suggestions.setScore(itemID, score(itemID));
+            }
+        }
+
+        // Moves the epoch to now so the weights and scores stay small
+        private void rebase(long now, double weight) {
+            epochNanos = now;
+            activity.replaceAll((itemID, value) -> value / weight);
+            for (Integer itemID : activity.keySet()) {
+                if (suggestions.contains(itemID)) {
+                    suggestions.setScore(itemID, score(itemID));
+                }
+            }
+        }
+
+        private long score(int itemID) {
+            return Math.round(activity.getOrDefault(itemID, 0.0) * SCORE_SCALE);
+        }
+
+        private void setStatus(Auction auction) {
+            if (auction.getAuctionID() > 0) {
+                auctionItems.put(auction.getAuctionID(), auction.getItemID());
+            }
+            if (auction.getAuctionStatus() != null) {
+                auctionStatuses.put(auction.getItemID(), auction.getAuctionStatus().toUpperCase(Locale.ROOT));
+            }
+            updateSuggestion(auction.getItemID());
+        }
+
+        /**
+         * Drops the auctions and, for items with no other auction left, their status and activity,
+         * as a reload would. One pass over the remaining auctions per call, so callers pass a batch.
+         */
+        private void removeAuctions(Collection<Integer> auctionIDs) {
+            Set<Integer> itemIDs = new HashSet<>();
+            for (int auctionID : auctionIDs) {
+                Integer itemID = auctionItems.remove(auctionID);
+                if (itemID != null) {
+                    itemIDs.add(itemID);
+                }
+            }
+            if (itemIDs.isEmpty()) {
+                return;
+            }
+            itemIDs.removeAll(auctionItems.values());
+            for (int itemID : itemIDs) {
+                auctionStatuses.remove(itemID);
+                activity.remove(itemID);
+                updateSuggestion(itemID);
+            }
+        }
+
+        /**
+         * Adds the item to the suggestions while its auction is open and removes it otherwise.
+         */
+        private void updateSuggestion(int itemID) {
+            String name = itemNames.get(itemID);
+            if (name != null && OPEN_STATUS.equals(auctionStatuses.get(itemID))) {
+                suggestions.put(itemID, name, score(itemID));
+            } else {
+                suggestions.remove(itemID);
+            }
+        }
+    }
+}
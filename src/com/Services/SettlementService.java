@@ -0,0 +1,204 @@
+package com.Services;
+
+import com.DAO.AsyncDAO;
+import com.DAO.AuctionDAO;
+import com.DAO.OutboxDAO;
+import com.DAO.PaymentDAO;
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Entities.Auction;
+import com.Entities.OutboxEvent;
+import com.Entities.Payment;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SettlementService closes expired auctions and creates their payments.
+ *
+ * <p>For each batch of expired auctions, one transaction locks the rows (skipping rows another
+ * client is already settling), marks them FINISHED, creates one PENDING payment per auction with a
+ * winner, posts the sales to the ledger (see LedgerService), which adds them to the sellers' pending
+ * earnings, and appends the matching outbox events. The status update only applies to auctions that
+ * are still STARTED and the payment table has a unique key on auctionID, so however many clients see
+ * an auction end, it is settled exactly once. Screens settle the auctions they see ending with
+ * {@link #settleAuctionsAsync(Collection)}, off the event dispatch thread.</p>
+ *
+ * <p>A background job, started with the application, settles the auctions that no client is
+ * watching. Several instances running it at once are safe, since each skips the rows another one has
+ * locked; -Dauction.settlement.background=false only spares an instance the scan of every shard
+ * every few seconds when others already run it.</p>
+ *
+ * <p>With shards configured (see ShardRouter) every shard is settled on its own, since an auction's
+ * payment, ledger lines and events are written on the auction's shard.</p>
+ */
+public class SettlementService {
+
+    // Overridable with -Dauction.settlement.intervalSeconds=... and -Dauction.settlement.batchSize=...
+    private static final long INTERVAL_SECONDS = Long.getLong("auction.settlement.intervalSeconds", 5);
+    private static final int BATCH_SIZE = Integer.getInteger("auction.settlement.batchSize", 100);
+    // On unless started with -Dauction.settlement.background=false
+    private static final boolean BACKGROUND = Boolean.parseBoolean(System.getProperty("auction.settlement.background", "true"));
+
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * Starts the background settlement, which settles expired auctions every few seconds unless it
+     * is turned off. Called at application startup; calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (scheduler != null || !BACKGROUND) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "auction-settlement");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                settleExpiredAuctions();
+            } catch (SQLException e) {
+                System.err.println("Error settling auctions: " + e.getMessage());
+            }
+        }, 0, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Settles every expired auction, one batch per transaction, shard by shard.
+     *
+     * @return the number of auctions settled
+     * @throws SQLException if a batch fails; it is rolled back, earlier batches stay settled and
+     *         the other shards are still settled
+     */
+    public static int settleExpiredAuctions() throws SQLException {
+        int settled = 0;
+        SQLException failure = null;
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            try (Connection con = DBConnector.openShardConnection(shard)) {
+                while (true) {
+                    int count = settleBatch(con, null);
+                    settled += count;
+                    if (count < BATCH_SIZE) {
+                        break;
+                    }
+                }
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return settled;
+    }
+
+    /**
+     * Settles the given auctions if they have expired and are still running.
+     * Used by screens that notice an auction ending, so they do not wait for the background job.
+     *
+     * @param auctionIDs the auctions to settle (at most a few hundred)
+     * @return the number of auctions settled by this call
+     * @throws SQLException if the settlement fails; nothing is changed on the failing shard
+     */
+    public static int settleAuctions(Collection<Integer> auctionIDs) throws SQLException {
+        if (auctionIDs.isEmpty()) {
+            return 0;
+        }
+        int settled = 0;
+        for (Map.Entry<Integer, List<Integer>> shard : ShardRouter.groupByShard(auctionIDs).entrySet()) {
+            try (Connection con = DBConnector.openShardConnection(shard.getKey())) {
+                settled += settleBatch(con, shard.getValue());
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Settles the given auctions on a DAO worker thread. Screens call this when they notice auctions
+     * ending and pick up the new status on their next refresh.
+     *
+     * @param auctionIDs the auctions to settle (at most a few hundred)
+     * @return a future of the number of auctions settled by this call
+     */
+    public static CompletableFuture<Integer> settleAuctionsAsync(Collection<Integer> auctionIDs) {
+        if (auctionIDs.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        List<Integer> copy = new ArrayList<>(auctionIDs);
+        CompletableFuture<Integer> settled = AsyncDAO.supply(() -> settleAuctions(copy));
+        settled.exceptionally(e -> {
+            System.err.println("Error settling auctions: " + AsyncDAO.unwrap(e).getMessage());
+            return 0;
+        });
+        return settled;
+    }
+
+    private static int settleBatch(Connection con, Collection<Integer> auctionIDs) throws SQLException {
+        List<Auction> auctions;
+        List<Payment> payments = new ArrayList<>();
+        con.setAutoCommit(false);
+        try {
+            auctions = AuctionDAO.getExpiredAuctionsForUpdate(con, auctionIDs, LocalDateTime.now(),
+                    auctionIDs == null ? BATCH_SIZE : auctionIDs.size());
+            if (auctions.isEmpty()) {
+                con.commit();
+                return 0;
+            }
+
+            List<Integer> ids = new ArrayList<>();
+            for (Auction auction : auctions) {
+                ids.add(auction.getAuctionID());
+            }
+            AuctionDAO.finishAuctions(con, ids);
+
+            // Payments created by an older client for the same auction are kept, not duplicated.
+            Set<Integer> alreadyPaid = PaymentDAO.getAuctionIDsWithPayment(con, ids);
+            for (Auction auction : auctions) {
+                auction.setAuctionStatus("FINISHED");
+                if (auction.getBuyerID() == 0 || alreadyPaid.contains(auction.getAuctionID())) {
+                    continue;
+                }
+                payments.add(new Payment(auction.getAuctionCurrentHighestBid(), "PENDING",
+                        auction.getAuctionID(), auction.getBuyerID(), auction.getSellerID()));
+            }
+            List<OutboxEvent> events = new ArrayList<>();
+            for (Auction auction : auctions) {
+                events.add(OutboxService.auctionEvent(OutboxService.AUCTION_FINISHED, auction));
+            }
+            if (!payments.isEmpty()) {
+                PaymentDAO.createPayments(con, payments);
+                LedgerService.postSales(con, payments);
+                for (Payment payment : payments) {
+                    events.add(OutboxService.paymentEvent(OutboxService.PAYMENT_CREATED, payment));
+                }
+            }
+            OutboxDAO.appendEvents(con, events);
+            con.commit();
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+        }
+
+        SearchService.onAuctionsSaved(auctions);
+        AuctionIndex.onAuctionsSaved(auctions);
+        StatisticsService.onAuctionsSaved(auctions);
+        for (Payment payment : payments) {
+            StatisticsService.onPaymentSaved(payment);
+        }
+        return auctions.size();
+    }
+}
@@ -0,0 +1,399 @@
+package com.Services;
+
+import com.DAO.SketchDAO;
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Entities.AuctionSketch;
+import com.Utilities.HyperLogLog;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SketchService estimates the number of distinct bidders and watchers of each auction,
+ * of each seller and of the whole platform, without COUNT(DISTINCT) queries.
+ *
+ * <p>Every auction has two {@link HyperLogLog} sketches: the buyers who bid (fed by BidService
+ * after each commit) and the users who opened the auction (fed by MonitorAuctionGUI). Reads are
+ * served from memory; a sketch that is not cached is loaded with one primary key lookup, and an
+ * auction that predates the sketch table is built once from its bids. Changed sketches are written
+ * back every few seconds by a background thread, merged with the stored row under a row lock, so
+ * several application instances never overwrite each other's updates. Seller and platform figures
+ * are the merge of the stored auction sketches.</p>
+ *
+ * <p>Other instances' updates reach this one by merging the stored rows again: a cached sketch is
+ * re-read once it is older than REFRESH_SECONDS, and the platform figure every PLATFORM_REFRESH_SECONDS.
+ * Merging is idempotent, so re-reading what is already in memory changes nothing.</p>
+ *
+ * <p>With shards configured (see ShardRouter) a sketch is stored on its auction's shard, and seller
+ * and platform figures merge the sketches of every shard.</p>
+ */
+public class SketchService {
+
+    // Seconds between writes of changed sketches, overridable with -Dauction.sketch.flushSeconds=...
+    private static final long FLUSH_SECONDS = Long.getLong("auction.sketch.flushSeconds", 5);
+    // Seconds before a cached sketch is merged with its stored row again
+    private static final long REFRESH_SECONDS = Long.getLong("auction.sketch.refreshSeconds", 30);
+    // Seconds between merges of all stored sketches into the platform figure
+    private static final long PLATFORM_REFRESH_SECONDS = Long.getLong("auction.sketch.platformRefreshSeconds", 300);
+    private static final int MAX_CACHED_AUCTIONS = 5_000;
+    private static final int BATCH_SIZE = 500;
+
+    // All fields below are guarded by the class lock.
+    // auctionID -> sketches, least recently used first; changed sketches are never evicted before they are written.
+    private static final Map<Integer, Sketches> cache = new LinkedHashMap<Integer, Sketches>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Sketches> eldest) {
+            return size() > MAX_CACHED_AUCTIONS && !eldest.getValue().dirty;
+        }
+    };
+    private static final Set<Integer> dirty = new LinkedHashSet<>();
+    private static HyperLogLog platformBidders; // null until start()
+    private static boolean platformLoaded;
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * Starts the background writer and, once, backfills missing sketches and loads the platform figure.
+     * Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        platformBidders = new HyperLogLog();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sketch-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(() -> {
+            try {
+                backfill();
+            } catch (SQLException e) {
+                System.err.println("Error loading bidder sketches: " + e.getMessage());
+            }
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                loadPlatform();
+            } catch (SQLException e) {
+                System.err.println("Error loading bidder sketches: " + e.getMessage());
+            }
+        }, 0, PLATFORM_REFRESH_SECONDS, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (SQLException e) {
+                System.err.println("Error saving bidder sketches: " + e.getMessage());
+            }
+        }, FLUSH_SECONDS, FLUSH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Records a buyer's committed bid. Called by BidService.
+     *
+     * @param auctionID the ID of the auction
+     * @param buyerID the ID of the buyer
+     */
+    public static synchronized void onBidPlaced(int auctionID, int buyerID) {
+        if (entry(auctionID).bidders.add(buyerID)) {
+            dirty.add(auctionID);
+            cache.get(auctionID).dirty = true;
+        }
+        if (platformBidders != null) {
+            platformBidders.add(buyerID);
+        }
+    }
+
+    /**
+     * Records that a user opened an auction. Called by MonitorAuctionGUI.
+     *
+     * @param auctionID the ID of the auction
+     * @param userID the ID of the user
+     */
+    public static synchronized void onAuctionViewed(int auctionID, int userID) {
+        if (entry(auctionID).watchers.add(userID)) {
+            dirty.add(auctionID);
+            cache.get(auctionID).dirty = true;
+        }
+    }
+
+    /**
+     * Forgets a deleted auction. Called by AuctionDAO.
+     *
+     * @param auctionID the ID of the deleted auction
+     */
+    public static synchronized void onAuctionRemoved(int auctionID) {
+        cache.remove(auctionID);
+        dirty.remove(auctionID);
+    }
+
+    /**
+     * Makes sure the sketches of the given auctions are in memory and recent, loading the missing
+     * and stale ones with one query. Listing screens call this once per refresh before reading each row.
+     *
+     * @param auctionIDs the IDs of the auctions about to be displayed
+     */
+    public static void load(Collection<Integer> auctionIDs) {
+        List<Integer> missing = new ArrayList<>();
+        synchronized (SketchService.class) {
+            for (int auctionID : auctionIDs) {
+                if (!isFresh(cache.get(auctionID))) {
+                    missing.add(auctionID);
+                }
+            }
+        }
+        for (Map.Entry<Integer, List<Integer>> shard : ShardRouter.groupByShard(missing).entrySet()) {
+            load(shard.getKey(), shard.getValue());
+        }
+    }
+
+    // Reads on a connection of its own: this runs on the Swing thread, workers and the flush thread alike.
+    private static void load(int shard, List<Integer> missing) {
+        try (Connection con = DBConnector.openShardConnection(shard)) {
+            for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+                List<Integer> chunk = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+                Map<Integer, AuctionSketch> stored = SketchDAO.getSketches(con, chunk, false);
+                List<Integer> withoutRow = new ArrayList<>(chunk);
+                withoutRow.removeAll(stored.keySet());
+                Map<Integer, List<Integer>> bidders = SketchDAO.getBidderIDs(con, withoutRow);
+                long loadedAt = System.nanoTime();
+                synchronized (SketchService.class) {
+                    for (int auctionID : chunk) {
+                        Sketches sketches = entry(auctionID);
+                        AuctionSketch row = stored.get(auctionID);
+                        if (row != null) {
+                            sketches.bidders.merge(HyperLogLog.fromBytes(row.getBidderSketch()));
+                            sketches.watchers.merge(HyperLogLog.fromBytes(row.getWatcherSketch()));
+                        } else if (bidders.containsKey(auctionID)) {
+                            // First use of an older auction: build its sketch once and store it.
+                            for (int buyerID : bidders.get(auctionID)) {
+                                sketches.bidders.add(buyerID);
+                            }
+                            sketches.dirty = true;
+                            dirty.add(auctionID);
+                        }
+                        sketches.loaded = true;
+                        sketches.loadedAt = loadedAt;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading bidder sketches: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param auctionID the ID of the auction
+     * @return the estimated number of distinct buyers who bid on the auction
+     */
+    public static long getUniqueBidders(int auctionID) {
+        Sketches sketches = get(auctionID);
+        synchronized (SketchService.class) {
+            return sketches.bidders.estimate();
+        }
+    }
+
+    /**
+     * @param auctionID the ID of the auction
+     * @return the estimated number of distinct users who opened the auction
+     */
+    public static long getWatchers(int auctionID) {
+        Sketches sketches = get(auctionID);
+        synchronized (SketchService.class) {
+            return sketches.watchers.estimate();
+        }
+    }
+
+    /**
+     * Estimates the distinct buyers across all auctions of a seller by merging their stored sketches.
+     * Writes the changed sketches first and reads every shard, so call it off the event dispatch thread.
+     *
+     * @param sellerID the ID of the seller
+     * @return the estimated number of distinct buyers who bid on any of the seller's auctions
+     * @throws SQLException if the sketches cannot be read
+     */
+    public static long getSellerUniqueBidders(int sellerID) throws SQLException {
+        flush();
+        HyperLogLog merged = new HyperLogLog();
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            try (Connection con = DBConnector.openShardConnection(shard)) {
+                SketchDAO.forEachBidderSketch(con, sellerID, bytes -> merged.merge(HyperLogLog.fromBytes(bytes)));
+            }
+        }
+        return merged.estimate();
+    }
+
+    /**
+     * @return the estimated number of distinct buyers who ever bid, or -1 while it is still being loaded
+     */
+    public static synchronized long getPlatformUniqueBidders() {
+        return platformLoaded ? platformBidders.estimate() : -1;
+    }
+
+    /**
+     * Writes every changed sketch, merged with the stored row, in batches on a dedicated connection.
+     *
+     * @throws SQLException if a batch cannot be written; its sketches stay marked as changed
+     */
+    public static void flush() throws SQLException {
+        while (true) {
+            Map<Integer, AuctionSketch> pending = new HashMap<>();
+            synchronized (SketchService.class) {
+                for (int auctionID : dirty) {
+                    Sketches sketches = cache.get(auctionID);
+                    sketches.dirty = false;
+                    pending.put(auctionID, new AuctionSketch(auctionID, sketches.bidders.toBytes(), sketches.watchers.toBytes()));
+                    if (pending.size() == BATCH_SIZE) {
+                        break;
+                    }
+                }
+                dirty.removeAll(pending.keySet());
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                write(pending);
+            } catch (SQLException e) {
+                synchronized (SketchService.class) {
+                    for (int auctionID : pending.keySet()) {
+                        Sketches sketches = cache.get(auctionID);
+                        if (sketches != null) {
+                            sketches.dirty = true;
+                            dirty.add(auctionID);
+                        }
+                    }
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static void write(Map<Integer, AuctionSketch> pending) throws SQLException {
+        for (Map.Entry<Integer, List<Integer>> shard : ShardRouter.groupByShard(pending.keySet()).entrySet()) {
+            Map<Integer, AuctionSketch> onShard = new HashMap<>();
+            for (int auctionID : shard.getValue()) {
+                onShard.put(auctionID, pending.get(auctionID));
+            }
+            write(shard.getKey(), onShard);
+        }
+    }
+
+    private static void write(int shard, Map<Integer, AuctionSketch> pending) throws SQLException {
+        try (Connection con = DBConnector.openShardConnection(shard)) {
+            con.setAutoCommit(false);
+            try {
+                Map<Integer, AuctionSketch> stored = SketchDAO.getSketches(con, pending.keySet(), true);
+                List<AuctionSketch> merged = new ArrayList<>();
+                for (AuctionSketch sketch : pending.values()) {
+                    AuctionSketch row = stored.get(sketch.getAuctionID());
+                    if (row != null) {
+                        sketch.setBidderSketch(union(sketch.getBidderSketch(), row.getBidderSketch()));
+                        sketch.setWatcherSketch(union(sketch.getWatcherSketch(), row.getWatcherSketch()));
+                    }
+                    merged.add(sketch);
+                }
+                SketchDAO.saveSketches(con, merged);
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // Builds sketches for auctions that have bids but were never sketched (e.g. bids placed before the table existed).
+    private static void backfill() throws SQLException {
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            backfill(shard);
+        }
+    }
+
+    private static void backfill(int shard) throws SQLException {
+        List<Integer> auctionIDs;
+        try (Connection con = DBConnector.openShardConnection(shard)) {
+            auctionIDs = SketchDAO.getAuctionIDsWithoutSketch(con);
+        }
+        for (int from = 0; from < auctionIDs.size(); from += BATCH_SIZE) {
+            List<Integer> chunk = auctionIDs.subList(from, Math.min(from + BATCH_SIZE, auctionIDs.size()));
+            Map<Integer, AuctionSketch> built = new HashMap<>();
+            try (Connection con = DBConnector.openShardConnection(shard)) {
+                for (Map.Entry<Integer, List<Integer>> e : SketchDAO.getBidderIDs(con, chunk).entrySet()) {
+                    HyperLogLog bidders = new HyperLogLog();
+                    for (int buyerID : e.getValue()) {
+                        bidders.add(buyerID);
+                    }
+                    built.put(e.getKey(), new AuctionSketch(e.getKey(), bidders.toBytes(), new HyperLogLog().toBytes()));
+                }
+            }
+            write(shard, built);
+        }
+    }
+
+    private static void loadPlatform() throws SQLException {
+        HyperLogLog stored = new HyperLogLog();
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            try (Connection con = DBConnector.openShardConnection(shard)) {
+                SketchDAO.forEachBidderSketch(con, null, bytes -> stored.merge(HyperLogLog.fromBytes(bytes)));
+            }
+        }
+        synchronized (SketchService.class) {
+            // Bids placed while loading were already added; merging is idempotent.
+            platformBidders.merge(stored);
+            platformLoaded = true;
+        }
+    }
+
+    private static byte[] union(byte[] a, byte[] b) {
+        HyperLogLog sketch = HyperLogLog.fromBytes(a);
+        sketch.merge(HyperLogLog.fromBytes(b));
+        return sketch.toBytes();
+    }
+
+    private static Sketches get(int auctionID) {
+        synchronized (SketchService.class) {
+            Sketches sketches = cache.get(auctionID);
+            if (isFresh(sketches)) {
+                return sketches;
+            }
+        }
+        load(Collections.singletonList(auctionID));
+        synchronized (SketchService.class) {
+            return entry(auctionID);
+        }
+    }
+
+    // Guarded by the class lock
+    private static boolean isFresh(Sketches sketches) {
+        return sketches != null && sketches.loaded
+                && System.nanoTime() - sketches.loadedAt < TimeUnit.SECONDS.toNanos(REFRESH_SECONDS);
+    }
+
+    private static Sketches entry(int auctionID) {
+        return cache.computeIfAbsent(auctionID, k -> new Sketches());
+    }
+
+    /**
+     * The sketches of one auction. A sketch created by a write before the stored row was read
+     * is not yet loaded; loading merges the stored row into it.
+     */
+    private static class Sketches {
+        private final HyperLogLog bidders = new HyperLogLog();
+        private final HyperLogLog watchers = new HyperLogLog();
+        private boolean loaded;
+        private long loadedAt; // System.nanoTime() of the last merge with the stored row
+        private boolean dirty;
+    }
+}
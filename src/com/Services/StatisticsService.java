@@ -0,0 +1,427 @@
+package com.Services;
+
+import com.DAO.StatisticsDAO;
+import com.Database.DBConnector;
+import com.Database.ShardRouter;
+import com.Entities.Auction;
+import com.Entities.Payment;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StatisticsService maintains the admin analytics incrementally instead of scanning tables on demand.
+ *
+ * <p>The DAOs and BidService report every write that changes a figure (an auction opening or
+ * closing, committed bids, a payment created or completed), and the counters are adjusted in place,
+ * so {@link #getSnapshot()} only copies a handful of fields. A scheduled reconciliation recomputes
+ * every figure with aggregate queries on its own connection, which corrects any drift, e.g. from
+ * writes made by another instance of the application.</p>
+ *
+ * <p>The queries of a shard run in one read-only REPEATABLE READ transaction, so they all see the
+ * same snapshot: an auction that finishes meanwhile is either live or sold, never both. (An auction
+ * and its payment live on the same shard, so per-shard snapshots are enough.)
+ * The queries run without the lock the write events take, so events keep arriving while they run.
+ * The bid count is corrected by the difference between the database and the counter when the queries
+ * started, keeping the bids counted since. The auctions and payments are replaced, and the events
+ * received since the queries started are applied again on top; they only move an auction or payment
+ * to its latest state, so an event the queries already saw changes nothing.</p>
+ *
+ * <p>Until the first reconciliation has finished the auction and payment events are only kept for
+ * it, since there is no baseline to adjust yet. The bids per minute cover every instance: they are
+ * the growth of the bid table between the last two reconciliations. Until there are two, this
+ * instance's own bids in the last minute are shown.</p>
+ */
+public class StatisticsService {
+
+    // Minutes between reconciliations, overridable with -Dauction.stats.reconcileMinutes=...
+    private static final long RECONCILE_MINUTES = Long.getLong("auction.stats.reconcileMinutes", 10);
+    private static final int TOP_SELLERS = 5;
+
+    // All fields below are guarded by the class lock.
+    private static final Set<Integer> liveAuctions = new HashSet<>();
+    private static final Map<Integer, SellerSales> salesBySeller = new HashMap<>();
+    private static final Map<Integer, Double> pendingPayments = new HashMap<>();
+    private static long totalBids;
+    private static long soldAuctions;
+    private static double grossMerchandiseValue;
+    private static double pendingPaymentTotal;
+    private static List<SellerSales> topSellers = new ArrayList<>();
+    private static boolean topSellersStale;
+    private static LocalDateTime lastReconciled;
+    // Bids per minute of this instance: the count of the current and of the previous clock minute.
+    private static long currentMinute;
+    private static long currentMinuteBids;
+    private static long previousMinuteBids;
+    // Bids per minute of all instances, from the bid counts of the last two reconciliations; NaN until then.
+    private static double databaseBidsPerMinute = Double.NaN;
+    private static long lastCountedBids = -1;
+    private static long lastCountedNanos;
+    // Auction and payment events received while a reconciliation runs, applied again after it; null otherwise.
+    private static List<Runnable> journal;
+
+    // Held by a running reconciliation, so the scheduled one and the admin button do not overlap
+    private static final Object reconcileLock = new Object();
+
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * Starts the periodic reconciliation; the first one runs immediately in the background.
+     * Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "statistics-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (SQLException e) {
+                System.err.println("Error reconciling statistics: " + e.getMessage());
+            }
+        }, 0, RECONCILE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Recomputes every figure from the database and corrects the incremental counters.
+     * With shards configured the figures of all shards are added up.
+     *
+     * @throws SQLException if the aggregate queries fail; the counters are left unchanged
+     */
+    public static void reconcile() throws SQLException {
+        synchronized (reconcileLock) {
+            long bidsBefore;
+            synchronized (StatisticsService.class) {
+                journal = new ArrayList<>();
+                bidsBefore = totalBids;
+            }
+            try {
+                reconcile(bidsBefore);
+            } finally {
+                synchronized (StatisticsService.class) {
+                    journal = null;
+                }
+            }
+        }
+    }
+
+    private static void reconcile(long bidsBefore) throws SQLException {
+        List<Integer> live = new ArrayList<>();
+        Map<Integer, double[]> sales = new HashMap<>();
+        Map<Integer, Double> pending = new HashMap<>();
+        long bids = 0;
+        long countedNanos = System.nanoTime();
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            try (Connection con = DBConnector.openShardConnection(shard)) {
+                // One snapshot for all the reads of the shard: InnoDB takes it at the first read.
+                con.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                con.setReadOnly(true);
+                con.setAutoCommit(false);
+                try {
+                    live.addAll(StatisticsDAO.getLiveAuctionIDs(con));
+                    for (Map.Entry<Integer, double[]> e : StatisticsDAO.getSalesBySeller(con).entrySet()) {
+                        double[] seller = sales.computeIfAbsent(e.getKey(), k -> new double[2]);
+                        seller[0] += e.getValue()[0];
+                        seller[1] += e.getValue()[1];
+                    }
+                    pending.putAll(StatisticsDAO.getPendingPayments(con));
+                    bids += StatisticsDAO.countBids(con);
+                    con.commit();
+                } catch (SQLException e) {
+                    con.rollback();
+                    throw e;
+                }
+            }
+        }
+
+        synchronized (StatisticsService.class) {
+            liveAuctions.clear();
+            liveAuctions.addAll(live);
+
+            salesBySeller.clear();
+            soldAuctions = 0;
+            grossMerchandiseValue = 0;
+            for (Map.Entry<Integer, double[]> e : sales.entrySet()) {
+                SellerSales seller = new SellerSales(e.getKey(), (long) e.getValue()[0], e.getValue()[1]);
+                salesBySeller.put(e.getKey(), seller);
+                soldAuctions += seller.sales;
+                grossMerchandiseValue += seller.total;
+            }
+            topSellersStale = true;
+
+            pendingPayments.clear();
+            pendingPayments.putAll(pending);
+            pendingPaymentTotal = 0;
+            for (double amount : pending.values()) {
+                pendingPaymentTotal += amount;
+            }
+
+            // Bids counted since the queries started are on top of the counter; a few may have been counted
+            // by the queries too, which the next reconciliation corrects.
+            totalBids += bids - bidsBefore;
+            if (lastCountedBids >= 0 && countedNanos > lastCountedNanos) {
+                double minutes = (countedNanos - lastCountedNanos) / 60e9;
+                databaseBidsPerMinute = Math.max(0, bids - lastCountedBids) / minutes;
+            }
+            lastCountedBids = bids;
+            lastCountedNanos = countedNanos;
+
+            lastReconciled = LocalDateTime.now();
+            for (Runnable change : journal) {
+                change.run();
+            }
+        }
+    }
+
+    /**
+     * Applies an auction or payment event once there is a baseline, and keeps it for a running reconciliation.
+     */
+    private static void record(Runnable change) {
+        if (journal != null) {
+            journal.add(change);
+        }
+        if (lastReconciled != null) {
+            change.run();
+        }
+    }
+
+    /**
+     * Records a new or changed auction. Called by AuctionDAO after a successful write.
+     * An auction that leaves STARTED with a winning buyer counts as a sale for its seller.
+     *
+     * @param auction the saved auction
+     */
+    public static synchronized void onAuctionSaved(Auction auction) {
+        if (auction.getAuctionID() > 0) {
+            record(() -> applyAuction(auction));
+        }
+    }
+
+    private static void applyAuction(Auction auction) {
+        String status = auction.getAuctionStatus();
+        if ("STARTED".equalsIgnoreCase(status)) {
+            liveAuctions.add(auction.getAuctionID());
+        } else if (liveAuctions.remove(auction.getAuctionID())
+                && ("FINISHED".equalsIgnoreCase(status) || "CLOSED".equalsIgnoreCase(status))
+                && auction.getBuyerID() != 0) {
+            double price = auction.getAuctionCurrentHighestBid();
+            SellerSales seller = salesBySeller.get(auction.getSellerID());
+            if (seller == null) {
+                seller = new SellerSales(auction.getSellerID(), 0, 0);
+                salesBySeller.put(auction.getSellerID(), seller);
+            }
+            seller.sales++;
+            seller.total += price;
+            soldAuctions++;
+            grossMerchandiseValue += price;
+            topSellersStale = true;
+        }
+    }
+
+    /**
+     * Records auctions written in one batch, e.g. by the bulk import after its commit.
+     *
+     * @param auctions the saved auctions
+     */
+    public static synchronized void onAuctionsSaved(List<Auction> auctions) {
+        for (Auction auction : auctions) {
+            onAuctionSaved(auction);
+        }
+    }
+
+    /**
+     * Forgets a deleted auction. Called by AuctionDAO.
+     *
+     * @param auctionID the ID of the deleted auction
+     */
+    public static synchronized void onAuctionRemoved(int auctionID) {
+        record(() -> liveAuctions.remove(auctionID));
+    }
+
+    /**
+     * Counts committed bids. Called by BidService.
+     *
+     * @param count the number of bid rows written
+     */
+    public static synchronized void onBidsPlaced(int count) {
+        rollMinute();
+        currentMinuteBids += count;
+        totalBids += count;
+    }
+
+    /**
+     * Records a new or changed payment. Called by PaymentDAO after a successful write.
+     * Payments are tracked per auction while they are PENDING.
+     *
+     * @param payment the saved payment
+     */
+    public static synchronized void onPaymentSaved(Payment payment) {
+        record(() -> applyPayment(payment));
+    }
+
+    private static void applyPayment(Payment payment) {
+        Double previous;
+        if ("PENDING".equalsIgnoreCase(payment.getPaymentStatus())) {
+            previous = pendingPayments.put(payment.getAuctionID(), payment.getPaymentAmount());
+            pendingPaymentTotal += payment.getPaymentAmount();
+        } else {
+            previous = pendingPayments.remove(payment.getAuctionID());
+        }
+        if (previous != null) {
+            pendingPaymentTotal -= previous;
+        }
+    }
+
+    /**
+     * Copies the current figures. Runs in constant time apart from re-ranking the sellers after a sale.
+     *
+     * @return the current statistics
+     */
+    public static synchronized Snapshot getSnapshot() {
+        double bidsPerMinute = databaseBidsPerMinute;
+        if (Double.isNaN(bidsPerMinute)) {
+            rollMinute();
+            double elapsed = (System.currentTimeMillis() % 60_000) / 60_000.0;
+            // Sliding one-minute window, weighting the previous minute by the part still inside it.
+            bidsPerMinute = previousMinuteBids * (1 - elapsed) + currentMinuteBids;
+        }
+
+        if (topSellersStale) {
+            List<SellerSales> ranked = new ArrayList<>();
+            for (SellerSales seller : salesBySeller.values()) {
+                ranked.add(new SellerSales(seller.sellerID, seller.sales, seller.total));
+            }
+            ranked.sort((a, b) -> Double.compare(b.total, a.total));
+            topSellers = new ArrayList<>(ranked.subList(0, Math.min(TOP_SELLERS, ranked.size())));
+            topSellersStale = false;
+        }
+
+        Snapshot snapshot = new Snapshot();
+        snapshot.liveAuctions = liveAuctions.size();
+        snapshot.totalBids = totalBids;
+        snapshot.bidsPerMinute = bidsPerMinute;
+        snapshot.soldAuctions = soldAuctions;
+        snapshot.grossMerchandiseValue = grossMerchandiseValue;
+        snapshot.averageFinalPrice = soldAuctions == 0 ? 0 : grossMerchandiseValue / soldAuctions;
+        snapshot.pendingPayments = pendingPayments.size();
+        snapshot.pendingPaymentTotal = pendingPaymentTotal;
+        snapshot.topSellers = topSellers;
+        snapshot.lastReconciled = lastReconciled;
+        return snapshot;
+    }
+
+    private static void rollMinute() {
+        long minute = System.currentTimeMillis() / 60_000;
+        if (minute != currentMinute) {
+            previousMinuteBids = minute == currentMinute + 1 ? currentMinuteBids : 0;
+            currentMinuteBids = 0;
+            currentMinute = minute;
+        }
+    }
+
+    /**
+     * Sales totals of one seller.
+     */
+    public static class SellerSales {
+        private final int sellerID;
+        private long sales;
+        private double total;
+
+        private SellerSales(int sellerID, long sales, double total) {
+            this.sellerID = sellerID;
+            this.sales = sales;
+            this.total = total;
+        }
+
+        public int getSellerID() {
+            return sellerID;
+        }
+
+        public long getSales() {
+            return sales;
+        }
+
+        public double getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * A consistent copy of the statistics at one moment.
+     */
+    public static class Snapshot {
+        private int liveAuctions;
+        private long totalBids;
+        private double bidsPerMinute;
+        private long soldAuctions;
+        private double grossMerchandiseValue;
+        private double averageFinalPrice;
+        private int pendingPayments;
+        private double pendingPaymentTotal;
+        private List<SellerSales> topSellers;
+        private LocalDateTime lastReconciled;
+
+        public int getLiveAuctions() {
+            return liveAuctions;
+        }
+
+        public long getTotalBids() {
+            return totalBids;
+        }
+
+        public double getBidsPerMinute() {
+            return bidsPerMinute;
+        }
+
+        public long getSoldAuctions() {
+            return soldAuctions;
+        }
+
+        /**
+         * @return the total final price of all sold auctions
+         */
+        public double getGrossMerchandiseValue() {
+            return grossMerchandiseValue;
+        }
+
+        public double getAverageFinalPrice() {
+            return averageFinalPrice;
+        }
+
+        public int getPendingPayments() {
+            return pendingPayments;
+        }
+
+        public double getPendingPaymentTotal() {
+            return pendingPaymentTotal;
+        }
+
+        /**
+         * @return the sellers with the highest sales totals, best first (at most five)
+         */
+        public List<SellerSales> getTopSellers() {
+            return topSellers;
+        }
+
+        /**
+         * @return when the figures were last recomputed from the database, or null before the first time
+         */
+        public LocalDateTime getLastReconciled() {
+            return lastReconciled;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.Utilities;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes UTF-8 text to a byte channel through one fixed, reused buffer.
+ *
+ * <p>Text is encoded straight into a direct ByteBuffer, which is handed to the channel whenever
+ * it fills up, so memory use does not depend on how much is written. Each call to
+ * {@link #write(CharSequence)} must contain whole characters (no split surrogate pairs).</p>
+ */
+public class ChannelWriter implements Closeable, Flushable {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    public ChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Encodes text into the buffer, writing the buffer to the channel each time it is full.
+     *
+     * @param text the text to write
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(CharSequence text) throws IOException {
+        CharBuffer in = CharBuffer.wrap(text);
+        encoder.reset();
+        CoderResult result = encoder.encode(in, buffer, true);
+        while (result.isOverflow()) {
+            drain();
+            result = encoder.encode(in, buffer, true);
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Writes the buffered bytes and closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
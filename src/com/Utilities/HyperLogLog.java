@@ -0,0 +1,158 @@
+package com.Utilities;
+
+import java.nio.ByteBuffer;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values added to it.
+ *
+ * <p>Each value is hashed to 64 bits; the first {@link #PRECISION} bits choose one of
+ * {@link #REGISTERS} registers and the register keeps the longest run of leading zeros seen in
+ * the remaining bits. The estimate has a standard error of about 3% whatever the cardinality,
+ * adding a value that was already seen changes nothing, and two sketches merge into the sketch
+ * of the union by taking the larger register pairwise.</p>
+ *
+ * <p>{@link #toBytes()} stores only the non-zero registers while there are few of them (three
+ * bytes each), so a sketch with a handful of values takes a few dozen bytes and never more than
+ * {@code REGISTERS + 2}.</p>
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 10;
+    public static final int REGISTERS = 1 << PRECISION;
+
+    private static final byte SPARSE = 1;
+    private static final byte DENSE = 2;
+    // Bias correction constant for m = 1024 registers.
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers = new byte[REGISTERS];
+    private int nonZero;
+    private long cachedEstimate = -1;
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value, e.g. a user ID
+     * @return true if the sketch changed (so the estimate may have changed)
+     */
+    public boolean add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Leading zeros of the remaining bits, counting from 1; the sentinel bit caps the run.
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        return raise(index, rank);
+    }
+
+    /**
+     * Merges another sketch into this one, which then estimates the size of the union.
+     *
+     * @param other the sketch to merge
+     * @return true if this sketch changed
+     */
+    public boolean merge(HyperLogLog other) {
+        boolean changed = false;
+        for (int i = 0; i < REGISTERS; i++) {
+            changed |= raise(i, other.registers[i]);
+        }
+        return changed;
+    }
+
+    /**
+     * @return the estimated number of distinct values added; cached until the sketch changes
+     */
+    public long estimate() {
+        if (cachedEstimate < 0) {
+            double sum = 0;
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+            }
+            double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+            int zeros = REGISTERS - nonZero;
+            if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+                estimate = REGISTERS * Math.log((double) REGISTERS / zeros); // linear counting for small sets
+            }
+            cachedEstimate = Math.round(estimate);
+        }
+        return cachedEstimate;
+    }
+
+    /**
+     * @return true if nothing has been added
+     */
+    public boolean isEmpty() {
+        return nonZero == 0;
+    }
+
+    /**
+     * Serializes the sketch, sparsely while that is smaller than one byte per register.
+     *
+     * @return the bytes to store
+     */
+    public byte[] toBytes() {
+        if (nonZero * 3 < REGISTERS) {
+            ByteBuffer buffer = ByteBuffer.allocate(2 + nonZero * 3);
+            buffer.put(SPARSE).put((byte) PRECISION);
+            for (int i = 0; i < REGISTERS; i++) {
+                if (registers[i] != 0) {
+                    buffer.putShort((short) i).put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + REGISTERS);
+        buffer.put(DENSE).put((byte) PRECISION).put(registers);
+        return buffer.array();
+    }
+
+    /**
+     * Reads a sketch written by {@link #toBytes()}.
+     *
+     * @param bytes the stored bytes; null or empty gives an empty sketch
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not a sketch of this precision
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte format = buffer.get();
+        if (buffer.get() != PRECISION) {
+            throw new IllegalArgumentException("Unsupported sketch precision");
+        }
+        if (format == SPARSE) {
+            while (buffer.remaining() >= 3) {
+                int index = buffer.getShort() & 0xFFFF;
+                sketch.raise(index, buffer.get());
+            }
+        } else if (format == DENSE && buffer.remaining() == REGISTERS) {
+            for (int i = 0; i < REGISTERS; i++) {
+                sketch.raise(i, buffer.get());
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown sketch format");
+        }
+        return sketch;
+    }
+
+    private boolean raise(int index, int rank) {
+        if (rank <= registers[index]) {
+            return false;
+        }
+        if (registers[index] == 0) {
+            nonZero++;
+        }
+        registers[index] = (byte) rank;
+        cachedEstimate = -1;
+        return true;
+    }
+
+    // SplitMix64 finalizer: spreads consecutive IDs over all 64 bits.
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,305 @@
+package com.Utilities;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory inverted index over documents with a short title and a longer body, ranked with BM25.
+ *
+ * <p>Text is lower-cased, stripped of accents and split on anything that is not a letter or digit.
+ * Title terms count {@link #TITLE_WEIGHT} times, so a match in an item name outranks one buried in
+ * its description. Terms are kept in a sorted map, which lets the last query word match as a prefix
+ * while it is still being typed. A query word with no exact or prefix match falls back to fuzzy
+ * matching (one typo, two for long words) among terms starting with the same letter.</p>
+ *
+ * <p>Every query word must match. Updates replace a document in place, so the index can be kept in
+ * sync with the database one row at a time. Reads and writes are guarded by a read/write lock.</p>
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 3;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double FUZZY_WEIGHT = 0.6;
+    // Upper bound on the terms a single prefix or fuzzy query word expands to.
+    private static final int MAX_EXPANSIONS = 64;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is",
+            "it", "of", "on", "or", "the", "to", "with");
+
+    // term -> (docID -> weighted term frequency)
+    private final TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    // docID -> the distinct terms of the document, so it can be removed again
+    private final Map<Integer, String[]> documentTerms = new HashMap<>();
+    // docID -> weighted document length
+    private final Map<Integer, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * A matching document and its relevance score.
+     */
+    public static class Hit {
+        private final int docID;
+        private final double score;
+
+        private Hit(int docID, double score) {
+            this.docID = docID;
+            this.score = score;
+        }
+
+        public int getDocID() {
+            return docID;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Adds a document, replacing any earlier version with the same ID.
+     *
+     * @param docID the document ID
+     * @param title the short title, weighted higher
+     * @param body the body text; may be null
+     */
+    public void put(int docID, String title, String body) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : tokenize(title, false)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : tokenize(body, false)) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(docID);
+            for (Map.Entry<String, Integer> e : frequencies.entrySet()) {
+                postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(docID, e.getValue());
+            }
+            documentTerms.put(docID, frequencies.keySet().toArray(new String[0]));
+            documentLengths.put(docID, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document. Does nothing if it is not indexed.
+     *
+     * @param docID the document ID
+     */
+    public void remove(int docID) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docID);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int docID) {
+        String[] terms = documentTerms.remove(docID);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Integer, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(docID);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= documentLengths.remove(docID);
+    }
+
+    /**
+     * Searches the index.
+     *
+     * <p>If the query does not end with whitespace its last word is treated as a prefix.</p>
+     *
+     * @param query the words to search for
+     * @param filter accepts the document IDs that may be returned; null accepts all
+     * @param limit the maximum number of hits
+     * @return the best hits, highest score first
+     */
+    public List<Hit> search(String query, IntPredicate filter, int limit) {
+        List<String> words = tokenize(query, true);
+        if (words.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            if (documentLengths.isEmpty()) {
+                return new ArrayList<>();
+            }
+            double averageLength = (double) totalLength / documentLengths.size();
+
+            Map<Integer, Double> scores = null;
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                boolean prefix = lastIsPrefix && i == words.size() - 1;
+                if (!prefix && STOP_WORDS.contains(word)) {
+                    continue;
+                }
+                Map<Integer, Double> wordScores = scoreWord(word, prefix, averageLength);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    // Every word must match: keep only documents found for all words so far.
+                    scores.keySet().retainAll(wordScores.keySet());
+                    for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                        e.setValue(e.getValue() + wordScores.get(e.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+            if (scores == null) {
+                return new ArrayList<>();
+            }
+
+            List<Hit> hits = new ArrayList<>();
+            for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                if (filter == null || filter.test(e.getKey())) {
+                    hits.add(new Hit(e.getKey(), e.getValue()));
+                }
+            }
+            hits.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score) : Integer.compare(a.docID, b.docID));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores every document matching one query word, taking the best of its expansions per document.
+     */
+    private Map<Integer, Double> scoreWord(String word, boolean prefix, double averageLength) {
+        Map<String, Double> expansions = new LinkedHashMap<>();
+        if (postings.containsKey(word)) {
+            expansions.put(word, 1.0);
+        }
+        if (prefix) {
+            for (String term : postings.subMap(word, false, word + Character.MAX_VALUE, false).keySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) break;
+                expansions.put(term, PREFIX_WEIGHT);
+            }
+        }
+        if (expansions.isEmpty() && word.length() >= 4) {
+            int maxEdits = word.length() >= 8 ? 2 : 1;
+            String first = word.substring(0, 1);
+            NavigableMap<String, Map<Integer, Integer>> candidates =
+                    postings.subMap(first, true, first + Character.MAX_VALUE, false);
+            for (String term : candidates.keySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) break;
+                if (Math.abs(term.length() - word.length()) <= maxEdits && editDistance(word, term, maxEdits) <= maxEdits) {
+                    expansions.put(term, FUZZY_WEIGHT);
+                }
+            }
+        }
+
+        int documentCount = documentLengths.size();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Double> expansion : expansions.entrySet()) {
+            Map<Integer, Integer> docs = postings.get(expansion.getKey());
+            double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+            for (Map.Entry<Integer, Integer> doc : docs.entrySet()) {
+                double tf = doc.getValue();
+                double norm = K1 * (1 - B + B * documentLengths.get(doc.getKey()) / averageLength);
+                double score = expansion.getValue() * idf * tf * (K1 + 1) / (tf + norm);
+                scores.merge(doc.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Damerau-Levenshtein (optimal string alignment) distance, giving up once it exceeds max.
+     *
+     * @return the distance, or max + 1 if it is larger than max
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Splits text into normalized terms.
+     *
+     * @param text the text to split; may be null
+     * @param keepStopWords true to keep common words such as "the" (used for queries)
+     * @return the terms in order of appearance
+     */
+    public static List<String> tokenize(String text, boolean keepStopWords) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // accent split off by NFD
+            }
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (term.length() > 0) {
+                String t = term.toString();
+                if (keepStopWords || !STOP_WORDS.contains(t)) {
+                    terms.add(t);
+                }
+                term.setLength(0);
+            }
+        }
+        return terms;
+    }
+}
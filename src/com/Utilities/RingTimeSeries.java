@@ -0,0 +1,177 @@
+package com.Utilities;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size time series of event counts and closing prices, kept at several resolutions.
+ *
+ * <p>Each {@link Resolution} is a ring buffer of primitive arrays: slot {@code t / bucketMillis
+ * % capacity} holds the bucket starting at that time, and a slot is reused once its bucket falls
+ * out of the window. Every event is added to all resolutions at once, so recent activity is
+ * available per second while older activity survives only as per-minute and per-hour totals.
+ * Memory is fixed at construction and no objects are allocated per event.</p>
+ */
+public class RingTimeSeries {
+
+    /**
+     * Bucket width and number of buckets kept for each level of detail.
+     */
+    public enum Resolution {
+        SECOND(1_000L, 120),       // last 2 minutes
+        MINUTE(60_000L, 120),      // last 2 hours
+        HOUR(3_600_000L, 72);      // last 3 days
+
+        private final long bucketMillis;
+        private final int capacity;
+
+        Resolution(long bucketMillis, int capacity) {
+            this.bucketMillis = bucketMillis;
+            this.capacity = capacity;
+        }
+
+        public long getBucketMillis() {
+            return bucketMillis;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+
+    private static final Resolution[] LEVELS = Resolution.values();
+
+    // Per level: the bucket number stored in each slot, its event count and its last price.
+    private final long[][] bucketIDs = new long[LEVELS.length][];
+    private final int[][] counts = new int[LEVELS.length][];
+    private final double[][] closes = new double[LEVELS.length][];
+
+    public RingTimeSeries() {
+        for (Resolution level : LEVELS) {
+            int i = level.ordinal();
+            bucketIDs[i] = new long[level.capacity];
+            Arrays.fill(bucketIDs[i], -1);
+            counts[i] = new int[level.capacity];
+            closes[i] = new double[level.capacity];
+        }
+    }
+
+    /**
+     * Adds events at a point in time.
+     *
+     * @param timeMillis the time of the events (epoch milliseconds)
+     * @param count the number of events
+     * @param price the price after the events, or NaN to leave the closing price unchanged
+     */
+    public synchronized void record(long timeMillis, int count, double price) {
+        for (Resolution level : LEVELS) {
+            int i = level.ordinal();
+            long bucket = timeMillis / level.bucketMillis;
+            int slot = (int) (bucket % level.capacity);
+            if (bucketIDs[i][slot] != bucket) {
+                if (bucketIDs[i][slot] > bucket) {
+                    continue; // older than this level's window
+                }
+                bucketIDs[i][slot] = bucket;
+                counts[i][slot] = 0;
+                closes[i][slot] = Double.NaN;
+            }
+            counts[i][slot] += count;
+            if (!Double.isNaN(price)) {
+                closes[i][slot] = price;
+            }
+        }
+    }
+
+    /**
+     * Reads the most recent buckets of one resolution.
+     *
+     * @param resolution the level of detail
+     * @param buckets the number of buckets, at most the resolution's capacity
+     * @param nowMillis the current time; the last bucket returned is the one containing it
+     * @return the buckets, oldest first; buckets without events have count 0 and price NaN
+     */
+    public synchronized Buckets read(Resolution resolution, int buckets, long nowMillis) {
+        int n = Math.min(buckets, resolution.capacity);
+        int i = resolution.ordinal();
+        long last = nowMillis / resolution.bucketMillis;
+        Buckets result = new Buckets((last - n + 1) * resolution.bucketMillis, resolution.bucketMillis, n);
+        for (int k = 0; k < n; k++) {
+            long bucket = last - n + 1 + k;
+            int slot = (int) (bucket % resolution.capacity);
+            if (bucket >= 0 && bucketIDs[i][slot] == bucket) {
+                result.counts[k] = counts[i][slot];
+                result.closes[k] = closes[i][slot];
+            } else {
+                result.closes[k] = Double.NaN;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param nowMillis the current time
+     * @return true if no events fall inside the longest window any more
+     */
+    public synchronized boolean isIdle(long nowMillis) {
+        Resolution longest = LEVELS[LEVELS.length - 1];
+        long oldest = nowMillis / longest.bucketMillis - longest.capacity + 1;
+        for (long bucket : bucketIDs[longest.ordinal()]) {
+            if (bucket >= oldest) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A run of consecutive buckets copied out of the series.
+     */
+    public static class Buckets {
+        private final long startMillis;
+        private final long bucketMillis;
+        private final int[] counts;
+        private final double[] closes;
+
+        private Buckets(long startMillis, long bucketMillis, int size) {
+            this.startMillis = startMillis;
+            this.bucketMillis = bucketMillis;
+            this.counts = new int[size];
+            this.closes = new double[size];
+        }
+
+        /**
+         * @return the start of the first bucket (epoch milliseconds)
+         */
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        public long getBucketMillis() {
+            return bucketMillis;
+        }
+
+        /**
+         * @return the number of events per bucket, oldest first
+         */
+        public int[] getCounts() {
+            return counts;
+        }
+
+        /**
+         * @return the last price in each bucket, oldest first; NaN where there were no events
+         */
+        public double[] getCloses() {
+            return closes;
+        }
+
+        public int size() {
+            return counts.length;
+        }
+
+        public long getTotal() {
+            long total = 0;
+            for (int count : counts) total += count;
+            return total;
+        }
+    }
+}
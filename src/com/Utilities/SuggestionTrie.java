@@ -0,0 +1,360 @@
+package com.Utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact prefix tree (radix tree) that returns the highest-scoring completions of a typed prefix.
+ *
+ * <p>Each suggestion is reachable from the start of its text and from the start of every later
+ * word, so "leica" completes "Vintage Leica camera". Edges hold whole strings instead of single
+ * characters and children are kept in sorted arrays, so a node costs a few small arrays rather
+ * than a map per character. Every node also records the best score below it, which lets
+ * {@link #suggest} visit the subtrees in score order and stop after {@code limit} results
+ * instead of collecting every completion.</p>
+ */
+public class SuggestionTrie {
+
+    private final Node root = new Node("");
+    // suggestion ID -> suggestion, to find its keys again on update or removal
+    private final Map<Integer, Suggestion> suggestions = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * A completion: the original text, the ID it belongs to and its ranking score.
+     */
+    public static class Suggestion {
+        private final int id;
+        private final String text;
+        private final String[] keys;
+        private long score;
+
+        private Suggestion(int id, String text, String[] keys, long score) {
+            this.id = id;
+            this.text = text;
+            this.keys = keys;
+            this.score = score;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public long getScore() {
+            return score;
+        }
+    }
+
+    private static class Node {
+        private String label;
+        private char[] firstChars = new char[0];
+        private Node[] children = new Node[0];
+        private Suggestion[] entries = new Suggestion[0];
+        private long maxScore = Long.MIN_VALUE;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private int childIndex(char c) {
+            return Arrays.binarySearch(firstChars, c);
+        }
+
+        private void addChild(Node child) {
+            int insertAt = -childIndex(child.label.charAt(0)) - 1;
+            char[] chars = new char[firstChars.length + 1];
+            Node[] nodes = new Node[children.length + 1];
+            System.arraycopy(firstChars, 0, chars, 0, insertAt);
+            System.arraycopy(children, 0, nodes, 0, insertAt);
+            chars[insertAt] = child.label.charAt(0);
+            nodes[insertAt] = child;
+            System.arraycopy(firstChars, insertAt, chars, insertAt + 1, firstChars.length - insertAt);
+            System.arraycopy(children, insertAt, nodes, insertAt + 1, children.length - insertAt);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        private void removeChild(int index) {
+            char[] chars = new char[firstChars.length - 1];
+            Node[] nodes = new Node[children.length - 1];
+            System.arraycopy(firstChars, 0, chars, 0, index);
+            System.arraycopy(children, 0, nodes, 0, index);
+            System.arraycopy(firstChars, index + 1, chars, index, chars.length - index);
+            System.arraycopy(children, index + 1, nodes, index, nodes.length - index);
+            firstChars = chars;
+            children = nodes;
+        }
+
+        private void recomputeMaxScore() {
+            long max = Long.MIN_VALUE;
+            for (Suggestion s : entries) max = Math.max(max, s.score);
+            for (Node child : children) max = Math.max(max, child.maxScore);
+            maxScore = max;
+        }
+    }
+
+    /**
+     * Adds a suggestion, replacing any earlier one with the same ID.
+     *
+     * @param id the ID the suggestion belongs to, e.g. an itemID
+     * @param text the text to complete to
+     * @param score the ranking score; higher scores are suggested first
+     */
+    public void put(int id, String text, long score) {
+        String normalized = normalize(text, false);
+        if (normalized.isEmpty()) {
+            remove(id);
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        Suggestion suggestion = new Suggestion(id, text, keys.toArray(new String[0]), score);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            suggestions.put(id, suggestion);
+            for (String key : suggestion.keys) {
+                insert(root, key, suggestion);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes the score of a suggestion. Does nothing if the ID is not present.
+     *
+     * @param id the ID of the suggestion
+     * @param score the new score
+     */
+    public void setScore(int id, long score) {
+        lock.writeLock().lock();
+        try {
+            Suggestion suggestion = suggestions.get(id);
+            if (suggestion != null && suggestion.score != score) {
+                suggestion.score = score;
+                for (String key : suggestion.keys) {
+                    refreshPath(root, key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a suggestion. Does nothing if the ID is not present.
+     *
+     * @param id the ID of the suggestion
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id the ID of a suggestion
+     * @return true if the ID is present
+     */
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return suggestions.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best completions of a prefix.
+     *
+     * @param prefix the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return distinct suggestions, highest score first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        List<Suggestion> results = new ArrayList<>();
+        String key = normalize(prefix, true);
+        if (key.isEmpty() || limit <= 0) {
+            return results;
+        }
+
+        lock.readLock().lock();
+        try {
+            // Walk down to the node covering the whole prefix.
+            Node node = root;
+            int matched = 0;
+            while (matched < key.length()) {
+                int index = node.childIndex(key.charAt(matched));
+                if (index < 0) {
+                    return results;
+                }
+                Node child = node.children[index];
+                int common = commonPrefixLength(child.label, key, matched);
+                if (matched + common < key.length() && common < child.label.length()) {
+                    return results; // the prefix leaves the tree in the middle of an edge
+                }
+                matched += common;
+                node = child;
+            }
+
+            // Best-first over subtrees (by their best score) and entries (by their own score).
+            PriorityQueue<Object[]> queue = new PriorityQueue<>((a, b) -> Long.compare((long) b[0], (long) a[0]));
+            queue.add(new Object[]{node.maxScore, node});
+            Set<Integer> seen = new HashSet<>();
+            while (!queue.isEmpty() && results.size() < limit) {
+                Object item = queue.poll()[1];
+                if (item instanceof Suggestion) {
+                    Suggestion s = (Suggestion) item;
+                    if (seen.add(s.id)) {
+                        results.add(s);
+                    }
+                } else {
+                    Node n = (Node) item;
+                    for (Suggestion s : n.entries) queue.add(new Object[]{s.score, s});
+                    for (Node child : n.children) queue.add(new Object[]{child.maxScore, child});
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of suggestions in the trie
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return suggestions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        Suggestion suggestion = suggestions.remove(id);
+        if (suggestion != null) {
+            for (String key : suggestion.keys) {
+                delete(root, key, suggestion);
+            }
+        }
+    }
+
+    /**
+     * Inserts the rest of the key below a node, splitting an edge where the key diverges.
+     */
+    private static void insert(Node node, String key, Suggestion suggestion) {
+        if (key.isEmpty()) {
+            Suggestion[] entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+            entries[entries.length - 1] = suggestion;
+            node.entries = entries;
+            node.maxScore = Math.max(node.maxScore, suggestion.score);
+            return;
+        }
+        int index = node.childIndex(key.charAt(0));
+        if (index < 0) {
+            Node leaf = new Node(key);
+            insert(leaf, "", suggestion);
+            node.addChild(leaf);
+        } else {
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, key, 0);
+            if (common < child.label.length()) {
+                // Split the edge: node -> middle(common part) -> child(rest).
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                middle.maxScore = child.maxScore;
+                node.children[index] = middle;
+                child = middle;
+            }
+            insert(child, key.substring(common), suggestion);
+        }
+        node.maxScore = Math.max(node.maxScore, suggestion.score);
+    }
+
+    /**
+     * Removes a suggestion stored under the key, pruning empty nodes and merging single-child chains.
+     */
+    private static void delete(Node node, String key, Suggestion suggestion) {
+        if (key.isEmpty()) {
+            List<Suggestion> kept = new ArrayList<>(Arrays.asList(node.entries));
+            kept.remove(suggestion);
+            node.entries = kept.toArray(new Suggestion[0]);
+        } else {
+            int index = node.childIndex(key.charAt(0));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            if (!key.startsWith(child.label)) {
+                return;
+            }
+            delete(child, key.substring(child.label.length()), suggestion);
+            if (child.entries.length == 0 && child.children.length == 0) {
+                node.removeChild(index);
+            } else if (child.entries.length == 0 && child.children.length == 1) {
+                Node grandchild = child.children[0];
+                grandchild.label = child.label + grandchild.label;
+                node.children[index] = grandchild;
+            }
+        }
+        node.recomputeMaxScore();
+    }
+
+    /**
+     * Recomputes the best scores along the path of a key after a score change.
+     */
+    private static void refreshPath(Node node, String key) {
+        if (!key.isEmpty()) {
+            int index = node.childIndex(key.charAt(0));
+            if (index >= 0 && key.startsWith(node.children[index].label)) {
+                refreshPath(node.children[index], key.substring(node.children[index].label.length()));
+            }
+        }
+        node.recomputeMaxScore();
+    }
+
+    private static int commonPrefixLength(String label, String key, int keyOffset) {
+        int max = Math.min(label.length(), key.length() - keyOffset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(keyOffset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Lower-cases, strips accents and joins the words with single spaces.
+     *
+     * @param keepTrailingSpace true to keep one trailing space, so "camera " only matches whole words
+     */
+    private static String normalize(String text, boolean keepTrailingSpace) {
+        String normalized = String.join(" ", InvertedIndex.tokenize(text, true));
+        if (keepTrailingSpace && !normalized.isEmpty() && Character.isWhitespace(text.charAt(text.length() - 1))) {
+            normalized += " ";
+        }
+        return normalized;
+    }
+}
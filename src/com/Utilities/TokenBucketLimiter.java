@@ -0,0 +1,95 @@
+package com.Utilities;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket rate limiter with one bucket per key.
+ *
+ * <p>Each bucket is a single AtomicLong holding its "theoretical arrival time" (the generic cell
+ * rate algorithm): the instant at which the bucket would be full again. A request is allowed when
+ * that instant is no more than one burst ahead of now, and is admitted with a compare-and-set,
+ * so callers never block each other. A bucket that has refilled completely is equivalent to a new
+ * one, which lets idle keys be dropped from the map without changing any decision.</p>
+ */
+public class TokenBucketLimiter {
+
+    // Idle buckets are swept once the map grows past this many keys.
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final ConcurrentHashMap<Integer, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a limiter.
+     *
+     * @param tokensPerSecond the sustained rate each key may use
+     * @param burst the number of requests a key may make at once after being idle
+     */
+    public TokenBucketLimiter(double tokensPerSecond, int burst) {
+        if (tokensPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1.");
+        }
+        this.nanosPerToken = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = nanosPerToken * burst;
+    }
+
+    /**
+     * Takes one token from the bucket of the given key.
+     *
+     * @param key the bucket key, e.g. a buyerID or auctionID
+     * @return true if the request is allowed; false if the key is over its limit
+     */
+    public boolean tryAcquire(int key) {
+        if (buckets.size() > SWEEP_THRESHOLD) {
+            sweepIdleBuckets();
+        }
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = bucket.get();
+            long start = arrival == Long.MIN_VALUE || arrival - now < 0 ? now : arrival;
+            long next = start + nanosPerToken;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire(int)}, e.g. when a second limiter rejected the
+     * same request. A bucket never holds more than its burst: giving back to a full bucket does nothing.
+     *
+     * @param key the bucket key the token was taken from
+     */
+    public void refund(int key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        while (true) {
+            long arrival = bucket.get();
+            if (arrival == Long.MIN_VALUE || arrival - System.nanoTime() < 0) {
+                return;
+            }
+            if (bucket.compareAndSet(arrival, arrival - nanosPerToken)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes buckets that have refilled completely.
+     */
+    private void sweepIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(e -> {
+            long arrival = e.getValue().get();
+            return arrival == Long.MIN_VALUE || arrival - now < 0;
+        });
+    }
+}